@@ -0,0 +1,212 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+
+import com.opendatagroup.hadrian.data.PFARecord;
+
+/**
+ * Tests that converting rows block by block yields the same PFA inputs as converting every cell on its own.
+ *
+ * @author agent
+ */
+public class BatchInputConverterTest {
+
+    private static final Schema RECORD = new Schema.Parser().parse("{\"type\": \"record\", \"name\": \"Input\", "
+        + "\"fields\": [{\"name\": \"x\", \"type\": \"double\"}, {\"name\": \"n\", \"type\": [\"int\", \"null\"]}, "
+        + "{\"name\": \"s\", \"type\": \"string\"}, {\"name\": \"b\", \"type\": \"boolean\"}]}");
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("s", StringCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("x", DoubleCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("n", IntCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("b", BooleanCell.TYPE).createSpec());
+
+    /**
+     * Record class as generated by the engine for the {@link #RECORD} schema.
+     */
+    public static final class Input extends PFARecord {
+        private final Object[] m_fields = new Object[4];
+
+        @Override
+        public void put(final int i, final Object v) {
+            m_fields[i] = v;
+        }
+
+        @Override
+        public Object get(final int i) {
+            return m_fields[i];
+        }
+
+        @Override
+        public Object get(final String n) {
+            return m_fields[RECORD.getField(n).pos()];
+        }
+
+        @Override
+        public Schema getSchema() {
+            return RECORD;
+        }
+    }
+
+    private static List<DataRow> createRows(final int count) {
+        List<DataRow> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            DataCell n = i % 3 == 0 ? DataType.getMissingCell() : new IntCell(i * 7);
+            DataCell x = i % 5 == 0 ? new DoubleCell(Double.NaN) : new DoubleCell(i * -0.5);
+            rows.add(new DefaultRow(RowKey.createRowKey((long) i), new StringCell("s" + i), x, n,
+                BooleanCell.get(i % 2 == 0)));
+        }
+        return rows;
+    }
+
+    private static Object[] convertAll(final BatchInputConverter conv, final List<DataRow> rows,
+            final int capacity) {
+        ColumnBatch batch = conv.createBatch(capacity);
+        Object[] inputs = new Object[capacity];
+        List<Object> all = new ArrayList<>();
+        Iterator<DataRow> it = rows.iterator();
+        int n;
+        while ((n = conv.read(it, batch)) > 0) {
+            assertTrue(n <= capacity);
+            conv.assemble(batch, inputs);
+            for (int i = 0; i < n; i++) {
+                all.add(inputs[i]);
+            }
+        }
+        return all.toArray();
+    }
+
+    /**
+     * Records assembled from batches hold the values the cell converters create, including missing values.
+     *
+     * @throws Exception if the converter cannot be created
+     */
+    @Test
+    public void testRecordsMatchCellConverters() throws Exception {
+        KnimeAvroConverterRegistry registry = KnimeAvroConverterRegistry.getInstance();
+        List<DataRow> rows = createRows(23);
+        BatchInputConverter conv = BatchInputConverter.forRecord(SPEC, RECORD, Input.class);
+        for (int capacity : new int[] {1, 4, 23, 100}) {
+            Object[] inputs = convertAll(conv, rows, capacity);
+            assertEquals(rows.size(), inputs.length);
+            for (int i = 0; i < rows.size(); i++) {
+                Input rec = (Input) inputs[i];
+                for (Schema.Field f : RECORD.getFields()) {
+                    int col = SPEC.findColumnIndex(f.name());
+                    Function<DataCell, Object> mapper = registry.createCellToPFAMapper(
+                        SPEC.getColumnSpec(col).getType(), registry.unwrapUnion(f.schema()));
+                    assertEquals("Row " + i + ", field " + f.name() + ", capacity " + capacity,
+                        mapper.apply(rows.get(i).getCell(col)), rec.get(f.pos()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Map inputs contain an entry for every column.
+     *
+     * @throws Exception if the converter cannot be created
+     */
+    @Test
+    public void testMaps() throws Exception {
+        DataTableSpec spec = new DataTableSpec(new DataColumnSpecCreator("a", DoubleCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("b", IntCell.TYPE).createSpec());
+        Schema schema = new Schema.Parser().parse("{\"type\": \"map\", \"values\": \"double\"}");
+        List<DataRow> rows = new ArrayList<>();
+        rows.add(new DefaultRow("r0", new DoubleCell(1.5), new IntCell(2)));
+        rows.add(new DefaultRow("r1", DataType.getMissingCell(), new IntCell(-3)));
+        Object[] inputs = convertAll(BatchInputConverter.forMap(spec, schema), rows, 8);
+        assertEquals(2, inputs.length);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> first = (Map<String, Object>) inputs[0];
+        @SuppressWarnings("unchecked")
+        Map<String, Object> second = (Map<String, Object>) inputs[1];
+        assertEquals(1.5, first.get("a"));
+        assertEquals(2.0, first.get("b"));
+        assertEquals(null, second.get("a"));
+        assertTrue(second.containsKey("a"));
+        assertEquals(-3.0, second.get("b"));
+    }
+
+    /**
+     * Single value inputs are boxed values of the column.
+     *
+     * @throws Exception if the converter cannot be created
+     */
+    @Test
+    public void testSingleColumn() throws Exception {
+        List<DataRow> rows = createRows(5);
+        Object[] inputs = convertAll(BatchInputConverter.forColumn(SPEC, 2, Schema.create(Schema.Type.LONG)),
+            rows, 2);
+        assertArrayEquals(new Object[] {null, 7L, 14L, null, 28L}, inputs);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.vector.doublevector.DoubleVectorCellFactory;
+import org.knime.core.node.InvalidSettingsException;
+
+/**
+ * Tests the converter lookup and the caching of conversion plans.
+ *
+ * @author agent
+ */
+public class KnimeAvroConverterRegistryTest {
+
+    private static final KnimeAvroConverterRegistry REGISTRY = KnimeAvroConverterRegistry.getInstance();
+
+    private static Schema nullable(final Schema schema) {
+        return Schema.createUnion(Arrays.asList(schema, Schema.create(Schema.Type.NULL)));
+    }
+
+    /**
+     * Equal schemas, also when created separately, share their plans.
+     *
+     * @throws InvalidSettingsException if no converter is found
+     */
+    @Test
+    public void testPlansAreCached() throws InvalidSettingsException {
+        Function<Object, DataCell> mapper = REGISTRY.createPFAToCellMapper(nullable(Schema.create(Schema.Type.DOUBLE)));
+        assertEquals(new DoubleCell(2.5), mapper.apply(2.5));
+
+        Schema target = Schema.create(Schema.Type.DOUBLE);
+        assertSame(REGISTRY.createCellToPFAMapper(DoubleCell.TYPE, target),
+            REGISTRY.createCellToPFAMapper(DoubleCell.TYPE, Schema.create(Schema.Type.DOUBLE)));
+        assertEquals(REGISTRY.getDataType(target), REGISTRY.getDataType(nullable(target)));
+    }
+
+    /**
+     * Mappers into cells are created for every call, so columns do not share their dictionaries of cells.
+     *
+     * @throws InvalidSettingsException if no converter is found
+     */
+    @Test
+    public void testCellMappersAreNotShared() throws InvalidSettingsException {
+        Schema strings = Schema.create(Schema.Type.STRING);
+        Function<Object, DataCell> first = REGISTRY.createPFAToCellMapper(strings);
+        Function<Object, DataCell> second = REGISTRY.createPFAToCellMapper(Schema.create(Schema.Type.STRING));
+        assertNotSame(first, second);
+        assertSame(first.apply("spam"), first.apply("spam"));
+        assertNotSame(first.apply("spam"), second.apply("spam"));
+        assertEquals(first.apply("spam"), second.apply("spam"));
+    }
+
+    /**
+     * Of several converters for arrays, the one matching the KNIME type of the column is used.
+     *
+     * @throws InvalidSettingsException if no converter is found
+     */
+    @Test
+    public void testConverterForDataType() throws InvalidSettingsException {
+        Schema doubles = Schema.createArray(Schema.create(Schema.Type.DOUBLE));
+        DataType vectorType = DoubleVectorCellFactory.TYPE;
+        Object pfa = REGISTRY.createCellToPFAMapper(vectorType, doubles)
+            .apply(DoubleVectorCellFactory.createCell(new double[]{1, 2}));
+        assertEquals(Arrays.asList(1.0, 2.0), pfa);
+    }
+
+    /**
+     * Arrays from PFA become list cells, the vector converters only convert into PFA.
+     *
+     * @throws InvalidSettingsException if no converter is found
+     */
+    @Test
+    public void testArraysBecomeLists() throws InvalidSettingsException {
+        Schema doubles = Schema.createArray(Schema.create(Schema.Type.DOUBLE));
+        assertTrue(REGISTRY.getDataType(doubles).isCollectionType());
+        assertTrue(REGISTRY.createPFAToCellMapper(Schema.createArray(Schema.create(Schema.Type.BOOLEAN)))
+            .apply(null).isMissing());
+    }
+
+    /**
+     * Types without a converter are reported as invalid settings.
+     */
+    @Test
+    public void testMissingConverter() {
+        Schema fixed = Schema.createFixed("f", null, null, 4);
+        try {
+            REGISTRY.getDataType(fixed);
+            throw new AssertionError("No error for " + fixed);
+        } catch (InvalidSettingsException e) {
+            assertTrue(e.getMessage().contains("FIXED"));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data.converters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Tests the sharing of output cells for repeated values.
+ *
+ * @author agent
+ */
+public class CellDictionaryTest {
+
+    /**
+     * Equal values get the same cell instance.
+     */
+    @Test
+    public void testSharedCells() {
+        AtomicInteger created = new AtomicInteger();
+        CellDictionary dict = new CellDictionary(o -> {
+            created.incrementAndGet();
+            return new StringCell((String) o);
+        });
+        DataCell a = dict.get("a");
+        assertSame(a, dict.get(new String("a")));
+        assertEquals(new StringCell("b"), dict.get("b"));
+        assertEquals(2, created.get());
+    }
+
+    /**
+     * Values beyond the capacity get fresh, equal cells and do not displace the stored ones.
+     */
+    @Test
+    public void testCapacity() {
+        CellDictionary dict = new CellDictionary(o -> new IntCell((Integer) o), 2);
+        DataCell zero = dict.get(0);
+        DataCell one = dict.get(1);
+        DataCell two = dict.get(2);
+        assertEquals(new IntCell(2), two);
+        assertNotSame(two, dict.get(2));
+        assertSame(zero, dict.get(0));
+        assertSame(one, dict.get(1));
+    }
+
+    /**
+     * Threads asking for the same value concurrently all get the stored instance once it is stored.
+     *
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        CellDictionary dict = new CellDictionary(o -> new StringCell((String) o));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DataCell[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    DataCell[] cells = new DataCell[100];
+                    for (int i = 0; i < cells.length; i++) {
+                        cells[i] = dict.get("v" + (i % 10));
+                    }
+                    return cells;
+                }));
+            }
+            for (Future<DataCell[]> f : results) {
+                DataCell[] cells = f.get();
+                for (int i = 0; i < cells.length; i++) {
+                    assertSame(dict.get("v" + (i % 10)), cells[i]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The output mappers of the string, int and long converters share cells per mapper and keep missing values.
+     */
+    @Test
+    public void testConverters() {
+        Object[][] values = {{"yes", "no"}, {7, 8}, {7L, 8L}};
+        Function<?, ?>[] mappers = {new StringPFAConverter().createPFAToCellMapper(Schema.create(Schema.Type.STRING)),
+            new IntPFAConverter().createPFAToCellMapper(Schema.create(Schema.Type.INT)),
+            new LongPFAConverter().createPFAToCellMapper(Schema.create(Schema.Type.LONG))};
+        DataCell[] expected = {new StringCell("yes"), new IntCell(7), new LongCell(7L)};
+        for (int m = 0; m < mappers.length; m++) {
+            @SuppressWarnings("unchecked")
+            Function<Object, DataCell> mapper = (Function<Object, DataCell>) mappers[m];
+            DataCell first = mapper.apply(values[m][0]);
+            assertEquals(expected[m], first);
+            assertSame(first, mapper.apply(values[m][0]));
+            assertTrue(!first.equals(mapper.apply(values[m][1])));
+            assertTrue(mapper.apply(null).isMissing());
+            assertSame(DataType.getMissingCell(), mapper.apply(null));
+        }
+    }
+}
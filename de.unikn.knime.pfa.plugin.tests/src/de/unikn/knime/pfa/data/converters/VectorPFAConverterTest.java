@@ -0,0 +1,148 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data.converters;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.vector.bitvector.DenseBitVectorCellFactory;
+import org.knime.core.data.vector.bytevector.ByteVectorValue;
+import org.knime.core.data.vector.bytevector.DenseByteVector;
+import org.knime.core.data.vector.bytevector.DenseByteVectorCellFactory;
+import org.knime.core.data.vector.doublevector.DoubleVectorCellFactory;
+
+/**
+ * Tests the conversion of KNIME vector cells to PFA values.
+ *
+ * @author agent
+ */
+public class VectorPFAConverterTest {
+
+    private static Schema arrayOf(final Schema.Type element) {
+        return Schema.createArray(Schema.create(element));
+    }
+
+    /**
+     * Double vectors become arrays of doubles.
+     */
+    @Test
+    public void testDoubleVector() {
+        DoubleVectorPFAConverter conv = new DoubleVectorPFAConverter();
+        Schema schema = arrayOf(Schema.Type.DOUBLE);
+        assertTrue(conv.canConvert(schema));
+        assertFalse(conv.canConvert(arrayOf(Schema.Type.STRING)));
+
+        DataCell cell = DoubleVectorCellFactory.createCell(new double[]{1.5, -2, 0});
+        Object pfa = conv.createCellToPFAMapper(DoubleVectorCellFactory.TYPE, schema).apply(cell);
+        assertEquals(Arrays.asList(1.5, -2.0, 0.0), pfa);
+        assertTrue(conv.isOneWayKnimeToPFA());
+    }
+
+    /**
+     * Bit vectors become arrays of booleans or doubles with the set bits at their positions.
+     */
+    @Test
+    public void testBitVector() {
+        BitVectorPFAConverter conv = new BitVectorPFAConverter();
+        DenseBitVectorCellFactory factory = new DenseBitVectorCellFactory(5);
+        factory.set(1);
+        factory.set(4);
+        DataCell cell = factory.createDataCell();
+
+        Schema booleans = arrayOf(Schema.Type.BOOLEAN);
+        Object pfa = conv.createCellToPFAMapper(cell.getType(), booleans).apply(cell);
+        assertEquals(Arrays.asList(false, true, false, false, true), pfa);
+
+        Schema doubles = arrayOf(Schema.Type.DOUBLE);
+        List<?> values = (List<?>) conv.createCellToPFAMapper(cell.getType(), doubles).apply(cell);
+        assertEquals(Arrays.asList(0.0, 1.0, 0.0, 0.0, 1.0), values);
+        assertSame(values.get(0), values.get(2));
+        assertTrue(conv.isOneWayKnimeToPFA());
+    }
+
+    /**
+     * Byte vectors become bytes and back, with counts above 127 kept as unsigned values.
+     */
+    @Test
+    public void testByteVector() {
+        ByteVectorPFAConverter conv = new ByteVectorPFAConverter();
+        Schema schema = Schema.create(Schema.Type.BYTES);
+        DataCell cell = new DenseByteVectorCellFactory(new DenseByteVector(new int[]{0, 7, 255})).createDataCell();
+        byte[] bytes = (byte[]) conv.createCellToPFAMapper(cell.getType(), schema).apply(cell);
+        assertArrayEquals(new byte[]{0, 7, (byte) 255}, bytes);
+
+        ByteVectorValue back = (ByteVectorValue) conv.createPFAToCellMapper(schema).apply(bytes);
+        assertEquals(3, back.length());
+        assertEquals(255, back.get(2));
+    }
+
+    /**
+     * Missing cells and null values map to each other.
+     */
+    @Test
+    public void testMissing() {
+        DataCell missing = DataType.getMissingCell();
+        Schema doubles = arrayOf(Schema.Type.DOUBLE);
+        assertNull(new DoubleVectorPFAConverter().createCellToPFAMapper(DoubleVectorCellFactory.TYPE, doubles)
+            .apply(missing));
+        assertNull(new BitVectorPFAConverter().createCellToPFAMapper(missing.getType(), doubles).apply(missing));
+        assertTrue(new ByteVectorPFAConverter().createPFAToCellMapper(Schema.create(Schema.Type.BYTES)).apply(null)
+            .isMissing());
+    }
+}
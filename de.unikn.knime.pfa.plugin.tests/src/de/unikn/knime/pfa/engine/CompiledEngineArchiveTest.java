@@ -0,0 +1,163 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.engine;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
+
+import scala.runtime.AbstractFunction0;
+
+/**
+ * Tests that restoring an archive only accepts archives signed by this installation and only deserializes the
+ * allowed classes.
+ *
+ * @author agent
+ */
+public class CompiledEngineArchiveTest {
+
+    /**
+     * Stands in for a factory closure generated by Hadrian.
+     */
+    public static final class GeneratedFactory extends AbstractFunction0<PFAEngine<Object, Object>>
+            implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Integer m_version = 1;
+
+        @Override
+        public PFAEngine<Object, Object> apply() {
+            return null;
+        }
+    }
+
+    private static byte[] archive(final String digest, final Map<String, byte[]> classes, final Object factory)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        CompiledEngineArchive.writeClasses(out, digest, classes);
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(factory);
+        oos.flush();
+        return CompiledEngineArchive.seal(bytes.toByteArray());
+    }
+
+    private static byte[] bytecode(final Class<?> c) throws IOException {
+        String file = c.getName().substring(c.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = c.getResourceAsStream(file)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    /**
+     * A factory whose class is in the archive is restored into the engine cache.
+     */
+    @Test
+    public void testRestoresGeneratedClasses() throws IOException {
+        String digest = "restored-" + System.nanoTime();
+        byte[] archive = archive(digest, Collections.singletonMap(GeneratedFactory.class.getName(),
+            bytecode(GeneratedFactory.class)), new GeneratedFactory());
+        assertTrue(CompiledEngineArchive.restore(new ByteArrayInputStream(archive), digest, 100));
+        assertNotNull(PFAEngineCache.getInstance().peek(digest));
+    }
+
+    /**
+     * Classes that are neither in the archive nor Hadrian's, Scala's or basic Java types are rejected, and so
+     * are archives of another document.
+     */
+    @Test
+    public void testRejectsOtherClasses() throws IOException {
+        String digest = "rejected-" + System.nanoTime();
+        // Without its bytecode in the archive, the factory's class is not allowed either
+        byte[] archive = archive(digest, Collections.emptyMap(), new GeneratedFactory());
+        assertFalse(CompiledEngineArchive.restore(new ByteArrayInputStream(archive), digest, 100));
+        archive = archive(digest, Collections.emptyMap(), new ArrayList<>());
+        assertFalse(CompiledEngineArchive.restore(new ByteArrayInputStream(archive), digest, 100));
+        assertNull(PFAEngineCache.getInstance().peek(digest));
+
+        archive = archive(digest, Collections.singletonMap(GeneratedFactory.class.getName(),
+            bytecode(GeneratedFactory.class)), new GeneratedFactory());
+        assertFalse(CompiledEngineArchive.restore(new ByteArrayInputStream(archive), "other", 100));
+        assertNull(PFAEngineCache.getInstance().peek("other"));
+    }
+
+    /**
+     * Archives whose content was changed after signing are ignored before their classes are defined.
+     */
+    @Test
+    public void testRejectsModifiedArchives() throws IOException {
+        String digest = "modified-" + System.nanoTime();
+        byte[] archive = archive(digest, Collections.singletonMap(GeneratedFactory.class.getName(),
+            bytecode(GeneratedFactory.class)), new GeneratedFactory());
+        archive[archive.length - 1] ^= 1;
+        assertFalse(CompiledEngineArchive.restore(new ByteArrayInputStream(archive), digest, 100));
+        // Cut off archives are rejected as well
+        archive[archive.length - 1] ^= 1;
+        assertFalse(CompiledEngineArchive.restore(
+            new ByteArrayInputStream(Arrays.copyOf(archive, archive.length - 1)), digest, 100));
+        assertNull(PFAEngineCache.getInstance().peek(digest));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
+
+import scala.Function0;
+import scala.runtime.AbstractFunction0;
+
+/**
+ * Tests the bookkeeping of the engine cache with factories that are added instead of compiled.
+ *
+ * @author agent
+ */
+public class PFAEngineCacheTest {
+
+    private static final Function0<PFAEngine<Object, Object>> NO_ENGINE =
+        new AbstractFunction0<PFAEngine<Object, Object>>() {
+            @Override
+            public PFAEngine<Object, Object> apply() {
+                return null;
+            }
+        };
+
+    private static String structure(final String json) {
+        return PFAEngineCache.structureDigest(json.replace('\'', '"'));
+    }
+
+    /**
+     * The structure of a document does not depend on the initial values of its cells and pools, but on
+     * everything else.
+     */
+    @Test
+    public void testStructureDigest() {
+        String doc = "{'input': 'double', 'output': 'double', 'action': {'+': ['input', {'cell': 'c'}]}, "
+            + "'cells': {'c': {'type': 'double', 'init': %s}}, 'pools': {'p': {'type': 'int', 'init': %s}}}";
+        String structure = structure(String.format(doc, "1.5", "{}"));
+        assertNotNull(structure);
+        assertEquals(structure, structure(String.format(doc, "-2", "{'a': 1, 'b': [2, {'init': 3}]}")));
+        assertNotEquals(structure, structure(String.format(doc.replace("'+'", "'-'"), "1.5", "{}")));
+        assertNotEquals(structure, structure(String.format(doc.replace("'int'", "'long'"), "1.5", "{}")));
+
+        // Only the init values of declarations are ignored
+        String nested = "{'action': 'input', 'metadata': {'x': {'init': %s}}}";
+        assertNotEquals(structure(String.format(nested, 1)), structure(String.format(nested, 2)));
+        // Texts are delimited, so that moving characters between them changes the digest
+        assertNotEquals(structure("{'action': ['ab', 'c']}"), structure("{'action': ['a', 'bc']}"));
+
+        assertNull(structure("[1, 2]"));
+        assertNull(structure("{'action': "));
+    }
+
+    /**
+     * Added factories are counted with an estimate from the document's length and evicted by count and memory,
+     * least recently used first.
+     */
+    @Test
+    public void testEviction() {
+        PFAEngineCache cache = new PFAEngineCache(2, 1000);
+        cache.put("a", 10, NO_ENGINE);
+        cache.put("b", 10, NO_ENGINE);
+        assertEquals(320, cache.getStatistics().getEstimatedBytes());
+        cache.peek("a");
+        cache.createEngine("a", () -> "{}");
+        cache.put("c", 10, NO_ENGINE);
+        assertNotNull(cache.peek("a"));
+        assertNull(cache.peek("b"));
+        assertNotNull(cache.peek("c"));
+        assertEquals(1, cache.getStatistics().getEvictions());
+
+        cache.put("d", 70, NO_ENGINE);
+        assertEquals(1, cache.getStatistics().getEntries());
+        assertNotNull("The newest factory is kept even if it exceeds the bound", cache.peek("d"));
+        assertEquals(3, cache.getStatistics().getEvictions());
+    }
+
+    /**
+     * Adding a factory does not read its document, the structure is determined once an engine is requested.
+     */
+    @Test
+    public void testPutReadsDocumentLazily() {
+        AtomicInteger reads = new AtomicInteger();
+        Supplier<String> json = () -> {
+            reads.incrementAndGet();
+            return "{\"action\": \"input\"}";
+        };
+        PFAEngineCache cache = new PFAEngineCache(8, Long.MAX_VALUE);
+        cache.put("a", 20, NO_ENGINE);
+        cache.put("a", 20, NO_ENGINE);
+        assertEquals(1, cache.getStatistics().getEntries());
+        assertEquals(0, reads.get());
+        cache.createEngine("a", json);
+        cache.createEngines("a", json, 3);
+        assertEquals(1, reads.get());
+        assertEquals(2, cache.getStatistics().getHits());
+        assertEquals(0, cache.getStatistics().getMisses());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.engine;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import javax.json.Json;
+import javax.json.JsonValue;
+
+import org.junit.Test;
+
+/**
+ * Tests the comparison of initial values with an engine's snapshot.
+ *
+ * @author agent
+ */
+public class SharedCodeFactoryTest {
+
+    private static JsonValue value(final String json) {
+        return Json.createReader(new StringReader("{\"v\": " + json + "}")).readObject().get("v");
+    }
+
+    private static boolean same(final String expected, final String actual) {
+        return SharedCodeFactory.sameValue(value(expected), value(actual));
+    }
+
+    /**
+     * Tests that numbers are compared by their value, not their text.
+     */
+    @Test
+    public void testNumbers() {
+        assertTrue(same("1e-05", "1.0E-5"));
+        assertTrue(same("0.10", "0.1"));
+        assertTrue(same("2", "2.0"));
+        assertFalse(same("0.1", "0.2"));
+        assertFalse(same("9007199254740993", "9007199254740992"));
+    }
+
+    /**
+     * Tests that numbers in arrays and objects are compared by their value.
+     */
+    @Test
+    public void testNested() {
+        assertTrue(same("{\"a\": [1.50, {\"b\": 3}], \"c\": \"x\"}", "{\"c\": \"x\", \"a\": [1.5, {\"b\": 3.0}]}"));
+        assertFalse(same("{\"a\": [1.5]}", "{\"a\": [1.5, 2]}"));
+        assertFalse(same("{\"a\": 1}", "{\"b\": 1}"));
+        assertFalse(same("[\"1\"]", "[1]"));
+        assertTrue(same("null", "null"));
+        assertFalse(same("null", "0"));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import javax.json.JsonObject;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+
+/**
+ * Tests the native assignment of rows to the closest cluster.
+ *
+ * @author agent
+ */
+public class ClusterModelTest {
+
+    private static final String INPUT = "\"input\": {\"type\": \"record\", \"name\": \"Input\", \"fields\": ["
+        + "{\"name\": \"x\", \"type\": \"double\"}, {\"name\": \"y\", \"type\": \"double\"}]}";
+
+    private static final String DATUM = "{\"new\": [\"input.x\", \"input.y\"], \"type\": {\"type\": \"array\", "
+        + "\"items\": \"double\"}}";
+
+    /**
+     * @param metric whether <code>metric.simpleEuclidean</code> is passed explicitly
+     * @param centers the centers as JSON arrays, they are labeled "c0", "c1", ...
+     * @return a document returning the label of the closest cluster
+     */
+    static String clusters(final boolean metric, final String... centers) {
+        StringBuilder init = new StringBuilder();
+        for (int c = 0; c < centers.length; c++) {
+            init.append(c == 0 ? "" : ", ").append("{\"center\": ").append(centers[c]).append(", \"id\": \"c")
+                .append(c).append("\"}");
+        }
+        return "{" + INPUT + ", \"output\": \"string\", \"cells\": {\"clusters\": {\"type\": {\"type\": \"array\", "
+            + "\"items\": {\"type\": \"record\", \"name\": \"Cluster\", \"fields\": [{\"name\": \"center\", "
+            + "\"type\": {\"type\": \"array\", \"items\": \"double\"}}, {\"name\": \"id\", \"type\": \"string\"}]}}, "
+            + "\"init\": [" + init + "]}}, \"action\": {\"attr\": {\"model.cluster.closest\": [" + DATUM
+            + ", {\"cell\": \"clusters\"}" + (metric ? ", {\"fcn\": \"metric.simpleEuclidean\"}" : "")
+            + "]}, \"path\": [{\"string\": \"id\"}]}}";
+    }
+
+    private static Object[] score(final String json, final List<DataRow> rows) throws Exception {
+        JsonObject doc = FastPathTesting.parse(json);
+        BatchInputConverter conv = FastPathTesting.converter(doc, FastPathTesting.doubleSpec("x", "y"));
+        FastPathModel model = FastPaths.recognize(doc, conv);
+        assertEquals(ClusterModel.class, model.getClass());
+        return FastPathTesting.score(model, conv, rows);
+    }
+
+    /**
+     * Rows are assigned to the closest center, the first one on ties.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testClosest() throws Exception {
+        for (boolean metric : new boolean[] {false, true}) {
+            Object[] out = score(clusters(metric, "[0.0, 0.0]", "[3.0, 4.0]", "[-1.0, 0.5]"),
+                FastPathTesting.rows(new Double[] {0.1, 0.1}, new Double[] {2.0, 5.0}, new Double[] {-3.0, 0.0},
+                    new Double[] {1.5, 2.0}, new Double[] {null, 1.0}, new Double[] {Double.NaN, 1.0}));
+            assertArrayEquals(new Object[] {"c0", "c1", "c2", "c0", null, null}, out);
+        }
+    }
+
+    /**
+     * Two different squared distances that have the same square root are left to the engine, since comparing
+     * squared distances would pick the second cluster.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testRoundedTie() throws Exception {
+        double tiny = Math.scalb(1.0, -26);
+        assertEquals(1.0, Math.sqrt(1.0 + tiny * tiny), 0.0);
+        Object[] out = score(clusters(false, "[1.0, " + tiny + "]", "[1.0, 0.0]", "[0.0, 1.0]"),
+            FastPathTesting.rows(new Double[] {0.0, 0.0}, new Double[] {0.9, 0.0}));
+        assertArrayEquals(new Object[] {null, "c1"}, out);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import org.junit.Test;
+import org.knime.core.data.DataTableSpec;
+
+/**
+ * Compares the output of the native fast paths with the Hadrian engine on edge values. Every row the fast path
+ * scores must have exactly the engine's output, rows it cannot reproduce must be left to the engine.
+ *
+ * @author agent
+ */
+public class FastPathEngineTest {
+
+    private static final DataTableSpec XY = FastPathTesting.doubleSpec("x", "y");
+
+    /**
+     * Trees with every supported operator.
+     *
+     * @throws Exception if a document cannot be compiled
+     */
+    @Test
+    public void testTrees() throws Exception {
+        for (String op : TreeEnsembleModel.OPERATORS) {
+            FastPathTesting.assertMatchesEngine(TreeEnsembleModelTest.singleTree(op), XY,
+                FastPathTesting.edgeRows(2));
+        }
+    }
+
+    /**
+     * Forests aggregated with <code>a.sum</code>, <code>a.mean</code> and <code>a.mode</code>.
+     *
+     * @throws Exception if a document cannot be compiled
+     */
+    @Test
+    public void testForests() throws Exception {
+        String t1 = TreeEnsembleModelTest.tree("<", "double", "0.1", "-0.0", "1e300");
+        String t2 = TreeEnsembleModelTest.tree(">=", "double", "0.7", "-0.0", "1e300");
+        String t3 = TreeEnsembleModelTest.tree("!=", "double", "0.2", "-0.0", "3.0");
+        for (String agg : new String[] {"a.sum", "a.mean"}) {
+            FastPathTesting.assertMatchesEngine(TreeEnsembleModelTest.forest(agg, "double", t1, t2, t3), XY,
+                FastPathTesting.edgeRows(2));
+        }
+        String v1 = TreeEnsembleModelTest.tree("<", "string", "\"a\"", "\"b\"", "\"c\"");
+        String v2 = TreeEnsembleModelTest.tree("<=", "string", "\"b\"", "\"b\"", "\"a\"");
+        FastPathTesting.assertMatchesEngine(TreeEnsembleModelTest.forest("a.mode", "string", v1, v2, v2), XY,
+            FastPathTesting.edgeRows(2));
+    }
+
+    /**
+     * Linear and logistic regressions with one and with several outputs.
+     *
+     * @throws Exception if a document cannot be compiled
+     */
+    @Test
+    public void testRegressions() throws Exception {
+        for (String link : new String[] {null, "m.link.logit"}) {
+            FastPathTesting.assertMatchesEngine(LinearModelTest.regression(link), XY, FastPathTesting.edgeRows(2));
+        }
+        for (String link : new String[] {null, "m.link.softmax"}) {
+            FastPathTesting.assertMatchesEngine(LinearModelTest.multivariate(link), XY,
+                FastPathTesting.edgeRows(2));
+        }
+    }
+
+    /**
+     * Cluster assignments with the implicit and the explicit Euclidean metric.
+     *
+     * @throws Exception if a document cannot be compiled
+     */
+    @Test
+    public void testClusters() throws Exception {
+        for (boolean metric : new boolean[] {false, true}) {
+            FastPathTesting.assertMatchesEngine(ClusterModelTest.clusters(metric, "[0.0, 0.0]", "[3.0, 4.0]",
+                "[-1.0, 0.5]", "[1e300, -0.0]", "[0.1, 0.7]"), XY, FastPathTesting.edgeRows(2));
+        }
+    }
+
+    /**
+     * Networks with every supported activation, with and without softmax.
+     *
+     * @throws Exception if a document cannot be compiled
+     */
+    @Test
+    public void testNetworks() throws Exception {
+        for (String activation : new String[] {"m.link.logit", "m.link.relu", "m.link.tanh", "m.tanh"}) {
+            for (boolean softmax : new boolean[] {false, true}) {
+                FastPathTesting.assertMatchesEngine(NeuralModelTest.network(activation, softmax), XY,
+                    FastPathTesting.edgeRows(2));
+            }
+        }
+    }
+}
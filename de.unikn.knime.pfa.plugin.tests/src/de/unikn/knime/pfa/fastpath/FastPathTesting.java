@@ -0,0 +1,217 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import org.apache.avro.Schema;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+
+import com.opendatagroup.hadrian.data.PFARecord;
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine$;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+import de.unikn.knime.pfa.data.ColumnBatch;
+
+/**
+ * Helpers for scoring tables of double columns with a fast path and with the engine.
+ *
+ * @author agent
+ */
+final class FastPathTesting {
+
+    /** Values on which primitive and engine arithmetic are most likely to differ. */
+    static final double[] EDGE_VALUES = {0.0, -0.0, 1.5, -1.5, 1e-300, -1e-300, 1e300, -1e300, Double.MIN_VALUE,
+        Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN, 0.1, 0.7, 3.0};
+
+    private FastPathTesting() {
+    }
+
+    static JsonObject parse(final String json) {
+        try (JsonReader r = Json.createReader(new StringReader(json))) {
+            return r.readObject();
+        }
+    }
+
+    /**
+     * @param names the column names
+     * @return a spec with a double column for each name
+     */
+    static DataTableSpec doubleSpec(final String... names) {
+        DataColumnSpec[] cols = new DataColumnSpec[names.length];
+        for (int i = 0; i < names.length; i++) {
+            cols[i] = new DataColumnSpecCreator(names[i], DoubleCell.TYPE).createSpec();
+        }
+        return new DataTableSpec(cols);
+    }
+
+    /**
+     * @param values the values of each row, null for a missing cell
+     * @return the rows
+     */
+    static List<DataRow> rows(final Double[]... values) {
+        List<DataRow> rows = new ArrayList<>();
+        for (int r = 0; r < values.length; r++) {
+            DataCell[] cells = new DataCell[values[r].length];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = values[r][c] == null ? DataType.getMissingCell() : new DoubleCell(values[r][c]);
+            }
+            rows.add(new DefaultRow(RowKey.createRowKey((long) r), cells));
+        }
+        return rows;
+    }
+
+    /**
+     * @param columns the number of columns
+     * @return rows with every combination of two edge values in the first two columns and 0.5 elsewhere
+     */
+    static List<DataRow> edgeRows(final int columns) {
+        List<Double[]> values = new ArrayList<>();
+        for (double a : EDGE_VALUES) {
+            for (double b : EDGE_VALUES) {
+                Double[] row = new Double[columns];
+                for (int c = 0; c < columns; c++) {
+                    row[c] = c == 0 ? a : c == 1 ? b : 0.5;
+                }
+                values.add(row);
+            }
+        }
+        return rows(values.toArray(new Double[values.size()][]));
+    }
+
+    /**
+     * @param doc the PFA document
+     * @param spec the spec of the input table
+     * @return the converter for the record input of the document, it cannot assemble records
+     * @throws Exception if the converter cannot be created
+     */
+    static BatchInputConverter converter(final JsonObject doc, final DataTableSpec spec) throws Exception {
+        Schema input = new Schema.Parser().parse(doc.get("input").toString());
+        return BatchInputConverter.forRecord(spec, input, PFARecord.class);
+    }
+
+    /**
+     * Scores rows with the fast path recognized for a document.
+     *
+     * @param model the fast path
+     * @param conv the input converter
+     * @param rows the rows
+     * @return the fast path output of each row
+     */
+    static Object[] score(final FastPathModel model, final BatchInputConverter conv, final List<DataRow> rows) {
+        ColumnBatch batch = conv.createBatch(rows.size());
+        conv.read(rows.iterator(), batch);
+        Object[] out = new Object[rows.size()];
+        model.score(batch, out);
+        return out;
+    }
+
+    /**
+     * Scores rows with the fast path and the Hadrian engine and checks that every row the fast path scores has
+     * exactly the engine's output.
+     *
+     * @param json the PFA document
+     * @param spec the spec of the input table
+     * @param rows the rows
+     * @return the number of rows the fast path scored
+     * @throws Exception if the document cannot be compiled
+     */
+    static int assertMatchesEngine(final String json, final DataTableSpec spec, final List<DataRow> rows)
+            throws Exception {
+        JsonObject doc = parse(json);
+        BatchInputConverter conv = converter(doc, spec);
+        FastPathModel model = FastPaths.recognize(doc, conv);
+        assertNotNull("Document is not recognized", model);
+        Object[] fast = score(model, conv, rows);
+
+        PFAEngine$ pfaEngine = PFAEngine$.MODULE$;
+        PFAEngine<Object, Object> engine = pfaEngine.factoryFromJson(json, pfaEngine.factoryFromJson$default$2(),
+            pfaEngine.factoryFromJson$default$3(), pfaEngine.factoryFromJson$default$4(),
+            pfaEngine.factoryFromJson$default$5(), pfaEngine.factoryFromJson$default$6()).apply();
+        BatchInputConverter engineConv = BatchInputConverter.forRecord(spec, engine.inputType().schema(),
+            engine.inputClass());
+        ColumnBatch batch = engineConv.createBatch(rows.size());
+        Iterator<DataRow> it = rows.iterator();
+        engineConv.read(it, batch);
+        Object[] inputs = new Object[rows.size()];
+        engineConv.assemble(batch, inputs);
+        engine.begin();
+        int scored = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Object expected = engine.action(inputs[i]);
+            if (fast[i] != null) {
+                // Double.equals compares the bits, so -0.0 and 0.0 differ and NaN equals NaN
+                assertEquals("Row " + rows.get(i), expected, fast[i]);
+                scored++;
+            }
+        }
+        engine.end();
+        assertTrue("Fast path scored no row", scored > 0);
+        return scored;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import javax.json.JsonObject;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+
+/**
+ * Tests the native scoring of linear and logistic regressions.
+ *
+ * @author agent
+ */
+public class LinearModelTest {
+
+    private static final String INPUT = "\"input\": {\"type\": \"record\", \"name\": \"Input\", \"fields\": ["
+        + "{\"name\": \"x\", \"type\": \"double\"}, {\"name\": \"y\", \"type\": \"double\"}]}";
+
+    private static final String DATUM = "{\"new\": [\"input.x\", \"input.y\"], \"type\": {\"type\": \"array\", "
+        + "\"items\": \"double\"}}";
+
+    private static final String VECTOR = "{\"type\": \"array\", \"items\": \"double\"}";
+
+    /**
+     * @param link null or the link function wrapping the regression
+     * @return a regression with a single output
+     */
+    static String regression(final String link) {
+        String action = "{\"model.reg.linear\": [" + DATUM + ", {\"cell\": \"model\"}]}";
+        return "{" + INPUT + ", \"output\": \"double\", \"cells\": {\"model\": {\"type\": {\"type\": \"record\", "
+            + "\"name\": \"Model\", \"fields\": [{\"name\": \"coeff\", \"type\": " + VECTOR + "}, {\"name\": "
+            + "\"const\", \"type\": \"double\"}]}, \"init\": {\"coeff\": [0.1, -0.7], \"const\": 0.3}}}, "
+            + "\"action\": " + (link == null ? action : "{\"" + link + "\": " + action + "}") + "}";
+    }
+
+    /**
+     * @param link null or the link function wrapping the regression
+     * @return a regression with three outputs
+     */
+    static String multivariate(final String link) {
+        String action = "{\"model.reg.linear\": [" + DATUM + ", {\"cell\": \"model\"}]}";
+        return "{" + INPUT + ", \"output\": " + VECTOR + ", \"cells\": {\"model\": {\"type\": {\"type\": "
+            + "\"record\", \"name\": \"Model\", \"fields\": [{\"name\": \"coeff\", \"type\": {\"type\": \"array\", "
+            + "\"items\": " + VECTOR + "}}, {\"name\": \"const\", \"type\": " + VECTOR + "}]}, \"init\": {\"coeff\": "
+            + "[[0.1, -0.7], [3.0, 0.2], [-1e-3, 60.0]], \"const\": [0.3, -0.1, 0.0]}}}, \"action\": "
+            + (link == null ? action : "{\"" + link + "\": " + action + "}") + "}";
+    }
+
+    private static Object[] score(final String json, final List<DataRow> rows) throws Exception {
+        JsonObject doc = FastPathTesting.parse(json);
+        BatchInputConverter conv = FastPathTesting.converter(doc, FastPathTesting.doubleSpec("x", "y"));
+        FastPathModel model = FastPaths.recognize(doc, conv);
+        assertEquals(LinearModel.class, model.getClass());
+        return FastPathTesting.score(model, conv, rows);
+    }
+
+    /**
+     * The products are summed from 0.0 in the order of the features and the constant is added last.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testSummationOrder() throws Exception {
+        List<DataRow> rows = FastPathTesting.edgeRows(2);
+        Object[] out = score(regression(null), rows);
+        Object[] logit = score(regression("m.link.logit"), rows);
+        for (int i = 0; i < rows.size(); i++) {
+            double x = FastPathTesting.EDGE_VALUES[i / FastPathTesting.EDGE_VALUES.length];
+            double y = FastPathTesting.EDGE_VALUES[i % FastPathTesting.EDGE_VALUES.length];
+            double expected = 0.0 + x * 0.1 + y * -0.7 + 0.3;
+            assertEquals(rows.get(i).toString(), expected, out[i]);
+            assertEquals(rows.get(i).toString(), 1.0 / (1.0 + Math.exp(-expected)), logit[i]);
+        }
+    }
+
+    /**
+     * Softmax only shifts its inputs when one of them is at least 100 in magnitude.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testSoftmax() throws Exception {
+        Object[] out = score(multivariate("m.link.softmax"),
+            FastPathTesting.rows(new Double[] {1.0, 1.0}, new Double[] {1.0, 2.0}));
+        double[][] expected = new double[2][];
+        for (int r = 0; r < 2; r++) {
+            double y = r + 1.0;
+            double[] z = {0.0 + 1.0 * 0.1 + y * -0.7 + 0.3, 0.0 + 1.0 * 3.0 + y * 0.2 + -0.1,
+                0.0 + 1.0 * -1e-3 + y * 60.0 + 0.0};
+            // The second row reaches 100 and is shifted by its maximum
+            double shift = r == 0 ? 0.0 : z[2];
+            double denom = 0.0 + Math.exp(z[0] - shift) + Math.exp(z[1] - shift) + Math.exp(z[2] - shift);
+            expected[r] = new double[3];
+            for (int o = 0; o < 3; o++) {
+                expected[r][o] = Math.exp(z[o] - shift) / denom;
+            }
+        }
+        for (int r = 0; r < 2; r++) {
+            @SuppressWarnings("unchecked")
+            List<Object> arr = (List<Object>) out[r];
+            for (int o = 0; o < 3; o++) {
+                assertEquals(expected[r][o], arr.get(o));
+            }
+        }
+    }
+
+    /**
+     * Rows with missing features are left to the engine.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testMissing() throws Exception {
+        Object[] out = score(regression(null), FastPathTesting.rows(new Double[] {null, 1.0},
+            new Double[] {1.0, 1.0}));
+        assertNull(out[0]);
+        assertEquals(0.0 + 0.1 + -0.7 + 0.3, out[1]);
+    }
+}
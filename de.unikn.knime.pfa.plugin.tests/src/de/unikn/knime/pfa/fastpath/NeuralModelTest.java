@@ -0,0 +1,172 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import javax.json.JsonObject;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+
+/**
+ * Tests the native scoring of feed-forward networks.
+ *
+ * @author agent
+ */
+public class NeuralModelTest {
+
+    private static final String INPUT = "\"input\": {\"type\": \"record\", \"name\": \"Input\", \"fields\": ["
+        + "{\"name\": \"x\", \"type\": \"double\"}, {\"name\": \"y\", \"type\": \"double\"}]}";
+
+    private static final String VECTOR = "{\"type\": \"array\", \"items\": \"double\"}";
+
+    private static final double[][] W1 = {{0.5, -1.0}, {2.0, 0.25}, {-0.3, 0.1}};
+    private static final double[] B1 = {0.1, 0.0, -0.2};
+    private static final double[][] W2 = {{1.0, -1.0, 0.5}, {0.2, 0.3, -0.4}};
+    private static final double[] B2 = {0.0, 0.05};
+
+    /**
+     * @param activation the activation function
+     * @param softmax whether the output is wrapped in <code>m.link.softmax</code>
+     * @return a network with two inputs, a hidden layer of three units and two outputs
+     */
+    static String network(final String activation, final boolean softmax) {
+        String action = "{\"model.neural.simpleLayers\": [{\"new\": [\"input.x\", \"input.y\"], \"type\": " + VECTOR
+            + "}, {\"cell\": \"layers\"}, {\"fcn\": \"" + activation + "\"}]}";
+        return "{" + INPUT + ", \"output\": " + VECTOR + ", \"cells\": {\"layers\": {\"type\": {\"type\": \"array\", "
+            + "\"items\": {\"type\": \"record\", \"name\": \"Layer\", \"fields\": [{\"name\": \"weights\", \"type\": "
+            + "{\"type\": \"array\", \"items\": " + VECTOR + "}}, {\"name\": \"bias\", \"type\": " + VECTOR + "}]}}, "
+            + "\"init\": [{\"weights\": [[0.5, -1.0], [2.0, 0.25], [-0.3, 0.1]], \"bias\": [0.1, 0.0, -0.2]}, "
+            + "{\"weights\": [[1.0, -1.0, 0.5], [0.2, 0.3, -0.4]], \"bias\": [0.0, 0.05]}]}}, \"action\": "
+            + (softmax ? "{\"m.link.softmax\": " + action + "}" : action) + "}";
+    }
+
+    private static Object[] score(final String json, final List<DataRow> rows) throws Exception {
+        JsonObject doc = FastPathTesting.parse(json);
+        BatchInputConverter conv = FastPathTesting.converter(doc, FastPathTesting.doubleSpec("x", "y"));
+        FastPathModel model = FastPaths.recognize(doc, conv);
+        assertEquals(NeuralModel.class, model.getClass());
+        return FastPathTesting.score(model, conv, rows);
+    }
+
+    private static double[] layer(final double[][] w, final double[] b, final double[] x) {
+        double[] out = new double[b.length];
+        for (int o = 0; o < out.length; o++) {
+            double sum = 0.0;
+            for (int j = 0; j < x.length; j++) {
+                sum += w[o][j] * x[j];
+            }
+            out[o] = sum + b[o];
+        }
+        return out;
+    }
+
+    /**
+     * Each layer sums its products from 0.0 before adding the bias and the activation is applied to the hidden
+     * layer only.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testLayers() throws Exception {
+        List<DataRow> rows = FastPathTesting.edgeRows(2);
+        Object[] relu = score(network("m.link.relu", false), rows);
+        Object[] tanh = score(network("m.link.tanh", false), rows);
+        for (int i = 0; i < rows.size(); i++) {
+            double[] x = {FastPathTesting.EDGE_VALUES[i / FastPathTesting.EDGE_VALUES.length],
+                FastPathTesting.EDGE_VALUES[i % FastPathTesting.EDGE_VALUES.length]};
+            double[] hidden = layer(W1, B1, x);
+            double[] hiddenRelu = new double[hidden.length];
+            double[] hiddenTanh = new double[hidden.length];
+            boolean nan = false;
+            for (int h = 0; h < hidden.length; h++) {
+                nan |= Double.isNaN(hidden[h]);
+                hiddenRelu[h] = hidden[h] > 0.0 ? hidden[h] : 0.0;
+                hiddenTanh[h] = Math.tanh(hidden[h]);
+            }
+            if (nan) {
+                assertNull(rows.get(i).toString(), relu[i]);
+            } else {
+                assertOutput(layer(W2, B2, hiddenRelu), relu[i]);
+            }
+            assertOutput(layer(W2, B2, hiddenTanh), tanh[i]);
+        }
+    }
+
+    /**
+     * The softmax link is applied to the output layer.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testSoftmax() throws Exception {
+        Object[] out = score(network("m.link.logit", true), FastPathTesting.rows(new Double[] {0.5, -2.0}));
+        double[] hidden = layer(W1, B1, new double[] {0.5, -2.0});
+        for (int h = 0; h < hidden.length; h++) {
+            hidden[h] = 1.0 / (1.0 + Math.exp(-hidden[h]));
+        }
+        double[] z = layer(W2, B2, hidden);
+        double denom = 0.0 + Math.exp(z[0]) + Math.exp(z[1]);
+        assertOutput(new double[] {Math.exp(z[0]) / denom, Math.exp(z[1]) / denom}, out[0]);
+    }
+
+    private static void assertOutput(final double[] expected, final Object actual) {
+        @SuppressWarnings("unchecked")
+        List<Object> arr = (List<Object>) actual;
+        assertEquals(expected.length, arr.size());
+        for (int o = 0; o < expected.length; o++) {
+            assertEquals(expected[o], arr.get(o));
+        }
+    }
+}
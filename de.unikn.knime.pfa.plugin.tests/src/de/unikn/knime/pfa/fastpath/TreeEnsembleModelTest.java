@@ -0,0 +1,203 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import javax.json.JsonObject;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+
+/**
+ * Tests the native scoring of decision trees and tree ensembles.
+ *
+ * @author agent
+ */
+public class TreeEnsembleModelTest {
+
+    private static final String INPUT = "\"input\": {\"type\": \"record\", \"name\": \"Input\", \"fields\": ["
+        + "{\"name\": \"x\", \"type\": \"double\"}, {\"name\": \"y\", \"type\": \"double\"}]}";
+
+    private static final String NODE_TYPE = "{\"type\": \"record\", \"name\": \"TreeNode\", \"fields\": ["
+        + "{\"name\": \"field\", \"type\": {\"type\": \"enum\", \"name\": \"TreeFields\", "
+        + "\"symbols\": [\"x\", \"y\"]}},"
+        + "{\"name\": \"operator\", \"type\": \"string\"}, {\"name\": \"value\", \"type\": \"double\"},"
+        + "{\"name\": \"pass\", \"type\": [\"%1$s\", \"TreeNode\"]}, "
+        + "{\"name\": \"fail\", \"type\": [\"%1$s\", \"TreeNode\"]}]}";
+
+    private static final String TEST = "{\"fcn\": \"model.tree.simpleTest\"}";
+
+    /**
+     * A tree testing <code>x op 0.0</code> and then <code>y &lt;= 1.5</code>.
+     *
+     * @param op the operator of the root
+     * @param leaf the leaf type
+     * @param leaves the three leaf values as JSON
+     * @return the tree node as JSON
+     */
+    static String tree(final String op, final String leaf, final String... leaves) {
+        return "{\"field\": \"x\", \"operator\": \"" + op + "\", \"value\": 0.0, \"pass\": {\"" + leaf + "\": "
+            + leaves[0] + "}, \"fail\": {\"TreeNode\": {\"field\": \"y\", \"operator\": \"<=\", \"value\": 1.5, "
+            + "\"pass\": {\"" + leaf + "\": " + leaves[1] + "}, \"fail\": {\"" + leaf + "\": " + leaves[2] + "}}}}";
+    }
+
+    /**
+     * @param op the operator of the root
+     * @return a document walking a single tree with string leaves
+     */
+    static String singleTree(final String op) {
+        return "{" + INPUT + ", \"output\": \"string\", \"cells\": {\"tree\": {\"type\": "
+            + String.format(NODE_TYPE, "string") + ", \"init\": " + tree(op, "string", "\"a\"", "\"b\"", "\"c\"")
+            + "}}, \"action\": {\"model.tree.simpleWalk\": [\"input\", {\"cell\": \"tree\"}, " + TEST + "]}}";
+    }
+
+    /**
+     * @param aggregation <code>a.sum</code>, <code>a.mean</code> or <code>a.mode</code>
+     * @param leaf the leaf type
+     * @param trees the trees as JSON
+     * @return a document aggregating the leaves of a forest
+     */
+    static String forest(final String aggregation, final String leaf, final String... trees) {
+        return "{" + INPUT + ", \"output\": \"" + leaf + "\", \"cells\": {\"forest\": {\"type\": {\"type\": "
+            + "\"array\", \"items\": " + String.format(NODE_TYPE, leaf) + "}, \"init\": [" + String.join(", ", trees)
+            + "]}}, \"action\": {\"" + aggregation + "\": {\"a.map\": [{\"cell\": \"forest\"}, {\"params\": "
+            + "[{\"t\": \"TreeNode\"}], \"ret\": \"" + leaf + "\", \"do\": {\"model.tree.simpleWalk\": [\"input\", "
+            + "\"t\", " + TEST + "]}}]}}}";
+    }
+
+    private static FastPathModel recognize(final String json) throws Exception {
+        JsonObject doc = FastPathTesting.parse(json);
+        return FastPaths.recognize(doc, FastPathTesting.converter(doc, FastPathTesting.doubleSpec("x", "y")));
+    }
+
+    private static Object[] score(final String json, final List<DataRow> rows) throws Exception {
+        JsonObject doc = FastPathTesting.parse(json);
+        DataTableSpec spec = FastPathTesting.doubleSpec("x", "y");
+        BatchInputConverter conv = FastPathTesting.converter(doc, spec);
+        FastPathModel model = FastPaths.recognize(doc, conv);
+        return FastPathTesting.score(model, conv, rows);
+    }
+
+    /**
+     * Rows follow the comparisons of the nodes down to a leaf.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testWalk() throws Exception {
+        Object[] out = score(singleTree("<"), FastPathTesting.rows(new Double[] {-1.0, 9.0},
+            new Double[] {1.0, 1.5}, new Double[] {1.0, 2.0}, new Double[] {Double.NEGATIVE_INFINITY, 0.0}));
+        assertArrayEquals(new Object[] {"a", "b", "c", "a"}, out);
+    }
+
+    /**
+     * Rows with NaN or missing features and comparisons of two zeros are left to the engine, since primitive
+     * and boxed comparisons disagree on them.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testEdgeValuesGoToEngine() throws Exception {
+        for (String op : TreeEnsembleModel.OPERATORS) {
+            Object[] out = score(singleTree(op), FastPathTesting.rows(new Double[] {Double.NaN, 1.0},
+                new Double[] {1.0, Double.NaN}, new Double[] {-0.0, 1.0}, new Double[] {0.0, 1.0},
+                new Double[] {null, 1.0}, new Double[] {Double.MIN_VALUE, 1.0}));
+            assertNull(op, out[0]);
+            assertNull(op, out[1]);
+            assertNull(op, out[2]);
+            assertNull(op, out[3]);
+            assertNull(op, out[4]);
+            assertEquals(op, op.startsWith(">") || op.equals("!=") ? "a" : "b", out[5]);
+        }
+    }
+
+    /**
+     * Forests sum, average or vote over their trees, undecided trees and ties leave the row to the engine.
+     *
+     * @throws Exception if the rows cannot be scored
+     */
+    @Test
+    public void testAggregations() throws Exception {
+        String t1 = tree("<", "double", "1.0", "2.0", "4.0");
+        String t2 = tree(">=", "double", "0.5", "0.25", "0.125");
+        List<DataRow> rows = FastPathTesting.rows(new Double[] {-1.0, 0.0}, new Double[] {1.0, 3.0},
+            new Double[] {0.0, 3.0});
+        assertArrayEquals(new Object[] {1.0 + 0.25, 4.0 + 0.5, null}, score(forest("a.sum", "double", t1, t2), rows));
+        assertArrayEquals(new Object[] {(1.0 + 0.25) / 2, (4.0 + 0.5) / 2, null},
+            score(forest("a.mean", "double", t1, t2), rows));
+
+        String v1 = tree("<", "string", "\"a\"", "\"b\"", "\"c\"");
+        String v2 = tree("<", "string", "\"a\"", "\"c\"", "\"c\"");
+        assertArrayEquals(new Object[] {"a", "c", null}, score(forest("a.mode", "string", v1, v1, v2), rows));
+        // One vote for "b" and one for "c"
+        assertNull(score(forest("a.mode", "string", v1, v2), FastPathTesting.rows(new Double[] {1.0, 1.0}))[0]);
+    }
+
+    /**
+     * Forests with zero leaves are left to the engine, since the parsed document does not tell whether a leaf
+     * was written as <code>-0.0</code>.
+     *
+     * @throws Exception if the document cannot be parsed
+     */
+    @Test
+    public void testZeroLeavesGoToEngine() throws Exception {
+        assertNotNull(recognize(forest("a.sum", "double", tree("<", "double", "1.0", "2.0", "4.0"))));
+        for (String zero : new String[] {"0.0", "-0.0", "0"}) {
+            assertNull(zero, recognize(forest("a.sum", "double", tree("<", "double", "1.0", zero, "4.0"))));
+        }
+    }
+}
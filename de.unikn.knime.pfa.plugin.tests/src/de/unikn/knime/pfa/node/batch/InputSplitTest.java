@@ -0,0 +1,160 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.unikn.knime.pfa.node.batch.InputSplit.InputFormat;
+
+/**
+ * Tests that the splits of a JSON lines file contain every line exactly once, whatever the split size.
+ *
+ * @author agent
+ */
+public class InputSplitTest {
+
+    /** Folder for the input files. */
+    @Rule
+    public TemporaryFolder m_folder = new TemporaryFolder();
+
+    private File write(final String content) throws IOException {
+        File f = m_folder.newFile("input.json");
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    private static String readAll(final List<InputSplit> splits) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (InputSplit s : splits) {
+            try (InputStream in = s.open()) {
+                IOUtils.copy(in, out);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Every split size from one byte to the whole file reads the lines once and in order.
+     *
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    public void testLinesAreReadOnce() throws IOException {
+        String content = "{\"x\": 1}\n{\"x\": 22}\n\n{\"x\": 333, \"y\": \"äöü\"}\n{\"x\": 4}\n";
+        File f = write(content);
+        for (long size = 1; size <= f.length() + 1; size++) {
+            List<InputSplit> splits = InputSplit.createSplits(Collections.singletonList(f),
+                InputFormat.JSON_LINES, size);
+            assertEquals("Split size " + size, content, readAll(splits));
+        }
+    }
+
+    /**
+     * A last line without a line break is read by the split containing its first byte.
+     *
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    public void testLastLineWithoutLineBreak() throws IOException {
+        String content = "{\"x\": 1}\n{\"x\": 2}\n{\"x\": 3}";
+        File f = write(content);
+        for (long size = 1; size <= f.length(); size++) {
+            List<InputSplit> splits = InputSplit.createSplits(Collections.singletonList(f),
+                InputFormat.JSON_LINES, size);
+            assertEquals("Split size " + size, content, readAll(splits));
+        }
+    }
+
+    /**
+     * A split starting exactly at the beginning of a line reads that line.
+     *
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    public void testSplitAtLineStart() throws IOException {
+        File f = write("aaaa\nbbbb\ncccc\n");
+        List<InputSplit> splits = InputSplit.createSplits(Collections.singletonList(f), InputFormat.JSON_LINES, 5);
+        assertEquals(3, splits.size());
+        String[] parts = new String[3];
+        for (int i = 0; i < 3; i++) {
+            try (InputStream in = splits.get(i).open()) {
+                parts[i] = IOUtils.toString(in, StandardCharsets.UTF_8);
+            }
+        }
+        assertEquals(Arrays.asList("aaaa\n", "bbbb\n", "cccc\n"), Arrays.asList(parts));
+    }
+
+    /**
+     * Avro files are never split.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testAvroFilesAreNotSplit() throws IOException {
+        File f = write("0123456789");
+        List<InputSplit> splits = InputSplit.createSplits(Collections.singletonList(f), InputFormat.AVRO, 3);
+        assertEquals(1, splits.size());
+        assertEquals(0, splits.get(0).getStart());
+        assertEquals(f.length(), splits.get(0).getEnd());
+    }
+}
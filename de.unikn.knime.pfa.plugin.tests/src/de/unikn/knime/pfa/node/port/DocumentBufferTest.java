@@ -0,0 +1,137 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests interning and memory-mapping of document buffers.
+ *
+ * @author agent
+ */
+public class DocumentBufferTest {
+
+    private static byte[] doc(final String text) {
+        return ("{\"action\": \"" + text + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Restores the default threshold for mapping documents.
+     */
+    @After
+    public void resetThreshold() {
+        System.clearProperty(DocumentBuffer.MAP_THRESHOLD_PROPERTY);
+    }
+
+    /**
+     * Identical documents share one buffer.
+     */
+    @Test
+    public void testInterning() {
+        DocumentBuffer a = DocumentBuffer.of(doc("interned"));
+        assertSame(a, DocumentBuffer.of(doc("interned")));
+        assertNotSame(a, DocumentBuffer.of(doc("other")));
+        assertFalse(a.isMapped());
+    }
+
+    /**
+     * The entries of collected buffers are removed when further buffers are interned.
+     */
+    @Test
+    public void testCollectedBuffersAreRemoved() throws InterruptedException {
+        int before = DocumentBuffer.internedCount();
+        for (int i = 0; i < 100; i++) {
+            DocumentBuffer.of(doc("collected " + i + " " + System.nanoTime()));
+        }
+        for (int i = 0; i < 50 && DocumentBuffer.internedCount() > before; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue("Collected buffers are still interned", DocumentBuffer.internedCount() <= before);
+    }
+
+    /**
+     * Mapped documents have the same content as documents on the heap and leave no temporary file behind.
+     */
+    @Test
+    public void testMapped() throws IOException {
+        System.setProperty(DocumentBuffer.MAP_THRESHOLD_PROPERTY, "0");
+        byte[] utf8 = doc("mapped \u00e4 " + System.nanoTime());
+        DocumentBuffer buffer = DocumentBuffer.of(utf8);
+        assertTrue(buffer.isMapped());
+        assertEquals(utf8.length, buffer.size());
+        assertEquals(new String(utf8, StandardCharsets.UTF_8), buffer.toJsonString());
+        try (InputStream in = buffer.openStream()) {
+            assertArrayEquals(utf8, IOUtils.toByteArray(in));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertArrayEquals(utf8, out.toByteArray());
+
+        String prefix = "pfa-" + buffer.getDigest().substring(0, 12);
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles((d, n) -> n.startsWith(prefix));
+        if (!System.getProperty("os.name").startsWith("Windows")) {
+            assertEquals("The temporary file is deleted once mapped", 0, files.length);
+        }
+    }
+}
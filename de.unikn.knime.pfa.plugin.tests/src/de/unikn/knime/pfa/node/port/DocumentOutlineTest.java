@@ -0,0 +1,142 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Tests listing the children of a document level by level.
+ *
+ * @author agent
+ */
+public class DocumentOutlineTest {
+
+    private static final String DOC = "{'input': 'double', 'output': {'type': 'array', 'items': 'double'}, "
+        + "'action': [{'+': [1, 2.5]}, true, null, '%s'], 'cells': {'c': {'type': 'int', 'init': 0}}}";
+
+    private static List<DocumentOutline.Item> list(final String text, final List<Object> path, final int from,
+            final int to) {
+        String json = String.format(DOC, text).replace('\'', '"');
+        return DocumentOutline.list(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), path, from, to);
+    }
+
+    /**
+     * The root lists its members with the number of children of objects and arrays.
+     */
+    @Test
+    public void testRoot() {
+        List<DocumentOutline.Item> items = list("x", Collections.emptyList(), 0, 100);
+        assertEquals(4, items.size());
+        assertEquals("input", items.get(0).getKey());
+        assertEquals("\"double\"", items.get(0).getValue());
+        assertEquals(-1, items.get(0).getSize());
+        assertEquals("output", items.get(1).getKey());
+        assertNull(items.get(1).getValue());
+        assertEquals(2, items.get(1).getSize());
+        assertTrue(items.get(1).isObject());
+        assertEquals(4, items.get(2).getSize());
+        assertFalse(items.get(2).isObject());
+    }
+
+    /**
+     * Paths of keys and indices lead to nested containers, of which a range of children is listed.
+     */
+    @Test
+    public void testPathAndRange() {
+        List<DocumentOutline.Item> items = list("x", Arrays.asList("action"), 1, 3);
+        assertEquals(2, items.size());
+        assertEquals(1, items.get(0).getKey());
+        assertEquals("true", items.get(0).getValue());
+        assertEquals("null", items.get(1).getValue());
+
+        items = list("x", Arrays.asList("action", 0, "+"), 0, 10);
+        assertEquals("1", items.get(0).getValue());
+        assertEquals("2.5", items.get(1).getValue());
+        assertEquals("0", list("x", Arrays.asList("cells", "c"), 0, 10).get(1).getValue());
+    }
+
+    /**
+     * Long strings are cut.
+     */
+    @Test
+    public void testLongString() {
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'a');
+        String value = list(new String(chars), Arrays.asList("action"), 3, 4).get(0).getValue();
+        assertTrue(value.length() < 300);
+        assertTrue(value.endsWith("...\""));
+    }
+
+    /**
+     * Paths that do not lead to a container are rejected.
+     */
+    @Test
+    public void testMissingPath() {
+        for (List<Object> path : Arrays.<List<Object>> asList(Arrays.asList("fcns"), Arrays.asList("action", 7),
+            Arrays.asList("input"))) {
+            try {
+                list("x", path, 0, 10);
+                throw new AssertionError("No error for " + path);
+            } catch (NoSuchElementException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+
+import org.junit.Test;
+
+/**
+ * Tests extracting top-level fields with the streaming scanner.
+ *
+ * @author agent
+ */
+public class DocumentScannerTest {
+
+    private static final Set<String> KEYS = new HashSet<>(Arrays.asList("input", "output"));
+
+    private static JsonObject scan(final String json, final boolean validate) {
+        return DocumentScanner.scan(new StringReader(json.replace('\'', '"')), KEYS, validate);
+    }
+
+    private static JsonObject read(final String json) {
+        return Json.createReader(new StringReader(json.replace('\'', '"'))).readObject();
+    }
+
+    /**
+     * Only the wanted fields are extracted, with the same values as in the tree of the document.
+     */
+    @Test
+    public void testScan() {
+        String doc = "{'input': {'type': 'record', 'name': 'R', 'fields': [{'name': 'x', 'type': 'double'}]}, "
+            + "'action': [{'+': [1, 2.5e3]}], 'output': ['null', 'int'], 'cells': {'c': {'init': [true, null]}}}";
+        JsonObject tree = read(doc);
+        JsonObject scanned = scan(doc, true);
+        assertEquals(KEYS, scanned.keySet());
+        assertEquals(tree.get("input"), scanned.get("input"));
+        assertEquals(tree.get("output"), scanned.get("output"));
+        assertFalse(scan("{'action': 'input'}", false).containsKey("input"));
+    }
+
+    /**
+     * The last occurrence of a repeated field is extracted, like the tree reader does.
+     */
+    @Test
+    public void testDuplicateKeysLastWins() {
+        String doc = "{'input': 'int', 'output': 'int', 'action': 'input', 'input': 'double', 'output': "
+            + "{'type': 'array', 'items': 'int'}}";
+        JsonObject tree = read(doc);
+        assertEquals(tree.get("input"), scan(doc, false).get("input"));
+        assertEquals(tree.get("output"), scan(doc, false).get("output"));
+        assertEquals(tree.get("output"), scan(doc, true).get("output"));
+    }
+
+    /**
+     * Content after the document is only rejected when validating.
+     */
+    @Test
+    public void testTrailingContent() {
+        assertEquals(2, scan("{'input': 'int', 'output': 'int'} {}", false).size());
+        try {
+            scan("{'input': 'int', 'output': 'int'} {}", true);
+            throw new AssertionError("Trailing content not detected");
+        } catch (JsonException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Documents that are no objects are rejected.
+     */
+    @Test(expected = JsonException.class)
+    public void testNoObject() {
+        scan("['input', 'output']", false);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+
+import org.junit.Test;
+
+/**
+ * Tests the rewrites of the {@link PFADocumentOptimizer}.
+ *
+ * @author agent
+ */
+public class PFADocumentOptimizerTest {
+
+    /**
+     * @param json JSON with single instead of double quotes
+     * @return the parsed value
+     */
+    private static JsonValue json(final String json) {
+        try (JsonReader r = Json.createReader(new StringReader("[" + json.replace('\'', '"') + "]"))) {
+            return r.readArray().get(0);
+        }
+    }
+
+    private static JsonObject doc(final String action) {
+        return (JsonObject) json("{'input': 'double', 'output': 'double', 'action': " + action + "}");
+    }
+
+    private static JsonValue foldedAction(final String action) {
+        return PFADocumentOptimizer.optimize(doc(action)).getDocument().get("action");
+    }
+
+    /**
+     * Arithmetic on literals keeps PFA's int, long and double types.
+     */
+    @Test
+    public void testFolding() {
+        assertEquals(json("5"), foldedAction("{'+': [2, 3]}"));
+        assertEquals(json("-7"), foldedAction("{'u-': 7}"));
+        assertEquals(json("0.5"), foldedAction("{'/': [1, 2]}"));
+        assertEquals(json("2.0"), foldedAction("{'/': [4, 2]}"));
+        assertEquals(json("3.5"), foldedAction("{'+': [1, 2.5]}"));
+        assertEquals(json("6"), foldedAction("{'*': [{'+': [1, 2]}, 2]}"));
+        assertEquals(json("6000000000"), foldedAction("{'*': [3000000000, 2]}"));
+        // Results of long arithmetic that fit into an int must stay longs
+        assertEquals(json("{'long': 1}"), foldedAction("{'-': [3000000000, 2999999999]}"));
+        assertEquals(json("{'long': -2147483648}"), foldedAction("{'u-': 2147483648}"));
+    }
+
+    /**
+     * Expressions whose result cannot be written as a literal or that fail at runtime are left to the engine.
+     */
+    @Test
+    public void testNoFolding() {
+        String[] kept = {"{'+': [2147483647, 1]}", "{'*': [4611686018427387904, 4]}", "{'/': [1, 0]}",
+            "{'/': [0.0, 0.0]}", "{'u-': 0.0}", "{'*': [-1.0, 0.0]}", "{'+': ['input', 1]}", "{'m.abs': -1}",
+            "{'+': [1, 2, 3]}"};
+        for (String expr : kept) {
+            JsonObject doc = doc(expr);
+            PFADocumentOptimizer.Result result = PFADocumentOptimizer.optimize(doc);
+            assertEquals(expr, doc.get("action"), result.getDocument().get("action"));
+            assertEquals(expr, 0, result.getReport(0, 0).getFoldedExpressions());
+        }
+        // Literal data is no expression
+        JsonValue literal = json("{'type': 'double', 'value': {'+': [1, 2]}}");
+        assertEquals(literal, foldedAction(literal.toString()));
+    }
+
+    /**
+     * Wrappers that forward their parameters are skipped by calls and function references, and are removed
+     * afterwards together with every other unreachable function.
+     */
+    @Test
+    public void testWrappersAndUnusedFunctions() {
+        JsonObject doc = (JsonObject) json("{'input': 'double', 'output': 'double', "
+            + "'action': {'u.outer': [{'u.wrap': ['input']}]}, "
+            + "'end': {'a.map': [{'new': [1.0], 'type': {'type': 'array', 'items': 'double'}}, {'fcn': 'u.wrap'}]}, "
+            + "'fcns': {"
+            + "'f': {'params': [{'x': 'double'}], 'ret': 'double', 'do': {'*': ['x', 2]}}, "
+            + "'wrap': {'params': [{'x': 'double'}], 'ret': 'double', 'do': [{'u.wrap2': ['x']}]}, "
+            + "'wrap2': {'params': [{'x': 'double'}], 'ret': 'double', 'do': {'u.f': ['x']}}, "
+            + "'outer': {'params': [{'y': 'double'}], 'ret': 'double', 'do': {'u.f': [{'+': ['y', 1]}]}}, "
+            + "'swapped': {'params': [{'a': 'double'}, {'b': 'double'}], 'ret': 'double', 'do': {'-': ['a', 'b']}}, "
+            + "'cycle1': {'params': [{'x': 'double'}], 'ret': 'double', 'do': {'u.cycle2': ['x']}}, "
+            + "'cycle2': {'params': [{'x': 'double'}], 'ret': 'double', 'do': {'u.cycle1': ['x']}}, "
+            + "'typed': {'params': [{'r': {'type': 'record', 'name': 'R', 'fields': []}}], 'ret': 'double', "
+            + "'do': 1.0}}}");
+        PFADocumentOptimizer.Result result = PFADocumentOptimizer.optimize(doc);
+        JsonObject opt = result.getDocument();
+        assertEquals(json("{'u.outer': [{'u.f': ['input']}]}"), opt.get("action"));
+        assertEquals(json("{'fcn': 'u.f'}"), opt.getJsonObject("end").getJsonArray("a.map").get(1));
+        assertEquals(Arrays.asList("f", "outer", "typed"), new ArrayList<>(opt.getJsonObject("fcns").keySet()));
+        assertEquals(5, result.getReport(0, 0).getRemovedFunctions());
+        assertEquals(2, result.getReport(0, 0).getInlinedCalls());
+    }
+
+    /**
+     * Unreferenced cells are removed unless they are shared or define named types.
+     */
+    @Test
+    public void testUnusedCells() {
+        JsonObject doc = (JsonObject) json("{'input': 'double', 'output': 'double', "
+            + "'action': {'+': ['input', {'cell': 'used'}]}, 'cells': {"
+            + "'used': {'type': 'double', 'init': 1.0}, "
+            + "'unused': {'type': 'double', 'init': 2.0}, "
+            + "'shared': {'type': 'double', 'init': 3.0, 'shared': true}, "
+            + "'named': {'type': {'type': 'record', 'name': 'Named', 'fields': []}, 'init': {}}}}");
+        PFADocumentOptimizer.Result result = PFADocumentOptimizer.optimize(doc);
+        JsonObject cells = result.getDocument().getJsonObject("cells");
+        assertTrue(cells.containsKey("used"));
+        assertFalse(cells.containsKey("unused"));
+        assertTrue(cells.containsKey("shared"));
+        assertTrue(cells.containsKey("named"));
+        assertEquals(1, result.getReport(0, 0).getRemovedCells());
+    }
+
+    /**
+     * The report survives its JSON form.
+     */
+    @Test
+    public void testReportRoundTrip() {
+        OptimizationReport report = new OptimizationReport(100, 80, 1, 2, 3, 4);
+        OptimizationReport copy = OptimizationReport.fromJson(report.toJson());
+        assertEquals(report.toString(), copy.toString());
+        assertEquals(80, copy.getOptimizedSize());
+        assertEquals(4, copy.getFoldedExpressions());
+    }
+
+    /**
+     * Optimized port objects report the sizes of the documents' UTF-8 encoded JSON.
+     */
+    @Test
+    public void testPortObjectSizes() {
+        JsonObject doc = (JsonObject) json("{'input': 'double', 'output': 'double', 'action': {'u.f': ['input']}, "
+            + "'fcns': {'f': {'params': [{'x': 'double'}], 'ret': 'double', 'do': 'x'}, "
+            + "'g': {'params': [{'\u00e4': 'double'}], 'ret': 'double', 'do': '\u00e4'}}}");
+        PFAPortObject original = new PFAPortObject(doc);
+        PFAPortObject optimized = PFADocumentOptimizer.optimize(original);
+        OptimizationReport report = optimized.getOptimizationReport();
+        assertEquals(1, report.getRemovedFunctions());
+        assertEquals(doc.toString().getBytes(StandardCharsets.UTF_8).length, report.getOriginalSize());
+        assertEquals(optimized.getJsonObject().toString().getBytes(StandardCharsets.UTF_8).length,
+            report.getOptimizedSize());
+        assertTrue(report.getOptimizedSize() < report.getOriginalSize());
+    }
+}
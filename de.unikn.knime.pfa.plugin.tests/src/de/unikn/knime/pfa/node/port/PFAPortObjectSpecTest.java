@@ -0,0 +1,146 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.junit.Test;
+
+/**
+ * Tests parsing and fingerprinting the types of PFA documents.
+ *
+ * @author agent
+ */
+public class PFAPortObjectSpecTest {
+
+    private static final String RECORD = "{'type': 'record', 'name': 'Input', 'fields': [{'name': 'x', 'type': "
+        + "'double'%s}, {'name': 'kind', 'type': {'type': 'enum', 'name': 'Kind', 'symbols': ['A', 'B']}}]}";
+
+    private static JsonObject doc(final String input, final String output) {
+        String json = "{'input': " + input + ", 'output': " + output + ", 'action': 'input'}";
+        return Json.createReader(new StringReader(json.replace('\'', '"'))).readObject();
+    }
+
+    /**
+     * Documents with the same types share the parsed schemas.
+     */
+    @Test
+    public void testSchemasAreShared() {
+        PFAPortObjectSpec a = PFAPortObjectSpec.fromJson(doc(String.format(RECORD, ""), "'Kind'"));
+        PFAPortObjectSpec b = PFAPortObjectSpec.fromJson(doc(String.format(RECORD, ""), "'Kind'"));
+        assertSame(a.getInputSchema(), b.getInputSchema());
+        assertSame(a.getOutputSchema(), b.getOutputSchema());
+        assertEquals(Schema.Type.ENUM, a.getOutputSchema().getType());
+        assertEquals(a, b);
+    }
+
+    /**
+     * Specs keep their cache entry, so the schemas are still shared after a garbage collection.
+     */
+    @Test
+    public void testSchemasSurviveGarbageCollection() {
+        PFAPortObjectSpec a = PFAPortObjectSpec.fromJson(doc(String.format(RECORD, ""), "'int'"));
+        System.gc();
+        PFAPortObjectSpec b = PFAPortObjectSpec.fromJson(doc(String.format(RECORD, ""), "'int'"));
+        assertSame(a.getInputSchema(), b.getInputSchema());
+        assertSame(a.getOutputSchema(), b.getOutputSchema());
+    }
+
+    /**
+     * Fingerprints are Avro's parsing fingerprints, which ignore documentation and defaults.
+     */
+    @Test
+    public void testFingerprints() {
+        PFAPortObjectSpec plain = PFAPortObjectSpec.fromJson(doc(String.format(RECORD, ""), "'double'"));
+        assertEquals(SchemaNormalization.parsingFingerprint64(plain.getInputSchema()), plain.getInputFingerprint());
+        assertEquals(SchemaNormalization.parsingFingerprint64(Schema.create(Schema.Type.DOUBLE)),
+            plain.getOutputFingerprint());
+
+        PFAPortObjectSpec documented = PFAPortObjectSpec.fromJson(
+            doc(String.format(RECORD, ", 'doc': 'The value', 'default': 0.0"), "'double'"));
+        assertNotSame(plain.getInputSchema(), documented.getInputSchema());
+        assertEquals(plain, documented);
+        assertEquals(plain.hashCode(), documented.hashCode());
+
+        assertNotEquals(plain, PFAPortObjectSpec.fromJson(doc(String.format(RECORD, ""), "'float'")));
+        assertNotEquals(plain, new PFAPortObjectSpec(plain.getOutputSchema(), plain.getInputSchema()));
+    }
+
+    /**
+     * Scanning a document yields the same spec as reading its tree.
+     */
+    @Test
+    public void testScan() {
+        JsonObject doc = doc(String.format(RECORD, ""), "{'type': 'array', 'items': 'Kind'}");
+        PFAPortObjectSpec scanned = PFAPortObjectSpec.scan(
+            new ByteArrayInputStream(doc.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(PFAPortObjectSpec.fromJson(doc), scanned);
+        assertSame(PFAPortObjectSpec.fromJson(doc).getInputSchema(), scanned.getInputSchema());
+    }
+
+    /**
+     * Documents without types are rejected.
+     */
+    @Test(expected = JsonException.class)
+    public void testMissingType() {
+        PFAPortObjectSpec.fromJson(Json.createReader(new StringReader("{\"input\": \"int\"}")).readObject());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.junit.Test;
+
+/**
+ * Tests saving and loading PFA port objects without parsing their documents.
+ *
+ * @author agent
+ */
+public class PFAPortObjectTest {
+
+    private static final String DOC = "{\"input\": \"double\", "
+        + "\"output\": {\"type\": \"array\", \"items\": \"string\"}, "
+        + "\"action\": [{\"new\": [\"\\u00e4\", \"\\u00df\"], "
+        + "\"type\": {\"type\": \"array\", \"items\": \"string\"}}], "
+        + "\"cells\": {\"c\": {\"type\": \"double\", \"init\": 1.5}}}";
+
+    private static byte[] bytes(final PFAPortObject po) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        po.saveTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * A compressed port object loads with the same bytes, digest and document.
+     */
+    @Test
+    public void testCompressedRoundTrip() throws IOException {
+        PFAPortObject po = PFAPortObject.loadFromJson(DOC.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        po.saveCompressedTo(compressed);
+        PFAPortObject loaded = PFAPortObject.loadCompressed(new ByteArrayInputStream(compressed.toByteArray()),
+            (PFAPortObjectSpec)po.getSpec());
+        assertArrayEquals(bytes(po), bytes(loaded));
+        assertEquals(po.getDigest(), loaded.getDigest());
+        assertSame("Identical documents share their buffer", po.getBuffer(), loaded.getBuffer());
+        assertEquals(Json.createReader(new StringReader(DOC)).readObject(), loaded.getJsonObject());
+        assertEquals(po.getSpec(), loaded.getSpec());
+    }
+
+    /**
+     * Loading a file keeps its bytes apart from a byte order mark and extracts the spec without the tree.
+     */
+    @Test
+    public void testLoadFromJsonBytes() throws IOException {
+        byte[] utf8 = DOC.getBytes(StandardCharsets.UTF_8);
+        byte[] bom = new byte[utf8.length + 3];
+        bom[0] = (byte)0xEF;
+        bom[1] = (byte)0xBB;
+        bom[2] = (byte)0xBF;
+        System.arraycopy(utf8, 0, bom, 3, utf8.length);
+        PFAPortObject po = PFAPortObject.loadFromJson(bom);
+        assertArrayEquals(utf8, bytes(po));
+        JsonObject doc = Json.createReader(new StringReader(DOC)).readObject();
+        assertEquals(PFAPortObjectSpec.fromJson(doc), po.getSpec());
+        assertEquals(doc, po.getJsonObject());
+
+        // Other encodings are read into a tree and stored as UTF-8
+        PFAPortObject utf16 = PFAPortObject.loadFromJson(DOC.getBytes(StandardCharsets.UTF_16BE));
+        assertEquals(doc, utf16.getJsonObject());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import org.junit.Test;
+
+/**
+ * Tests the helpers for reproducible random numbers.
+ *
+ * @author agent
+ */
+public class RandomSeedsTest {
+
+    private static JsonObject doc(final String json) {
+        try (JsonReader r = Json.createReader(new StringReader(json.replace('\'', '"')))) {
+            return r.readObject();
+        }
+    }
+
+    /**
+     * Partition seeds only depend on the master seed and the partition and do not repeat.
+     */
+    @Test
+    public void testPartitionSeeds() {
+        Set<Long> seeds = new HashSet<>();
+        for (long master : new long[] {0, 1, -1, 42}) {
+            for (long p = 0; p < 10000; p++) {
+                long seed = RandomSeeds.partitionSeed(master, p);
+                assertEquals(seed, RandomSeeds.partitionSeed(master, p));
+                assertTrue("Repeated seed for partition " + p + " of master seed " + master, seeds.add(seed));
+            }
+        }
+        // A changed derivation changes the results of seeded runs. The first value is SplitMix64's first output
+        // for seed 0.
+        assertEquals(0xE220A8397B1DCDAFL, RandomSeeds.partitionSeed(0, 0));
+        assertEquals(-3677692746721775708L, RandomSeeds.partitionSeed(42, 7));
+        assertEquals(4096, RandomSeeds.PARTITION_SIZE);
+    }
+
+    /**
+     * Documents writing cells or pools anywhere in their code are detected, reading them is fine.
+     */
+    @Test
+    public void testWritesState() {
+        assertFalse(RandomSeeds.writesState(doc("{'action': {'+': [{'cell': 'c'}, {'rand.double': [0, 1]}]}}")));
+        assertFalse(RandomSeeds.writesState(doc("{'action': 'input', 'cells': {'c': {'type': 'int', 'init': 0, "
+            + "'to': 1}}}")));
+        assertTrue(RandomSeeds.writesState(doc("{'action': [{'cell': 'c', 'to': 1}, 'input']}")));
+        assertTrue(RandomSeeds.writesState(doc("{'action': 'input', 'end': {'pool': 'p', 'path': ['input'], "
+            + "'to': 1, 'init': 0}}")));
+        assertTrue(RandomSeeds.writesState(doc("{'action': {'u.f': []}, 'fcns': {'f': {'params': [], 'ret': "
+            + "'null', 'do': {'if': true, 'then': {'cell': 'c', 'to': 2}}}}}")));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Tests the streaming conversion of YAML documents to JSON.
+ *
+ * @author agent
+ */
+public class YamlToJsonTest {
+
+    private static JsonObject convert(final String yaml) throws YamlToJson.UnsupportedYamlException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        YamlToJson.convert(new StringReader(yaml), json);
+        return Json.createReader(new StringReader(new String(json.toByteArray(), StandardCharsets.UTF_8)))
+            .readObject();
+    }
+
+    // The conversion used for documents the streaming conversion does not support
+    private static JsonObject load(final String yaml) throws Exception {
+        String json = new ObjectMapper().writeValueAsString((Map<?, ?>)new Yaml().load(yaml));
+        return Json.createReader(new StringReader(json)).readObject();
+    }
+
+    /**
+     * Scalars are typed like SnakeYAML does when loading the document.
+     */
+    @Test
+    public void testSameAsLoading() throws Exception {
+        String yaml = "input: double\noutput: {type: array, items: string}\n"
+            + "action:\n  - {+: [input, 1_000, -2.5, 0.5]}\n  - new: [\"a\", 'b', yes, off, ~, null, 12]\n"
+            + "    type: {type: array, items: string}\n"
+            + "cells:\n  c: {type: double, init: 1.5}\n  d: {type: boolean, init: true}\n"
+            + "metadata:\n  true: key\n  3: number\n  text: |\n    two\n    lines\n";
+        assertEquals(load(yaml), convert(yaml));
+        // Exponents are kept, the numbers are equal
+        assertEquals(-2500, convert("x: -2.5e+3").getJsonNumber("x").doubleValue(), 0);
+    }
+
+    /**
+     * Like loading the document, the last occurrence of a repeated key wins.
+     */
+    @Test
+    public void testDuplicateKeys() throws Exception {
+        String yaml = "input: int\noutput: int\naction: input\ninput: double\n";
+        assertEquals("double", convert(yaml).getString("input"));
+        assertEquals(load(yaml), convert(yaml));
+    }
+
+    /**
+     * Aliases have no JSON counterpart and are left to the conventional conversion.
+     */
+    @Test(expected = YamlToJson.UnsupportedYamlException.class)
+    public void testAlias() throws Exception {
+        convert("input: &t double\noutput: *t\naction: input\n");
+    }
+
+    /**
+     * Complex keys have no JSON counterpart and are left to the conventional conversion.
+     */
+    @Test(expected = YamlToJson.UnsupportedYamlException.class)
+    public void testComplexKey() throws Exception {
+        convert("? [a, b]\n: c\n");
+    }
+
+    /**
+     * Numbers in other bases are left to the conventional conversion.
+     */
+    @Test(expected = YamlToJson.UnsupportedYamlException.class)
+    public void testHexNumber() throws Exception {
+        convert("input: int\noutput: int\naction: 0x1F\n");
+    }
+}
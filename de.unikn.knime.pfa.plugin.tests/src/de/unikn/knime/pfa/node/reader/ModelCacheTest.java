@@ -0,0 +1,169 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.unikn.knime.pfa.node.port.PFAPortObject;
+
+/**
+ * Tests sharing, invalidation and the bounds of the reader's model cache.
+ *
+ * @author agent
+ */
+public class ModelCacheTest {
+
+    // See DocumentBuffer.MAP_THRESHOLD_PROPERTY
+    private static final String MAP_THRESHOLD_PROPERTY = "knime.pfa.mapThresholdMB";
+
+    /** Holds the model files of a test. */
+    @Rule
+    public TemporaryFolder m_folder = new TemporaryFolder();
+
+    private final AtomicInteger m_loads = new AtomicInteger();
+
+    /**
+     * Restores the default threshold for mapping documents.
+     */
+    @After
+    public void resetThreshold() {
+        System.clearProperty(MAP_THRESHOLD_PROPERTY);
+    }
+
+    private Path write(final String name, final String output) throws IOException {
+        Path file = m_folder.getRoot().toPath().resolve(name);
+        Files.write(file, ("{\"input\": \"int\", \"output\": \"" + output + "\", \"action\": \"input\"}")
+            .getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private PFAPortObject get(final ModelCache cache, final Path file) throws Exception {
+        return cache.get(file, "", false, content -> {
+            m_loads.incrementAndGet();
+            return PFAPortObject.loadFromJson(content);
+        });
+    }
+
+    /**
+     * An unchanged file is loaded once, a touched file is not parsed again unless its content changed.
+     */
+    @Test
+    public void testInvalidation() throws Exception {
+        ModelCache cache = new ModelCache(1 << 20, 1 << 20);
+        Path file = write("model.json", "int");
+        PFAPortObject po = get(cache, file);
+        assertSame(po, get(cache, file));
+        assertEquals(1, m_loads.get());
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        assertSame(po, get(cache, file));
+        assertEquals(1, m_loads.get());
+
+        write("model.json", "long");
+        assertNotSame(po, get(cache, file));
+        assertEquals(2, m_loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * The least recently used documents are evicted, documents exceeding the bound alone are not cached.
+     */
+    @Test
+    public void testHeapBound() throws Exception {
+        Path a = write("a.json", "int");
+        Path b = write("b.json", "int");
+        ModelCache cache = new ModelCache(Files.size(a) + Files.size(b) - 1, 1 << 20);
+        get(cache, a);
+        get(cache, b);
+        assertEquals(1, cache.size());
+        get(cache, b);
+        assertEquals(2, m_loads.get());
+        get(cache, a);
+        assertEquals(3, m_loads.get());
+
+        ModelCache tiny = new ModelCache(Files.size(a) - 1, 1 << 20);
+        get(tiny, a);
+        get(tiny, a);
+        assertEquals(5, m_loads.get());
+        assertEquals(0, tiny.size());
+    }
+
+    /**
+     * Memory-mapped documents are bounded separately from documents on the heap.
+     */
+    @Test
+    public void testMappedBound() throws Exception {
+        System.setProperty(MAP_THRESHOLD_PROPERTY, "0");
+        Path a = write("a.json", "string");
+        ModelCache cache = new ModelCache(0, 1 << 20);
+        PFAPortObject po = get(cache, a);
+        assertTrue(po.isDocumentMapped());
+        assertSame(po, get(cache, a));
+        assertEquals(1, m_loads.get());
+        assertEquals(1, cache.size());
+
+        ModelCache tiny = new ModelCache(1 << 20, Files.size(a) - 1);
+        get(tiny, a);
+        assertEquals(0, tiny.size());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests detecting and reading the formats of model files.
+ *
+ * @author agent
+ */
+public class ModelFileTest {
+
+    private static final byte[] DOC = "{\"input\": \"int\", \"output\": \"int\", \"action\": \"input\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    /** Holds the model files of a test. */
+    @Rule
+    public TemporaryFolder m_folder = new TemporaryFolder();
+
+    private Path plain(final String name, final byte[] content) throws IOException {
+        Path file = m_folder.getRoot().toPath().resolve(name);
+        Files.write(file, content);
+        return file;
+    }
+
+    private Path gzip(final String name, final byte[] content) throws IOException {
+        Path file = m_folder.getRoot().toPath().resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content);
+        }
+        return file;
+    }
+
+    private Path zip(final String name, final String... entries) throws IOException {
+        Path file = m_folder.getRoot().toPath().resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(file))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write(entry.endsWith(".gz") ? Files.readAllBytes(gzip("entry.gz", DOC)) : DOC);
+            }
+        }
+        return file;
+    }
+
+    private static void assertContent(final byte[] expected, final Path file, final String entry)
+            throws IOException {
+        assertArrayEquals(expected, ModelFile.read(file, entry));
+        try (InputStream in = ModelFile.open(file, entry)) {
+            assertArrayEquals(expected, IOUtils.toByteArray(in));
+        }
+    }
+
+    /**
+     * The format is detected from the content, whatever the extension says.
+     */
+    @Test
+    public void testFormats() throws IOException {
+        assertContent(DOC, plain("model.json", DOC), "");
+        assertContent(DOC, gzip("model.json", DOC), "");
+        assertContent(DOC, gzip("model.pfa.gz", DOC), null);
+        assertContent(DOC, zip("model.gz", "model.json"), "");
+        assertContent(DOC, zip("nested.zip", "model.json.gz"), "");
+        assertContent(new byte[] {'{', '}'}, plain("tiny.json", new byte[] {'{', '}'}), "");
+    }
+
+    /**
+     * The document in an archive is found by name or as the only document.
+     */
+    @Test
+    public void testZipEntries() throws IOException {
+        Path zip = zip("models.zip", "readme.txt", "model.yaml");
+        assertContent(DOC, zip, "");
+        assertContent(DOC, zip, "readme.txt");
+        assertFails(zip, "other.json");
+        assertFails(zip("ambiguous.zip", "a.json", "b.json"), "");
+    }
+
+    /**
+     * Zstandard compressed files are recognized and rejected with a message.
+     */
+    @Test
+    public void testZstandard() throws IOException {
+        assertFails(plain("model.json.zst", new byte[] {0x28, (byte)0xB5, 0x2F, (byte)0xFD, 0, 0}), "");
+    }
+
+    /**
+     * JSON is told apart from YAML by the first character.
+     */
+    @Test
+    public void testIsJson() {
+        assertTrue(ModelFile.isJson(DOC));
+        assertTrue(ModelFile.isJson("\uFEFF \n {}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(ModelFile.isJson("input: int\n".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(ModelFile.isJson(new byte[0]));
+    }
+
+    private static void assertFails(final Path file, final String entry) {
+        try {
+            ModelFile.read(file, entry);
+            throw new AssertionError("Reading " + file.getFileName() + " did not fail");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
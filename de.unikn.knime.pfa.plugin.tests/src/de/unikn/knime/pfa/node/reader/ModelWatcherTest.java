@@ -0,0 +1,144 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.unikn.knime.pfa.engine.PFAEngineCache;
+import de.unikn.knime.pfa.node.port.ModelUpdates;
+import de.unikn.knime.pfa.node.port.PFAPortObject;
+
+/**
+ * Tests that a watched model file is reloaded and published once per change, and not after closing.
+ *
+ * @author agent
+ */
+public class ModelWatcherTest {
+
+    // Long enough for the polling fallback of file systems without change notifications
+    private static final long TIMEOUT_MILLIS = 15000;
+
+    // Long enough for a watcher to notice a change and let it settle
+    private static final long QUIET_MILLIS = 2000;
+
+    /** Holds the model file of a test. */
+    @Rule
+    public TemporaryFolder m_folder = new TemporaryFolder();
+
+    private final AtomicInteger m_loads = new AtomicInteger();
+
+    /**
+     * Keeps the published versions from being compiled, which needs Hadrian.
+     */
+    @Before
+    public void disablePrecompile() {
+        System.setProperty(PFAEngineCache.PRECOMPILE_PROPERTY, "false");
+    }
+
+    /**
+     * Restores background compilation.
+     */
+    @After
+    public void enablePrecompile() {
+        System.clearProperty(PFAEngineCache.PRECOMPILE_PROPERTY);
+    }
+
+    private static byte[] doc(final String action) {
+        return ("{\"input\": \"int\", \"output\": \"int\", \"action\": " + action + "}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private PFAPortObject load(final Path file) throws IOException {
+        m_loads.incrementAndGet();
+        return PFAPortObject.loadFromJson(Files.readAllBytes(file));
+    }
+
+    /**
+     * A change of the file publishes exactly one new version, a closed watcher publishes nothing.
+     */
+    @Test
+    public void testReloadPublishesOnce() throws Exception {
+        Path file = m_folder.getRoot().toPath().resolve("model.json");
+        Files.write(file, doc("\"input\""));
+        PFAPortObject initial = PFAPortObject.loadFromJson(Files.readAllBytes(file));
+        String updates = ModelUpdates.register(initial);
+        PFAPortObject watched = initial.withUpdates(updates);
+        try (ModelWatcher watcher = new ModelWatcher(file, initial, updates, () -> load(file))) {
+            Files.write(file, doc("{\"+\": [\"input\", 1]}"));
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (watched.getLatestVersion() == watched && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            PFAPortObject published = watched.getLatestVersion();
+            assertNotSame("No version was published", watched, published);
+            assertEquals(PFAEngineCache.digest(doc("{\"+\": [\"input\", 1]}")), published.getDigest());
+
+            Thread.sleep(QUIET_MILLIS);
+            assertEquals(1, m_loads.get());
+            assertSame(published, watched.getLatestVersion());
+        }
+        assertSame("The channel is closed with the watcher", watched, watched.getLatestVersion());
+        Files.write(file, doc("{\"+\": [\"input\", 2]}"));
+        Thread.sleep(QUIET_MILLIS);
+        assertEquals(1, m_loads.get());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.node.InvalidSettingsException;
+
+import de.unikn.knime.pfa.node.port.PFAPortObject;
+
+/**
+ * Tests checking the side files of cells and pools and linking them.
+ *
+ * @author agent
+ */
+public class SideDataTest {
+
+    /** Holds the model and side files of a test. */
+    @Rule
+    public TemporaryFolder m_folder = new TemporaryFolder();
+
+    private static JsonObject json(final String json) {
+        return Json.createReader(new StringReader(json.replace('\'', '"'))).readObject();
+    }
+
+    private PFAPortObject link(final String doc) throws IOException, InvalidSettingsException {
+        byte[] content = doc.replace('\'', '"').getBytes(StandardCharsets.UTF_8);
+        return SideData.link(PFAPortObject.loadFromJson(content), content, m_folder.getRoot().toPath());
+    }
+
+    private String url(final String name) {
+        return m_folder.getRoot().toPath().resolve(name).toUri().toString();
+    }
+
+    private void write(final String name, final String content) throws IOException {
+        Path file = m_folder.getRoot().toPath().resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Documents without side data are returned unchanged.
+     */
+    @Test
+    public void testNoSideData() throws Exception {
+        byte[] content = ("{\"input\": \"int\", \"output\": \"int\", \"action\": \"input\", \"cells\": {\"c\": "
+            + "{\"type\": \"int\", \"init\": 3}}}").getBytes(StandardCharsets.UTF_8);
+        PFAPortObject o = PFAPortObject.loadFromJson(content);
+        assertSame(o, SideData.link(o, content, m_folder.getRoot().toPath()));
+    }
+
+    /**
+     * JSON side files hold the value in PFA's encoding. Relative locations are replaced with the URLs of the files
+     * in the model's directory, other locations are left to the engine.
+     */
+    @Test
+    public void testJson() throws Exception {
+        write("weights.json", "[0.5, -1.25]");
+        write("data/counts.json", "{'a': 1, 'b': 2}");
+        write("scale.json", " 2.5 ");
+        PFAPortObject o = link("{'input': 'int', 'output': 'int', 'action': 'input', 'cells': {"
+            + "'w': {'type': {'type': 'array', 'items': 'double'}, 'init': 'weights.json', 'source': 'json'}, "
+            + "'s': {'type': 'double', 'init': 'scale.json', 'source': 'json'}, "
+            + "'r': {'type': 'double', 'init': 'http://example.org/r.json', 'source': 'json'}}, "
+            + "'pools': {'p': {'type': 'int', 'init': '" + url("data/counts.json") + "', 'source': 'json'}}}");
+        JsonObject doc = o.getJsonObject();
+        assertEquals(json("{'type': {'type': 'array', 'items': 'double'}, 'init': '" + url("weights.json")
+            + "', 'source': 'json'}"), doc.getJsonObject("cells").getJsonObject("w"));
+        assertEquals(url("scale.json"), doc.getJsonObject("cells").getJsonObject("s").getString("init"));
+        assertEquals("http://example.org/r.json", doc.getJsonObject("cells").getJsonObject("r").getString("init"));
+        assertEquals(json("{'type': 'int', 'init': '" + url("data/counts.json") + "', 'source': 'json'}"),
+            doc.getJsonObject("pools").getJsonObject("p"));
+        assertEquals("input", doc.getString("action"));
+    }
+
+    /**
+     * Documents whose side files are already given by their URLs are returned unchanged.
+     */
+    @Test
+    public void testAbsoluteLocations() throws Exception {
+        write("weights.json", "[0.5, -1.25]");
+        byte[] content = ("{'input': 'int', 'output': 'int', 'action': 'input', 'cells': {'w': {'type': "
+            + "{'type': 'array', 'items': 'double'}, 'init': '" + url("weights.json") + "', 'source': 'json'}}}")
+            .replace('\'', '"').getBytes(StandardCharsets.UTF_8);
+        PFAPortObject o = PFAPortObject.loadFromJson(content);
+        assertSame(o, SideData.link(o, content, m_folder.getRoot().toPath()));
+    }
+
+    /**
+     * Avro side files hold the value as their first datum.
+     */
+    @Test
+    public void testAvro() throws Exception {
+        Schema schema = new Schema.Parser().parse("{\"type\": \"record\", \"name\": \"Model\", \"fields\": ["
+            + "{\"name\": \"weights\", \"type\": {\"type\": \"array\", \"items\": \"double\"}}, "
+            + "{\"name\": \"label\", \"type\": [\"null\", \"string\"]}]}");
+        GenericRecord model = new GenericData.Record(schema);
+        model.put("weights", Arrays.asList(1.0, 2.0));
+        model.put("label", "spam");
+        try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+            writer.create(schema, m_folder.getRoot().toPath().resolve("model.avro").toFile());
+            writer.append(model);
+        }
+        PFAPortObject o = link("{'input': 'int', 'output': 'int', 'action': 'input', 'cells': {"
+            + "'m': {'type': 'Model', 'init': 'model.avro', 'source': 'avro'}}}");
+        assertEquals(json("{'type': 'Model', 'init': '" + url("model.avro") + "', 'source': 'avro'}"),
+            o.getJsonObject().getJsonObject("cells").getJsonObject("m"));
+    }
+
+    /**
+     * An empty Avro side file is reported as an invalid setting.
+     */
+    @Test(expected = InvalidSettingsException.class)
+    public void testEmptyAvroFile() throws Exception {
+        Schema schema = Schema.create(Schema.Type.INT);
+        try (DataFileWriter<Integer> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+            writer.create(schema, m_folder.getRoot().toPath().resolve("empty.avro").toFile());
+        }
+        link("{'input': 'int', 'output': 'int', 'action': 'input', 'cells': {"
+            + "'c': {'type': 'int', 'init': 'empty.avro', 'source': 'avro'}}}");
+    }
+
+    /**
+     * A missing side file is reported as an invalid setting.
+     */
+    @Test(expected = InvalidSettingsException.class)
+    public void testMissingFile() throws Exception {
+        link("{'input': 'int', 'output': 'int', 'action': 'input', 'cells': {"
+            + "'c': {'type': 'int', 'init': 'missing.json', 'source': 'json'}}}");
+    }
+}
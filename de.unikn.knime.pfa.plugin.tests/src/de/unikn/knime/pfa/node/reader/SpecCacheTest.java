@@ -0,0 +1,108 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.apache.avro.Schema;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.unikn.knime.pfa.node.port.PFAPortObjectSpec;
+
+/**
+ * Tests determining the specs of model files at configure time.
+ *
+ * @author agent
+ */
+public class SpecCacheTest {
+
+    /** Holds the model files of a test. */
+    @Rule
+    public TemporaryFolder m_folder = new TemporaryFolder();
+
+    private static void write(final Path file, final String input) throws IOException {
+        Files.write(file, ("{\"input\": \"" + input + "\", \"action\": \"input\", \"output\": \"string\"}")
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A file is only scanned again after it was modified.
+     */
+    @Test
+    public void testInvalidation() throws IOException {
+        Path file = m_folder.getRoot().toPath().resolve("model.json");
+        write(file, "int");
+        FileTime modified = Files.getLastModifiedTime(file);
+        PFAPortObjectSpec spec = SpecCache.get(file, "");
+        assertEquals(Schema.Type.INT, spec.getInputSchema().getType());
+        assertEquals(Schema.Type.STRING, spec.getOutputSchema().getType());
+        assertSame(spec, SpecCache.get(file, ""));
+        assertSame("Paths are normalized", spec, SpecCache.get(file.getParent().resolve(".").resolve("model.json"),
+            ""));
+
+        // Same size and time, so the invalid type is not even scanned
+        write(file, "xyz");
+        Files.setLastModifiedTime(file, modified);
+        assertSame(spec, SpecCache.get(file, ""));
+
+        write(file, "long");
+        PFAPortObjectSpec changed = SpecCache.get(file, "");
+        assertNotEquals(spec, changed);
+        assertEquals(Schema.Type.LONG, changed.getInputSchema().getType());
+    }
+}
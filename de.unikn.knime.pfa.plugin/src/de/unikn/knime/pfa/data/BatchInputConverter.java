@@ -0,0 +1,420 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.node.InvalidSettingsException;
+
+import com.opendatagroup.hadrian.data.PFAMap;
+import com.opendatagroup.hadrian.data.PFARecord;
+
+/**
+ * Converts blocks of KNIME rows into inputs for a PFA scoring engine. Instead of converting one row at a time,
+ * a block of rows is first read into a {@link ColumnBatch}, converting column by column with loops that are
+ * specialized for the Avro type of the column. The PFA inputs of the whole block are then assembled from the
+ * batch, again column by column.
+ *
+ * @author agent
+ */
+public final class BatchInputConverter {
+
+    /** The default number of rows in a batch. */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private enum Shape {
+        RECORD, MAP, SINGLE
+    }
+
+    private final Shape m_shape;
+    private final Class<?> m_inputClass;
+    // Table column index, name and record field position of each batch column
+    private final int[] m_columns;
+    private final String[] m_names;
+    private final int[] m_positions;
+    private final Schema.Type[] m_types;
+    // Converters for the columns that are not stored in primitive arrays
+    private final Function<DataCell, Object>[] m_mappers;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BatchInputConverter(final Shape shape, final Class<?> inputClass, final int numColumns) {
+        m_shape = shape;
+        m_inputClass = inputClass;
+        m_columns = new int[numColumns];
+        m_names = new String[numColumns];
+        m_positions = new int[numColumns];
+        m_types = new Schema.Type[numColumns];
+        m_mappers = new Function[numColumns];
+    }
+
+    /**
+     * Creates a converter for documents whose input is a record. Each field is read from the column with the
+     * same name.
+     *
+     * @param spec the spec of the input table
+     * @param schema the record schema of the PFA input
+     * @param inputClass the class of the PFA records, as given by the scoring engine
+     * @return a converter creating PFA records
+     * @throws InvalidSettingsException when a field has no matching column or converter
+     */
+    public static BatchInputConverter forRecord(final DataTableSpec spec, final Schema schema,
+            final Class<?> inputClass) throws InvalidSettingsException {
+        List<Field> fields = schema.getFields();
+        BatchInputConverter conv = new BatchInputConverter(Shape.RECORD, inputClass, fields.size());
+        for (int c = 0; c < fields.size(); c++) {
+            Field f = fields.get(c);
+            int idx = spec.findColumnIndex(f.name());
+            if (idx < 0) {
+                throw new InvalidSettingsException("No column found for the field \"" + f.name() + "\"");
+            }
+            conv.setColumn(c, idx, f.name(), f.pos(), spec.getColumnSpec(idx).getType(), f.schema());
+        }
+        return conv;
+    }
+
+    /**
+     * Creates a converter for documents whose input is a map. Every column of the table becomes an entry in
+     * the map with the column name as key.
+     *
+     * @param spec the spec of the input table
+     * @param schema the map schema of the PFA input
+     * @return a converter creating PFA maps
+     * @throws InvalidSettingsException when a column type cannot be converted
+     */
+    public static BatchInputConverter forMap(final DataTableSpec spec, final Schema schema)
+            throws InvalidSettingsException {
+        BatchInputConverter conv = new BatchInputConverter(Shape.MAP, null, spec.getNumColumns());
+        for (int c = 0; c < spec.getNumColumns(); c++) {
+            conv.setColumn(c, c, spec.getColumnSpec(c).getName(), c, spec.getColumnSpec(c).getType(),
+                    schema.getValueType());
+        }
+        return conv;
+    }
+
+    /**
+     * Creates a converter for documents whose input is a single value.
+     *
+     * @param spec the spec of the input table
+     * @param column the index of the column holding the input
+     * @param schema the schema of the PFA input
+     * @return a converter creating single values
+     * @throws InvalidSettingsException when the column type cannot be converted
+     */
+    public static BatchInputConverter forColumn(final DataTableSpec spec, final int column, final Schema schema)
+            throws InvalidSettingsException {
+        BatchInputConverter conv = new BatchInputConverter(Shape.SINGLE, null, 1);
+        conv.setColumn(0, column, spec.getColumnSpec(column).getName(), 0, spec.getColumnSpec(column).getType(),
+                schema);
+        return conv;
+    }
+
+    private void setColumn(final int c, final int column, final String name, final int position,
+            final DataType dt, final Schema target) throws InvalidSettingsException {
+        KnimeAvroConverterRegistry registry = KnimeAvroConverterRegistry.getInstance();
+        Schema inner = registry.unwrapUnion(target);
+        m_columns[c] = column;
+        m_names[c] = name;
+        m_positions[c] = position;
+        m_types[c] = primitiveType(dt, inner);
+        if (m_types[c] == Schema.Type.NULL) {
+            m_mappers[c] = registry.createCellToPFAMapper(dt, inner);
+        }
+    }
+
+    private static Schema.Type primitiveType(final DataType dt, final Schema target) {
+        switch (target.getType()) {
+            case DOUBLE:
+            case FLOAT:
+                return dt.isCompatible(DoubleValue.class) ? target.getType() : Schema.Type.NULL;
+            case INT:
+                return dt.isCompatible(IntValue.class) ? target.getType() : Schema.Type.NULL;
+            case LONG:
+                return dt.isCompatible(LongValue.class) ? target.getType() : Schema.Type.NULL;
+            case BOOLEAN:
+                return dt.isCompatible(BooleanValue.class) ? target.getType() : Schema.Type.NULL;
+            default:
+                return Schema.Type.NULL;
+        }
+    }
+
+    /**
+     * @return the number of columns of the batches created by this converter
+     */
+    public int getNumColumns() {
+        return m_columns.length;
+    }
+
+    /**
+     * @param c the index of a batch column
+     * @return the type of the primitive array of the column or NULL if the column stores objects
+     */
+    public Schema.Type getColumnType(final int c) {
+        return m_types[c];
+    }
+
+    /**
+     * @return true if the converter creates records
+     */
+    public boolean isRecord() {
+        return m_shape == Shape.RECORD;
+    }
+
+    /**
+     * Finds the batch column of a record field or map key.
+     *
+     * @param name the field name or map key
+     * @return the index of the batch column or -1 if there is none
+     */
+    public int getColumnIndex(final String name) {
+        for (int c = 0; c < m_names.length; c++) {
+            if (m_names[c].equals(name)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a batch that can be filled by this converter.
+     *
+     * @param capacity the maximum number of rows in the batch
+     * @return a new, empty batch
+     */
+    public ColumnBatch createBatch(final int capacity) {
+        return new ColumnBatch(capacity, m_types.clone());
+    }
+
+    /**
+     * Reads the next block of rows into the batch, replacing its previous content.
+     *
+     * @param rows the rows to read from
+     * @param batch the batch to fill
+     * @return the number of rows read, 0 if the iterator has no more rows
+     */
+    public int read(final Iterator<DataRow> rows, final ColumnBatch batch) {
+        DataRow[] buffer = batch.getRows();
+        int n = 0;
+        while (n < buffer.length && rows.hasNext()) {
+            buffer[n++] = rows.next();
+        }
+        for (int c = 0; c < m_columns.length; c++) {
+            int col = m_columns[c];
+            boolean[] missing = batch.getMissing(c);
+            switch (m_types[c]) {
+                case DOUBLE:
+                    readDoubles(buffer, n, col, batch.getDoubles(c), missing);
+                    break;
+                case FLOAT:
+                    readFloats(buffer, n, col, batch.getFloats(c), missing);
+                    break;
+                case INT:
+                    readInts(buffer, n, col, batch.getInts(c), missing);
+                    break;
+                case LONG:
+                    readLongs(buffer, n, col, batch.getLongs(c), missing);
+                    break;
+                case BOOLEAN:
+                    readBooleans(buffer, n, col, batch.getBooleans(c), missing);
+                    break;
+                default:
+                    readObjects(buffer, n, col, m_mappers[c], batch.getObjects(c), missing);
+            }
+        }
+        batch.setSize(n);
+        return n;
+    }
+
+    private static void readDoubles(final DataRow[] rows, final int n, final int col, final double[] values,
+            final boolean[] missing) {
+        for (int i = 0; i < n; i++) {
+            DataCell cell = rows[i].getCell(col);
+            missing[i] = cell.isMissing();
+            values[i] = missing[i] ? 0 : ((DoubleValue) cell).getDoubleValue();
+        }
+    }
+
+    private static void readFloats(final DataRow[] rows, final int n, final int col, final float[] values,
+            final boolean[] missing) {
+        for (int i = 0; i < n; i++) {
+            DataCell cell = rows[i].getCell(col);
+            missing[i] = cell.isMissing();
+            values[i] = missing[i] ? 0 : (float) ((DoubleValue) cell).getDoubleValue();
+        }
+    }
+
+    private static void readInts(final DataRow[] rows, final int n, final int col, final int[] values,
+            final boolean[] missing) {
+        for (int i = 0; i < n; i++) {
+            DataCell cell = rows[i].getCell(col);
+            missing[i] = cell.isMissing();
+            values[i] = missing[i] ? 0 : ((IntValue) cell).getIntValue();
+        }
+    }
+
+    private static void readLongs(final DataRow[] rows, final int n, final int col, final long[] values,
+            final boolean[] missing) {
+        for (int i = 0; i < n; i++) {
+            DataCell cell = rows[i].getCell(col);
+            missing[i] = cell.isMissing();
+            values[i] = missing[i] ? 0 : ((LongValue) cell).getLongValue();
+        }
+    }
+
+    private static void readBooleans(final DataRow[] rows, final int n, final int col, final boolean[] values,
+            final boolean[] missing) {
+        for (int i = 0; i < n; i++) {
+            DataCell cell = rows[i].getCell(col);
+            missing[i] = cell.isMissing();
+            values[i] = !missing[i] && ((BooleanValue) cell).getBooleanValue();
+        }
+    }
+
+    private static void readObjects(final DataRow[] rows, final int n, final int col,
+            final Function<DataCell, Object> mapper, final Object[] values, final boolean[] missing) {
+        for (int i = 0; i < n; i++) {
+            DataCell cell = rows[i].getCell(col);
+            values[i] = mapper.apply(cell);
+            missing[i] = values[i] == null;
+        }
+    }
+
+    /**
+     * Assembles the PFA inputs for all rows in the batch.
+     *
+     * @param batch a batch filled by this converter
+     * @param inputs the array to write the inputs into, must have at least {@link ColumnBatch#size()} entries
+     */
+    public void assemble(final ColumnBatch batch, final Object[] inputs) {
+        int n = batch.size();
+        if (m_shape == Shape.SINGLE) {
+            box(batch, 0, n, inputs);
+            return;
+        }
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            inputs[i] = m_shape == Shape.RECORD ? newRecord() : PFAMap.empty();
+        }
+        for (int c = 0; c < m_columns.length; c++) {
+            box(batch, c, n, values);
+            if (m_shape == Shape.RECORD) {
+                int pos = m_positions[c];
+                for (int i = 0; i < n; i++) {
+                    ((PFARecord) inputs[i]).put(pos, values[i]);
+                }
+            } else {
+                String key = m_names[c];
+                for (int i = 0; i < n; i++) {
+                    @SuppressWarnings("unchecked")
+                    PFAMap<Object> map = (PFAMap<Object>) inputs[i];
+                    map.put(key, values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the values of a batch column into an object array, boxing primitive values.
+     */
+    private static void box(final ColumnBatch batch, final int c, final int n, final Object[] out) {
+        boolean[] missing = batch.getMissing(c);
+        switch (batch.getType(c)) {
+            case DOUBLE:
+                double[] d = batch.getDoubles(c);
+                for (int i = 0; i < n; i++) {
+                    out[i] = missing[i] ? null : Double.valueOf(d[i]);
+                }
+                break;
+            case FLOAT:
+                float[] f = batch.getFloats(c);
+                for (int i = 0; i < n; i++) {
+                    out[i] = missing[i] ? null : Float.valueOf(f[i]);
+                }
+                break;
+            case INT:
+                int[] in = batch.getInts(c);
+                for (int i = 0; i < n; i++) {
+                    out[i] = missing[i] ? null : Integer.valueOf(in[i]);
+                }
+                break;
+            case LONG:
+                long[] l = batch.getLongs(c);
+                for (int i = 0; i < n; i++) {
+                    out[i] = missing[i] ? null : Long.valueOf(l[i]);
+                }
+                break;
+            case BOOLEAN:
+                boolean[] b = batch.getBooleans(c);
+                for (int i = 0; i < n; i++) {
+                    out[i] = missing[i] ? null : Boolean.valueOf(b[i]);
+                }
+                break;
+            default:
+                System.arraycopy(batch.getObjects(c), 0, out, 0, n);
+        }
+    }
+
+    private PFARecord newRecord() {
+        try {
+            return (PFARecord) m_inputClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("The PFA input record cannot be instantiated", e);
+        }
+    }
+}
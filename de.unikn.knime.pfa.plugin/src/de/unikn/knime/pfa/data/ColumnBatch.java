@@ -0,0 +1,250 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data;
+
+import org.apache.avro.Schema;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
+
+/**
+ * A block of table rows that is stored column by column. Columns with a numeric or boolean Avro type are kept
+ * in primitive arrays, all other columns hold the already converted PFA objects.
+ * Batches are created by a {@link BatchInputConverter} and reused for every block of the input table.
+ *
+ * @author agent
+ */
+public final class ColumnBatch {
+
+    private final int m_capacity;
+    private final Schema.Type[] m_types;
+    private final Object[] m_values;
+    private final boolean[][] m_missing;
+    private final DataRow[] m_rows;
+    private int m_size;
+
+    /**
+     * Creates a new, empty batch.
+     *
+     * @param capacity the maximum number of rows in the batch
+     * @param types the storage type of each column, one of DOUBLE, FLOAT, INT, LONG, BOOLEAN or NULL for
+     *            columns that store objects
+     */
+    ColumnBatch(final int capacity, final Schema.Type[] types) {
+        m_capacity = capacity;
+        m_types = types;
+        m_values = new Object[types.length];
+        m_missing = new boolean[types.length][capacity];
+        m_rows = new DataRow[capacity];
+        for (int c = 0; c < types.length; c++) {
+            switch (types[c]) {
+                case DOUBLE:
+                    m_values[c] = new double[capacity];
+                    break;
+                case FLOAT:
+                    m_values[c] = new float[capacity];
+                    break;
+                case INT:
+                    m_values[c] = new int[capacity];
+                    break;
+                case LONG:
+                    m_values[c] = new long[capacity];
+                    break;
+                case BOOLEAN:
+                    m_values[c] = new boolean[capacity];
+                    break;
+                default:
+                    m_values[c] = new Object[capacity];
+            }
+        }
+    }
+
+    /**
+     * @return the maximum number of rows in this batch
+     */
+    public int capacity() {
+        return m_capacity;
+    }
+
+    /**
+     * @return the number of rows currently in this batch
+     */
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * @return the number of columns in this batch
+     */
+    public int getNumColumns() {
+        return m_types.length;
+    }
+
+    /**
+     * @param col the column index
+     * @return the type of the primitive array of the column or NULL if the column stores objects
+     */
+    public Schema.Type getType(final int col) {
+        return m_types[col];
+    }
+
+    /**
+     * @param row the row index
+     * @return the key of the row
+     */
+    public RowKey getRowKey(final int row) {
+        return m_rows[row].getKey();
+    }
+
+    /**
+     * @param col the column index
+     * @param row the row index
+     * @return true if the cell is missing
+     */
+    public boolean isMissing(final int col, final int row) {
+        return m_missing[col][row];
+    }
+
+    /**
+     * @param col the column index
+     * @return the missing flags of the column, only the first {@link #size()} entries are valid
+     */
+    public boolean[] getMissing(final int col) {
+        return m_missing[col];
+    }
+
+    /**
+     * @param col the index of a column of type DOUBLE
+     * @return the values of the column, only the first {@link #size()} entries are valid
+     */
+    public double[] getDoubles(final int col) {
+        return (double[]) m_values[col];
+    }
+
+    /**
+     * @param col the index of a column of type FLOAT
+     * @return the values of the column, only the first {@link #size()} entries are valid
+     */
+    public float[] getFloats(final int col) {
+        return (float[]) m_values[col];
+    }
+
+    /**
+     * @param col the index of a column of type INT
+     * @return the values of the column, only the first {@link #size()} entries are valid
+     */
+    public int[] getInts(final int col) {
+        return (int[]) m_values[col];
+    }
+
+    /**
+     * @param col the index of a column of type LONG
+     * @return the values of the column, only the first {@link #size()} entries are valid
+     */
+    public long[] getLongs(final int col) {
+        return (long[]) m_values[col];
+    }
+
+    /**
+     * @param col the index of a column of type BOOLEAN
+     * @return the values of the column, only the first {@link #size()} entries are valid
+     */
+    public boolean[] getBooleans(final int col) {
+        return (boolean[]) m_values[col];
+    }
+
+    /**
+     * @param col the index of a column that stores objects
+     * @return the values of the column, only the first {@link #size()} entries are valid
+     */
+    public Object[] getObjects(final int col) {
+        return (Object[]) m_values[col];
+    }
+
+    /**
+     * Returns the value of a cell as PFA object, boxing primitive values.
+     *
+     * @param col the column index
+     * @param row the row index
+     * @return the PFA object for the cell or null if it is missing
+     */
+    public Object get(final int col, final int row) {
+        if (m_missing[col][row]) {
+            return null;
+        }
+        switch (m_types[col]) {
+            case DOUBLE:
+                return ((double[]) m_values[col])[row];
+            case FLOAT:
+                return ((float[]) m_values[col])[row];
+            case INT:
+                return ((int[]) m_values[col])[row];
+            case LONG:
+                return ((long[]) m_values[col])[row];
+            case BOOLEAN:
+                return ((boolean[]) m_values[col])[row];
+            default:
+                return ((Object[]) m_values[col])[row];
+        }
+    }
+
+    /**
+     * Sets the number of valid rows.
+     *
+     * @param size the number of rows
+     */
+    void setSize(final int size) {
+        m_size = size;
+    }
+
+    /**
+     * @return the array holding the rows the batch was read from
+     */
+    DataRow[] getRows() {
+        return m_rows;
+    }
+}
@@ -48,13 +48,22 @@
 package de.unikn.knime.pfa.data;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
+import org.apache.avro.SchemaNormalization;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.Platform;
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
 import org.knime.core.data.DataColumnSpecCreator;
@@ -63,9 +72,13 @@
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataValue;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
 
+import de.unikn.knime.pfa.data.converters.BitVectorPFAConverter;
 import de.unikn.knime.pfa.data.converters.BooleanPFAConverter;
+import de.unikn.knime.pfa.data.converters.ByteVectorPFAConverter;
 import de.unikn.knime.pfa.data.converters.DoublePFAConverter;
+import de.unikn.knime.pfa.data.converters.DoubleVectorPFAConverter;
 import de.unikn.knime.pfa.data.converters.FloatPFAConverter;
 import de.unikn.knime.pfa.data.converters.IntPFAConverter;
 import de.unikn.knime.pfa.data.converters.ListPFAConverter;
@@ -73,33 +86,65 @@
 import de.unikn.knime.pfa.data.converters.StringPFAConverter;
 
 /**
- * Registry for converters between Avro and KNIME.
+ * Registry for converters between Avro and KNIME. Converters are contributed through the extension point
+ * {@value #EXTENSION_POINT_ID}. Several converters may handle the same Avro type, the one with the highest
+ * priority that accepts a schema and KNIME type is used.
+ * <p>
+ * The data types and the mappers into Avro the converters create are cached by the parsing fingerprint of the
+ * schema and the KNIME data type, so configuring and executing nodes on the same schema does not rebuild them.
+ * Mappers into KNIME cells may hold state of the column they fill, so only their converter is cached.
  * 
  * @author Alexander Fillbrunn
  *
  */
 public final class KnimeAvroConverterRegistry {
 
-    // This map can access converters by KNIME data value
-    private Map<Class<? extends DataValue>, PFADataTypeConverter> m_knimeToAvro;
-    // This map can access converters by AVRO data type
-    private Map<Schema.Type, PFADataTypeConverter> m_avroToKnime;
+    /** The id of the extension point for converters. */
+    public static final String EXTENSION_POINT_ID = "de.unikn.knime.pfa.plugin.converter";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(KnimeAvroConverterRegistry.class);
+
+    // The cache is cleared when it grows beyond this many entries
+    private static final int MAX_PLANS = 1 << 12;
+
+    // Converters by Avro type, highest priority first
+    private final Map<Schema.Type, List<PFADataTypeConverter>> m_converters = new EnumMap<>(Schema.Type.class);
+
+    private final Map<PlanKey, Object> m_plans = new ConcurrentHashMap<>();
 
     // Singleton instance
     private static KnimeAvroConverterRegistry registryInstance = new KnimeAvroConverterRegistry();
 
     private KnimeAvroConverterRegistry() {
-        m_knimeToAvro = new HashMap<>();
-        m_avroToKnime = new HashMap<>();
-
-        // Register any new data converters here
-        registerConverter(BooleanPFAConverter.class);
-        registerConverter(DoublePFAConverter.class);
-        registerConverter(FloatPFAConverter.class);
-        registerConverter(IntPFAConverter.class);
-        registerConverter(ListPFAConverter.class);
-        registerConverter(LongPFAConverter.class);
-        registerConverter(StringPFAConverter.class);
+        List<Registration> registrations = new ArrayList<>();
+        IExtensionPoint point = Platform.isRunning()
+                ? Platform.getExtensionRegistry().getExtensionPoint(EXTENSION_POINT_ID) : null;
+        if (point != null) {
+            for (IConfigurationElement e : point.getConfigurationElements()) {
+                try {
+                    PFADataTypeConverter conv = (PFADataTypeConverter) e.createExecutableExtension("class");
+                    String priority = e.getAttribute("priority");
+                    registrations.add(new Registration(conv, priority == null ? 0 : Integer.parseInt(priority)));
+                } catch (CoreException | ClassCastException | NumberFormatException ex) {
+                    LOGGER.error("The PFA converter " + e.getAttribute("class") + " from "
+                            + e.getContributor().getName() + " cannot be registered: " + ex.getMessage(), ex);
+                }
+            }
+        }
+        if (registrations.isEmpty()) {
+            // Outside of a running platform only the built-in converters are available
+            for (PFADataTypeConverter conv : Arrays.asList(new BooleanPFAConverter(), new DoublePFAConverter(),
+                new FloatPFAConverter(), new IntPFAConverter(), new ListPFAConverter(), new LongPFAConverter(),
+                new StringPFAConverter(), new DoubleVectorPFAConverter(), new BitVectorPFAConverter(),
+                new ByteVectorPFAConverter())) {
+                registrations.add(new Registration(conv, 0));
+            }
+        }
+        // The sort is stable, so converters with equal priority keep the order of their registration
+        registrations.sort((a, b) -> Integer.compare(b.m_priority, a.m_priority));
+        for (Registration r : registrations) {
+            m_converters.computeIfAbsent(r.m_converter.getAvroType(), t -> new ArrayList<>()).add(r.m_converter);
+        }
     }
 
     /**
@@ -111,19 +156,66 @@ public static KnimeAvroConverterRegistry getInstance() {
         return registryInstance;
     }
 
-    private void registerConverter(final Class<? extends PFADataTypeConverter> convClass) {
-        try {
-            PFADataTypeConverter conv = convClass.newInstance();
-            if (!conv.isOneWayPFAToKnime()) {
-                m_knimeToAvro.put(conv.getDataValueClass(), conv);
+    private List<PFADataTypeConverter> getConverters(final Schema.Type type) {
+        List<PFADataTypeConverter> convs = m_converters.get(type);
+        return convs == null ? Collections.emptyList() : convs;
+    }
+
+    /**
+     * Finds the converter for values of a schema.
+     *
+     * @param schema the schema, not a union
+     * @param dt the KNIME type the values are converted from or null if they are converted to KNIME
+     * @return the converter with the highest priority that accepts the schema and, if given, the type
+     * @throws InvalidSettingsException when no matching converter is registered
+     */
+    private PFADataTypeConverter findConverter(final Schema schema, final DataType dt)
+            throws InvalidSettingsException {
+        PFADataTypeConverter fallback = null;
+        for (PFADataTypeConverter conv : getConverters(schema.getType())) {
+            if (!conv.canConvert(schema) || (dt == null && conv.isOneWayKnimeToPFA())) {
+                continue;
+            }
+            if (dt == null || dt.isCompatible(conv.getDataValueClass())) {
+                return conv;
+            }
+            if (fallback == null) {
+                fallback = conv;
+            }
+        }
+        if (fallback == null) {
+            throw new InvalidSettingsException(
+                    "An converter for the Avro type " + schema.getType().toString() + " is not registered");
+        }
+        // The mapper of the converter reports an incompatible cell type
+        return fallback;
+    }
+
+    /**
+     * Returns a cached plan or creates and caches it.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getPlan(final PlanKey key, final PlanFactory<T> factory) throws InvalidSettingsException {
+        // Not computeIfAbsent, since creating a plan for a nested type looks up the plans of its element types
+        Object plan = m_plans.get(key);
+        if (plan == null) {
+            plan = factory.create();
+            if (m_plans.size() >= MAX_PLANS) {
+                m_plans.clear();
             }
-            m_avroToKnime.put(conv.getAvroType(), conv);
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new AssertionError("All converter classes " + "should be instantiable with a default constructor", e);
+            m_plans.put(key, plan);
         }
+        return (T) plan;
     }
 
-    private Schema unwrapUnion(final Schema schema) throws InvalidSettingsException {
+    /**
+     * Returns the non-null type of a nullable union or the schema itself if it is not a union.
+     *
+     * @param schema the schema to unwrap
+     * @return the inner schema
+     * @throws InvalidSettingsException when the union is not a union of null and one other type
+     */
+    Schema unwrapUnion(final Schema schema) throws InvalidSettingsException {
         if (schema.getType().equals(Schema.Type.UNION)) {
             List<Schema> types = schema.getTypes();
             // Union types are used for nullable types in PFA. Other use cases
@@ -166,13 +258,10 @@ private Schema unwrapUnion(final Schema schema) throws InvalidSettingsException
      * @throws InvalidSettingsException when no matching converter is registered
      */
     public DataType getDataType(final Schema schema) throws InvalidSettingsException {
-        Schema innerSchema = unwrapUnion(schema);
-        PFADataTypeConverter conv = m_avroToKnime.get(innerSchema.getType());
-        if (conv == null) {
-            throw new InvalidSettingsException(
-                    "An converter for the Avro type " + innerSchema.getType().toString() + " is not registered");
-        }
-        return conv.getDataType(innerSchema);
+        return getPlan(new PlanKey(PlanKey.DATA_TYPE, schema, null), () -> {
+            Schema innerSchema = unwrapUnion(schema);
+            return findConverter(innerSchema, null).getDataType(innerSchema);
+        });
     }
     
     /**
@@ -184,12 +273,7 @@ public DataType getDataType(final Schema schema) throws InvalidSettingsException
      */
     public Class<? extends DataValue> getValueType(final Schema schema) throws InvalidSettingsException {
         Schema innerSchema = unwrapUnion(schema);
-        PFADataTypeConverter conv = m_avroToKnime.get(innerSchema.getType());
-        if (conv == null) {
-            throw new InvalidSettingsException(
-                    "An converter for the Avro type " + innerSchema.getType().toString() + " is not registered");
-        }
-        return conv.getDataValueClass();
+        return findConverter(innerSchema, null).getDataValueClass();
     }
 
     /**
@@ -201,12 +285,15 @@ public Class<? extends DataValue> getValueType(final Schema schema) throws Inval
      */
     public Schema getSchema(final DataType dt) throws InvalidSettingsException {
         Class<? extends DataValue> val = dt.getPreferredValueClass();
-        PFADataTypeConverter conv = m_knimeToAvro.get(val);
-        if (conv == null) {
-            throw new InvalidSettingsException(
-                    "An converter for the KNIME data type " + dt.getName() + " is not registered");
+        for (List<PFADataTypeConverter> convs : m_converters.values()) {
+            for (PFADataTypeConverter conv : convs) {
+                if (!conv.isOneWayPFAToKnime() && conv.getDataValueClass().equals(val)) {
+                    return conv.getAvroSchema(dt);
+                }
+            }
         }
-        return conv.getAvroSchema(dt);
+        throw new InvalidSettingsException(
+                "An converter for the KNIME data type " + dt.getName() + " is not registered");
     }
 
     /**
@@ -219,12 +306,10 @@ public Schema getSchema(final DataType dt) throws InvalidSettingsException {
      */
     public Function<Object, DataCell> createPFAToCellMapper(final Schema schema) throws InvalidSettingsException {
         Schema innerSchema = unwrapUnion(schema);
-        PFADataTypeConverter conv = m_avroToKnime.get(innerSchema.getType());
-        if (conv == null) {
-            throw new InvalidSettingsException(
-                    "An converter for the Avro type " + innerSchema.getType().toString() + " is not registered");
-        }
-        return conv.createPFAToCellMapper(innerSchema);
+        PFADataTypeConverter converter = getPlan(new PlanKey(PlanKey.TO_CELL, schema, null),
+            () -> findConverter(innerSchema, null));
+        // Each call gets a new mapper, since mappers may keep a dictionary of the cells of one column
+        return converter.createPFAToCellMapper(innerSchema);
     }
 
     /**
@@ -238,12 +323,8 @@ public Function<Object, DataCell> createPFAToCellMapper(final Schema schema) thr
      */
     public Function<DataCell, Object> createCellToPFAMapper(final DataType dt, final Schema target)
             throws InvalidSettingsException {
-        PFADataTypeConverter conv = m_avroToKnime.get(target.getType());
-        if (conv == null) {
-            throw new InvalidSettingsException(
-                    "An converter for the Avro data type " + target.getType().getName() + " is not registered");
-        }
-        return conv.createCellToPFAMapper(dt, target);
+        return getPlan(new PlanKey(PlanKey.TO_PFA, target, dt),
+            () -> findConverter(target, dt).createCellToPFAMapper(dt, target));
     }
 
     /**
@@ -309,13 +390,14 @@ public boolean isApplicable(final Schema inputSchema, final DataTableSpec spec)
                 if (cs == null) {
                     return false;
                 }
-                PFADataTypeConverter conv = m_avroToKnime.get(f.schema().getType());
-                if (conv == null) {
+                List<PFADataTypeConverter> convs = getConverters(f.schema().getType());
+                if (convs.isEmpty()) {
                     throw new IllegalArgumentException(
                             "An converter for the Avro type " + f.schema().getType().toString() + " is not registered");
                 }
 
-                if (!cs.getType().isCompatible(conv.getDataValueClass())) {
+                if (!convs.stream().anyMatch(c -> c.canConvert(f.schema())
+                        && cs.getType().isCompatible(c.getDataValueClass()))) {
                     return false;
                 }
             }
@@ -330,12 +412,17 @@ public boolean isApplicable(final Schema inputSchema, final DataTableSpec spec)
             }
             return true;
         } else {
-            PFADataTypeConverter conv = m_avroToKnime.get(inputSchema.getType());
-            if (conv == null) {
+            List<PFADataTypeConverter> convs = getConverters(inputSchema.getType());
+            if (convs.isEmpty()) {
                 throw new IllegalArgumentException("An converter for the Avro data type "
                         + inputSchema.getType().toString() + " is not registered");
             }
-            return specContainsType(spec, conv.getDataValueClass());
+            for (PFADataTypeConverter conv : convs) {
+                if (conv.canConvert(inputSchema) && specContainsType(spec, conv.getDataValueClass())) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
@@ -348,4 +435,59 @@ private boolean specContainsType(final DataTableSpec spec, final Class<? extends
         }
         return false;
     }
+
+    /**
+     * Creates a plan on a cache miss.
+     */
+    @FunctionalInterface
+    private interface PlanFactory<T> {
+        T create() throws InvalidSettingsException;
+    }
+
+    /**
+     * A converter contributed to the extension point.
+     */
+    private static final class Registration {
+        private final PFADataTypeConverter m_converter;
+        private final int m_priority;
+
+        Registration(final PFADataTypeConverter converter, final int priority) {
+            m_converter = converter;
+            m_priority = priority;
+        }
+    }
+
+    /**
+     * Identifies a plan by its kind, the fingerprint of the schema and the KNIME data type.
+     */
+    private static final class PlanKey {
+        static final int DATA_TYPE = 0;
+        static final int TO_CELL = 1;
+        static final int TO_PFA = 2;
+
+        private final int m_kind;
+        private final long m_fingerprint;
+        private final DataType m_dataType;
+
+        PlanKey(final int kind, final Schema schema, final DataType dataType) {
+            m_kind = kind;
+            m_fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+            m_dataType = dataType;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof PlanKey)) {
+                return false;
+            }
+            PlanKey other = (PlanKey) obj;
+            return m_kind == other.m_kind && m_fingerprint == other.m_fingerprint
+                    && Objects.equals(m_dataType, other.m_dataType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(m_kind, m_fingerprint, m_dataType);
+        }
+    }
 }
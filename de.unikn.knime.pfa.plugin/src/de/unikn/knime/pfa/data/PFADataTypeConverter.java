@@ -74,6 +74,16 @@ default boolean isOneWayPFAToKnime() {
         return false;
     }
 
+    /**
+     * Tells whether this converter only converts KNIME cells into PFA values. The registry does not use such
+     * converters for values going to KNIME, e.g. arrays of doubles become list cells instead of double vectors.
+     * 
+     * @return false by default
+     */
+    default boolean isOneWayKnimeToPFA() {
+        return false;
+    }
+
     /**
      * Returns the Avro Type that this converter can handle.
      * 
@@ -81,6 +91,18 @@ default boolean isOneWayPFAToKnime() {
      */
     Schema.Type getAvroType();
 
+    /**
+     * Tells whether this converter handles a schema of its Avro type. Converters that only support some
+     * schemas of a type, e.g. arrays of a certain element type, override this, so the registry can fall back
+     * to a converter with lower priority for the other schemas.
+     * 
+     * @param schema a schema of the type returned by {@link #getAvroType()}
+     * @return true by default
+     */
+    default boolean canConvert(final Schema schema) {
+        return true;
+    }
+
     /**
      * Returns the KNIME data value class that this converter can handle.
      * 
@@ -120,7 +142,8 @@ default Schema getAvroSchema(DataType dt) throws InvalidSettingsException {
     Function<DataCell, Object> createCellToPFAMapper(DataType dt, Schema target) throws InvalidSettingsException;
 
     /**
-     * Creates a mapping function that turns Avro objects into KNIME cells.
+     * Creates a mapping function that turns Avro objects into KNIME cells. The registry does not cache the
+     * function, so it may keep state of the column it fills, such as a dictionary of its cells.
      * 
      * @param schema The schema of the input for the function
      * @return A function mapping objects to KNIME cells
@@ -0,0 +1,138 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data.converters;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValue;
+import org.knime.core.data.vector.bitvector.BitVectorValue;
+import org.knime.core.data.vector.bitvector.DenseBitVectorCell;
+import org.knime.core.node.InvalidSettingsException;
+
+import com.opendatagroup.hadrian.data.PFAArray;
+
+import de.unikn.knime.pfa.data.PFADataTypeConverter;
+
+/**
+ * Converter from KNIME bit vectors to PFA arrays of doubles or booleans, with 1.0 or true for set bits. Only the
+ * set bits are visited, and all elements share the two boxed values, so sparse fingerprints with thousands of
+ * bits convert without creating an object per bit. Arrays from PFA still become list cells.
+ *
+ * @author agent
+ */
+public class BitVectorPFAConverter implements PFADataTypeConverter {
+
+    private static final Double ZERO = 0.0;
+    private static final Double ONE = 1.0;
+
+    @Override
+    public boolean isOneWayKnimeToPFA() {
+        return true;
+    }
+
+    @Override
+    public Type getAvroType() {
+        return Schema.Type.ARRAY;
+    }
+
+    @Override
+    public boolean canConvert(final Schema schema) {
+        Schema.Type element = schema.getElementType().getType();
+        return element == Schema.Type.DOUBLE || element == Schema.Type.BOOLEAN;
+    }
+
+    @Override
+    public Class<? extends DataValue> getDataValueClass() {
+        return BitVectorValue.class;
+    }
+
+    @Override
+    public Schema getAvroSchema(final DataType dt) {
+        return Schema.createUnion(Arrays.asList(Schema.createArray(Schema.create(Schema.Type.BOOLEAN)),
+            Schema.create(Schema.Type.NULL)));
+    }
+
+    @Override
+    public DataType getDataType(final Schema schema) {
+        return DenseBitVectorCell.TYPE;
+    }
+
+    @Override
+    public Function<DataCell, Object> createCellToPFAMapper(final DataType dt, final Schema target) {
+        boolean doubles = target.getElementType().getType() == Schema.Type.DOUBLE;
+        final Object unset = doubles ? ZERO : Boolean.FALSE;
+        final Object set = doubles ? ONE : Boolean.TRUE;
+        return (cell) -> {
+            if (cell.isMissing()) {
+                return null;
+            }
+            BitVectorValue vector = (BitVectorValue) cell;
+            int length = (int) vector.length();
+            Object[] values = new Object[length];
+            Arrays.fill(values, unset);
+            for (long i = vector.nextSetBit(0); i >= 0; i = vector.nextSetBit(i + 1)) {
+                values[(int) i] = set;
+            }
+            PFAArray<Object> arr = PFAArray.empty(length);
+            for (Object v : values) {
+                arr.add(v);
+            }
+            return arr;
+        };
+    }
+
+    @Override
+    public Function<Object, DataCell> createPFAToCellMapper(final Schema schema) throws InvalidSettingsException {
+        throw new InvalidSettingsException("Arrays from PFA are not converted into bit vectors");
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.data.converters;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.knime.core.data.DataCell;
+
+/**
+ * A bounded dictionary of output cells for one column. Predictions often have only a few distinct values, so
+ * handing out the same immutable cell instance for equal values saves most of the memory of the output table.
+ * Once the dictionary is full, cells for new values are created without being stored, so high-cardinality
+ * columns cost no more than without the dictionary.
+ *
+ * @author agent
+ */
+final class CellDictionary {
+
+    /** The default maximum number of distinct values stored per column. */
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final Map<Object, DataCell> m_cells = new ConcurrentHashMap<>();
+    private final int m_capacity;
+    private final Function<Object, DataCell> m_factory;
+
+    /**
+     * Creates a new dictionary.
+     *
+     * @param factory creates the cell for a value that is not in the dictionary
+     */
+    CellDictionary(final Function<Object, DataCell> factory) {
+        this(factory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new dictionary.
+     *
+     * @param factory creates the cell for a value that is not in the dictionary
+     * @param capacity the maximum number of stored values
+     */
+    CellDictionary(final Function<Object, DataCell> factory, final int capacity) {
+        m_factory = factory;
+        m_capacity = capacity;
+    }
+
+    /**
+     * @param value a non-null PFA value
+     * @return the canonical cell for the value
+     */
+    DataCell get(final Object value) {
+        DataCell cell = m_cells.get(value);
+        if (cell == null) {
+            cell = m_factory.apply(value);
+            // The size check is not atomic, so the dictionary may exceed its capacity by a few entries
+            if (m_cells.size() < m_capacity) {
+                DataCell existing = m_cells.putIfAbsent(value, cell);
+                if (existing != null) {
+                    cell = existing;
+                }
+            }
+        }
+        return cell;
+    }
+}
@@ -96,11 +96,12 @@ public Function<DataCell, Object> createCellToPFAMapper(final DataType dt, final
 
     @Override
     public Function<Object, DataCell> createPFAToCellMapper(final Schema schema) {
+        final CellDictionary cells = new CellDictionary(o -> new IntCell((Integer) o));
         return (o) -> {
             if (o == null) {
                 return DataType.getMissingCell();
             }
-            return new IntCell((Integer) o);
+            return cells.get(o);
         };
     }
 }
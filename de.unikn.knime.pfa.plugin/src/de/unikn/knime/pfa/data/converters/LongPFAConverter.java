@@ -95,11 +95,12 @@ public Function<DataCell, Object> createCellToPFAMapper(final DataType dt, final
 
     @Override
     public Function<Object, DataCell> createPFAToCellMapper(final Schema schema) {
+        final CellDictionary cells = new CellDictionary(o -> new LongCell((Long) o));
         return (o) -> {
             if (o == null) {
                 return DataType.getMissingCell();
             }
-            return new LongCell((Long) o);
+            return cells.get(o);
         };
     }
 
@@ -95,11 +95,13 @@ public Function<DataCell, Object> createCellToPFAMapper(final DataType dt, final
 
     @Override
     public Function<Object, DataCell> createPFAToCellMapper(final Schema schema) {
+        // Class labels repeat a lot, so rows with the same label share one cell
+        final CellDictionary cells = new CellDictionary(o -> new StringCell((String) o));
         return (o) -> {
             if (o == null) {
                 return DataType.getMissingCell();
             }
-            return new StringCell((String) o);
+            return cells.get(o);
         };
     }
 
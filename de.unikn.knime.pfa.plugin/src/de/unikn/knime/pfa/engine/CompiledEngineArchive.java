@@ -0,0 +1,450 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.CodeSource;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
+
+import scala.Function0;
+
+/**
+ * Saves and restores the classes Hadrian generated for a document, so that a document loaded from a saved
+ * workflow does not have to be compiled again. The archive holds the bytecode of the generated classes and the
+ * serialized factory closure that instantiates them. It is tagged with the document's digest and the Hadrian
+ * version and ignored if either does not match.
+ * <p>
+ * Restoring an archive defines the classes it contains and deserializes Java objects, so anyone who can write an
+ * archive can run code when the workflow is loaded. Archives are therefore only written and read if the system
+ * property {@value #ENABLED_PROPERTY} is <code>true</code>, and each archive is signed with an HMAC whose key is
+ * created once per KNIME home directory and never leaves it. An archive whose signature does not match, e.g.
+ * because it was written by another installation or modified, is ignored before any of its content is used,
+ * and the document is compiled instead. Deserialization is further limited to the classes in the archive,
+ * Hadrian's and Scala's classes and a few basic Java types.
+ * <p>
+ * The generated classes are found in Hadrian's class loader by reflection. If that fails, e.g. because another
+ * Hadrian version keeps them differently, no archives are written for the rest of the session.
+ *
+ * @author agent
+ */
+public final class CompiledEngineArchive {
+
+    /** System property that enables writing and reading archives. */
+    public static final String ENABLED_PROPERTY = "knime.pfa.embedCompiledEngine";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(CompiledEngineArchive.class);
+
+    private static final int MAGIC = 0x50464143;
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final int MAC_LENGTH = 32;
+
+    // Holds the signing key in the KNIME home directory
+    private static final String KEY_FILE = "pfa-engine-archive.key";
+
+    private static final int KEY_LENGTH = 32;
+
+    // The Java types besides Hadrian's and Scala's that the factory closure may hold
+    private static final Set<String> ALLOWED_JAVA_TYPES = new HashSet<>(Arrays.asList(Object.class.getName(),
+        String.class.getName(), Number.class.getName(), Enum.class.getName(), Boolean.class.getName(),
+        Byte.class.getName(), Character.class.getName(), Short.class.getName(), Integer.class.getName(),
+        Long.class.getName(), Float.class.getName(), Double.class.getName(), BigInteger.class.getName(),
+        BigDecimal.class.getName()));
+
+    private static final String[] ALLOWED_PACKAGES = {"com.opendatagroup.hadrian.", "scala."};
+
+    private static String hadrianVersion;
+
+    private static byte[] key;
+
+    // Set once the generated classes could not be found, since that will not change while Hadrian is loaded
+    private static volatile boolean unsupported;
+
+    private CompiledEngineArchive() {
+    }
+
+    /**
+     * @return true if archives are written and read
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Creates the archive for a document if it is compiled and in the {@link PFAEngineCache}.
+     *
+     * @param digest the digest of the document
+     * @return the archive or null if the document is not compiled or its classes cannot be saved
+     */
+    public static byte[] create(final String digest) {
+        SharedCodeFactory factory = PFAEngineCache.getInstance().peek(digest);
+        if (factory == null || unsupported) {
+            return null;
+        }
+        try {
+            Map<String, byte[]> classes = generatedClasses(factory.apply().getClass());
+            if (classes == null) {
+                return null;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeClasses(out, digest, classes);
+            ObjectOutputStream oos = new ObjectOutputStream(out);
+            factory.writeCompiled(oos);
+            oos.flush();
+            return seal(bytes.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Compiled PFA engine cannot be saved: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the digest, the Hadrian version and the generated classes, which are followed by the serialized
+     * factory in the content of an archive.
+     *
+     * @param out the stream to write to
+     * @param digest the digest of the document
+     * @param classes the bytecode of the generated classes by name
+     * @throws IOException if the stream cannot be written
+     */
+    static void writeClasses(final DataOutputStream out, final String digest, final Map<String, byte[]> classes)
+            throws IOException {
+        out.writeUTF(digest);
+        out.writeUTF(getHadrianVersion());
+        out.writeInt(classes.size());
+        for (Map.Entry<String, byte[]> c : classes.entrySet()) {
+            out.writeUTF(c.getKey());
+            out.writeInt(c.getValue().length);
+            out.write(c.getValue());
+        }
+    }
+
+    /**
+     * Signs the content of an archive.
+     *
+     * @param content the classes and the serialized factory
+     * @return the archive
+     * @throws IOException if the signing key cannot be read or created
+     */
+    static byte[] seal(final byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length + MAC_LENGTH + 12);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.write(mac(content));
+        out.writeInt(content.length);
+        out.write(content);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores the classes of a document from an archive and adds them to the {@link PFAEngineCache}.
+     *
+     * @param in the stream to read the archive from
+     * @param digest the digest of the document the archive was saved with
+     * @param length the length of the document's JSON
+     * @return true if the archive was restored, false if it was not signed by this installation, does not match
+     *         the document or Hadrian version or refers to classes that may not be deserialized
+     */
+    public static boolean restore(final InputStream in, final String digest, final long length) {
+        try {
+            DataInputStream header = new DataInputStream(in);
+            if (header.readInt() != MAGIC || header.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            byte[] mac = new byte[MAC_LENGTH];
+            header.readFully(mac);
+            int size = header.readInt();
+            // Read without trusting the length for the allocation, since it is not signed
+            byte[] content = IOUtils.toByteArray(new BoundedInputStream(in, size));
+            if (content.length != size) {
+                return false;
+            }
+            if (!MessageDigest.isEqual(mac, mac(content))) {
+                LOGGER.debug("Compiled PFA engine was not saved by this installation, the document will be compiled");
+                return false;
+            }
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(content));
+            if (!data.readUTF().equals(digest) || !data.readUTF().equals(getHadrianVersion())) {
+                return false;
+            }
+            int n = data.readInt();
+            Map<String, byte[]> classes = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                String name = data.readUTF();
+                byte[] bytecode = new byte[data.readInt()];
+                data.readFully(bytecode);
+                classes.put(name, bytecode);
+            }
+            ClassLoader loader = new GeneratedClassLoader(classes, PFAEngine.class.getClassLoader());
+            @SuppressWarnings("unchecked")
+            Function0<PFAEngine<Object, Object>> compiled =
+                (Function0<PFAEngine<Object, Object>>) new LoaderObjectInputStream(data, loader, classes.keySet())
+                    .readObject();
+            PFAEngineCache.getInstance().put(digest, length, compiled);
+            return true;
+        } catch (IOException | ClassNotFoundException | RuntimeException | LinkageError e) {
+            LOGGER.debug("Compiled PFA engine cannot be restored, the document will be compiled: "
+                    + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Finds the bytecode of the classes defined by Hadrian's compiler, which keeps it in a map in its class loader.
+     * Only a map that contains the engine's own class is accepted.
+     *
+     * @param engineClass the class of an engine created by the factory
+     * @return the bytecode by class name or null if it cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, byte[]> generatedClasses(final Class<?> engineClass) {
+        ClassLoader loader = engineClass.getClassLoader();
+        if (loader == null || loader == PFAEngine.class.getClassLoader()) {
+            return null;
+        }
+        try {
+            for (Class<?> c = loader.getClass(); c != ClassLoader.class && c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Map.class.isAssignableFrom(f.getType())) {
+                        continue;
+                    }
+                    f.setAccessible(true);
+                    Map<?, ?> map = (Map<?, ?>) f.get(loader);
+                    if (map != null && map.get(engineClass.getName()) instanceof byte[]
+                            && map.values().stream().allMatch(v -> v instanceof byte[])
+                            && map.keySet().stream().allMatch(k -> k instanceof String)) {
+                        return new HashMap<>((Map<String, byte[]>) map);
+                    }
+                }
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Also thrown by setAccessible if the module system denies access
+            LOGGER.debug("The classes generated by Hadrian cannot be accessed, compiled engines are not saved", e);
+        }
+        LOGGER.debug("The classes generated by Hadrian were not found in " + loader.getClass().getName()
+                + ", compiled engines are not saved");
+        unsupported = true;
+        return null;
+    }
+
+    private static byte[] mac(final byte[] content) throws IOException {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(getKey(), MAC_ALGORITHM));
+            return mac.doFinal(content);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Compiled PFA engines cannot be signed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the signing key from the KNIME home directory, creating it on first use.
+     */
+    private static synchronized byte[] getKey() throws IOException {
+        if (key == null) {
+            Path file = Paths.get(KNIMEConstants.getKNIMEHomeDir(), KEY_FILE);
+            if (!Files.exists(file)) {
+                byte[] created = new byte[KEY_LENGTH];
+                new SecureRandom().nextBytes(created);
+                Files.createDirectories(file.getParent());
+                Path tmp = Files.createTempFile(file.getParent(), KEY_FILE, null);
+                try {
+                    try {
+                        Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-------"));
+                    } catch (UnsupportedOperationException e) {
+                        // Not a POSIX file system, the file keeps the permissions of the directory
+                    }
+                    Files.write(tmp, created);
+                    // Another process may have created the key in the meantime, its key is used then
+                    Files.move(tmp, file);
+                } catch (FileAlreadyExistsException e) {
+                    // Read below
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+            byte[] read = Files.readAllBytes(file);
+            if (read.length != KEY_LENGTH) {
+                throw new IOException("The key in " + file + " is invalid");
+            }
+            key = read;
+        }
+        return key;
+    }
+
+    private static synchronized String getHadrianVersion() {
+        if (hadrianVersion == null) {
+            Package p = PFAEngine.class.getPackage();
+            String version = p == null ? null : p.getImplementationVersion();
+            if (version == null) {
+                // Without a version in the manifest, the jar itself identifies the compiler
+                version = "unknown";
+                CodeSource source = PFAEngine.class.getProtectionDomain().getCodeSource();
+                if (source != null && source.getLocation() != null) {
+                    try {
+                        File jar = new File(source.getLocation().toURI());
+                        version = jar.getName() + ":" + jar.length() + ":" + jar.lastModified();
+                    } catch (URISyntaxException | IllegalArgumentException e) {
+                        version = source.getLocation().toString();
+                    }
+                }
+            }
+            hadrianVersion = version;
+        }
+        return hadrianVersion;
+    }
+
+    /**
+     * Defines the restored classes, delegating everything else to Hadrian's class loader.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, byte[]> m_classes;
+
+        GeneratedClassLoader(final Map<String, byte[]> classes, final ClassLoader parent) {
+            super(parent);
+            m_classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            byte[] bytecode = m_classes.get(name);
+            if (bytecode == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+    /**
+     * Resolves classes with the loader of the restored classes and rejects all classes that are not allowed.
+     */
+    private static final class LoaderObjectInputStream extends ObjectInputStream {
+        private final ClassLoader m_loader;
+        private final Set<String> m_generated;
+
+        LoaderObjectInputStream(final InputStream in, final ClassLoader loader, final Set<String> generated)
+                throws IOException {
+            super(in);
+            m_loader = loader;
+            m_generated = generated;
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Not allowed in a compiled PFA engine archive");
+            }
+            try {
+                return Class.forName(desc.getName(), false, m_loader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        private boolean isAllowed(final String name) {
+            String component = name;
+            if (component.startsWith("[")) {
+                component = component.substring(component.lastIndexOf('[') + 1);
+                if (!component.startsWith("L")) {
+                    // An array of a primitive type
+                    return true;
+                }
+                component = component.substring(1, component.length() - 1);
+            }
+            if (m_generated.contains(component) || ALLOWED_JAVA_TYPES.contains(component)) {
+                return true;
+            }
+            for (String p : ALLOWED_PACKAGES) {
+                if (component.startsWith(p)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
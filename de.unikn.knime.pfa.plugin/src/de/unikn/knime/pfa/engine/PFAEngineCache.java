@@ -0,0 +1,617 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.engine;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+import org.knime.core.node.NodeLogger;
+
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine$;
+
+import scala.Function0;
+
+/**
+ * Process-wide cache of compiled PFA engine factories, keyed by the SHA-256 digest of the document's JSON.
+ * Compiling a document with Hadrian takes seconds for large models and loads a new set of classes every time,
+ * so all engines for the same document are created from one cached factory. Concurrent requests for a document
+ * that is being compiled wait for that compilation instead of starting their own.
+ * <p>
+ * Documents that only differ in the initial values of their cells and pools, like the versions of a regularly
+ * retrained model, compile to the same code. The cache therefore also remembers the structure of each document,
+ * which is the document without these initial values, and creates engines for a new version from the classes
+ * compiled for an earlier one (see {@link SharedCodeFactory}). Only if that is not possible, the new version is
+ * compiled.
+ * <p>
+ * The cache is bounded by the number of factories and by an estimate of their memory. Hadrian loads the
+ * generated classes with a class loader of their own that is only referenced by the factory and its engines,
+ * so evicting a factory allows the classes to be unloaded once its last engine is gone.
+ * The bounds can be set with the system properties {@value #MAX_ENTRIES_PROPERTY} and
+ * {@value #MAX_MEMORY_PROPERTY}.
+ *
+ * @author agent
+ */
+public final class PFAEngineCache {
+
+    /** System property for the maximum number of cached factories. */
+    public static final String MAX_ENTRIES_PROPERTY = "knime.pfa.engineCache.maxEntries";
+
+    /** System property for the maximum estimated memory of the cached factories in megabytes. */
+    public static final String MAX_MEMORY_PROPERTY = "knime.pfa.engineCache.maxMemoryMB";
+
+    /** System property that, if <code>false</code>, disables compiling documents in the background. */
+    public static final String PRECOMPILE_PROPERTY = "knime.pfa.precompile";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PFAEngineCache.class);
+
+    // The memory of a factory is estimated from the length of its document, since measuring the retained size
+    // of the generated classes and Hadrian's objects is not possible from within the JVM. A factory holds
+    // Hadrian's syntax tree of the document and the loaded classes generated from it, whose constant pools repeat
+    // the document's names, schemas and literals. A syntax tree is about four times the size of its source on
+    // a 64 bit JVM (object headers, references and boxed values instead of characters), the classes with their
+    // metadata about three times that again. The estimate only has to be of the right order of magnitude, since
+    // it merely bounds the cache, whose limit can be changed with MAX_MEMORY_PROPERTY.
+    private static final long BYTES_PER_CHAR = 16;
+
+    // A factory sharing the classes of another one only adds the syntax tree of its own document
+    private static final long SHARED_BYTES_PER_CHAR = 4;
+
+    private static final String CELLS_KEY = "cells";
+    private static final String POOLS_KEY = "pools";
+    private static final String INIT_KEY = "init";
+
+    private static final PFAEngineCache INSTANCE = new PFAEngineCache(Integer.getInteger(MAX_ENTRIES_PROPERTY, 32),
+            Long.getLong(MAX_MEMORY_PROPERTY, 512L) << 20);
+
+    private final int m_maxEntries;
+    private final long m_maxBytes;
+    // Ordered by last access, so iteration starts with the least recently used factory
+    private final LinkedHashMap<String, CachedFactory> m_factories = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, FutureTask<CachedFactory>> m_compiling = new HashMap<>();
+    // A cached factory for each structure digest whose compiled code can be shared
+    private final Map<String, CachedFactory> m_structures = new HashMap<>();
+    private long m_bytes;
+    private long m_hits;
+    private long m_misses;
+    private long m_evictions;
+    private long m_sharedMisses;
+    private long m_compileNanos;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries the maximum number of cached factories
+     * @param maxBytes the maximum estimated memory of the cached factories
+     */
+    PFAEngineCache(final int maxEntries, final long maxBytes) {
+        m_maxEntries = maxEntries;
+        m_maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the process-wide engine cache
+     */
+    public static PFAEngineCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if documents should be compiled in the background as soon as they are loaded
+     */
+    public static boolean isPrecompileEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(PRECOMPILE_PROPERTY));
+    }
+
+    /**
+     * Computes the key of a document.
+     *
+     * @param json the JSON of a PFA document
+     * @return the hex encoded SHA-256 digest of the JSON
+     */
+    public static String digest(final String json) {
+        return digest(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the key of a document.
+     *
+     * @param utf8 the UTF-8 encoded JSON of a PFA document
+     * @return the hex encoded SHA-256 digest of the JSON
+     */
+    public static String digest(final byte[] utf8) {
+        try {
+            return hex(MessageDigest.getInstance("SHA-256").digest(utf8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(final byte[] hash) {
+        StringBuilder sb = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates an engine for a document, compiling the document only if it is not in the cache.
+     *
+     * @param digest the digest of the document as computed by {@link #digest(String)}
+     * @param json supplies the JSON of the document, only called if the document has to be compiled
+     * @return a new engine with its own state
+     */
+    public PFAEngine<Object, Object> createEngine(final String digest, final Supplier<String> json) {
+        return getFactory(digest, json).apply();
+    }
+
+    /**
+     * Compiles a document into the cache unless it is cached or being compiled already. A later request for an
+     * engine waits for the compilation instead of starting another one.
+     *
+     * @param digest the digest of the document as computed by {@link #digest(String)}
+     * @param json supplies the JSON of the document, only called if the document has to be compiled
+     */
+    public void compile(final String digest, final Supplier<String> json) {
+        getFactory(digest, json);
+    }
+
+    /**
+     * Creates several engines for a document, compiling the document only if it is not in the cache.
+     *
+     * @param digest the digest of the document as computed by {@link #digest(String)}
+     * @param json supplies the JSON of the document, only called if the document has to be compiled
+     * @param multiplicity the number of engines
+     * @return new engines, each with its own state
+     */
+    public List<PFAEngine<Object, Object>> createEngines(final String digest, final Supplier<String> json,
+            final int multiplicity) {
+        SharedCodeFactory factory = getFactory(digest, json);
+        List<PFAEngine<Object, Object>> engines = new ArrayList<>(multiplicity);
+        for (int i = 0; i < multiplicity; i++) {
+            engines.add(factory.apply());
+        }
+        return engines;
+    }
+
+    private SharedCodeFactory getFactory(final String digest, final Supplier<String> json) {
+        FutureTask<CachedFactory> task = null;
+        CachedFactory unresolved = null;
+        boolean compile = false;
+        synchronized (this) {
+            CachedFactory cached = m_factories.get(digest);
+            if (cached != null) {
+                m_hits++;
+                if (cached.m_structureKnown) {
+                    return cached.m_factory;
+                }
+                unresolved = cached;
+            } else {
+                task = m_compiling.get(digest);
+                if (task == null) {
+                    m_misses++;
+                    task = new FutureTask<>(() -> load(json.get()));
+                    m_compiling.put(digest, task);
+                    compile = true;
+                } else {
+                    m_hits++;
+                }
+            }
+        }
+        if (unresolved != null) {
+            resolveStructure(unresolved, json.get());
+            return unresolved.m_factory;
+        }
+        if (compile) {
+            task.run();
+        }
+        try {
+            CachedFactory factory = task.get();
+            if (compile) {
+                synchronized (this) {
+                    m_compileNanos += factory.m_compileNanos;
+                    if (factory.m_shared) {
+                        m_sharedMisses++;
+                    }
+                    m_factories.put(digest, factory);
+                    if (factory.m_structure != null) {
+                        m_structures.putIfAbsent(factory.m_structure, factory);
+                    }
+                    m_bytes += factory.m_bytes;
+                    evict();
+                }
+                LOGGER.debug((factory.m_shared ? "Reused compiled code for PFA document " : "Compiled PFA document ")
+                        + digest.substring(0, 12) + " in " + factory.m_compileNanos / 1000000 + " ms, "
+                        + getStatistics());
+            }
+            return factory.m_factory;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the PFA document to be compiled", e);
+        } catch (ExecutionException e) {
+            // Hadrian reports errors in the document with runtime exceptions
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        } finally {
+            if (compile) {
+                synchronized (this) {
+                    m_compiling.remove(digest);
+                }
+            }
+        }
+    }
+
+    private CachedFactory load(final String json) {
+        long start = System.nanoTime();
+        String structure = structureDigest(json);
+        CachedFactory similar;
+        synchronized (this) {
+            similar = structure == null ? null : m_structures.get(structure);
+        }
+        if (similar != null) {
+            SharedCodeFactory factory = similar.m_factory.derive(json);
+            if (factory != null) {
+                return new CachedFactory(factory, structure, true, json.length() * SHARED_BYTES_PER_CHAR,
+                        System.nanoTime() - start);
+            }
+        }
+        PFAEngine$ pfaEngine = PFAEngine$.MODULE$;
+        Function0<PFAEngine<Object, Object>> compiled = pfaEngine.factoryFromJson(json,
+                pfaEngine.factoryFromJson$default$2(), pfaEngine.factoryFromJson$default$3(),
+                pfaEngine.factoryFromJson$default$4(), pfaEngine.factoryFromJson$default$5(),
+                pfaEngine.factoryFromJson$default$6());
+        return new CachedFactory(SharedCodeFactory.wrap(compiled), structure, false,
+                json.length() * BYTES_PER_CHAR, System.nanoTime() - start);
+    }
+
+    /**
+     * Adds a factory that was not compiled by this cache, e.g. one restored from a saved port object. The document
+     * is not read here, its structure is only determined when the first engine is requested.
+     *
+     * @param digest the digest of the document
+     * @param length the length of the document's JSON
+     * @param compiled the factory Hadrian compiled for the document
+     */
+    void put(final String digest, final long length, final Function0<PFAEngine<Object, Object>> compiled) {
+        CachedFactory factory = new CachedFactory(SharedCodeFactory.wrap(compiled), null, false,
+                length * BYTES_PER_CHAR, 0);
+        factory.m_structureKnown = false;
+        synchronized (this) {
+            if (m_factories.containsKey(digest)) {
+                return;
+            }
+            m_factories.put(digest, factory);
+            m_bytes += factory.m_bytes;
+            evict();
+        }
+    }
+
+    // Determines the structure of a factory added with put, so that later versions of its document can share it
+    private void resolveStructure(final CachedFactory factory, final String json) {
+        String structure = structureDigest(json);
+        synchronized (this) {
+            if (factory.m_structureKnown) {
+                return;
+            }
+            factory.m_structure = structure;
+            factory.m_structureKnown = true;
+            if (structure != null && m_factories.containsValue(factory)) {
+                m_structures.putIfAbsent(structure, factory);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached factory for a document without compiling it and without counting a hit or miss.
+     *
+     * @param digest the digest of the document
+     * @return the factory or null if the document is not in the cache
+     */
+    synchronized SharedCodeFactory peek(final String digest) {
+        CachedFactory cached = m_factories.get(digest);
+        return cached == null ? null : cached.m_factory;
+    }
+
+    /**
+     * Computes the digest of a document without the initial values of its cells and pools in a single pass over
+     * its JSON, without building a tree. Every event of the parser is added to the digest with its text, except
+     * for the <code>init</code> values of the declarations in the top-level <code>cells</code> and
+     * <code>pools</code> objects, which are skipped.
+     *
+     * @param json the JSON of a document
+     * @return the hex encoded SHA-256 digest of the structure or null if the JSON is not an object
+     */
+    static String structureDigest(final String json) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // The keys of the enclosing objects, null for arrays
+        String[] keys = new String[4];
+        boolean[] objects = new boolean[4];
+        int depth = 0;
+        try (JsonParser p = Json.createParser(new StringReader(json))) {
+            if (!p.hasNext() || p.next() != Event.START_OBJECT) {
+                return null;
+            }
+            md.update((byte)Event.START_OBJECT.ordinal());
+            objects[0] = true;
+            while (p.hasNext()) {
+                Event e = p.next();
+                md.update((byte)e.ordinal());
+                switch (e) {
+                    case KEY_NAME:
+                        String key = p.getString();
+                        if (depth < keys.length) {
+                            keys[depth] = key;
+                        }
+                        update(md, key);
+                        if (depth == 2 && INIT_KEY.equals(key) && isDeclaration(keys, objects)) {
+                            skipValue(p);
+                        }
+                        break;
+                    case VALUE_STRING:
+                    case VALUE_NUMBER:
+                        update(md, p.getString());
+                        break;
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        depth++;
+                        if (depth < objects.length) {
+                            objects[depth] = e == Event.START_OBJECT;
+                            keys[depth] = null;
+                        }
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        depth--;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (JsonException e) {
+            // Not valid JSON, Hadrian reports the error when compiling
+            return null;
+        }
+        return hex(md.digest());
+    }
+
+    // True if the parser is in an object that is a member of the top-level cells or pools object
+    private static boolean isDeclaration(final String[] keys, final boolean[] objects) {
+        return objects[0] && objects[1] && objects[2] && (CELLS_KEY.equals(keys[0]) || POOLS_KEY.equals(keys[0]));
+    }
+
+    private static void skipValue(final JsonParser p) {
+        Event first = p.next();
+        if (first != Event.START_OBJECT && first != Event.START_ARRAY) {
+            return;
+        }
+        for (int depth = 1; depth > 0;) {
+            Event e = p.next();
+            if (e == Event.START_OBJECT || e == Event.START_ARRAY) {
+                depth++;
+            } else if (e == Event.END_OBJECT || e == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+
+    // Adds a text with its length, so that the boundaries between texts are part of the digest
+    private static void update(final MessageDigest md, final String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        md.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        md.update(bytes);
+    }
+
+    private void evict() {
+        Iterator<CachedFactory> it = m_factories.values().iterator();
+        // The most recently added factory is never evicted, even if it alone exceeds the memory bound
+        while (m_factories.size() > 1 && (m_factories.size() > m_maxEntries || m_bytes > m_maxBytes)) {
+            CachedFactory evicted = it.next();
+            it.remove();
+            m_bytes -= evicted.m_bytes;
+            m_evictions++;
+            if (evicted.m_structure != null && m_structures.get(evicted.m_structure) == evicted) {
+                replaceStructure(evicted.m_structure);
+            }
+        }
+    }
+
+    // Lets another cached factory with the same structure stand in for an evicted one
+    private void replaceStructure(final String structure) {
+        m_structures.remove(structure);
+        for (CachedFactory f : m_factories.values()) {
+            if (structure.equals(f.m_structure)) {
+                m_structures.put(structure, f);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes all factories from the cache.
+     */
+    public synchronized void clear() {
+        m_evictions += m_factories.size();
+        m_factories.clear();
+        m_structures.clear();
+        m_bytes = 0;
+    }
+
+    /**
+     * @return a snapshot of the cache's statistics
+     */
+    public synchronized Statistics getStatistics() {
+        return new Statistics(m_hits, m_misses, m_sharedMisses, m_evictions, m_factories.size(), m_bytes,
+                m_compileNanos / 1000000);
+    }
+
+    private static final class CachedFactory {
+        private final SharedCodeFactory m_factory;
+        // Only changed while holding the cache's lock
+        private String m_structure;
+        private boolean m_structureKnown = true;
+        private final boolean m_shared;
+        private final long m_bytes;
+        private final long m_compileNanos;
+
+        CachedFactory(final SharedCodeFactory factory, final String structure, final boolean shared,
+                final long bytes, final long compileNanos) {
+            m_factory = factory;
+            m_structure = structure;
+            m_shared = shared;
+            m_bytes = bytes;
+            m_compileNanos = compileNanos;
+        }
+    }
+
+    /**
+     * Statistics of the engine cache.
+     */
+    public static final class Statistics {
+        private final long m_hits;
+        private final long m_misses;
+        private final long m_shared;
+        private final long m_evictions;
+        private final int m_entries;
+        private final long m_estimatedBytes;
+        private final long m_compileMillis;
+
+        private Statistics(final long hits, final long misses, final long shared, final long evictions,
+                final int entries, final long estimatedBytes, final long compileMillis) {
+            m_hits = hits;
+            m_misses = misses;
+            m_shared = shared;
+            m_evictions = evictions;
+            m_entries = entries;
+            m_estimatedBytes = estimatedBytes;
+            m_compileMillis = compileMillis;
+        }
+
+        /**
+         * @return the number of engine requests served without compiling
+         */
+        public long getHits() {
+            return m_hits;
+        }
+
+        /**
+         * @return the number of engine requests that compiled the document
+         */
+        public long getMisses() {
+            return m_misses;
+        }
+
+        /**
+         * @return the number of misses served with the compiled code of a document with the same structure
+         */
+        public long getShared() {
+            return m_shared;
+        }
+
+        /**
+         * @return the number of evicted factories
+         */
+        public long getEvictions() {
+            return m_evictions;
+        }
+
+        /**
+         * @return the number of cached factories
+         */
+        public int getEntries() {
+            return m_entries;
+        }
+
+        /**
+         * @return the estimated memory of the cached factories in bytes
+         */
+        public long getEstimatedBytes() {
+            return m_estimatedBytes;
+        }
+
+        /**
+         * @return the total time spent compiling documents in milliseconds
+         */
+        public long getCompileMillis() {
+            return m_compileMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("engine cache: %d hits, %d misses (%d with shared code), %d evictions, "
+                    + "%d entries (~%d KB), %d ms compiling", m_hits, m_misses, m_shared, m_evictions, m_entries,
+                    m_estimatedBytes >> 10, m_compileMillis);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.engine;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.knime.core.node.NodeLogger;
+
+import com.opendatagroup.hadrian.ast.EngineConfig;
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
+import com.opendatagroup.hadrian.reader.jsonToAst$;
+
+import scala.Function0;
+import scala.runtime.AbstractFunction0;
+
+/**
+ * Creates engines from the classes Hadrian compiled for one document, optionally for another document with the
+ * same structure. Hadrian's engine factory is a closure holding the parsed document, from which each new
+ * engine reads the initial values of its cells and pools. Replacing that document while an engine is created
+ * therefore yields an engine with the other document's initial state, without compiling anything.
+ * <p>
+ * The closure's field is found by reflection. Since this relies on Hadrian's internals, derived factories are only
+ * used once an engine created by one of them was checked to hold the expected initial values. Whether replacing
+ * the document works depends on the code Hadrian generates, not on the document, so the check is done until it
+ * succeeds once per session. A factory whose derived engine fails the check is not derived from again.
+ *
+ * @author agent
+ */
+final class SharedCodeFactory extends AbstractFunction0<PFAEngine<Object, Object>> {
+
+    private static final String CELLS_KEY = "cells";
+    private static final String POOLS_KEY = "pools";
+    private static final String INIT_KEY = "init";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SharedCodeFactory.class);
+
+    // Set once an engine of a derived factory was seen to hold the initial values of its document
+    private static volatile boolean verified;
+
+    private final Function0<PFAEngine<Object, Object>> m_compiled;
+    private final Field m_configField;
+    private final EngineConfig m_config;
+    // Set if an engine derived from this factory did not hold the expected initial values
+    private volatile boolean m_deriveFailed;
+
+    private SharedCodeFactory(final Function0<PFAEngine<Object, Object>> compiled, final Field configField,
+            final EngineConfig config) {
+        m_compiled = compiled;
+        m_configField = configField;
+        m_config = config;
+    }
+
+    /**
+     * Wraps the factory Hadrian compiled for a document.
+     *
+     * @param compiled the compiled factory
+     * @return a factory creating engines for the compiled document
+     */
+    static SharedCodeFactory wrap(final Function0<PFAEngine<Object, Object>> compiled) {
+        return new SharedCodeFactory(compiled, findConfigField(compiled.getClass()), null);
+    }
+
+    /**
+     * Tries to create a factory for a document that only differs in the initial values of cells and pools
+     * from the document this factory was compiled for.
+     *
+     * @param json the JSON of the other document
+     * @return a factory for the other document or null if the compiled code cannot be reused
+     */
+    SharedCodeFactory derive(final String json) {
+        if (m_configField == null || m_deriveFailed) {
+            return null;
+        }
+        try {
+            SharedCodeFactory derived = new SharedCodeFactory(m_compiled, m_configField,
+                    jsonToAst$.MODULE$.apply(json));
+            if (verified) {
+                return derived;
+            }
+            JsonObject doc = Json.createReader(new StringReader(json)).readObject();
+            if (!hasInitialState(derived.apply(), doc)) {
+                LOGGER.debug("An engine with replaced initial values did not hold them, the document is compiled");
+                m_deriveFailed = true;
+                return null;
+            }
+            // Documents without initial values do not show whether replacing them works
+            verified = !isEmpty(doc, CELLS_KEY) || !isEmpty(doc, POOLS_KEY);
+            return derived;
+        } catch (RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Override
+    public PFAEngine<Object, Object> apply() {
+        if (m_configField == null) {
+            return m_compiled.apply();
+        }
+        // All factories sharing the compiled closure lock it, since they temporarily change its document
+        synchronized (m_compiled) {
+            if (m_config == null) {
+                return m_compiled.apply();
+            }
+            try {
+                Object original = m_configField.get(m_compiled);
+                m_configField.set(m_compiled, m_config);
+                try {
+                    return m_compiled.apply();
+                } finally {
+                    m_configField.set(m_compiled, original);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access the compiled PFA engine factory", e);
+            }
+        }
+    }
+
+    /**
+     * Serializes the compiled closure such that it creates engines for this factory's document.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the closure cannot be serialized
+     */
+    void writeCompiled(final ObjectOutputStream out) throws IOException {
+        if (m_config == null) {
+            out.writeObject(m_compiled);
+            return;
+        }
+        synchronized (m_compiled) {
+            try {
+                Object original = m_configField.get(m_compiled);
+                m_configField.set(m_compiled, m_config);
+                try {
+                    out.writeObject(m_compiled);
+                } finally {
+                    m_configField.set(m_compiled, original);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException("Cannot access the compiled PFA engine factory", e);
+            }
+        }
+    }
+
+    private static Field findConfigField(final Class<?> closure) {
+        List<Field> candidates = new ArrayList<>();
+        for (Class<?> c = closure; c != null; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (f.getType().isAssignableFrom(EngineConfig.class) && !f.getType().equals(Object.class)) {
+                    candidates.add(f);
+                }
+            }
+        }
+        if (candidates.size() != 1) {
+            return null;
+        }
+        try {
+            candidates.get(0).setAccessible(true);
+            return candidates.get(0);
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasInitialState(final PFAEngine<Object, Object> engine, final JsonObject doc) {
+        JsonObject snapshot = Json.createReader(new StringReader(engine.snapshot().toJson(false))).readObject();
+        return sameInit(snapshot, doc, CELLS_KEY) && sameInit(snapshot, doc, POOLS_KEY);
+    }
+
+    private static boolean isEmpty(final JsonObject doc, final String key) {
+        JsonObject o = doc.getJsonObject(key);
+        return o == null || o.isEmpty();
+    }
+
+    private static boolean sameInit(final JsonObject snapshot, final JsonObject doc, final String key) {
+        JsonObject expected = doc.getJsonObject(key);
+        JsonObject actual = snapshot.getJsonObject(key);
+        if (expected == null || expected.isEmpty()) {
+            return actual == null || actual.isEmpty();
+        }
+        if (actual == null || !expected.keySet().equals(actual.keySet())) {
+            return false;
+        }
+        for (String name : expected.keySet()) {
+            if (!sameValue(expected.getJsonObject(name).get(INIT_KEY), actual.getJsonObject(name).get(INIT_KEY))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two JSON values, numbers by their value. The engine writes numbers as Java prints them, so e.g.
+     * <code>1e-05</code> in the document is <code>1.0E-5</code> in the snapshot, which
+     * {@link JsonNumber#equals(Object)} considers different.
+     *
+     * @param expected a value from the document
+     * @param actual a value from the engine's snapshot
+     * @return true if both values are equal
+     */
+    static boolean sameValue(final JsonValue expected, final JsonValue actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        if (expected.getValueType() != actual.getValueType()) {
+            return false;
+        }
+        switch (expected.getValueType()) {
+            case NUMBER:
+                JsonNumber e = (JsonNumber) expected;
+                JsonNumber a = (JsonNumber) actual;
+                // Integers beyond the precision of doubles are compared exactly
+                return e.isIntegral() && a.isIntegral() ? e.bigDecimalValue().compareTo(a.bigDecimalValue()) == 0
+                        : e.doubleValue() == a.doubleValue();
+            case ARRAY:
+                JsonArray ea = (JsonArray) expected;
+                JsonArray aa = (JsonArray) actual;
+                if (ea.size() != aa.size()) {
+                    return false;
+                }
+                for (int i = 0; i < ea.size(); i++) {
+                    if (!sameValue(ea.get(i), aa.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            case OBJECT:
+                JsonObject eo = (JsonObject) expected;
+                JsonObject ao = (JsonObject) actual;
+                if (!eo.keySet().equals(ao.keySet())) {
+                    return false;
+                }
+                for (String k : eo.keySet()) {
+                    if (!sameValue(eo.get(k), ao.get(k))) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return expected.equals(actual);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains the compilation and caching of Hadrian scoring engines.
+ */
+package de.unikn.knime.pfa.engine;
@@ -0,0 +1,126 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import java.util.Arrays;
+
+import de.unikn.knime.pfa.data.ColumnBatch;
+
+/**
+ * Assignment of rows to the closest of a set of cluster centers by Euclidean distance. The centers are kept
+ * in one contiguous row-major array and the distances of a whole batch to one center are computed at once.
+ *
+ * @author agent
+ */
+final class ClusterModel implements FastPathModel {
+
+    private final int[] m_columns;
+    private final double[] m_centers;
+    private final Object[] m_labels;
+
+    /**
+     * Creates a new cluster model.
+     *
+     * @param columns the batch column of each feature, in the order of the center coordinates
+     * @param centers the centers, one row of <code>columns.length</code> values per cluster
+     * @param labels the output for each cluster
+     */
+    ClusterModel(final int[] columns, final double[] centers, final Object[] labels) {
+        m_columns = columns;
+        m_centers = centers;
+        m_labels = labels;
+    }
+
+    @Override
+    public String getDescription() {
+        return "closest cluster of " + m_labels.length + " clusters over " + m_columns.length + " features";
+    }
+
+    @Override
+    public void score(final ColumnBatch batch, final Object[] outputs) {
+        int n = batch.size();
+        int d = m_columns.length;
+        boolean[] skip = new boolean[n];
+        double[][] x = Kernels.features(batch, m_columns, skip);
+        double[] dist = new double[n];
+        double[] best = new double[n];
+        double[] bestSquared = new double[n];
+        int[] closest = new int[n];
+        boolean[] ambiguous = new boolean[n];
+        for (int c = 0; c < m_labels.length; c++) {
+            Arrays.fill(dist, 0, n, 0.0);
+            int offset = c * d;
+            for (int j = 0; j < d; j++) {
+                double center = m_centers[offset + j];
+                double[] xj = x[j];
+                for (int i = 0; i < n; i++) {
+                    double diff = xj[i] - center;
+                    dist[i] += diff * diff;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                // The engine compares actual distances and keeps the first cluster on ties
+                double v = Math.sqrt(dist[i]);
+                if (c == 0 || v < best[i]) {
+                    best[i] = v;
+                    bestSquared[i] = dist[i];
+                    closest[i] = c;
+                    ambiguous[i] = false;
+                } else if (v == best[i] && dist[i] != bestSquared[i]) {
+                    // Rounding in sqrt made two different distances equal, which could be told apart when
+                    // comparing squared distances
+                    ambiguous[i] = true;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            // NaN distances and ambiguous ties are left to the engine
+            outputs[i] = skip[i] || ambiguous[i] || Double.isNaN(best[i]) ? null : m_labels[closest[i]];
+        }
+    }
+}
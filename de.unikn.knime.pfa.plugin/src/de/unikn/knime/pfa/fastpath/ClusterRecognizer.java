@@ -0,0 +1,133 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static de.unikn.knime.pfa.fastpath.PFAPatterns.check;
+
+import java.util.List;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.apache.avro.Schema;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+import de.unikn.knime.pfa.fastpath.PFAPatterns.NoMatch;
+
+/**
+ * Recognizes cluster assignments computed with <code>model.cluster.closest</code>. The supported form of the
+ * action is
+ * <pre>
+ * {"attr": {"model.cluster.closest": [{"new": ["input.x1", ...], "type": ...}, {"cell": "clusters"}]},
+ *     "path": [{"string": "id"}]}
+ * </pre>
+ * where the closest call may have <code>metric.simpleEuclidean</code> as third argument. The clusters must be
+ * records with a double array <code>center</code> and the output must be a primitive field of that record.
+ *
+ * @author agent
+ */
+final class ClusterRecognizer implements FastPathRecognizer {
+
+    private static final String CLOSEST = "model.cluster.closest";
+    private static final String EUCLIDEAN = "metric.simpleEuclidean";
+    private static final String CENTER = "center";
+
+    @Override
+    public FastPathModel recognize(final JsonObject doc, final BatchInputConverter input) throws NoMatch {
+        JsonValue expr = PFAPatterns.singleExpression(doc.get("action"));
+        Schema output = PFAPatterns.parse(new Schema.Parser(), doc.get("output"));
+
+        // Whole cluster records cannot be created outside of the engine, so a field must be extracted
+        check(expr.getValueType() == JsonValue.ValueType.OBJECT, "no attribute access");
+        JsonObject attr = (JsonObject) expr;
+        check(attr.size() == 2 && attr.containsKey("attr") && attr.get("path") != null
+                && attr.get("path").getValueType() == JsonValue.ValueType.ARRAY, "no attribute access");
+        JsonArray path = attr.getJsonArray("path");
+        check(path.size() == 1 && path.get(0).getValueType() == JsonValue.ValueType.OBJECT
+                && path.getJsonObject(0).size() == 1 && path.getJsonObject(0).containsKey("string"),
+                "attribute path is no string literal");
+        String labelField = PFAPatterns.symbol(path.getJsonObject(0).get("string"));
+
+        List<JsonValue> args = PFAPatterns.call(attr.get("attr"), CLOSEST);
+        check(args != null && (args.size() == 2 || args.size() == 3), "no call of " + CLOSEST);
+        if (args.size() == 3) {
+            check(args.get(2).getValueType() == JsonValue.ValueType.OBJECT
+                    && EUCLIDEAN.equals(PFAPatterns.fcnRef((JsonObject) args.get(2))), "unsupported metric");
+        }
+        int[] columns = RegressionRecognizer.features(args.get(0), input);
+
+        JsonObject cell = PFAPatterns.cell(doc, PFAPatterns.cellRef(args.get(1)));
+        Schema cellType = PFAPatterns.parse(PFAPatterns.typeParser(doc), cell.get("type"));
+        check(cellType.getType() == Schema.Type.ARRAY && cellType.getElementType().getType() == Schema.Type.RECORD,
+                "clusters are no array of records");
+        Schema clusterType = cellType.getElementType();
+        check(clusterType.getField(CENTER) != null
+                && RegressionRecognizer.isArrayOf(clusterType.getField(CENTER).schema(), Schema.Type.DOUBLE),
+                "cluster center is no double array");
+        check(clusterType.getField(labelField) != null, "unknown cluster field " + labelField);
+        Schema labelType = clusterType.getField(labelField).schema();
+        check(labelType.equals(output), "output type does not match the cluster field");
+
+        check(cell.get("init").getValueType() == JsonValue.ValueType.ARRAY, "clusters init is no array");
+        JsonArray clusters = cell.getJsonArray("init");
+        check(!clusters.isEmpty(), "no clusters");
+        double[][] centers = new double[clusters.size()][];
+        Object[] labels = new Object[clusters.size()];
+        for (int c = 0; c < centers.length; c++) {
+            check(clusters.get(c).getValueType() == JsonValue.ValueType.OBJECT, "cluster is no record");
+            JsonObject cluster = clusters.getJsonObject(c);
+            check(cluster.containsKey(CENTER) && cluster.containsKey(labelField), "cluster is incomplete");
+            centers[c] = PFAPatterns.doubles(cluster.get(CENTER));
+            // The engine fails for mismatching sizes, so we leave that error to it
+            check(centers[c].length == columns.length, "center size does not match the features");
+            labels[c] = PFAPatterns.primitiveValue(labelType, cluster.get(labelField));
+        }
+        return new ClusterModel(columns, Kernels.flatten(centers), labels);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+/**
+ * Controls whether the predictor uses native fast paths for recognized PFA documents.
+ *
+ * @author agent
+ */
+public enum FastPathMode {
+    /** Use a fast path if the document is recognized, the Hadrian engine otherwise. */
+    AUTO("Automatic"),
+    /** Always use the Hadrian engine. */
+    OFF("Off"),
+    /** Score with both and compare the outputs. The engine's output is used in case of a mismatch. */
+    VERIFY("Verify against engine");
+
+    private final String m_label;
+
+    FastPathMode(final String label) {
+        m_label = label;
+    }
+
+    /**
+     * @return the name shown in the dialog
+     */
+    public String getLabel() {
+        return m_label;
+    }
+
+    /**
+     * @param label the label as shown in the dialog
+     * @return the mode with the given label, {@link #AUTO} if there is none
+     */
+    public static FastPathMode fromLabel(final String label) {
+        for (FastPathMode m : values()) {
+            if (m.m_label.equals(label)) {
+                return m;
+            }
+        }
+        return AUTO;
+    }
+
+    /**
+     * @return the labels of all modes
+     */
+    public static String[] labels() {
+        FastPathMode[] values = values();
+        String[] labels = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            labels[i] = values[i].m_label;
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.knime.core.node.NodeLogger;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+
+/**
+ * Entry point for finding a native fast path for a PFA document. Only stateless documents with method
+ * <code>map</code> and a record input are considered, since the fast paths skip the engine entirely.
+ *
+ * @author agent
+ */
+public final class FastPaths {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(FastPaths.class);
+
+    // Register any new fast paths here
+    private static final List<FastPathRecognizer> RECOGNIZERS = Arrays.asList(
+            new TreeEnsembleRecognizer(),
+            new RegressionRecognizer(),
+            new ClusterRecognizer(),
+            new NeuralRecognizer());
+
+    private FastPaths() {
+    }
+
+    /**
+     * Tries to find a fast path for a PFA document.
+     *
+     * @param doc the PFA document
+     * @param input the converter used for the input of the document
+     * @return a model scoring the document natively or null if the document is not recognized
+     */
+    public static FastPathModel recognize(final JsonObject doc, final BatchInputConverter input) {
+        if (!input.isRecord() || !"map".equals(doc.getString("method", "map")) || !isEmpty(doc.get("begin"))
+                || !isEmpty(doc.get("end"))) {
+            return null;
+        }
+        for (FastPathRecognizer r : RECOGNIZERS) {
+            try {
+                FastPathModel model = r.recognize(doc, input);
+                LOGGER.debug("Using native fast path for " + model.getDescription());
+                return model;
+            } catch (PFAPatterns.NoMatch e) {
+                LOGGER.debug(r.getClass().getSimpleName() + " does not match: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // Malformed parts of the document are left to the engine to report
+                LOGGER.debug(r.getClass().getSimpleName() + " failed: " + e.getMessage(), e);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(final JsonValue v) {
+        return v == null || (v.getValueType() == JsonValue.ValueType.ARRAY && ((JsonArray) v).isEmpty());
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import com.opendatagroup.hadrian.data.PFAArray;
+
+import de.unikn.knime.pfa.data.ColumnBatch;
+
+/**
+ * Numeric kernels shared by the fast paths. All kernels work on whole batch columns, i.e. one
+ * <code>double[]</code> per feature, so that the inner loops run over contiguous primitive arrays.
+ *
+ * @author agent
+ */
+final class Kernels {
+
+    // Hadrian only shifts the inputs of softmax when they could overflow the exponential function
+    private static final double SOFTMAX_SHIFT_LIMIT = 100.0;
+
+    private Kernels() {
+    }
+
+    /**
+     * Reads numeric columns of a batch as doubles, widening other numeric types like the engine does.
+     *
+     * @param batch the batch
+     * @param columns the columns to read
+     * @param skip receives true for every row where one of the columns is missing
+     * @return one array per column, only the first {@link ColumnBatch#size()} entries are valid
+     */
+    static double[][] features(final ColumnBatch batch, final int[] columns, final boolean[] skip) {
+        int n = batch.size();
+        double[][] x = new double[columns.length][];
+        for (int j = 0; j < columns.length; j++) {
+            x[j] = doubles(batch, columns[j], n);
+            boolean[] missing = batch.getMissing(columns[j]);
+            for (int i = 0; i < n; i++) {
+                skip[i] |= missing[i];
+            }
+        }
+        return x;
+    }
+
+    private static double[] doubles(final ColumnBatch batch, final int col, final int n) {
+        double[] out;
+        switch (batch.getType(col)) {
+            case DOUBLE:
+                return batch.getDoubles(col);
+            case FLOAT:
+                float[] floats = batch.getFloats(col);
+                out = new double[n];
+                for (int i = 0; i < n; i++) {
+                    out[i] = floats[i];
+                }
+                return out;
+            case INT:
+                int[] ints = batch.getInts(col);
+                out = new double[n];
+                for (int i = 0; i < n; i++) {
+                    out[i] = ints[i];
+                }
+                return out;
+            case LONG:
+                long[] longs = batch.getLongs(col);
+                out = new double[n];
+                for (int i = 0; i < n; i++) {
+                    out[i] = longs[i];
+                }
+                return out;
+            default:
+                throw new IllegalStateException("Column " + col + " is not numeric");
+        }
+    }
+
+    /**
+     * Computes <code>W x + b</code> for the first <code>n</code> rows of a batch. The products are summed
+     * feature by feature starting at 0.0 and the bias is added last, which is the order the engine uses for each
+     * row. Changing this order, e.g. by starting with the bias, changes the result in the last bits.
+     *
+     * @param x the input, one array per feature
+     * @param n the number of rows
+     * @param weights the weight matrix, row-major with one row of <code>x.length</code> values per output
+     * @param bias the bias of each output
+     * @return the output, one array per output
+     */
+    static double[][] affine(final double[][] x, final int n, final double[] weights, final double[] bias) {
+        int d = x.length;
+        double[][] out = new double[bias.length][n];
+        for (int o = 0; o < out.length; o++) {
+            double[] a = out[o];
+            int offset = o * d;
+            for (int j = 0; j < d; j++) {
+                double w = weights[offset + j];
+                double[] xj = x[j];
+                for (int i = 0; i < n; i++) {
+                    a[i] += w * xj[i];
+                }
+            }
+            double b = bias[o];
+            for (int i = 0; i < n; i++) {
+                a[i] += b;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Applies the logistic function <code>1 / (1 + exp(-x))</code> in place, like <code>m.link.logit</code>.
+     *
+     * @param a the values
+     * @param n the number of valid values
+     */
+    static void logit(final double[] a, final int n) {
+        for (int i = 0; i < n; i++) {
+            a[i] = 1.0 / (1.0 + Math.exp(-a[i]));
+        }
+    }
+
+    /**
+     * Applies <code>m.link.softmax</code> to one row in place. The maxima are reduced from the left with
+     * <code>&gt;=</code> like Scala's <code>max</code> in the engine, which differs from {@link Math#max} for NaN
+     * and signed zeros.
+     *
+     * @param x the values of the row, at least one
+     */
+    static void softmax(final double[] x) {
+        double max = x[0];
+        double maxAbs = Math.abs(x[0]);
+        for (int i = 1; i < x.length; i++) {
+            double v = x[i];
+            max = max >= v ? max : v;
+            double abs = Math.abs(v);
+            maxAbs = maxAbs >= abs ? maxAbs : abs;
+        }
+        double shift = maxAbs >= SOFTMAX_SHIFT_LIMIT ? max : 0.0;
+        double denom = 0.0;
+        for (double v : x) {
+            denom += Math.exp(v - shift);
+        }
+        for (int i = 0; i < x.length; i++) {
+            x[i] = Math.exp(x[i] - shift) / denom;
+        }
+    }
+
+    /**
+     * Flattens a matrix into a row-major array.
+     *
+     * @param m the rows of the matrix, all of the same length
+     * @return the flattened matrix
+     */
+    static double[] flatten(final double[][] m) {
+        int d = m.length == 0 ? 0 : m[0].length;
+        double[] flat = new double[m.length * d];
+        for (int r = 0; r < m.length; r++) {
+            System.arraycopy(m[r], 0, flat, r * d, d);
+        }
+        return flat;
+    }
+
+    /**
+     * @param values the values of a row
+     * @return the values as PFA array of doubles
+     */
+    static PFAArray<Object> toArray(final double[] values) {
+        PFAArray<Object> arr = PFAArray.empty(values.length);
+        for (double v : values) {
+            arr.add(v);
+        }
+        return arr;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import de.unikn.knime.pfa.data.ColumnBatch;
+
+/**
+ * A linear model <code>y = C x + c</code>, optionally followed by a link function. The coefficients are kept
+ * in one row-major array and applied to whole columns of a batch at once.
+ *
+ * @author agent
+ */
+final class LinearModel implements FastPathModel {
+
+    /** The link function applied to the linear predictor. */
+    enum Link {
+        /** No link function. */
+        IDENTITY,
+        /** <code>m.link.logit</code>, applied element-wise. */
+        LOGIT,
+        /** <code>m.link.softmax</code> over all outputs. */
+        SOFTMAX
+    }
+
+    private final int[] m_columns;
+    private final double[] m_coeff;
+    private final double[] m_const;
+    private final Link m_link;
+    private final boolean m_scalar;
+
+    /**
+     * Creates a new linear model.
+     *
+     * @param columns the batch column of each feature, in the order of the coefficients
+     * @param coeff the coefficients, one row of <code>columns.length</code> values per output
+     * @param constants the constant of each output
+     * @param link the link function
+     * @param scalar whether the output is a single double instead of an array
+     */
+    LinearModel(final int[] columns, final double[] coeff, final double[] constants, final Link link,
+            final boolean scalar) {
+        m_columns = columns;
+        m_coeff = coeff;
+        m_const = constants;
+        m_link = link;
+        m_scalar = scalar;
+    }
+
+    @Override
+    public String getDescription() {
+        return (m_scalar ? "linear regression" : "multivariate linear regression with " + m_const.length
+                + " outputs") + " over " + m_columns.length + " features"
+                + (m_link == Link.IDENTITY ? "" : " (" + m_link.name().toLowerCase() + " link)");
+    }
+
+    @Override
+    public void score(final ColumnBatch batch, final Object[] outputs) {
+        int n = batch.size();
+        boolean[] skip = new boolean[n];
+        double[][] acc = Kernels.affine(Kernels.features(batch, m_columns, skip), n, m_coeff, m_const);
+        if (m_link == Link.LOGIT) {
+            for (double[] a : acc) {
+                Kernels.logit(a, n);
+            }
+        }
+        double[] row = new double[acc.length];
+        for (int i = 0; i < n; i++) {
+            if (skip[i]) {
+                outputs[i] = null;
+                continue;
+            }
+            if (m_scalar) {
+                outputs[i] = acc[0][i];
+                continue;
+            }
+            for (int o = 0; o < row.length; o++) {
+                row[o] = acc[o][i];
+            }
+            if (m_link == Link.SOFTMAX) {
+                Kernels.softmax(row);
+            }
+            outputs[i] = Kernels.toArray(row);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import de.unikn.knime.pfa.data.ColumnBatch;
+
+/**
+ * A feed-forward network as computed by <code>model.neural.simpleLayers</code>. Each layer is a matrix-matrix
+ * product of the weights with the whole batch; the activation is applied to all layers but the last.
+ *
+ * @author agent
+ */
+final class NeuralModel implements FastPathModel {
+
+    /** Supported activation functions. */
+    enum Activation {
+        /** <code>m.link.logit</code>. */
+        LOGIT,
+        /** <code>m.link.relu</code>. */
+        RELU,
+        /** <code>m.link.tanh</code> or <code>m.tanh</code>. */
+        TANH
+    }
+
+    private final int[] m_columns;
+    private final double[][] m_weights;
+    private final double[][] m_bias;
+    private final Activation m_activation;
+    private final boolean m_softmax;
+
+    /**
+     * Creates a new network.
+     *
+     * @param columns the batch column of each input
+     * @param weights the row-major weight matrix of each layer
+     * @param bias the bias vector of each layer
+     * @param activation the activation function of the hidden layers
+     * @param softmax whether <code>m.link.softmax</code> is applied to the output
+     */
+    NeuralModel(final int[] columns, final double[][] weights, final double[][] bias, final Activation activation,
+            final boolean softmax) {
+        m_columns = columns;
+        m_weights = weights;
+        m_bias = bias;
+        m_activation = activation;
+        m_softmax = softmax;
+    }
+
+    @Override
+    public String getDescription() {
+        return "neural network with " + m_weights.length + " layers over " + m_columns.length + " features";
+    }
+
+    @Override
+    public void score(final ColumnBatch batch, final Object[] outputs) {
+        int n = batch.size();
+        boolean[] skip = new boolean[n];
+        double[][] x = Kernels.features(batch, m_columns, skip);
+        for (int l = 0; l < m_weights.length; l++) {
+            x = Kernels.affine(x, n, m_weights[l], m_bias[l]);
+            if (l < m_weights.length - 1) {
+                for (double[] a : x) {
+                    activate(a, n, skip);
+                }
+            }
+        }
+        double[] row = new double[x.length];
+        for (int i = 0; i < n; i++) {
+            if (skip[i]) {
+                outputs[i] = null;
+                continue;
+            }
+            for (int o = 0; o < row.length; o++) {
+                row[o] = x[o][i];
+            }
+            if (m_softmax) {
+                Kernels.softmax(row);
+            }
+            outputs[i] = Kernels.toArray(row);
+        }
+    }
+
+    private void activate(final double[] a, final int n, final boolean[] skip) {
+        switch (m_activation) {
+            case LOGIT:
+                Kernels.logit(a, n);
+                break;
+            case RELU:
+                for (int i = 0; i < n; i++) {
+                    // A branch and Math.max disagree on NaN, so such rows are left to the engine
+                    skip[i] |= a[i] != a[i];
+                    a[i] = a[i] > 0.0 ? a[i] : 0.0;
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    a[i] = Math.tanh(a[i]);
+                }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static de.unikn.knime.pfa.fastpath.PFAPatterns.check;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.apache.avro.Schema;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+import de.unikn.knime.pfa.fastpath.NeuralModel.Activation;
+import de.unikn.knime.pfa.fastpath.PFAPatterns.NoMatch;
+
+/**
+ * Recognizes feed-forward networks computed with <code>model.neural.simpleLayers</code>. The supported form of
+ * the action is
+ * <pre>
+ * {"model.neural.simpleLayers": [{"new": ["input.x1", ...], "type": ...}, {"cell": "layers"}, activation]}
+ * </pre>
+ * optionally wrapped in <code>m.link.softmax</code>, where the activation is <code>m.link.logit</code>,
+ * <code>m.link.relu</code> or <code>m.link.tanh</code> as function reference or as inline or user defined
+ * function forwarding its parameter.
+ *
+ * @author agent
+ */
+final class NeuralRecognizer implements FastPathRecognizer {
+
+    private static final String SIMPLE_LAYERS = "model.neural.simpleLayers";
+    private static final String WEIGHTS = "weights";
+    private static final String BIAS = "bias";
+
+    private static final Map<String, Activation> ACTIVATIONS = new HashMap<>();
+    static {
+        ACTIVATIONS.put("m.link.logit", Activation.LOGIT);
+        ACTIVATIONS.put("m.link.relu", Activation.RELU);
+        ACTIVATIONS.put("m.link.tanh", Activation.TANH);
+        ACTIVATIONS.put("m.tanh", Activation.TANH);
+    }
+
+    @Override
+    public FastPathModel recognize(final JsonObject doc, final BatchInputConverter input) throws NoMatch {
+        JsonValue expr = PFAPatterns.singleExpression(doc.get("action"));
+        Schema output = PFAPatterns.parse(new Schema.Parser(), doc.get("output"));
+        check(RegressionRecognizer.isArrayOf(output, Schema.Type.DOUBLE), "output is no double array");
+
+        boolean softmax = false;
+        List<JsonValue> link = PFAPatterns.call(expr, "m.link.softmax");
+        if (link != null) {
+            check(link.size() == 1, "link function must have one argument");
+            softmax = true;
+            expr = link.get(0);
+        }
+        List<JsonValue> args = PFAPatterns.call(expr, SIMPLE_LAYERS, 3);
+        int[] columns = RegressionRecognizer.features(args.get(0), input);
+        Activation activation = activation(doc, args.get(2));
+
+        JsonObject cell = PFAPatterns.cell(doc, PFAPatterns.cellRef(args.get(1)));
+        Schema cellType = PFAPatterns.parse(PFAPatterns.typeParser(doc), cell.get("type"));
+        check(cellType.getType() == Schema.Type.ARRAY && cellType.getElementType().getType() == Schema.Type.RECORD,
+                "layers are no array of records");
+        Schema layerType = cellType.getElementType();
+        check(layerType.getField(WEIGHTS) != null && layerType.getField(BIAS) != null, "layer is no record");
+        Schema weightsType = layerType.getField(WEIGHTS).schema();
+        check(weightsType.getType() == Schema.Type.ARRAY
+                && RegressionRecognizer.isArrayOf(weightsType.getElementType(), Schema.Type.DOUBLE),
+                "weights are no double matrix");
+        check(RegressionRecognizer.isArrayOf(layerType.getField(BIAS).schema(), Schema.Type.DOUBLE),
+                "bias is no double array");
+
+        check(cell.get("init").getValueType() == JsonValue.ValueType.ARRAY, "layers init is no array");
+        JsonArray layers = cell.getJsonArray("init");
+        check(!layers.isEmpty(), "no layers");
+        double[][] weights = new double[layers.size()][];
+        double[][] bias = new double[layers.size()][];
+        int width = columns.length;
+        for (int l = 0; l < weights.length; l++) {
+            check(layers.get(l).getValueType() == JsonValue.ValueType.OBJECT, "layer is no record");
+            JsonObject layer = layers.getJsonObject(l);
+            check(layer.containsKey(WEIGHTS) && layer.containsKey(BIAS), "layer is incomplete");
+            double[][] w = PFAPatterns.matrix(layer.get(WEIGHTS));
+            bias[l] = PFAPatterns.doubles(layer.get(BIAS));
+            // The engine fails for mismatching sizes, so we leave that error to it
+            check(w.length == bias[l].length && w.length > 0 && w[0].length == width,
+                    "layer " + l + " does not match the size of its input");
+            weights[l] = Kernels.flatten(w);
+            width = w.length;
+        }
+        return new NeuralModel(columns, weights, bias, activation, softmax);
+    }
+
+    private static Activation activation(final JsonObject doc, final JsonValue fcn) throws NoMatch {
+        check(fcn.getValueType() == JsonValue.ValueType.OBJECT, "no activation function");
+        String ref = PFAPatterns.fcnRef((JsonObject) fcn);
+        if (ref != null && ACTIVATIONS.containsKey(ref)) {
+            return ACTIVATIONS.get(ref);
+        }
+        JsonObject def = PFAPatterns.fcnDef(doc, fcn);
+        List<String> params = PFAPatterns.paramNames(def);
+        check(params.size() == 1, "activation function must have one parameter");
+        JsonValue body = PFAPatterns.body(def);
+        for (Map.Entry<String, Activation> e : ACTIVATIONS.entrySet()) {
+            List<JsonValue> args = PFAPatterns.call(body, e.getKey());
+            if (args != null && args.size() == 1 && PFAPatterns.isSymbol(args.get(0), params.get(0))) {
+                return e.getValue();
+            }
+        }
+        throw new NoMatch("unsupported activation function");
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+
+/**
+ * Helpers for matching the JSON of PFA documents against the patterns of the fast paths.
+ *
+ * @author agent
+ */
+final class PFAPatterns {
+
+    private static final String INPUT_KEY = "input";
+    private static final String OUTPUT_KEY = "output";
+    private static final String CELLS_KEY = "cells";
+    private static final String FCNS_KEY = "fcns";
+    private static final String CELL_KEY = "cell";
+    private static final String FCN_KEY = "fcn";
+    private static final String FCNREF_KEY = "fcnref";
+    private static final String PARAMS_KEY = "params";
+    private static final String DO_KEY = "do";
+    private static final String USER_FCN_PREFIX = "u.";
+
+    private PFAPatterns() {
+    }
+
+    /**
+     * Thrown when a document does not match a pattern. No stack trace is recorded, since the exception only
+     * serves for leaving nested matching code.
+     */
+    static final class NoMatch extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param reason a description of the mismatch
+         */
+        NoMatch(final String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    /**
+     * Checks a condition of a pattern.
+     *
+     * @param condition the condition
+     * @param reason the description of the mismatch if the condition does not hold
+     * @throws NoMatch when the condition does not hold
+     */
+    static void check(final boolean condition, final String reason) throws NoMatch {
+        if (!condition) {
+            throw new NoMatch(reason);
+        }
+    }
+
+    /**
+     * Returns the only expression of an expression list. PFA allows a single expression wherever a list of
+     * expressions is expected.
+     *
+     * @param v an expression or a list of expressions
+     * @return the single expression
+     * @throws NoMatch when the list contains more than one expression
+     */
+    static JsonValue singleExpression(final JsonValue v) throws NoMatch {
+        check(v != null, "missing expression");
+        if (v.getValueType() == JsonValue.ValueType.ARRAY) {
+            JsonArray arr = (JsonArray) v;
+            check(arr.size() == 1, "more than one expression");
+            return arr.get(0);
+        }
+        return v;
+    }
+
+    /**
+     * Matches a function call.
+     *
+     * @param expr an expression
+     * @param fcn the name of the function
+     * @return the arguments of the call or null if the expression is no call of the function
+     */
+    static List<JsonValue> call(final JsonValue expr, final String fcn) {
+        if (expr.getValueType() != JsonValue.ValueType.OBJECT) {
+            return null;
+        }
+        JsonObject obj = (JsonObject) expr;
+        if (obj.size() != 1 || !obj.containsKey(fcn)) {
+            return null;
+        }
+        JsonValue args = obj.get(fcn);
+        if (args.getValueType() == JsonValue.ValueType.ARRAY) {
+            return new ArrayList<>((JsonArray) args);
+        }
+        // Functions with a single argument may be called without an argument list
+        return Collections.singletonList(args);
+    }
+
+    /**
+     * Matches a function call with a fixed number of arguments.
+     *
+     * @param expr an expression
+     * @param fcn the name of the function
+     * @param numArgs the number of arguments
+     * @return the arguments of the call
+     * @throws NoMatch when the expression is no call of the function with the given number of arguments
+     */
+    static List<JsonValue> call(final JsonValue expr, final String fcn, final int numArgs) throws NoMatch {
+        List<JsonValue> args = call(expr, fcn);
+        check(args != null && args.size() == numArgs, "no call of " + fcn);
+        return args;
+    }
+
+    /**
+     * @param expr an expression
+     * @param name a symbol name
+     * @return true if the expression is a reference to the symbol
+     */
+    static boolean isSymbol(final JsonValue expr, final String name) {
+        return expr.getValueType() == JsonValue.ValueType.STRING && ((JsonString) expr).getString().equals(name);
+    }
+
+    /**
+     * @param expr an expression
+     * @return the symbol the expression refers to
+     * @throws NoMatch when the expression is no symbol reference
+     */
+    static String symbol(final JsonValue expr) throws NoMatch {
+        check(expr.getValueType() == JsonValue.ValueType.STRING, "no symbol reference");
+        return ((JsonString) expr).getString();
+    }
+
+    /**
+     * @param expr an expression
+     * @return the name of the cell the expression reads
+     * @throws NoMatch when the expression is no plain cell reference
+     */
+    static String cellRef(final JsonValue expr) throws NoMatch {
+        check(expr.getValueType() == JsonValue.ValueType.OBJECT, "no cell reference");
+        JsonObject obj = (JsonObject) expr;
+        check(obj.size() == 1 && obj.containsKey(CELL_KEY), "no cell reference");
+        return symbol(obj.get(CELL_KEY));
+    }
+
+    /**
+     * Matches a reference to a field of the input record, either as <code>"input.field"</code> or as
+     * <code>{"attr": "input", "path": [{"string": "field"}]}</code>.
+     *
+     * @param expr an expression
+     * @return the name of the referenced field
+     * @throws NoMatch when the expression is no reference to a field of the input
+     */
+    static String inputField(final JsonValue expr) throws NoMatch {
+        if (expr.getValueType() == JsonValue.ValueType.STRING) {
+            String path = ((JsonString) expr).getString();
+            check(path.startsWith(INPUT_KEY + ".") && path.indexOf('.', INPUT_KEY.length() + 1) < 0,
+                    "no input field reference");
+            return path.substring(INPUT_KEY.length() + 1);
+        }
+        check(expr.getValueType() == JsonValue.ValueType.OBJECT, "no input field reference");
+        JsonObject obj = (JsonObject) expr;
+        check(obj.size() == 2 && isSymbol(obj.getOrDefault("attr", JsonValue.NULL), INPUT_KEY)
+                && obj.get("path") != null && obj.get("path").getValueType() == JsonValue.ValueType.ARRAY,
+                "no input field reference");
+        JsonArray path = obj.getJsonArray("path");
+        check(path.size() == 1 && path.get(0).getValueType() == JsonValue.ValueType.OBJECT, "nested attribute path");
+        JsonObject literal = path.getJsonObject(0);
+        check(literal.size() == 1 && literal.containsKey("string"), "attribute path is no string literal");
+        return symbol(literal.get("string"));
+    }
+
+    /**
+     * @param expr an expression
+     * @return the number the expression evaluates to
+     * @throws NoMatch when the expression is no number literal
+     */
+    static double number(final JsonValue expr) throws NoMatch {
+        check(expr.getValueType() == JsonValue.ValueType.NUMBER, "no number literal");
+        return ((JsonNumber) expr).doubleValue();
+    }
+
+    /**
+     * Resolves a function argument to an inline function definition. References to user defined functions
+     * are replaced by their definition.
+     *
+     * @param doc the PFA document
+     * @param expr an inline function or a reference to a user defined function
+     * @return the function definition
+     * @throws NoMatch when the expression is neither
+     */
+    static JsonObject fcnDef(final JsonObject doc, final JsonValue expr) throws NoMatch {
+        check(expr.getValueType() == JsonValue.ValueType.OBJECT, "no function");
+        JsonObject obj = (JsonObject) expr;
+        String ref = fcnRef(obj);
+        if (ref != null) {
+            check(ref.startsWith(USER_FCN_PREFIX), "no user defined function");
+            JsonObject fcns = doc.getJsonObject(FCNS_KEY);
+            check(fcns != null && fcns.containsKey(ref.substring(USER_FCN_PREFIX.length())), "unknown function");
+            obj = fcns.getJsonObject(ref.substring(USER_FCN_PREFIX.length()));
+        }
+        check(obj.containsKey(PARAMS_KEY) && obj.containsKey(DO_KEY), "no function definition");
+        return obj;
+    }
+
+    /**
+     * @param obj a JSON object
+     * @return the name of the referenced function if the object is a function reference, else null
+     */
+    static String fcnRef(final JsonObject obj) {
+        for (String key : new String[] {FCN_KEY, FCNREF_KEY}) {
+            if (obj.size() == 1 && obj.containsKey(key)
+                    && obj.get(key).getValueType() == JsonValue.ValueType.STRING) {
+                return obj.getString(key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param fcn a function definition
+     * @return the names of the parameters
+     * @throws NoMatch when the parameters are malformed
+     */
+    static List<String> paramNames(final JsonObject fcn) throws NoMatch {
+        List<String> names = new ArrayList<>();
+        for (JsonValue p : fcn.getJsonArray(PARAMS_KEY)) {
+            check(p.getValueType() == JsonValue.ValueType.OBJECT && ((JsonObject) p).size() == 1,
+                    "malformed parameter");
+            names.add(((JsonObject) p).keySet().iterator().next());
+        }
+        return names;
+    }
+
+    /**
+     * @param fcn a function definition
+     * @return the single expression of the function body
+     * @throws NoMatch when the body has more than one expression
+     */
+    static JsonValue body(final JsonObject fcn) throws NoMatch {
+        return singleExpression(fcn.get(DO_KEY));
+    }
+
+    /**
+     * Parses the types of the document's input and output, so that named types defined there can be
+     * referenced when parsing cell types with the returned parser.
+     *
+     * @param doc the PFA document
+     * @return a parser that knows the named types of the input and output
+     * @throws NoMatch when the types cannot be parsed
+     */
+    static Schema.Parser typeParser(final JsonObject doc) throws NoMatch {
+        Schema.Parser parser = new Schema.Parser();
+        parse(parser, doc.get(INPUT_KEY));
+        parse(parser, doc.get(OUTPUT_KEY));
+        return parser;
+    }
+
+    /**
+     * @param parser the parser to use
+     * @param type the JSON of an Avro type
+     * @return the parsed schema
+     * @throws NoMatch when the type cannot be parsed
+     */
+    static Schema parse(final Schema.Parser parser, final JsonValue type) throws NoMatch {
+        check(type != null, "missing type");
+        try {
+            return parser.parse(type.toString());
+        } catch (SchemaParseException e) {
+            throw new NoMatch("type cannot be parsed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param doc the PFA document
+     * @param name the name of a cell
+     * @return the declaration of the cell
+     * @throws NoMatch when the cell does not exist or is not initialized by an embedded value
+     */
+    static JsonObject cell(final JsonObject doc, final String name) throws NoMatch {
+        JsonObject cells = doc.getJsonObject(CELLS_KEY);
+        check(cells != null && cells.containsKey(name), "unknown cell " + name);
+        JsonObject cell = cells.getJsonObject(name);
+        check(!cell.containsKey("source") || "embedded".equals(cell.getString("source", null)),
+                "cell is initialized from an external source");
+        check(!cell.getBoolean("shared", false), "cell is shared");
+        return cell;
+    }
+
+    /**
+     * Reads a union value in Avro's JSON encoding, where non-null values are wrapped in an object whose only
+     * key is the name of the branch.
+     *
+     * @param union the union schema
+     * @param json the JSON value
+     * @return the branch and the unwrapped value; for null the branch is the NULL schema
+     * @throws NoMatch when the value does not match the union
+     */
+    static Object[] unionValue(final Schema union, final JsonValue json) throws NoMatch {
+        if (json.getValueType() == JsonValue.ValueType.NULL) {
+            for (Schema s : union.getTypes()) {
+                if (s.getType() == Schema.Type.NULL) {
+                    return new Object[] {s, json};
+                }
+            }
+            throw new NoMatch("null for non-nullable union");
+        }
+        check(json.getValueType() == JsonValue.ValueType.OBJECT && ((JsonObject) json).size() == 1,
+                "malformed union value");
+        String branch = ((JsonObject) json).keySet().iterator().next();
+        for (Schema s : union.getTypes()) {
+            if (branchName(s).equals(branch)) {
+                return new Object[] {s, ((JsonObject) json).get(branch)};
+            }
+        }
+        throw new NoMatch("unknown union branch " + branch);
+    }
+
+    private static String branchName(final Schema s) {
+        switch (s.getType()) {
+            case RECORD:
+            case ENUM:
+            case FIXED:
+                return s.getFullName();
+            default:
+                return s.getType().getName();
+        }
+    }
+
+    /**
+     * Converts a JSON value of a primitive Avro type into the object Hadrian uses for it. Double zeros are not
+     * accepted, since the parsed document keeps numbers as {@link java.math.BigDecimal}, which has no negative
+     * zero, while the engine returns <code>-0.0</code> as written.
+     *
+     * @param schema a primitive schema
+     * @param json the value
+     * @return the Hadrian representation
+     * @throws NoMatch when the type is not primitive, the value does not match it or is a double zero
+     */
+    static Object primitiveValue(final Schema schema, final JsonValue json) throws NoMatch {
+        switch (schema.getType()) {
+            case STRING:
+                return symbol(json);
+            case DOUBLE:
+                double d = number(json);
+                check(d != 0.0, "zero literal with unknown sign");
+                return d;
+            case INT:
+                check(json.getValueType() == JsonValue.ValueType.NUMBER, "no int literal");
+                return ((JsonNumber) json).intValueExact();
+            case LONG:
+                check(json.getValueType() == JsonValue.ValueType.NUMBER, "no long literal");
+                return ((JsonNumber) json).longValueExact();
+            case BOOLEAN:
+                check(json == JsonValue.TRUE || json == JsonValue.FALSE, "no boolean literal");
+                return json == JsonValue.TRUE;
+            default:
+                throw new NoMatch("unsupported type " + schema.getType());
+        }
+    }
+
+    /**
+     * Reads an array of numbers.
+     *
+     * @param json the JSON value
+     * @return the numbers
+     * @throws NoMatch when the value is no array of numbers
+     */
+    static double[] doubles(final JsonValue json) throws NoMatch {
+        check(json.getValueType() == JsonValue.ValueType.ARRAY, "no array");
+        JsonArray arr = (JsonArray) json;
+        double[] out = new double[arr.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = number(arr.get(i));
+        }
+        return out;
+    }
+
+    /**
+     * Reads a matrix given as array of arrays of numbers.
+     *
+     * @param json the JSON value
+     * @return the rows of the matrix
+     * @throws NoMatch when the value is no rectangular array of arrays of numbers
+     */
+    static double[][] matrix(final JsonValue json) throws NoMatch {
+        check(json.getValueType() == JsonValue.ValueType.ARRAY, "no array");
+        JsonArray arr = (JsonArray) json;
+        double[][] out = new double[arr.size()][];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = doubles(arr.get(i));
+            check(out[i].length == out[0].length, "matrix is not rectangular");
+        }
+        return out;
+    }
+}
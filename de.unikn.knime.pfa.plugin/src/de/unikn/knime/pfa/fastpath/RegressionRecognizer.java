@@ -0,0 +1,174 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static de.unikn.knime.pfa.fastpath.PFAPatterns.check;
+
+import java.util.List;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.apache.avro.Schema;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+import de.unikn.knime.pfa.fastpath.LinearModel.Link;
+import de.unikn.knime.pfa.fastpath.PFAPatterns.NoMatch;
+
+/**
+ * Recognizes linear and logistic regressions computed with <code>model.reg.linear</code>. The supported form of
+ * the action is
+ * <pre>
+ * {"model.reg.linear": [{"new": ["input.x1", "input.x2", ...], "type": {"type": "array", "items": "double"}},
+ *     {"cell": "model"}]}
+ * </pre>
+ * optionally wrapped in <code>m.link.logit</code> or, for array outputs, <code>m.link.softmax</code>. The model
+ * cell holds a record with <code>coeff</code> and <code>const</code>, either a double array and a double or a
+ * matrix and a double array. All features must be numeric input fields.
+ *
+ * @author agent
+ */
+final class RegressionRecognizer implements FastPathRecognizer {
+
+    private static final String LINEAR = "model.reg.linear";
+    private static final String COEFF = "coeff";
+    private static final String CONST = "const";
+
+    @Override
+    public FastPathModel recognize(final JsonObject doc, final BatchInputConverter input) throws NoMatch {
+        JsonValue expr = PFAPatterns.singleExpression(doc.get("action"));
+        Schema output = PFAPatterns.parse(new Schema.Parser(), doc.get("output"));
+
+        Link link = Link.IDENTITY;
+        for (Link l : new Link[] {Link.LOGIT, Link.SOFTMAX}) {
+            List<JsonValue> args = PFAPatterns.call(expr, "m.link." + l.name().toLowerCase());
+            if (args != null) {
+                check(args.size() == 1, "link function must have one argument");
+                link = l;
+                expr = args.get(0);
+                break;
+            }
+        }
+        List<JsonValue> args = PFAPatterns.call(expr, LINEAR, 2);
+        int[] columns = features(args.get(0), input);
+
+        JsonObject cell = PFAPatterns.cell(doc, PFAPatterns.cellRef(args.get(1)));
+        Schema cellType = PFAPatterns.parse(PFAPatterns.typeParser(doc), cell.get("type"));
+        check(cellType.getType() == Schema.Type.RECORD && cellType.getField(COEFF) != null
+                && cellType.getField(CONST) != null, "model is no regression record");
+        check(cell.get("init").getValueType() == JsonValue.ValueType.OBJECT, "model init is no record");
+        JsonObject init = cell.getJsonObject("init");
+        check(init.containsKey(COEFF) && init.containsKey(CONST), "model init is incomplete");
+
+        boolean scalar = cellType.getField(CONST).schema().getType() == Schema.Type.DOUBLE;
+        double[][] coeff;
+        double[] constants;
+        if (scalar) {
+            check(isArrayOf(cellType.getField(COEFF).schema(), Schema.Type.DOUBLE), "coeff is no double array");
+            check(output.getType() == Schema.Type.DOUBLE, "output is no double");
+            check(link != Link.SOFTMAX, "softmax requires an array");
+            coeff = new double[][] {PFAPatterns.doubles(init.get(COEFF))};
+            constants = new double[] {PFAPatterns.number(init.get(CONST))};
+        } else {
+            Schema coeffType = cellType.getField(COEFF).schema();
+            check(coeffType.getType() == Schema.Type.ARRAY && isArrayOf(coeffType.getElementType(),
+                    Schema.Type.DOUBLE), "coeff is no double matrix");
+            check(isArrayOf(cellType.getField(CONST).schema(), Schema.Type.DOUBLE), "const is no double array");
+            check(isArrayOf(output, Schema.Type.DOUBLE), "output is no double array");
+            coeff = PFAPatterns.matrix(init.get(COEFF));
+            constants = PFAPatterns.doubles(init.get(CONST));
+            check(coeff.length == constants.length && coeff.length > 0, "coeff and const do not match");
+        }
+
+        double[] flat = new double[coeff.length * columns.length];
+        for (int o = 0; o < coeff.length; o++) {
+            // The engine fails for mismatching sizes, so we leave that error to it
+            check(coeff[o].length == columns.length, "number of coefficients does not match the features");
+            System.arraycopy(coeff[o], 0, flat, o * columns.length, columns.length);
+        }
+        return new LinearModel(columns, flat, constants, link, scalar);
+    }
+
+    /**
+     * Matches a double array built from numeric input fields, <code>{"new": ["input.x1", ...], "type": ...}</code>.
+     *
+     * @param datum the expression
+     * @param input the input converter
+     * @return the batch columns of the fields
+     * @throws NoMatch when the expression is no such array
+     */
+    static int[] features(final JsonValue datum, final BatchInputConverter input) throws NoMatch {
+        check(datum.getValueType() == JsonValue.ValueType.OBJECT, "datum is no array literal");
+        JsonObject obj = (JsonObject) datum;
+        check(obj.size() == 2 && obj.containsKey("new") && obj.containsKey("type"), "datum is no array literal");
+        Schema type = PFAPatterns.parse(new Schema.Parser(), obj.get("type"));
+        check(isArrayOf(type, Schema.Type.DOUBLE), "datum is no double array");
+        check(obj.get("new").getValueType() == JsonValue.ValueType.ARRAY, "datum is no array literal");
+        JsonArray elements = obj.getJsonArray("new");
+        int[] columns = new int[elements.size()];
+        for (int j = 0; j < columns.length; j++) {
+            String field = PFAPatterns.inputField(elements.get(j));
+            columns[j] = input.getColumnIndex(field);
+            check(columns[j] >= 0, "unknown field " + field);
+            Schema.Type t = input.getColumnType(columns[j]);
+            check(t == Schema.Type.DOUBLE || t == Schema.Type.FLOAT || t == Schema.Type.INT
+                    || t == Schema.Type.LONG, "field " + field + " is not numeric");
+        }
+        return columns;
+    }
+
+    /**
+     * @param schema a schema
+     * @param elementType a primitive type
+     * @return true if the schema is an array of the type
+     */
+    static boolean isArrayOf(final Schema schema, final Schema.Type elementType) {
+        return schema.getType() == Schema.Type.ARRAY && schema.getElementType().getType() == elementType;
+    }
+}
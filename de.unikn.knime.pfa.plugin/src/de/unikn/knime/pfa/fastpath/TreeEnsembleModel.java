@@ -0,0 +1,264 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.unikn.knime.pfa.data.ColumnBatch;
+
+/**
+ * A single decision tree or an ensemble of trees flattened into primitive arrays. Every node has a feature,
+ * a comparison operator, a threshold and two children. A child index <code>&gt;= 0</code> points to another
+ * node, a negative index <code>~i</code> to the leaf <code>i</code>.
+ *
+ * @author agent
+ */
+final class TreeEnsembleModel implements FastPathModel {
+
+    /** Operator codes, in the order of {@link #OPERATORS}. */
+    static final byte LT = 0, LE = 1, GT = 2, GE = 3, EQ = 4, NE = 5;
+
+    /** The PFA names of the supported operators. */
+    static final String[] OPERATORS = {"<", "<=", ">", ">=", "==", "!="};
+
+    // Returned by walk when a comparison may come out differently in the engine
+    private static final int UNDECIDED = -1;
+
+    /** How the outputs of the trees are combined. */
+    enum Aggregation {
+        /** A single tree, its leaf is the output. */
+        NONE,
+        /** <code>a.mean</code> over numeric leaves. */
+        MEAN,
+        /** <code>a.sum</code> over numeric leaves. */
+        SUM,
+        /** <code>a.mode</code>, the most frequent leaf. */
+        MODE
+    }
+
+    private final Aggregation m_aggregation;
+    // Batch column of each feature slot
+    private final int[] m_columns;
+    private final int[] m_feature;
+    private final byte[] m_operator;
+    private final double[] m_threshold;
+    private final int[] m_pass;
+    private final int[] m_fail;
+    private final int[] m_roots;
+    // The leaf objects as the engine returns them
+    private final Object[] m_leaves;
+    // Numeric value of each leaf for MEAN and SUM, class index of each leaf for MODE
+    private final double[] m_leafValues;
+    private final int[] m_leafClasses;
+    private final Object[] m_classes;
+
+    /**
+     * Creates a new tree ensemble.
+     *
+     * @param aggregation how tree outputs are combined
+     * @param columns the batch column of each feature slot
+     * @param feature the feature slot of each node
+     * @param operator the operator code of each node
+     * @param threshold the threshold of each node
+     * @param pass the child of each node taken when the comparison is true
+     * @param fail the child of each node taken when the comparison is false
+     * @param roots the root node of each tree
+     * @param leaves the leaf objects
+     */
+    TreeEnsembleModel(final Aggregation aggregation, final int[] columns, final int[] feature,
+            final byte[] operator, final double[] threshold, final int[] pass, final int[] fail, final int[] roots,
+            final Object[] leaves) {
+        m_aggregation = aggregation;
+        m_columns = columns;
+        m_feature = feature;
+        m_operator = operator;
+        m_threshold = threshold;
+        m_pass = pass;
+        m_fail = fail;
+        m_roots = roots;
+        m_leaves = leaves;
+        m_leafValues = new double[leaves.length];
+        m_leafClasses = new int[leaves.length];
+        Map<Object, Integer> classes = new LinkedHashMap<>();
+        for (int i = 0; i < leaves.length; i++) {
+            if (leaves[i] instanceof Double) {
+                m_leafValues[i] = (Double) leaves[i];
+            }
+            if (aggregation == Aggregation.MODE) {
+                Integer cls = classes.get(leaves[i]);
+                if (cls == null) {
+                    cls = classes.size();
+                    classes.put(leaves[i], cls);
+                }
+                m_leafClasses[i] = cls;
+            }
+        }
+        m_classes = classes.keySet().toArray();
+    }
+
+    @Override
+    public String getDescription() {
+        return m_roots.length == 1 ? "decision tree with " + m_feature.length + " nodes"
+                : "tree ensemble (" + m_aggregation.name().toLowerCase() + ") with " + m_roots.length + " trees and "
+                        + m_feature.length + " nodes";
+    }
+
+    @Override
+    public void score(final ColumnBatch batch, final Object[] outputs) {
+        int n = batch.size();
+        double[][] features = new double[m_columns.length][];
+        boolean[] skip = new boolean[n];
+        for (int f = 0; f < m_columns.length; f++) {
+            features[f] = batch.getDoubles(m_columns[f]);
+            boolean[] missing = batch.getMissing(m_columns[f]);
+            double[] values = features[f];
+            for (int i = 0; i < n; i++) {
+                // NaN is ordered differently by primitive and boxed comparisons, such rows go to the engine
+                skip[i] |= missing[i] || values[i] != values[i];
+            }
+        }
+        switch (m_aggregation) {
+            case NONE:
+                for (int i = 0; i < n; i++) {
+                    int leaf = skip[i] ? UNDECIDED : walk(m_roots[0], features, i);
+                    outputs[i] = leaf == UNDECIDED ? null : m_leaves[leaf];
+                }
+                break;
+            case MEAN:
+            case SUM:
+                for (int i = 0; i < n; i++) {
+                    outputs[i] = skip[i] ? null : sum(features, i);
+                }
+                break;
+            default:
+                int[] votes = new int[m_classes.length];
+                for (int i = 0; i < n; i++) {
+                    outputs[i] = skip[i] ? null : mode(features, i, votes);
+                }
+        }
+    }
+
+    /**
+     * Walks a tree for a row. A comparison of 0.0 with -0.0 is true for <code>==</code> and false for
+     * <code>&lt;</code> with primitive doubles but not with {@link Double#compareTo(Double)}. Thresholds read
+     * through {@link javax.json.JsonNumber} lose the sign of zero as well, so any comparison of two zeros is
+     * left to the engine.
+     *
+     * @return the index of the reached leaf or {@link #UNDECIDED}
+     */
+    private int walk(final int root, final double[][] features, final int row) {
+        int node = root;
+        while (node >= 0) {
+            double x = features[m_feature[node]][row];
+            double t = m_threshold[node];
+            if (x == 0.0 && t == 0.0) {
+                return UNDECIDED;
+            }
+            boolean pass;
+            switch (m_operator[node]) {
+                case LT:
+                    pass = x < t;
+                    break;
+                case LE:
+                    pass = x <= t;
+                    break;
+                case GT:
+                    pass = x > t;
+                    break;
+                case GE:
+                    pass = x >= t;
+                    break;
+                case EQ:
+                    pass = x == t;
+                    break;
+                default:
+                    pass = x != t;
+            }
+            node = pass ? m_pass[node] : m_fail[node];
+        }
+        return ~node;
+    }
+
+    private Double sum(final double[][] features, final int row) {
+        // Summed from left to right starting at 0.0 like Scala's sum in the engine, so the result is bit-identical
+        double sum = 0.0;
+        for (int t = 0; t < m_roots.length; t++) {
+            int leaf = walk(m_roots[t], features, row);
+            if (leaf == UNDECIDED) {
+                return null;
+            }
+            sum += m_leafValues[leaf];
+        }
+        return m_aggregation == Aggregation.MEAN ? sum / m_roots.length : sum;
+    }
+
+    private Object mode(final double[][] features, final int row, final int[] votes) {
+        Arrays.fill(votes, 0);
+        for (int t = 0; t < m_roots.length; t++) {
+            int leaf = walk(m_roots[t], features, row);
+            if (leaf == UNDECIDED) {
+                return null;
+            }
+            votes[m_leafClasses[leaf]]++;
+        }
+        int best = 0;
+        boolean tie = false;
+        for (int c = 1; c < votes.length; c++) {
+            if (votes[c] > votes[best]) {
+                best = c;
+                tie = false;
+            } else if (votes[c] == votes[best]) {
+                tie = true;
+            }
+        }
+        // Ties are left to the engine, so we do not depend on its tie breaking rule
+        return tie ? null : m_classes[best];
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.fastpath;
+
+import static de.unikn.knime.pfa.fastpath.PFAPatterns.check;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.apache.avro.Schema;
+
+import de.unikn.knime.pfa.data.BatchInputConverter;
+import de.unikn.knime.pfa.fastpath.PFAPatterns.NoMatch;
+import de.unikn.knime.pfa.fastpath.TreeEnsembleModel.Aggregation;
+
+/**
+ * Recognizes decision trees and tree ensembles that are walked with <code>model.tree.simpleWalk</code> and
+ * <code>model.tree.simpleTest</code>. The supported forms of the action are
+ * <pre>
+ * {"model.tree.simpleWalk": ["input", {"cell": "tree"}, test]}
+ * {"a.mean" | "a.sum" | "a.mode": {"a.map": [{"cell": "forest"},
+ *     {"params": [{"t": "TreeNode"}], "ret": ..., "do": {"model.tree.simpleWalk": ["input", "t", test]}}]}}
+ * </pre>
+ * where <code>test</code> is <code>model.tree.simpleTest</code> as function reference, inline function or
+ * user defined function. All tested fields must be doubles, the operators must be numeric comparisons and the
+ * leaves must be primitive values.
+ *
+ * @author agent
+ */
+final class TreeEnsembleRecognizer implements FastPathRecognizer {
+
+    private static final String SIMPLE_WALK = "model.tree.simpleWalk";
+    private static final String SIMPLE_TEST = "model.tree.simpleTest";
+    private static final String INPUT = "input";
+
+    @Override
+    public FastPathModel recognize(final JsonObject doc, final BatchInputConverter input) throws NoMatch {
+        JsonValue action = PFAPatterns.singleExpression(doc.get("action"));
+        Schema.Parser parser = PFAPatterns.typeParser(doc);
+        Schema output = PFAPatterns.parse(new Schema.Parser(), doc.get("output"));
+
+        Aggregation aggregation = Aggregation.NONE;
+        List<JsonValue> walk = PFAPatterns.call(action, SIMPLE_WALK);
+        String treeSymbol = null;
+        if (walk == null) {
+            List<JsonValue> aggArgs = null;
+            for (Aggregation a : new Aggregation[] {Aggregation.MEAN, Aggregation.SUM, Aggregation.MODE}) {
+                aggArgs = PFAPatterns.call(action, "a." + a.name().toLowerCase());
+                if (aggArgs != null) {
+                    aggregation = a;
+                    break;
+                }
+            }
+            check(aggArgs != null && aggArgs.size() == 1, "no tree aggregation");
+            List<JsonValue> map = PFAPatterns.call(aggArgs.get(0), "a.map", 2);
+            JsonObject fcn = PFAPatterns.fcnDef(doc, map.get(1));
+            List<String> params = PFAPatterns.paramNames(fcn);
+            check(params.size() == 1, "mapped function must have one parameter");
+            treeSymbol = params.get(0);
+            List<JsonValue> treeWalk = PFAPatterns.call(PFAPatterns.body(fcn), SIMPLE_WALK, 3);
+            check(PFAPatterns.isSymbol(treeWalk.get(1), treeSymbol), "tree walk does not use the mapped tree");
+            // The forest cell takes the place of the tree for the checks below
+            walk = new ArrayList<>(treeWalk);
+            walk.set(1, map.get(0));
+        }
+        check(walk.size() == 3 && PFAPatterns.isSymbol(walk.get(0), INPUT), "walk is not applied to the input");
+        checkSimpleTest(doc, walk.get(2));
+
+        String cellName = PFAPatterns.cellRef(walk.get(1));
+        JsonObject cell = PFAPatterns.cell(doc, cellName);
+        Schema cellType = PFAPatterns.parse(parser, cell.get("type"));
+        Schema nodeType = cellType;
+        List<JsonValue> trees;
+        if (treeSymbol == null) {
+            trees = Arrays.asList(cell.get("init"));
+        } else {
+            check(cellType.getType() == Schema.Type.ARRAY, "forest cell is no array");
+            nodeType = cellType.getElementType();
+            check(cell.get("init").getValueType() == JsonValue.ValueType.ARRAY, "forest init is no array");
+            trees = (JsonArray) cell.get("init");
+            check(!trees.isEmpty(), "empty forest");
+        }
+
+        Builder builder = new Builder(nodeType, input);
+        int[] roots = new int[trees.size()];
+        for (int t = 0; t < roots.length; t++) {
+            check(trees.get(t).getValueType() == JsonValue.ValueType.OBJECT, "tree is no record");
+            roots[t] = builder.addNode((JsonObject) trees.get(t));
+        }
+        check(builder.m_leafType != null, "tree has no leaves");
+        if (aggregation == Aggregation.MEAN || aggregation == Aggregation.SUM) {
+            check(builder.m_leafType.getType() == Schema.Type.DOUBLE && output.getType() == Schema.Type.DOUBLE,
+                    "numeric aggregation requires double leaves and output");
+        } else {
+            check(output.equals(builder.m_leafType), "output type does not match the leaf type");
+        }
+        return builder.build(aggregation, roots);
+    }
+
+    private static void checkSimpleTest(final JsonObject doc, final JsonValue test) throws NoMatch {
+        check(test.getValueType() == JsonValue.ValueType.OBJECT, "no test function");
+        if (SIMPLE_TEST.equals(PFAPatterns.fcnRef((JsonObject) test))) {
+            return;
+        }
+        JsonObject fcn = PFAPatterns.fcnDef(doc, test);
+        List<String> params = PFAPatterns.paramNames(fcn);
+        check(params.size() == 2, "test function must have two parameters");
+        List<JsonValue> args = PFAPatterns.call(PFAPatterns.body(fcn), SIMPLE_TEST, 2);
+        check(PFAPatterns.isSymbol(args.get(0), params.get(0)) && PFAPatterns.isSymbol(args.get(1), params.get(1)),
+                "test function does not forward its parameters");
+    }
+
+    /**
+     * Flattens the trees into arrays.
+     */
+    private static final class Builder {
+        private final Schema m_nodeType;
+        private final BatchInputConverter m_input;
+        private final Schema m_passType;
+        private final Schema m_failType;
+        private final Schema m_valueType;
+        private Schema m_leafType;
+
+        private final List<Integer> m_columns = new ArrayList<>();
+        private final List<Integer> m_feature = new ArrayList<>();
+        private final List<Byte> m_operator = new ArrayList<>();
+        private final List<Double> m_threshold = new ArrayList<>();
+        private final List<Integer> m_pass = new ArrayList<>();
+        private final List<Integer> m_fail = new ArrayList<>();
+        private final List<Object> m_leaves = new ArrayList<>();
+
+        Builder(final Schema nodeType, final BatchInputConverter input) throws NoMatch {
+            check(nodeType.getType() == Schema.Type.RECORD, "tree node is no record");
+            m_nodeType = nodeType;
+            m_input = input;
+            for (String f : new String[] {"field", "operator", "value", "pass", "fail"}) {
+                check(nodeType.getField(f) != null, "tree node has no field " + f);
+            }
+            check(nodeType.getField("field").schema().getType() == Schema.Type.ENUM, "field is no enum");
+            check(nodeType.getField("operator").schema().getType() == Schema.Type.STRING, "operator is no string");
+            m_valueType = nodeType.getField("value").schema();
+            m_passType = nodeType.getField("pass").schema();
+            m_failType = nodeType.getField("fail").schema();
+            check(m_passType.getType() == Schema.Type.UNION && m_failType.getType() == Schema.Type.UNION,
+                    "children are no unions");
+        }
+
+        int addNode(final JsonObject node) throws NoMatch {
+            int idx = m_feature.size();
+            String field = PFAPatterns.symbol(node.get("field"));
+            int column = m_input.getColumnIndex(field);
+            check(column >= 0 && m_input.getColumnType(column) == Schema.Type.DOUBLE,
+                    "tested field " + field + " is no double column");
+            int slot = m_columns.indexOf(column);
+            if (slot < 0) {
+                slot = m_columns.size();
+                m_columns.add(column);
+            }
+            int op = Arrays.asList(TreeEnsembleModel.OPERATORS).indexOf(PFAPatterns.symbol(node.get("operator")));
+            check(op >= 0, "unsupported operator");
+            m_feature.add(slot);
+            m_operator.add((byte) op);
+            m_threshold.add(threshold(node.get("value")));
+            m_pass.add(0);
+            m_fail.add(0);
+            m_pass.set(idx, child(m_passType, node.get("pass")));
+            m_fail.set(idx, child(m_failType, node.get("fail")));
+            return idx;
+        }
+
+        private double threshold(final JsonValue value) throws NoMatch {
+            Schema type = m_valueType;
+            JsonValue json = value;
+            if (type.getType() == Schema.Type.UNION) {
+                Object[] branch = PFAPatterns.unionValue(type, value);
+                type = (Schema) branch[0];
+                json = (JsonValue) branch[1];
+            }
+            check(type.getType() == Schema.Type.DOUBLE || type.getType() == Schema.Type.INT,
+                    "threshold is not numeric");
+            return PFAPatterns.number(json);
+        }
+
+        private int child(final Schema union, final JsonValue value) throws NoMatch {
+            Object[] branch = PFAPatterns.unionValue(union, value);
+            Schema type = (Schema) branch[0];
+            JsonValue json = (JsonValue) branch[1];
+            if (type.equals(m_nodeType)) {
+                check(json.getValueType() == JsonValue.ValueType.OBJECT, "child node is no record");
+                return addNode((JsonObject) json);
+            }
+            if (m_leafType == null) {
+                m_leafType = type;
+            }
+            check(m_leafType.equals(type), "leaves have different types");
+            m_leaves.add(PFAPatterns.primitiveValue(type, json));
+            return ~(m_leaves.size() - 1);
+        }
+
+        TreeEnsembleModel build(final Aggregation aggregation, final int[] roots) {
+            int n = m_feature.size();
+            int[] feature = new int[n];
+            byte[] operator = new byte[n];
+            double[] threshold = new double[n];
+            int[] pass = new int[n];
+            int[] fail = new int[n];
+            for (int i = 0; i < n; i++) {
+                feature[i] = m_feature.get(i);
+                operator[i] = m_operator.get(i);
+                threshold[i] = m_threshold.get(i);
+                pass[i] = m_pass.get(i);
+                fail[i] = m_fail.get(i);
+            }
+            int[] columns = m_columns.stream().mapToInt(Integer::intValue).toArray();
+            return new TreeEnsembleModel(aggregation, columns, feature, operator, threshold, pass, fail, roots,
+                    m_leaves.toArray());
+        }
+    }
+}
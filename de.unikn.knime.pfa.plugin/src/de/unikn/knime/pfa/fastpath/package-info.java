@@ -0,0 +1,4 @@
+/**
+ * Contains native implementations of common PFA model families that bypass the Hadrian engine.
+ */
+package de.unikn.knime.pfa.fastpath;
\ No newline at end of file
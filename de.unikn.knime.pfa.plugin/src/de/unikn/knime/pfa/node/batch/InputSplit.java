@@ -0,0 +1,241 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.batch;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * A part of an input file that is scored by a single map task of the {@link PFABatchScorerNodeModel}.
+ * JSON lines files are split into byte ranges that are aligned to line boundaries in the same way Hadoop's
+ * line record reader does it, Avro container files are always processed as a whole.
+ *
+ * @author agent
+ */
+final class InputSplit {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File m_file;
+    private final long m_start;
+    private final long m_end;
+    private final boolean m_lineBased;
+
+    private InputSplit(final File file, final long start, final long end, final boolean lineBased) {
+        m_file = file;
+        m_start = start;
+        m_end = end;
+        m_lineBased = lineBased;
+    }
+
+    /**
+     * Creates the splits for the given input files.
+     *
+     * @param files the files to split
+     * @param format the format of the files
+     * @param splitSize the maximum size of a split in bytes, only used for line based formats
+     * @return the splits in file order
+     */
+    static List<InputSplit> createSplits(final List<File> files, final InputFormat format, final long splitSize) {
+        List<InputSplit> splits = new ArrayList<>();
+        for (File f : files) {
+            long length = f.length();
+            if (format != InputFormat.JSON_LINES || length <= splitSize) {
+                splits.add(new InputSplit(f, 0, length, format == InputFormat.JSON_LINES));
+                continue;
+            }
+            for (long start = 0; start < length; start += splitSize) {
+                splits.add(new InputSplit(f, start, Math.min(start + splitSize, length), true));
+            }
+        }
+        return splits;
+    }
+
+    /**
+     * @return the file this split belongs to
+     */
+    File getFile() {
+        return m_file;
+    }
+
+    /**
+     * @return the first byte of the split as given when the split was created
+     */
+    long getStart() {
+        return m_start;
+    }
+
+    /**
+     * @return the end of the split (exclusive) as given when the split was created
+     */
+    long getEnd() {
+        return m_end;
+    }
+
+    /**
+     * Opens a stream containing exactly the records of this split. For line based splits the stream starts
+     * after the first line break at or after the split start (unless the split starts at the beginning of the
+     * file) and ends after the first line break at or after the split end, so that every line is read by
+     * exactly one split.
+     *
+     * @return a stream over the records of this split
+     * @throws IOException when the file cannot be read
+     */
+    InputStream open() throws IOException {
+        if (!m_lineBased || (m_start == 0 && m_end >= m_file.length())) {
+            return new BufferedInputStream(new FileInputStream(m_file), BUFFER_SIZE);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(m_file, "r")) {
+            long from = alignToLine(raf, m_start);
+            long to = alignToLine(raf, m_end);
+            RandomAccessFile in = new RandomAccessFile(m_file, "r");
+            in.seek(from);
+            return new BoundedInputStream(
+                    new BufferedInputStream(Channels.newInputStream(in.getChannel()), BUFFER_SIZE), to - from);
+        }
+    }
+
+    private static long alignToLine(final RandomAccessFile raf, final long pos) throws IOException {
+        if (pos == 0 || pos >= raf.length()) {
+            return Math.min(pos, raf.length());
+        }
+        raf.seek(pos - 1);
+        int b;
+        while ((b = raf.read()) != -1) {
+            if (b == '\n') {
+                break;
+            }
+        }
+        return raf.getFilePointer();
+    }
+
+    @Override
+    public String toString() {
+        return m_file.getName() + "[" + m_start + ", " + m_end + ")";
+    }
+
+    /**
+     * The supported formats of the input files.
+     */
+    enum InputFormat {
+        /** Avro container files. */
+        AVRO("Avro", ".avro"),
+        /** Files with one JSON encoded record per line. */
+        JSON_LINES("JSON lines", ".json", ".jsonl");
+
+        private final String m_label;
+        private final String[] m_extensions;
+
+        InputFormat(final String label, final String... extensions) {
+            m_label = label;
+            m_extensions = extensions;
+        }
+
+        /**
+         * @return the name shown in the dialog
+         */
+        String getLabel() {
+            return m_label;
+        }
+
+        /**
+         * @return the extension of the output files written for this format
+         */
+        String getOutputExtension() {
+            return m_extensions[0];
+        }
+
+        /**
+         * @param f a file
+         * @return true if the file name has one of the extensions of this format
+         */
+        boolean accepts(final File f) {
+            String name = f.getName().toLowerCase();
+            for (String ext : m_extensions) {
+                if (name.endsWith(ext)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @param label the label as shown in the dialog
+         * @return the format with the given label
+         */
+        static InputFormat fromLabel(final String label) {
+            for (InputFormat f : values()) {
+                if (f.m_label.equals(label)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unknown input format: " + label);
+        }
+
+        /**
+         * @return the labels of all formats
+         */
+        static String[] labels() {
+            InputFormat[] values = values();
+            String[] labels = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                labels[i] = values[i].m_label;
+            }
+            return labels;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.batch;
+
+import javax.swing.JFileChooser;
+
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
+import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
+import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+
+import de.unikn.knime.pfa.node.batch.InputSplit.InputFormat;
+
+/**
+ * PFA Batch Scorer Node Dialog.
+ *
+ * @author agent
+ */
+public class PFABatchScorerNodeDialog extends DefaultNodeSettingsPane {
+
+    private static final String INPUT_HISTORY_ID = "pfaBatchInputHistoryId";
+    private static final String OUTPUT_HISTORY_ID = "pfaBatchOutputHistoryId";
+
+    /**
+     * PFABatchScorerNodeDialog constructor.
+     */
+    protected PFABatchScorerNodeDialog() {
+        super();
+        createNewGroup("Input");
+        addDialogComponent(new DialogComponentFileChooser(PFABatchScorerNodeModel.createInputPathModel(),
+                INPUT_HISTORY_ID, JFileChooser.OPEN_DIALOG, true));
+        addDialogComponent(new DialogComponentStringSelection(PFABatchScorerNodeModel.createInputFormatModel(),
+                "Format", InputFormat.labels()));
+        createNewGroup("Output");
+        addDialogComponent(new DialogComponentFileChooser(PFABatchScorerNodeModel.createOutputDirModel(),
+                OUTPUT_HISTORY_ID, JFileChooser.SAVE_DIALOG, true));
+        addDialogComponent(new DialogComponentBoolean(PFABatchScorerNodeModel.createOverwriteModel(),
+                "Overwrite existing part files"));
+        createNewGroup("Execution");
+        addDialogComponent(new DialogComponentNumber(PFABatchScorerNodeModel.createParallelismModel(),
+                "Parallel map tasks", 1));
+        addDialogComponent(new DialogComponentNumber(PFABatchScorerNodeModel.createSplitSizeModel(),
+                "Maximum split size (MB)", 16));
+        createNewGroup("Random numbers");
+        SettingsModelBoolean seeded = PFABatchScorerNodeModel.createSeededModel();
+        SettingsModelInteger masterSeed = PFABatchScorerNodeModel.createMasterSeedModel();
+        seeded.addChangeListener(e -> masterSeed.setEnabled(seeded.getBooleanValue()));
+        masterSeed.setEnabled(seeded.getBooleanValue());
+        addDialogComponent(new DialogComponentBoolean(seeded, "Reproducible random numbers"));
+        addDialogComponent(new DialogComponentNumber(masterSeed, "Master seed", 1));
+        closeCurrentGroup();
+    }
+}
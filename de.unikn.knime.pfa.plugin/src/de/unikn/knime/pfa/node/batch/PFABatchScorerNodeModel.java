@@ -0,0 +1,555 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadPool;
+
+import com.opendatagroup.hadrian.ast.Method;
+import com.opendatagroup.hadrian.data.OutputDataStream;
+import com.opendatagroup.hadrian.jvmcompiler.PFAEmitEngine;
+import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
+import com.opendatagroup.hadrian.jvmcompiler.PFAFoldEngine;
+
+import de.unikn.knime.pfa.node.batch.InputSplit.InputFormat;
+import de.unikn.knime.pfa.node.port.PFAPortObject;
+import de.unikn.knime.pfa.node.port.RandomSeeds;
+import de.unikn.knime.pfa.node.predictor.EmitCallback;
+import scala.runtime.BoxedUnit;
+
+/**
+ * Node model for scoring partitioned Avro or JSON lines datasets on the local disk. The input files are cut
+ * into splits that are scored in parallel by copies of the PFA engine (map phase). The outputs of map and emit
+ * engines are written as one part file per split, the tallies of fold engines are merged into a single
+ * result (reduce phase).
+ *
+ * @author agent
+ */
+public class PFABatchScorerNodeModel extends NodeModel {
+
+    private static final String CFG_INPUT_PATH = "inputPath";
+    private static final String CFG_INPUT_FORMAT = "inputFormat";
+    private static final String CFG_OUTPUT_DIR = "outputDirectory";
+    private static final String CFG_OVERWRITE = "overwrite";
+    private static final String CFG_PARALLELISM = "parallelism";
+    private static final String CFG_SPLIT_SIZE = "splitSizeMB";
+    private static final String CFG_SEEDED = "reproducibleRandom";
+    private static final String CFG_MASTER_SEED = "masterSeed";
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    /**
+     * Creates a settings model for the input file or directory.
+     * @return SettingsModelString for the input path
+     */
+    static SettingsModelString createInputPathModel() {
+        return new SettingsModelString(CFG_INPUT_PATH, null);
+    }
+
+    /**
+     * Creates a settings model for the format of the input files.
+     * @return SettingsModelString for the input format
+     */
+    static SettingsModelString createInputFormatModel() {
+        return new SettingsModelString(CFG_INPUT_FORMAT, InputFormat.JSON_LINES.getLabel());
+    }
+
+    /**
+     * Creates a settings model for the output directory.
+     * @return SettingsModelString for the output directory
+     */
+    static SettingsModelString createOutputDirModel() {
+        return new SettingsModelString(CFG_OUTPUT_DIR, null);
+    }
+
+    /**
+     * Creates a settings model for the overwrite flag.
+     * @return SettingsModelBoolean telling whether existing part files are overwritten
+     */
+    static SettingsModelBoolean createOverwriteModel() {
+        return new SettingsModelBoolean(CFG_OVERWRITE, false);
+    }
+
+    /**
+     * Creates a settings model for the number of parallel map tasks.
+     * @return SettingsModelIntegerBounded for the number of map tasks
+     */
+    static SettingsModelIntegerBounded createParallelismModel() {
+        return new SettingsModelIntegerBounded(CFG_PARALLELISM, Runtime.getRuntime().availableProcessors(), 1,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a settings model for the maximum split size.
+     * @return SettingsModelIntegerBounded for the split size in megabytes
+     */
+    static SettingsModelIntegerBounded createSplitSizeModel() {
+        return new SettingsModelIntegerBounded(CFG_SPLIT_SIZE, 128, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a settings model telling whether random numbers are seeded per split.
+     * @return SettingsModelBoolean for reproducible random numbers
+     */
+    static SettingsModelBoolean createSeededModel() {
+        return new SettingsModelBoolean(CFG_SEEDED, false);
+    }
+
+    /**
+     * Creates a settings model for the master seed.
+     * @return SettingsModelInteger for the master seed
+     */
+    static SettingsModelInteger createMasterSeedModel() {
+        return new SettingsModelInteger(CFG_MASTER_SEED, 42);
+    }
+
+    private final SettingsModelString m_inputPath = createInputPathModel();
+    private final SettingsModelString m_inputFormat = createInputFormatModel();
+    private final SettingsModelString m_outputDir = createOutputDirModel();
+    private final SettingsModelBoolean m_overwrite = createOverwriteModel();
+    private final SettingsModelIntegerBounded m_parallelism = createParallelismModel();
+    private final SettingsModelIntegerBounded m_splitSize = createSplitSizeModel();
+    private final SettingsModelBoolean m_seeded = createSeededModel();
+    private final SettingsModelInteger m_masterSeed = createMasterSeedModel();
+
+    /**
+     * Constructor for the node model.
+     */
+    protected PFABatchScorerNodeModel() {
+        super(new PortType[] {PFAPortObject.TYPE}, new PortType[] {BufferedDataTable.TYPE});
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected PortObject[] execute(final PortObject[] inData, final ExecutionContext exec) throws Exception {
+        PFAPortObject pfa = (PFAPortObject) inData[0];
+        final boolean seeded = m_seeded.getBooleanValue();
+        final int masterSeed = m_masterSeed.getIntValue();
+        InputFormat format = InputFormat.fromLabel(m_inputFormat.getStringValue());
+
+        List<File> files = listInputFiles(format);
+        File outDir = resolve(m_outputDir.getStringValue());
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Cannot create output directory " + outDir.getAbsolutePath());
+        }
+        List<InputSplit> splits = InputSplit.createSplits(files, format, m_splitSize.getIntValue() * (1L << 20));
+
+        exec.setMessage(() -> "Compiling PFA document.");
+        int tasks = Math.max(1, Math.min(m_parallelism.getIntValue(), splits.size()));
+        // The first engine tells whether more can be used, so the document is not parsed again
+        PFAEngine<Object, Object> first = pfa.createEngine();
+        boolean fold = first.method() == Method.FOLD();
+        if (fold && tasks > 1 && !first.config().merge().isDefined()) {
+            setWarningMessage("The fold engine has no merge function, the input is scored by a single task.");
+            tasks = 1;
+        }
+        List<PFAEngine<Object, Object>> engines = new ArrayList<>(tasks);
+        engines.add(first);
+        if (tasks > 1) {
+            engines.addAll(pfa.createEngines(tasks - 1));
+        }
+
+        BufferedDataContainer output = exec.createDataContainer(createOutputSpec());
+        BlockingQueue<PFAEngine<Object, Object>> idle = new ArrayBlockingQueue<>(engines.size());
+        for (PFAEngine<Object, Object> engine : engines) {
+            if (seeded) {
+                // Makes random numbers drawn in begin reproducible without recompiling the document
+                engine.randomGenerator().setSeed(masterSeed);
+            }
+            engine.begin();
+            idle.add(engine);
+        }
+
+        // Map phase: every split is scored by whichever engine is idle
+        exec.setMessage(() -> "Scoring " + splits.size() + " splits with " + engines.size() + " engines.");
+        ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(engines.size());
+        List<Future<long[]>> results = new ArrayList<>(splits.size());
+        AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < splits.size(); i++) {
+            final InputSplit split = splits.get(i);
+            // Splits only depend on the files and the split size, so their seeds do not depend on the task count
+            final long seed = RandomSeeds.partitionSeed(masterSeed, i);
+            final File partFile = fold ? null : checkOutputFile(outDir, "part-m-" + partNumber(i) + format
+                    .getOutputExtension());
+            results.add(pool.enqueue(() -> {
+                PFAEngine<Object, Object> engine = idle.take();
+                try {
+                    return scoreSplit(engine, split, format, partFile, seeded, seed, exec);
+                } finally {
+                    idle.add(engine);
+                    exec.setProgress(done.incrementAndGet() / (double) splits.size());
+                }
+            }));
+        }
+
+        try {
+            for (int i = 0; i < splits.size(); i++) {
+                long[] counts = waitFor(results.get(i), exec);
+                InputSplit split = splits.get(i);
+                String partName = fold ? "" : "part-m-" + partNumber(i) + format.getOutputExtension();
+                output.addRowToTable(createRow(RowKey.createRowKey((long) i), split.getFile().getAbsolutePath(),
+                        split.getStart(), split.getEnd(), partName, counts[0], counts[1]));
+            }
+        } finally {
+            for (Future<long[]> f : results) {
+                f.cancel(true);
+            }
+        }
+
+        // Reduce phase: fold engines are merged into a single tally
+        if (fold) {
+            exec.setMessage(() -> "Merging tallies.");
+            Object tally = null;
+            for (PFAEngine<Object, Object> engine : engines) {
+                Object t = ((PFAFoldEngine<Object, Object>) engine).tally();
+                tally = (tally == null) ? t : ((PFAFoldEngine<Object, Object>) engine).merge(tally, t);
+            }
+            String partName = "part-r-00000" + format.getOutputExtension();
+            try (OutputStream out = new BufferedOutputStream(
+                    new FileOutputStream(checkOutputFile(outDir, partName)))) {
+                OutputDataStream ods = createOutputStream(engines.get(0), format, out);
+                ods.append(tally);
+                ods.close();
+            }
+            output.addRowToTable(createRow(new RowKey("Reduce"), outDir.getAbsolutePath(), 0, 0, partName, 0, 1));
+        }
+
+        for (PFAEngine<Object, Object> engine : engines) {
+            engine.end();
+        }
+        output.close();
+        return new PortObject[] {output.getTable()};
+    }
+
+    /**
+     * Scores one split with the given engine. If seeding is enabled, the random generator of the engine is reset
+     * to a seed derived from the split's seed every {@link RandomSeeds#PARTITION_SIZE} records, the same
+     * partition size the PFA Predictor uses.
+     *
+     * @return the number of records read and written
+     */
+    private static long[] scoreSplit(final PFAEngine<Object, Object> engine, final InputSplit split,
+            final InputFormat format, final File partFile, final boolean seeded, final long seed,
+            final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        long read = 0;
+        long[] written = new long[1];
+        try (InputStream in = split.open();
+                OutputStream out = partFile == null ? null
+                        : new BufferedOutputStream(new FileOutputStream(partFile), 1 << 16)) {
+            OutputDataStream ods = out == null ? null : createOutputStream(engine, format, out);
+            boolean emit = engine.method() == Method.EMIT();
+            if (emit) {
+                ((PFAEmitEngine<Object, Object>) engine).emit_$eq(new EmitCallback() {
+                    @Override
+                    public BoxedUnit apply(final Object res) {
+                        ods.append(res);
+                        written[0]++;
+                        return null;
+                    }
+                });
+            }
+            Iterator<Object> it;
+            if (format == InputFormat.AVRO) {
+                it = engine.avroInputIterator(in);
+            } else {
+                it = engine.jsonInputIterator(in);
+            }
+            while (it.hasNext()) {
+                if ((read & 0x3FF) == 0) {
+                    exec.checkCanceled();
+                }
+                if (seeded && read % RandomSeeds.PARTITION_SIZE == 0) {
+                    engine.randomGenerator().setSeed(
+                            RandomSeeds.partitionSeed(seed, read / RandomSeeds.PARTITION_SIZE));
+                }
+                Object result = engine.action(it.next());
+                read++;
+                if (ods != null && !emit) {
+                    ods.append(result);
+                    written[0]++;
+                }
+            }
+            if (ods != null) {
+                ods.close();
+            }
+        }
+        return new long[] {read, written[0]};
+    }
+
+    private static OutputDataStream createOutputStream(final PFAEngine<Object, Object> engine,
+            final InputFormat format, final OutputStream out) {
+        if (format == InputFormat.AVRO) {
+            return engine.avroOutputDataStream(out);
+        }
+        return engine.jsonOutputDataStream(out, false);
+    }
+
+    private static long[] waitFor(final Future<long[]> future, final ExecutionContext exec)
+            throws Exception {
+        // The waiting thread is not counted by the pool, so the splits are scored even if the pool is saturated
+        try {
+            return KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(() -> {
+                while (true) {
+                    exec.checkCanceled();
+                    try {
+                        return future.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // check for cancellation and wait again
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        throw cause instanceof Exception ? (Exception) cause : e;
+                    }
+                }
+            });
+        } catch (ExecutionException e) {
+            // runInvisible wraps every exception thrown while waiting
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private List<File> listInputFiles(final InputFormat format) throws InvalidSettingsException, IOException {
+        File in = resolve(m_inputPath.getStringValue());
+        if (!in.exists()) {
+            throw new InvalidSettingsException("The input path " + m_inputPath.getStringValue() + " does not exist");
+        }
+        if (in.isFile()) {
+            return Arrays.asList(in);
+        }
+        // Hidden files and marker files like _SUCCESS are skipped, like Hadoop's input formats do it
+        File[] files = in.listFiles(f -> f.isFile() && !f.getName().startsWith(".") && !f.getName().startsWith("_")
+                && format.accepts(f));
+        if (files == null || files.length == 0) {
+            throw new InvalidSettingsException("The input directory does not contain any " + format.getLabel()
+                    + " files");
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    private static File resolve(final String path) throws InvalidSettingsException, IOException {
+        Path p;
+        try {
+            p = FileUtil.resolveToPath(FileUtil.toURL(path));
+        } catch (URISyntaxException | InvalidPathException e) {
+            throw new InvalidSettingsException("Invalid path " + path, e);
+        }
+        if (p == null) {
+            throw new InvalidSettingsException("The path " + path + " does not point to the local file system");
+        }
+        return p.toFile();
+    }
+
+    private File checkOutputFile(final File dir, final String name) throws InvalidSettingsException {
+        File f = new File(dir, name);
+        if (f.exists() && !m_overwrite.getBooleanValue()) {
+            throw new InvalidSettingsException("The output file " + f.getAbsolutePath()
+                    + " already exists and overwriting is disabled");
+        }
+        return f;
+    }
+
+    private static String partNumber(final int i) {
+        return String.format("%05d", i);
+    }
+
+    private static DataTableSpec createOutputSpec() {
+        return new DataTableSpecCreator().addColumns(
+                new DataColumnSpecCreator("Input file", StringCell.TYPE).createSpec(),
+                new DataColumnSpecCreator("Split start", LongCell.TYPE).createSpec(),
+                new DataColumnSpecCreator("Split end", LongCell.TYPE).createSpec(),
+                new DataColumnSpecCreator("Output file", StringCell.TYPE).createSpec(),
+                new DataColumnSpecCreator("Records read", LongCell.TYPE).createSpec(),
+                new DataColumnSpecCreator("Records written", LongCell.TYPE).createSpec()).createSpec();
+    }
+
+    private static DefaultRow createRow(final RowKey key, final String file, final long start, final long end,
+            final String part, final long read, final long written) {
+        return new DefaultRow(key, new DataCell[] {new StringCell(file), new LongCell(start), new LongCell(end),
+            new StringCell(part), new LongCell(read), new LongCell(written)});
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reset() {
+        // No-op
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+        if (StringUtils.isEmpty(m_inputPath.getStringValue())) {
+            throw new InvalidSettingsException("No input file or directory selected");
+        }
+        if (StringUtils.isEmpty(m_outputDir.getStringValue())) {
+            throw new InvalidSettingsException("No output directory selected");
+        }
+        InputFormat.fromLabel(m_inputFormat.getStringValue());
+        return new PortObjectSpec[] {createOutputSpec()};
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveSettingsTo(final NodeSettingsWO settings) {
+        m_inputPath.saveSettingsTo(settings);
+        m_inputFormat.saveSettingsTo(settings);
+        m_outputDir.saveSettingsTo(settings);
+        m_overwrite.saveSettingsTo(settings);
+        m_parallelism.saveSettingsTo(settings);
+        m_splitSize.saveSettingsTo(settings);
+        m_seeded.saveSettingsTo(settings);
+        m_masterSeed.saveSettingsTo(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_inputPath.loadSettingsFrom(settings);
+        m_inputFormat.loadSettingsFrom(settings);
+        m_outputDir.loadSettingsFrom(settings);
+        m_overwrite.loadSettingsFrom(settings);
+        m_parallelism.loadSettingsFrom(settings);
+        m_splitSize.loadSettingsFrom(settings);
+        if (settings.containsKey(CFG_SEEDED)) {
+            m_seeded.loadSettingsFrom(settings);
+            m_masterSeed.loadSettingsFrom(settings);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_inputPath.validateSettings(settings);
+        m_inputFormat.validateSettings(settings);
+        m_outputDir.validateSettings(settings);
+        m_overwrite.validateSettings(settings);
+        m_parallelism.validateSettings(settings);
+        m_splitSize.validateSettings(settings);
+        if (settings.containsKey(CFG_SEEDED)) {
+            m_seeded.validateSettings(settings);
+            m_masterSeed.validateSettings(settings);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadInternals(final File internDir, final ExecutionMonitor exec)
+            throws IOException, CanceledExecutionException {
+        // No-op
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveInternals(final File internDir, final ExecutionMonitor exec)
+            throws IOException, CanceledExecutionException {
+        // No-op
+    }
+}
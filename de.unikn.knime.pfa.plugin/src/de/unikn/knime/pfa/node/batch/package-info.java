@@ -0,0 +1,4 @@
+/**
+ * Contains a node for scoring partitioned datasets on the local disk with PFA models.
+ */
+package de.unikn.knime.pfa.node.batch;
\ No newline at end of file
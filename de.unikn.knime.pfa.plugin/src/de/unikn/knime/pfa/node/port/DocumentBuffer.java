@@ -0,0 +1,254 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+
+import de.unikn.knime.pfa.engine.PFAEngineCache;
+
+/**
+ * The UTF-8 encoded JSON of a PFA document. Buffers are interned by the digest of their content, so port objects
+ * of the same document share one buffer. Documents of at least {@value #MAP_THRESHOLD_PROPERTY} megabytes
+ * (64 by default) are moved to a temporary file and memory-mapped, so they do not occupy the heap at all. The file
+ * is deleted right after mapping it, the mapping keeps its content until the buffer is garbage collected. Only
+ * where open files cannot be deleted, e.g. on Windows, it is deleted when the JVM exits.
+ *
+ * @author agent
+ */
+final class DocumentBuffer {
+
+    /** System property for the size in megabytes from which documents are memory-mapped. */
+    static final String MAP_THRESHOLD_PROPERTY = "knime.pfa.mapThresholdMB";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DocumentBuffer.class);
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final Map<String, InternedReference> INTERNED = new ConcurrentHashMap<>();
+
+    // Receives the references of collected buffers, so that their entries can be removed from INTERNED
+    private static final ReferenceQueue<DocumentBuffer> COLLECTED = new ReferenceQueue<>();
+
+    private final String m_digest;
+    // Exactly one of the two holds the content
+    private final byte[] m_bytes;
+    private final ByteBuffer m_mapped;
+
+    private DocumentBuffer(final String digest, final byte[] bytes, final ByteBuffer mapped) {
+        m_digest = digest;
+        m_bytes = bytes;
+        m_mapped = mapped;
+    }
+
+    /**
+     * Returns the buffer for a document, reusing the buffer of an identical document if there is one.
+     *
+     * @param utf8 the UTF-8 encoded JSON of the document, must not be modified afterwards
+     * @return the buffer holding the document
+     */
+    static DocumentBuffer of(final byte[] utf8) {
+        expunge();
+        String digest = PFAEngineCache.digest(utf8);
+        InternedReference ref = INTERNED.get(digest);
+        DocumentBuffer buffer = ref == null ? null : ref.get();
+        if (buffer != null) {
+            return buffer;
+        }
+        buffer = create(digest, utf8);
+        // Another thread may have interned the same document meanwhile, both buffers are valid
+        INTERNED.put(digest, new InternedReference(buffer));
+        return buffer;
+    }
+
+    private static void expunge() {
+        for (Reference<?> r = COLLECTED.poll(); r != null; r = COLLECTED.poll()) {
+            // A newer buffer for the same document may have replaced the collected one
+            INTERNED.remove(((InternedReference)r).m_digest, r);
+        }
+    }
+
+    /**
+     * @return the number of interned buffers, including collected ones whose entries are not yet removed
+     */
+    static int internedCount() {
+        expunge();
+        return INTERNED.size();
+    }
+
+    private static DocumentBuffer create(final String digest, final byte[] utf8) {
+        if ((long)utf8.length < Long.getLong(MAP_THRESHOLD_PROPERTY, 64L) << 20) {
+            return new DocumentBuffer(digest, utf8, null);
+        }
+        try {
+            File file = FileUtil.createTempFile("pfa-" + digest.substring(0, 12), ".json");
+            MappedByteBuffer mapped;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+                channel.write(ByteBuffer.wrap(utf8));
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, utf8.length);
+            } finally {
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+            return new DocumentBuffer(digest, null, mapped);
+        } catch (IOException e) {
+            LOGGER.debug("PFA document cannot be memory-mapped, it is kept on the heap: " + e.getMessage(), e);
+            return new DocumentBuffer(digest, utf8, null);
+        }
+    }
+
+    /**
+     * @return true if the document is memory-mapped instead of held on the heap
+     */
+    boolean isMapped() {
+        return m_mapped != null;
+    }
+
+    /**
+     * @return the digest of the document as computed by {@link PFAEngineCache#digest(byte[])}
+     */
+    String getDigest() {
+        return m_digest;
+    }
+
+    /**
+     * @return the size of the document in bytes
+     */
+    int size() {
+        return m_bytes != null ? m_bytes.length : m_mapped.capacity();
+    }
+
+    /**
+     * @return a new stream over the UTF-8 encoded document
+     */
+    InputStream openStream() {
+        if (m_bytes != null) {
+            return new ByteArrayInputStream(m_bytes);
+        }
+        ByteBuffer buffer = m_mapped.duplicate();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) {
+                if (!buffer.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, buffer.remaining());
+                buffer.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return buffer.remaining();
+            }
+        };
+    }
+
+    /**
+     * Creates the document's JSON as string. The string is a copy of the document, so callers should not keep it.
+     *
+     * @return the JSON of the document
+     */
+    String toJsonString() {
+        if (m_bytes != null) {
+            return new String(m_bytes, StandardCharsets.UTF_8);
+        }
+        return StandardCharsets.UTF_8.decode(m_mapped.duplicate()).toString();
+    }
+
+    /**
+     * Writes the UTF-8 encoded document to a stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(final OutputStream out) throws IOException {
+        if (m_bytes != null) {
+            out.write(m_bytes);
+            return;
+        }
+        ByteBuffer buffer = m_mapped.duplicate();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        while (buffer.hasRemaining()) {
+            int n = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, n);
+            out.write(chunk, 0, n);
+        }
+    }
+
+    private static final class InternedReference extends WeakReference<DocumentBuffer> {
+        private final String m_digest;
+
+        InternedReference(final DocumentBuffer buffer) {
+            super(buffer, COLLECTED);
+            m_digest = buffer.m_digest;
+        }
+    }
+}
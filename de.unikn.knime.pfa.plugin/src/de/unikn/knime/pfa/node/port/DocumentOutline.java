@@ -0,0 +1,236 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * Lists the children of a single object or array in a JSON document with a streaming parser, so that a view can
+ * expand a document of any size one level at a time. Only the listed children are kept in memory, everything
+ * else is skipped while streaming.
+ *
+ * @author agent
+ */
+final class DocumentOutline {
+
+    // Longer strings are cut in the listing
+    private static final int MAX_TEXT_LENGTH = 200;
+
+    private DocumentOutline() {
+    }
+
+    /**
+     * Lists a range of children of a container in a document.
+     *
+     * @param in stream over the UTF-8 encoded document, it is closed
+     * @param path the keys and indices leading from the root to the container, empty for the root
+     * @param from the index of the first child to list
+     * @param to the index after the last child to list
+     * @return the children in the range
+     * @throws javax.json.JsonException if the document cannot be parsed
+     * @throws NoSuchElementException if the path does not exist in the document
+     */
+    static List<Item> list(final InputStream in, final List<Object> path, final int from, final int to) {
+        try (JsonParser p = Json.createParser(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8),
+            1 << 16))) {
+            Event e = p.next();
+            for (Object step : path) {
+                e = descend(p, e, step);
+            }
+            if (e != Event.START_OBJECT && e != Event.START_ARRAY) {
+                throw new NoSuchElementException("No object or array at " + path);
+            }
+            boolean object = e == Event.START_OBJECT;
+            List<Item> items = new ArrayList<>();
+            for (int i = 0; i < to; i++) {
+                Event v = p.next();
+                if (v == Event.END_OBJECT || v == Event.END_ARRAY) {
+                    break;
+                }
+                Object key = i;
+                if (object) {
+                    key = p.getString();
+                    v = p.next();
+                }
+                if (i < from) {
+                    skip(p, v);
+                } else {
+                    items.add(describe(p, v, key));
+                }
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Moves the parser to a child of the current container.
+     *
+     * @return the first event of the child
+     */
+    private static Event descend(final JsonParser p, final Event container, final Object step) {
+        for (int i = 0;; i++) {
+            Event e = p.next();
+            if (e == Event.END_OBJECT || e == Event.END_ARRAY) {
+                throw new NoSuchElementException("No element " + step + " in the document");
+            }
+            Object key = i;
+            if (container == Event.START_OBJECT) {
+                key = p.getString();
+                e = p.next();
+            }
+            if (key.equals(step)) {
+                return e;
+            }
+            skip(p, e);
+        }
+    }
+
+    /**
+     * Skips a value.
+     *
+     * @param first the first event of the value
+     * @return the number of children of an object or array, -1 for other values
+     */
+    private static int skip(final JsonParser p, final Event first) {
+        if (first != Event.START_OBJECT && first != Event.START_ARRAY) {
+            return -1;
+        }
+        int depth = 1;
+        int children = 0;
+        while (depth > 0) {
+            Event e = p.next();
+            if (depth == 1 && e != Event.KEY_NAME && e != Event.END_OBJECT && e != Event.END_ARRAY) {
+                children++;
+            }
+            if (e == Event.START_OBJECT || e == Event.START_ARRAY) {
+                depth++;
+            } else if (e == Event.END_OBJECT || e == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+        return children;
+    }
+
+    private static Item describe(final JsonParser p, final Event e, final Object key) {
+        switch (e) {
+            case START_OBJECT:
+                return new Item(key, null, skip(p, e), true);
+            case START_ARRAY:
+                return new Item(key, null, skip(p, e), false);
+            case VALUE_STRING:
+                String s = p.getString();
+                if (s.length() > MAX_TEXT_LENGTH) {
+                    s = s.substring(0, MAX_TEXT_LENGTH) + "...";
+                }
+                return new Item(key, '"' + s + '"', -1, false);
+            case VALUE_NUMBER:
+                return new Item(key, p.getString(), -1, false);
+            case VALUE_TRUE:
+                return new Item(key, "true", -1, false);
+            case VALUE_FALSE:
+                return new Item(key, "false", -1, false);
+            default:
+                return new Item(key, "null", -1, false);
+        }
+    }
+
+    /**
+     * A child of an object or array.
+     */
+    static final class Item {
+        private final Object m_key;
+        private final String m_value;
+        private final int m_size;
+        private final boolean m_object;
+
+        private Item(final Object key, final String value, final int size, final boolean object) {
+            m_key = key;
+            m_value = value;
+            m_size = size;
+            m_object = object;
+        }
+
+        /**
+         * @return the key of an object member or the index of an array element
+         */
+        Object getKey() {
+            return m_key;
+        }
+
+        /**
+         * @return the JSON text of a value that is no object or array, otherwise null
+         */
+        String getValue() {
+            return m_value;
+        }
+
+        /**
+         * @return the number of children of an object or array, -1 for other values
+         */
+        int getSize() {
+            return m_size;
+        }
+
+        /**
+         * @return true if the value is an object
+         */
+        boolean isObject() {
+            return m_object;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Set;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * Extracts top-level fields of a PFA document with a streaming parser, without building the tree of the whole
+ * document. All other fields are skipped. If a field occurs more than once, the last occurrence is extracted,
+ * like <code>javax.json</code> does when it reads the document into a tree. Therefore all top-level fields are
+ * read, even if the wanted ones come first.
+ *
+ * @author agent
+ */
+final class DocumentScanner {
+
+    private DocumentScanner() {
+    }
+
+    /**
+     * Scans a JSON document for top-level fields.
+     *
+     * @param reader the reader to read the document from
+     * @param keys the names of the top-level fields to extract
+     * @param validate if true, the stream is read to its end to make sure it holds nothing but the document,
+     *            otherwise reading stops at the end of the document
+     * @return an object holding the found fields
+     * @throws JsonException if the document is not a JSON object
+     */
+    static JsonObject scan(final Reader reader, final Set<String> keys, final boolean validate) {
+        try (JsonParser parser = Json.createParser(reader)) {
+            return scan(parser, keys, validate);
+        }
+    }
+
+    /**
+     * Scans a JSON document for top-level fields, detecting the encoding of the document.
+     *
+     * @param in the stream to read the document from, it is not closed
+     * @param keys the names of the top-level fields to extract
+     * @param validate if true, the stream is read to its end to make sure it holds nothing but the document,
+     *            otherwise reading stops at the end of the document
+     * @return an object holding the found fields
+     * @throws JsonException if the document is not a JSON object
+     */
+    static JsonObject scan(final InputStream in, final Set<String> keys, final boolean validate) {
+        // Not closed, which would close the stream
+        return scan(Json.createParser(in), keys, validate);
+    }
+
+    private static JsonObject scan(final JsonParser parser, final Set<String> keys, final boolean validate) {
+        JsonObjectBuilder result = Json.createObjectBuilder();
+        if (!parser.hasNext() || parser.next() != Event.START_OBJECT) {
+            throw new JsonException("A PFA document must be a JSON object");
+        }
+        Event e = parser.next();
+        while (e != Event.END_OBJECT) {
+            String key = parser.getString();
+            if (keys.contains(key)) {
+                // Replaces an earlier occurrence of the key
+                add(result, key, parser, parser.next());
+            } else {
+                skip(parser, parser.next());
+            }
+            e = parser.next();
+        }
+        if (validate && parser.hasNext()) {
+            throw new JsonException("Unexpected content after the PFA document");
+        }
+        return result.build();
+    }
+
+    private static void add(final JsonObjectBuilder builder, final String key, final JsonParser parser,
+            final Event e) {
+        switch (e) {
+            case START_OBJECT:
+                builder.add(key, readObject(parser));
+                break;
+            case START_ARRAY:
+                builder.add(key, readArray(parser));
+                break;
+            case VALUE_STRING:
+                builder.add(key, parser.getString());
+                break;
+            case VALUE_NUMBER:
+                builder.add(key, parser.getBigDecimal());
+                break;
+            case VALUE_TRUE:
+                builder.add(key, true);
+                break;
+            case VALUE_FALSE:
+                builder.add(key, false);
+                break;
+            default:
+                builder.addNull(key);
+        }
+    }
+
+    private static JsonObject readObject(final JsonParser parser) {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        for (Event e = parser.next(); e != Event.END_OBJECT; e = parser.next()) {
+            String key = parser.getString();
+            add(builder, key, parser, parser.next());
+        }
+        return builder.build();
+    }
+
+    private static JsonArray readArray(final JsonParser parser) {
+        JsonArrayBuilder builder = Json.createArrayBuilder();
+        for (Event e = parser.next(); e != Event.END_ARRAY; e = parser.next()) {
+            switch (e) {
+                case START_OBJECT:
+                    builder.add(readObject(parser));
+                    break;
+                case START_ARRAY:
+                    builder.add(readArray(parser));
+                    break;
+                case VALUE_STRING:
+                    builder.add(parser.getString());
+                    break;
+                case VALUE_NUMBER:
+                    builder.add(parser.getBigDecimal());
+                    break;
+                case VALUE_TRUE:
+                    builder.add(true);
+                    break;
+                case VALUE_FALSE:
+                    builder.add(false);
+                    break;
+                default:
+                    builder.addNull();
+            }
+        }
+        return builder.build();
+    }
+
+    private static void skip(final JsonParser parser, final Event first) {
+        if (first != Event.START_OBJECT && first != Event.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Event e = parser.next();
+            if (e == Event.START_OBJECT || e == Event.START_ARRAY) {
+                depth++;
+            } else if (e == Event.END_OBJECT || e == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Channels through which new versions of a watched PFA document are published while nodes using the document are
+ * running. A reader that watches its file registers a channel and publishes each reloaded, compiled version. Port
+ * objects created with {@link PFAPortObject#withUpdates(String)} report the newest version of their channel.
+ *
+ * @author agent
+ */
+public final class ModelUpdates {
+
+    private static final Map<String, PFAPortObject> LATEST = new ConcurrentHashMap<>();
+
+    private ModelUpdates() {
+    }
+
+    /**
+     * Opens a new channel.
+     *
+     * @param initial the current version of the document
+     * @return the id of the channel
+     */
+    public static String register(final PFAPortObject initial) {
+        String id = UUID.randomUUID().toString();
+        LATEST.put(id, initial);
+        return id;
+    }
+
+    /**
+     * Publishes a new version of a document. Nodes pick it up at their next opportunity, so it should be compiled
+     * already.
+     *
+     * @param id the id of the channel
+     * @param version the new version
+     */
+    public static void publish(final String id, final PFAPortObject version) {
+        LATEST.replace(id, version);
+    }
+
+    /**
+     * Closes a channel. Port objects of the channel keep their last version.
+     *
+     * @param id the id of the channel
+     */
+    public static void unregister(final String id) {
+        LATEST.remove(id);
+    }
+
+    /**
+     * @param id the id of a channel
+     * @return the newest version published on the channel or null if the channel is closed
+     */
+    static PFAPortObject latest(final String id) {
+        return LATEST.get(id);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+/**
+ * Describes what the {@link PFADocumentOptimizer} changed in a PFA document.
+ *
+ * @author agent
+ */
+public final class OptimizationReport {
+
+    private static final String ORIGINAL_SIZE_KEY = "originalSize";
+    private static final String OPTIMIZED_SIZE_KEY = "optimizedSize";
+    private static final String REMOVED_FUNCTIONS_KEY = "removedFunctions";
+    private static final String REMOVED_CELLS_KEY = "removedCells";
+    private static final String INLINED_CALLS_KEY = "inlinedCalls";
+    private static final String FOLDED_EXPRESSIONS_KEY = "foldedExpressions";
+
+    private final long m_originalSize;
+    private final long m_optimizedSize;
+    private final int m_removedFunctions;
+    private final int m_removedCells;
+    private final int m_inlinedCalls;
+    private final int m_foldedExpressions;
+
+    /**
+     * Creates a new report.
+     *
+     * @param originalSize the size of the original document's UTF-8 encoded JSON in bytes
+     * @param optimizedSize the size of the optimized document's UTF-8 encoded JSON in bytes
+     * @param removedFunctions the number of removed user functions
+     * @param removedCells the number of removed cells
+     * @param inlinedCalls the number of calls and references redirected past wrapper functions
+     * @param foldedExpressions the number of folded constant expressions
+     */
+    public OptimizationReport(final long originalSize, final long optimizedSize, final int removedFunctions,
+            final int removedCells, final int inlinedCalls, final int foldedExpressions) {
+        m_originalSize = originalSize;
+        m_optimizedSize = optimizedSize;
+        m_removedFunctions = removedFunctions;
+        m_removedCells = removedCells;
+        m_inlinedCalls = inlinedCalls;
+        m_foldedExpressions = foldedExpressions;
+    }
+
+    /**
+     * @return the size of the original document's UTF-8 encoded JSON in bytes
+     */
+    public long getOriginalSize() {
+        return m_originalSize;
+    }
+
+    /**
+     * @return the size of the optimized document's UTF-8 encoded JSON in bytes
+     */
+    public long getOptimizedSize() {
+        return m_optimizedSize;
+    }
+
+    /**
+     * @return the number of removed user functions
+     */
+    public int getRemovedFunctions() {
+        return m_removedFunctions;
+    }
+
+    /**
+     * @return the number of removed cells
+     */
+    public int getRemovedCells() {
+        return m_removedCells;
+    }
+
+    /**
+     * @return the number of calls and references redirected past wrapper functions
+     */
+    public int getInlinedCalls() {
+        return m_inlinedCalls;
+    }
+
+    /**
+     * @return the number of folded constant expressions
+     */
+    public int getFoldedExpressions() {
+        return m_foldedExpressions;
+    }
+
+    /**
+     * @return the JSON representation of this report
+     */
+    public JsonObject toJson() {
+        return Json.createObjectBuilder()
+                .add(ORIGINAL_SIZE_KEY, m_originalSize)
+                .add(OPTIMIZED_SIZE_KEY, m_optimizedSize)
+                .add(REMOVED_FUNCTIONS_KEY, m_removedFunctions)
+                .add(REMOVED_CELLS_KEY, m_removedCells)
+                .add(INLINED_CALLS_KEY, m_inlinedCalls)
+                .add(FOLDED_EXPRESSIONS_KEY, m_foldedExpressions)
+                .build();
+    }
+
+    /**
+     * Reads a report from its JSON representation.
+     *
+     * @param json the JSON created by {@link #toJson()}
+     * @return the report
+     */
+    public static OptimizationReport fromJson(final JsonObject json) {
+        return new OptimizationReport(
+                json.getJsonNumber(ORIGINAL_SIZE_KEY).longValue(),
+                json.getJsonNumber(OPTIMIZED_SIZE_KEY).longValue(),
+                json.getInt(REMOVED_FUNCTIONS_KEY),
+                json.getInt(REMOVED_CELLS_KEY),
+                json.getInt(INLINED_CALLS_KEY),
+                json.getInt(FOLDED_EXPRESSIONS_KEY));
+    }
+
+    @Override
+    public String toString() {
+        double reduction = m_originalSize == 0 ? 0 : 100.0 * (m_originalSize - m_optimizedSize) / m_originalSize;
+        return String.format("Optimized from %,d to %,d bytes (%.1f%% smaller): %d functions and %d cells "
+                + "removed, %d calls inlined, %d constant expressions folded", m_originalSize, m_optimizedSize,
+                reduction, m_removedFunctions, m_removedCells, m_inlinedCalls, m_foldedExpressions);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataType;
+
+/**
+ * Data cell holding a PFA document, so that collections of models can be kept in tables. The cell only stores
+ * the UTF-8 bytes of the document. Its types are extracted and the document is parsed when they are first needed.
+ * Documents are interned by their digest, so a table that contains the same document many times keeps it in
+ * memory once.
+ *
+ * @author agent
+ */
+public final class PFADataCell extends DataCell implements PFADataValue {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The type of cells holding a PFA document.
+     */
+    public static final DataType TYPE = DataType.getType(PFADataCell.class);
+
+    private final transient DocumentBuffer m_buffer;
+    private transient PFAPortObjectSpec m_spec;
+
+    private PFADataCell(final DocumentBuffer buffer, final PFAPortObjectSpec spec) {
+        m_buffer = buffer;
+        m_spec = spec;
+    }
+
+    /**
+     * Creates a cell for the document of a port object.
+     *
+     * @param pfa the port object
+     * @return a cell holding the same document
+     */
+    public static PFADataCell create(final PFAPortObject pfa) {
+        return new PFADataCell(pfa.getBuffer(), (PFAPortObjectSpec) pfa.getSpec());
+    }
+
+    @Override
+    public String getDigest() {
+        return m_buffer.getDigest();
+    }
+
+    @Override
+    public synchronized PFAPortObjectSpec getPFASpec() {
+        if (m_spec == null) {
+            m_spec = PFAPortObjectSpec.scan(m_buffer.openStream());
+        }
+        return m_spec;
+    }
+
+    @Override
+    public PFAPortObject getPortObject() {
+        return new PFAPortObject(m_buffer, getPFASpec(), null);
+    }
+
+    @Override
+    public String toString() {
+        return "PFA document (" + m_buffer.size() + " bytes, " + getDigest().substring(0, 12) + ")";
+    }
+
+    @Override
+    protected boolean equalsDataCell(final DataCell dc) {
+        return getDigest().equals(((PFADataCell) dc).getDigest());
+    }
+
+    @Override
+    public int hashCode() {
+        return getDigest().hashCode();
+    }
+
+    /**
+     * Serializer for {@link PFADataCell}s. Documents are written deflate compressed.
+     */
+    public static final class PFASerializer implements DataCellSerializer<PFADataCell> {
+
+        @Override
+        public void serialize(final PFADataCell cell, final DataCellDataOutput output) throws IOException {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(cell.m_buffer.size() / 4 + 64);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                DeflaterOutputStream dos = new DeflaterOutputStream(bos, deflater, 1 << 16);
+                cell.m_buffer.writeTo(dos);
+                dos.finish();
+            } finally {
+                deflater.end();
+            }
+            output.writeInt(cell.m_buffer.size());
+            output.writeInt(bos.size());
+            output.write(bos.toByteArray());
+        }
+
+        @Override
+        public PFADataCell deserialize(final DataCellDataInput input) throws IOException {
+            byte[] utf8 = new byte[input.readInt()];
+            byte[] compressed = new byte[input.readInt()];
+            input.readFully(compressed);
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int n = 0;
+                while (n < utf8.length && !inflater.finished()) {
+                    int k = inflater.inflate(utf8, n, utf8.length - n);
+                    if (k == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    n += k;
+                }
+                if (n != utf8.length) {
+                    throw new IOException("Truncated PFA document in data cell");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt PFA document in data cell", e);
+            } finally {
+                inflater.end();
+            }
+            return new PFADataCell(DocumentBuffer.of(utf8), null);
+        }
+    }
+}
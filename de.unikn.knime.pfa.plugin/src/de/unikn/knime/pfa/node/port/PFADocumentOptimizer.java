@@ -0,0 +1,530 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * Rewrites a PFA document before it is compiled, so that Hadrian has less code to generate and load.
+ * The following rewrites are applied, in this order:
+ * <ol>
+ * <li>Calls of and references to user functions that only forward their parameters to another user function
+ * with the same signature are redirected to that function.</li>
+ * <li>Arithmetic on number literals (<code>+ - * / u-</code>) is folded, keeping PFA's int, long and double
+ * semantics; expressions that would overflow or produce non-finite values are left to the engine.</li>
+ * <li>User functions that are not reachable from the action, begin, end or merge are removed.</li>
+ * <li>Cells that are not referenced by the remaining code are removed, unless they are shared.</li>
+ * </ol>
+ * Functions and cells whose types define named types are never removed, since other parts of the document
+ * may refer to these types by name.
+ *
+ * @author agent
+ */
+public final class PFADocumentOptimizer {
+
+    private static final String FCNS_KEY = "fcns";
+    private static final String CELLS_KEY = "cells";
+    private static final String PARAMS_KEY = "params";
+    private static final String RET_KEY = "ret";
+    private static final String DO_KEY = "do";
+    private static final String TYPE_KEY = "type";
+    private static final String NEW_KEY = "new";
+    private static final String USER_FCN_PREFIX = "u.";
+    private static final List<String> ROOT_KEYS = Arrays.asList("action", "begin", "end", "merge");
+    private static final List<String> FCN_REF_KEYS = Arrays.asList("fcn", "fcnref");
+    // Keys whose values are types or literal data rather than expressions
+    private static final Set<String> NON_EXPRESSION_KEYS = new HashSet<>(
+            Arrays.asList(TYPE_KEY, RET_KEY, PARAMS_KEY, "as", "value", "string", "base64", "format"));
+    private static final Set<String> NAMED_TYPES = new HashSet<>(Arrays.asList("record", "enum", "fixed"));
+
+    private int m_inlinedCalls;
+    private int m_foldedExpressions;
+
+    /**
+     * Optimizes a PFA document.
+     *
+     * @param doc the document
+     * @return the optimized document together with what was changed
+     */
+    public static Result optimize(final JsonObject doc) {
+        return new PFADocumentOptimizer().run(doc);
+    }
+
+    /**
+     * Optimizes the document of a port object. The sizes in the report are taken from the buffers of the two
+     * documents, so neither is serialized just for the report.
+     *
+     * @param pfa the port object
+     * @return a port object for the optimized document
+     */
+    public static PFAPortObject optimize(final PFAPortObject pfa) {
+        Result result = optimize(pfa.getJsonObject());
+        JsonObject optimized = result.getDocument();
+        DocumentBuffer buffer = DocumentBuffer.of(optimized.toString().getBytes(StandardCharsets.UTF_8));
+        return new PFAPortObject(optimized, buffer, result.getReport(pfa.getBuffer().size(), buffer.size()));
+    }
+
+    private PFADocumentOptimizer() {
+    }
+
+    private Result run(final JsonObject doc) {
+        JsonObject fcns = doc.containsKey(FCNS_KEY) ? doc.getJsonObject(FCNS_KEY) : Json.createObjectBuilder().build();
+        Map<String, String> aliases = findAliases(fcns);
+
+        // Rewrite the code of the document, functions are rewritten when they are found to be reachable
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        Map<String, JsonValue> rewrittenFcns = new HashMap<>();
+        Map<String, JsonValue> roots = new HashMap<>();
+        for (String key : ROOT_KEYS) {
+            if (doc.containsKey(key)) {
+                roots.put(key, rewrite(doc.get(key), aliases));
+            }
+        }
+
+        // Find the functions reachable from the roots
+        Set<String> symbols = new HashSet<>();
+        for (JsonValue root : roots.values()) {
+            collectSymbols(root, symbols);
+        }
+        Set<String> usedFcns = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (String name : fcns.keySet()) {
+            if (symbols.contains(USER_FCN_PREFIX + name) || definesNamedType(fcns.getJsonObject(name))) {
+                queue.add(name);
+            }
+        }
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (usedFcns.add(name)) {
+                JsonValue rewritten = rewriteFcn(fcns.getJsonObject(name), aliases);
+                rewrittenFcns.put(name, rewritten);
+                Set<String> called = new HashSet<>();
+                collectSymbols(rewritten, called);
+                symbols.addAll(called);
+                for (String s : called) {
+                    if (s.startsWith(USER_FCN_PREFIX) && fcns.containsKey(s.substring(2))) {
+                        queue.add(s.substring(2));
+                    }
+                }
+            }
+        }
+
+        int removedCells = 0;
+        for (Map.Entry<String, JsonValue> entry : doc.entrySet()) {
+            String key = entry.getKey();
+            if (roots.containsKey(key)) {
+                builder.add(key, roots.get(key));
+            } else if (key.equals(FCNS_KEY)) {
+                JsonObjectBuilder fb = Json.createObjectBuilder();
+                // Keep the original order of the functions
+                for (String name : fcns.keySet()) {
+                    if (usedFcns.contains(name)) {
+                        fb.add(name, rewrittenFcns.get(name));
+                    }
+                }
+                builder.add(key, fb);
+            } else if (key.equals(CELLS_KEY)) {
+                JsonObjectBuilder cb = Json.createObjectBuilder();
+                for (Map.Entry<String, JsonValue> cell : ((JsonObject) entry.getValue()).entrySet()) {
+                    JsonObject c = (JsonObject) cell.getValue();
+                    if (symbols.contains(cell.getKey()) || c.getBoolean("shared", false)
+                            || definesNamedType(c.get(TYPE_KEY))) {
+                        cb.add(cell.getKey(), c);
+                    } else {
+                        removedCells++;
+                    }
+                }
+                builder.add(key, cb);
+            } else {
+                builder.add(key, entry.getValue());
+            }
+        }
+        return new Result(builder.build(), fcns.size() - usedFcns.size(), removedCells, m_inlinedCalls,
+            m_foldedExpressions);
+    }
+
+    /**
+     * Finds user functions whose body only forwards all parameters, in order, to another user function with the
+     * same parameters and return type.
+     *
+     * @return a map from the name of each such wrapper to the function that is finally called
+     */
+    private static Map<String, String> findAliases(final JsonObject fcns) {
+        Map<String, String> direct = new HashMap<>();
+        for (Map.Entry<String, JsonValue> e : fcns.entrySet()) {
+            JsonObject fcn = (JsonObject) e.getValue();
+            JsonValue body = fcn.get(DO_KEY);
+            if (body != null && body.getValueType() == JsonValue.ValueType.ARRAY && ((JsonArray) body).size() == 1) {
+                body = ((JsonArray) body).get(0);
+            }
+            if (body == null || body.getValueType() != JsonValue.ValueType.OBJECT || ((JsonObject) body).size() != 1) {
+                continue;
+            }
+            String callee = ((JsonObject) body).keySet().iterator().next();
+            if (!callee.startsWith(USER_FCN_PREFIX) || !fcns.containsKey(callee.substring(2))) {
+                continue;
+            }
+            JsonObject target = fcns.getJsonObject(callee.substring(2));
+            if (target == fcn || fcn.get(PARAMS_KEY) == null
+                    || fcn.get(PARAMS_KEY).getValueType() != JsonValue.ValueType.ARRAY
+                    || !fcn.get(PARAMS_KEY).equals(target.get(PARAMS_KEY))
+                    || !Objects.equals(fcn.get(RET_KEY), target.get(RET_KEY))) {
+                continue;
+            }
+            JsonValue args = ((JsonObject) body).get(callee);
+            JsonArray params = fcn.getJsonArray(PARAMS_KEY);
+            if (args.getValueType() != JsonValue.ValueType.ARRAY) {
+                args = Json.createArrayBuilder().add(args).build();
+            }
+            if (((JsonArray) args).size() != params.size()) {
+                continue;
+            }
+            boolean forwards = true;
+            for (int i = 0; i < params.size() && forwards; i++) {
+                String param = params.getJsonObject(i).keySet().iterator().next();
+                JsonValue arg = ((JsonArray) args).get(i);
+                forwards = arg.getValueType() == JsonValue.ValueType.STRING
+                        && ((JsonString) arg).getString().equals(param);
+            }
+            if (forwards) {
+                direct.put(e.getKey(), callee.substring(2));
+            }
+        }
+        // Follow chains of wrappers, stopping at cycles
+        Map<String, String> aliases = new HashMap<>();
+        for (String name : direct.keySet()) {
+            String target = name;
+            Set<String> seen = new HashSet<>();
+            while (direct.containsKey(target) && seen.add(target)) {
+                target = direct.get(target);
+            }
+            if (!direct.containsKey(target)) {
+                aliases.put(USER_FCN_PREFIX + name, USER_FCN_PREFIX + target);
+            }
+        }
+        return aliases;
+    }
+
+    private JsonValue rewriteFcn(final JsonObject fcn, final Map<String, String> aliases) {
+        JsonObjectBuilder b = Json.createObjectBuilder();
+        for (Map.Entry<String, JsonValue> e : fcn.entrySet()) {
+            b.add(e.getKey(), e.getKey().equals(DO_KEY) ? rewrite(e.getValue(), aliases) : e.getValue());
+        }
+        return b.build();
+    }
+
+    /**
+     * Rewrites an expression bottom-up, redirecting wrapper calls and folding constants.
+     */
+    private JsonValue rewrite(final JsonValue expr, final Map<String, String> aliases) {
+        if (expr.getValueType() == JsonValue.ValueType.ARRAY) {
+            JsonArrayBuilder b = Json.createArrayBuilder();
+            for (JsonValue v : (JsonArray) expr) {
+                b.add(rewrite(v, aliases));
+            }
+            return b.build();
+        }
+        if (expr.getValueType() != JsonValue.ValueType.OBJECT) {
+            return expr;
+        }
+        JsonObject obj = (JsonObject) expr;
+        JsonObjectBuilder b = Json.createObjectBuilder();
+        for (Map.Entry<String, JsonValue> e : obj.entrySet()) {
+            String key = e.getKey();
+            JsonValue value = e.getValue();
+            if (NON_EXPRESSION_KEYS.contains(key)) {
+                b.add(key, value);
+                continue;
+            }
+            if (FCN_REF_KEYS.contains(key) && value.getValueType() == JsonValue.ValueType.STRING
+                    && aliases.containsKey(((JsonString) value).getString())) {
+                b.add(key, aliases.get(((JsonString) value).getString()));
+                m_inlinedCalls++;
+                continue;
+            }
+            if (obj.size() == 1 && aliases.containsKey(key)) {
+                key = aliases.get(key);
+                m_inlinedCalls++;
+            }
+            if (key.equals(NEW_KEY) && value.getValueType() == JsonValue.ValueType.OBJECT) {
+                // The keys of a new map are arbitrary strings, so the map itself is no expression
+                JsonObjectBuilder mb = Json.createObjectBuilder();
+                for (Map.Entry<String, JsonValue> m : ((JsonObject) value).entrySet()) {
+                    mb.add(m.getKey(), rewrite(m.getValue(), aliases));
+                }
+                b.add(key, mb);
+            } else {
+                b.add(key, rewrite(value, aliases));
+            }
+        }
+        JsonObject rewritten = b.build();
+        JsonValue folded = rewritten.size() == 1 ? fold(rewritten) : null;
+        if (folded != null) {
+            m_foldedExpressions++;
+            return folded;
+        }
+        return rewritten;
+    }
+
+    /**
+     * Folds arithmetic on number literals.
+     *
+     * @return the literal result or null if the expression cannot be folded
+     */
+    private static JsonValue fold(final JsonObject call) {
+        String op = call.keySet().iterator().next();
+        JsonValue args = call.get(op);
+        if (op.equals("u-")) {
+            JsonValue arg = args.getValueType() == JsonValue.ValueType.ARRAY && ((JsonArray) args).size() == 1
+                    ? ((JsonArray) args).get(0) : args;
+            if (arg.getValueType() != JsonValue.ValueType.NUMBER) {
+                return null;
+            }
+            return negate((JsonNumber) arg);
+        }
+        if (!Arrays.asList("+", "-", "*", "/").contains(op) || args.getValueType() != JsonValue.ValueType.ARRAY) {
+            return null;
+        }
+        JsonArray arr = (JsonArray) args;
+        if (arr.size() != 2 || arr.get(0).getValueType() != JsonValue.ValueType.NUMBER
+                || arr.get(1).getValueType() != JsonValue.ValueType.NUMBER) {
+            return null;
+        }
+        return apply(op, arr.getJsonNumber(0), arr.getJsonNumber(1));
+    }
+
+    private static JsonValue negate(final JsonNumber a) {
+        if (isIntLiteral(a)) {
+            try {
+                if (fitsInt(a)) {
+                    return Json.createArrayBuilder().add(Math.negateExact(a.intValueExact())).build().get(0);
+                }
+                return longLiteral(Math.negateExact(a.longValueExact()));
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+        return doubleLiteral(-a.doubleValue());
+    }
+
+    private static JsonValue apply(final String op, final JsonNumber a, final JsonNumber b) {
+        JsonArrayBuilder result = Json.createArrayBuilder();
+        // PFA's "/" always divides floating point numbers
+        if (isIntLiteral(a) && isIntLiteral(b) && !op.equals("/")) {
+            // Integer literals are ints if they fit, longs otherwise
+            boolean isLong = !fitsInt(a) || !fitsInt(b);
+            try {
+                long x = a.longValueExact();
+                long y = b.longValueExact();
+                long r = op.equals("+") ? Math.addExact(x, y) : op.equals("-") ? Math.subtractExact(x, y)
+                        : Math.multiplyExact(x, y);
+                if (isLong) {
+                    return longLiteral(r);
+                } else {
+                    // Overflowing ints raise an error at runtime, so we must not fold them
+                    result.add(Math.toIntExact(r));
+                }
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        } else {
+            double x = a.doubleValue();
+            double y = b.doubleValue();
+            double r = op.equals("+") ? x + y : op.equals("-") ? x - y : op.equals("*") ? x * y : x / y;
+            return doubleLiteral(r);
+        }
+        return result.build().get(0);
+    }
+
+    private static JsonValue longLiteral(final long r) {
+        if (r >= Integer.MIN_VALUE && r <= Integer.MAX_VALUE) {
+            // A plain literal would be read as int, which changes the type of the expression
+            return Json.createObjectBuilder().add("long", r).build();
+        }
+        return Json.createArrayBuilder().add(r).build().get(0);
+    }
+
+    private static JsonValue doubleLiteral(final double r) {
+        // Negative zero and non-finite values have no JSON literal that reads back identically
+        if (Double.isNaN(r) || Double.isInfinite(r) || (r == 0.0 && 1.0 / r < 0)) {
+            return null;
+        }
+        // A literal with a decimal point, so that PFA reads it as double
+        BigDecimal d = BigDecimal.valueOf(r);
+        return Json.createArrayBuilder().add(d.scale() > 0 ? d : d.setScale(1)).build().get(0);
+    }
+
+    /**
+     * PFA reads number literals without decimal point or exponent as int or long, all others as double.
+     */
+    private static boolean isIntLiteral(final JsonNumber n) {
+        String s = n.toString();
+        return n.isIntegral() && s.indexOf('.') < 0 && s.indexOf('e') < 0 && s.indexOf('E') < 0;
+    }
+
+    private static boolean fitsInt(final JsonNumber n) {
+        try {
+            n.intValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Collects all strings and object keys of an expression, which includes every referenced function and cell.
+     */
+    private static void collectSymbols(final JsonValue v, final Set<String> symbols) {
+        switch (v.getValueType()) {
+            case STRING:
+                symbols.add(((JsonString) v).getString());
+                break;
+            case ARRAY:
+                for (JsonValue e : (JsonArray) v) {
+                    collectSymbols(e, symbols);
+                }
+                break;
+            case OBJECT:
+                for (Map.Entry<String, JsonValue> e : ((JsonObject) v).entrySet()) {
+                    symbols.add(e.getKey());
+                    collectSymbols(e.getValue(), symbols);
+                }
+                break;
+            default:
+        }
+    }
+
+    private static boolean definesNamedType(final JsonValue v) {
+        if (v == null) {
+            return false;
+        }
+        switch (v.getValueType()) {
+            case ARRAY:
+                for (JsonValue e : (JsonArray) v) {
+                    if (definesNamedType(e)) {
+                        return true;
+                    }
+                }
+                return false;
+            case OBJECT:
+                JsonObject obj = (JsonObject) v;
+                JsonValue type = obj.get(TYPE_KEY);
+                if (type != null && type.getValueType() == JsonValue.ValueType.STRING
+                        && NAMED_TYPES.contains(((JsonString) type).getString())) {
+                    return true;
+                }
+                for (Map.Entry<String, JsonValue> e : obj.entrySet()) {
+                    if (definesNamedType(e.getValue())) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The result of an optimization.
+     */
+    public static final class Result {
+        private final JsonObject m_document;
+        private final int m_removedFunctions;
+        private final int m_removedCells;
+        private final int m_inlinedCalls;
+        private final int m_foldedExpressions;
+
+        private Result(final JsonObject document, final int removedFunctions, final int removedCells,
+                final int inlinedCalls, final int foldedExpressions) {
+            m_document = document;
+            m_removedFunctions = removedFunctions;
+            m_removedCells = removedCells;
+            m_inlinedCalls = inlinedCalls;
+            m_foldedExpressions = foldedExpressions;
+        }
+
+        /**
+         * @return the optimized document
+         */
+        public JsonObject getDocument() {
+            return m_document;
+        }
+
+        /**
+         * Reports what was changed in the document. The sizes are given by the caller, since the optimizer does
+         * not serialize the documents.
+         *
+         * @param originalSize the size of the original document's UTF-8 encoded JSON in bytes
+         * @param optimizedSize the size of the optimized document's UTF-8 encoded JSON in bytes
+         * @return the report
+         */
+        public OptimizationReport getReport(final long originalSize, final long optimizedSize) {
+            return new OptimizationReport(originalSize, optimizedSize, m_removedFunctions, m_removedCells,
+                m_inlinedCalls, m_foldedExpressions);
+        }
+    }
+}
@@ -51,7 +51,18 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import javax.json.Json;
 import javax.json.JsonException;
@@ -59,15 +70,18 @@
 import javax.swing.JComponent;
 
 import org.codehaus.jackson.map.ObjectMapper;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
-import com.opendatagroup.antinous.pfainterface.PFAEngineFactory;
 import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
 
+import de.unikn.knime.pfa.engine.PFAEngineCache;
+
 /**
  * PortObject storing PFA documents as JSON.
  * 
@@ -78,8 +92,17 @@ public class PFAPortObject implements PortObject {
     /** Convenience accessor for the port type. */
     public static final PortType TYPE = PortTypeRegistry.getInstance().getPortType(PFAPortObject.class);
 
+    // The document's JSON, shared with all port objects of the same document
+    private final DocumentBuffer m_buffer;
+    // The parsed document is only held strongly until it was compiled, afterwards the GC may drop it and it
+    // is parsed from the buffer again if needed
     private JsonObject m_pfaDocument;
+    private SoftReference<JsonObject> m_parsed;
     private PFAPortObjectSpec m_spec;
+    private OptimizationReport m_optimization;
+    private Future<?> m_precompiled;
+    // The channel publishing new versions of the document if it is watched, see ModelUpdates
+    private String m_updates;
 
     /**
      * Creates a PFAPortObject instance.
@@ -87,20 +110,117 @@ public class PFAPortObject implements PortObject {
      * @param pfaDocument the JsonObject representing the PFA document
      */
     public PFAPortObject(final JsonObject pfaDocument) {
+        this(pfaDocument, null);
+    }
+
+    /**
+     * Creates a PFAPortObject instance for a document that was rewritten by the {@link PFADocumentOptimizer}.
+     * 
+     * @param pfaDocument the JsonObject representing the PFA document
+     * @param optimization the report of the optimizer or null if the document was not optimized
+     */
+    public PFAPortObject(final JsonObject pfaDocument, final OptimizationReport optimization) {
+        this(pfaDocument, DocumentBuffer.of(pfaDocument.toString().getBytes(StandardCharsets.UTF_8)), optimization);
+    }
+
+    /**
+     * Creates a PFAPortObject for a parsed document whose JSON is already in a buffer.
+     * 
+     * @param pfaDocument the JsonObject representing the PFA document
+     * @param buffer the UTF-8 bytes of the document
+     * @param optimization the report of the optimizer or null if the document was not optimized
+     */
+    PFAPortObject(final JsonObject pfaDocument, final DocumentBuffer buffer, final OptimizationReport optimization) {
         // Document to be instantiated
         m_pfaDocument = pfaDocument;
+        m_parsed = new SoftReference<>(pfaDocument);
+        m_buffer = buffer;
         // spec of the document
         m_spec = PFAPortObjectSpec.fromJson(pfaDocument);
+        m_optimization = optimization;
     }
 
     /**
-     * Creates a new PFA scoring engine from the document in this port object.
+     * Creates a PFAPortObject for a document that is parsed on first access.
+     * 
+     * @param buffer the UTF-8 bytes of the document
+     * @param spec the spec of the document
+     * @param optimization the report of the optimizer or null if the document was not optimized
+     */
+    PFAPortObject(final DocumentBuffer buffer, final PFAPortObjectSpec spec,
+            final OptimizationReport optimization) {
+        m_buffer = buffer;
+        m_parsed = new SoftReference<>(null);
+        m_spec = spec;
+        m_optimization = optimization;
+    }
+
+    /**
+     * Creates a new PFA scoring engine from the document in this port object. The compiled document is taken
+     * from the {@link PFAEngineCache} if possible.
      * 
      * @return a <code>PFAEngine</code> instance
      */
     public PFAEngine<Object, Object> createEngine() {
-        PFAEngineFactory factory = new PFAEngineFactory();
-        return factory.engineFromJson(m_pfaDocument.toString());
+        PFAEngine<Object, Object> engine = PFAEngineCache.getInstance().createEngine(getDigest(), this::getJson);
+        releaseDocument();
+        return engine;
+    }
+
+    /**
+     * Creates several PFA scoring engines from the document in this port object. The document is compiled
+     * at most once and all engines share the generated classes, but each engine has its own state.
+     * 
+     * @param multiplicity the number of engines to create
+     * @return a list of <code>PFAEngine</code> instances
+     */
+    public List<PFAEngine<Object, Object>> createEngines(final int multiplicity) {
+        List<PFAEngine<Object, Object>> engines =
+            PFAEngineCache.getInstance().createEngines(getDigest(), this::getJson, multiplicity);
+        releaseDocument();
+        return engines;
+    }
+
+    /**
+     * Starts compiling the document on a background thread, so that the compilation overlaps with whatever runs
+     * until the first engine is created. Engines created meanwhile wait for it in the {@link PFAEngineCache}.
+     * Does nothing if background compilation is disabled with {@link PFAEngineCache#PRECOMPILE_PROPERTY}.
+     * 
+     * @return the future of the compilation, which fails if the document cannot be compiled, or null if
+     *         background compilation is disabled
+     */
+    public synchronized Future<?> precompile() {
+        if (m_precompiled == null && PFAEngineCache.isPrecompileEnabled()) {
+            m_precompiled = KNIMEConstants.GLOBAL_THREAD_POOL.enqueue((Callable<Void>)() -> {
+                PFAEngineCache.getInstance().compile(getDigest(), this::getJson);
+                releaseDocument();
+                return null;
+            });
+        }
+        return m_precompiled;
+    }
+
+    /**
+     * @return true if a background compilation was started with {@link #precompile()} and is still running
+     */
+    public synchronized boolean isPrecompiling() {
+        return m_precompiled != null && !m_precompiled.isDone();
+    }
+
+    /**
+     * Get the digest identifying the document.
+     * 
+     * @return the hex encoded SHA-256 digest of the document's JSON
+     */
+    public String getDigest() {
+        return m_buffer.getDigest();
+    }
+
+    /**
+     * Drops the strong reference to the parsed document once it is compiled.
+     */
+    private synchronized void releaseDocument() {
+        m_pfaDocument = null;
     }
 
     @Override
@@ -114,12 +234,13 @@ public String getSummary() {
     }
 
     /**
-     * Get the PFA document as string.
+     * Get the PFA document as string. The string is created on every call, so callers should not hold on to it
+     * for large documents.
      * 
      * @return The pfa document.
      */
     public String getJson() {
-        return m_pfaDocument.toString();
+        return m_buffer.toJsonString();
     }
 
     /**
@@ -127,8 +248,80 @@ public String getJson() {
      * 
      * @return The PFA object.
      */
-    public JsonObject getJsonObject() {
-        return m_pfaDocument;
+    public synchronized JsonObject getJsonObject() {
+        if (m_pfaDocument != null) {
+            return m_pfaDocument;
+        }
+        JsonObject doc = m_parsed.get();
+        if (doc == null) {
+            doc = Json.createReader(new InputStreamReader(m_buffer.openStream(), StandardCharsets.UTF_8))
+                    .readObject();
+            m_parsed = new SoftReference<>(doc);
+        }
+        return doc;
+    }
+
+    /**
+     * Tells whether the document's JSON is held on the heap or, for large documents, memory-mapped from a
+     * temporary file.
+     * 
+     * @return true if the document is memory-mapped
+     */
+    public boolean isDocumentMapped() {
+        return m_buffer.isMapped();
+    }
+
+    /**
+     * @return the UTF-8 bytes of the document
+     */
+    DocumentBuffer getBuffer() {
+        return m_buffer;
+    }
+
+    /**
+     * Creates a copy of this port object that reports the newest version of the document published on a channel
+     * of {@link ModelUpdates}.
+     * 
+     * @param updates the id of the channel
+     * @return a port object with the same document
+     */
+    public PFAPortObject withUpdates(final String updates) {
+        PFAPortObject copy = new PFAPortObject(m_buffer, m_spec, m_optimization);
+        copy.m_updates = updates;
+        return copy;
+    }
+
+    /**
+     * Returns the newest version of a watched document. Versions with a different spec are ignored, since nodes
+     * using the document cannot switch to them while running.
+     * 
+     * @return the newest compatible version of the document or this port object if there is none
+     */
+    public PFAPortObject getLatestVersion() {
+        PFAPortObject latest = m_updates == null ? null : ModelUpdates.latest(m_updates);
+        if (latest == null || latest.m_buffer == m_buffer || !latest.m_spec.equals(m_spec)) {
+            return this;
+        }
+        return latest;
+    }
+
+    /**
+     * Creates a copy of this port object with another optimization report, without parsing the document.
+     * 
+     * @param optimization the report of the optimizer
+     * @return a port object with the same document and the given report
+     */
+    PFAPortObject withOptimizationReport(final OptimizationReport optimization) {
+        return new PFAPortObject(m_buffer, m_spec, optimization);
+    }
+
+    /**
+     * Get the report of the optimizer.
+     * 
+     * @return what the optimizer changed in the document or null if the document was not optimized
+     */
+    public OptimizationReport getOptimizationReport() {
+        return m_optimization;
     }
 
     @Override
@@ -148,7 +341,50 @@ public JComponent[] getViews() {
      * @throws IOException when the document cannot be saved.
      */
     public void saveTo(final OutputStream out) throws IOException {
-        out.write(m_pfaDocument.toString().getBytes());
+        m_buffer.writeTo(out);
+    }
+
+    /**
+     * Writes the PFA document as deflate compressed UTF-8 to the output stream. Other than {@link #saveTo},
+     * this does not need the parsed document.
+     * 
+     * @param out the stream to save the document into, it is not closed
+     * @throws IOException when the document cannot be saved.
+     */
+    public void saveCompressedTo(final OutputStream out) throws IOException {
+        // Speed matters more than size for documents of hundreds of megabytes
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream dos = new DeflaterOutputStream(out, deflater, 1 << 16);
+            m_buffer.writeTo(dos);
+            dos.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Loads a PFAPortObject written by {@link #saveCompressedTo}. The document is parsed on first access.
+     * 
+     * @param in the stream to load the document from
+     * @param spec the spec of the port object
+     * @return a PFAPortObject for the document in the stream
+     * @throws IOException when the document cannot be loaded
+     */
+    public static PFAPortObject loadCompressed(final InputStream in, final PFAPortObjectSpec spec)
+            throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            InflaterInputStream iis = new InflaterInputStream(in, inflater, 1 << 16);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(1 << 16);
+            byte[] buffer = new byte[1 << 16];
+            for (int n = iis.read(buffer); n >= 0; n = iis.read(buffer)) {
+                bos.write(buffer, 0, n);
+            }
+            return new PFAPortObject(DocumentBuffer.of(bos.toByteArray()), spec, null);
+        } finally {
+            inflater.end();
+        }
     }
 
     /**
@@ -162,7 +398,30 @@ public void saveTo(final OutputStream out) throws IOException {
     public static PFAPortObject loadFromJson(final InputStream in) throws IOException, JsonException {
         return new PFAPortObject(Json.createReader(in).readObject());
     }
-    
+
+    /**
+     * Loads the PFAPortObject from the content of a JSON file. The document is validated and its types are
+     * extracted with a streaming parser, the document itself is only parsed on first access.
+     * 
+     * @param json the content of the file
+     * @return a PFAPortObject for the document
+     * @throws IOException when the document cannot be loaded
+     * @throws JsonException when the document's JSON cannot be parsed
+     */
+    public static PFAPortObject loadFromJson(final byte[] json) throws IOException, JsonException {
+        byte[] utf8 = json;
+        if (utf8.length >= 3 && utf8[0] == (byte)0xEF && utf8[1] == (byte)0xBB && utf8[2] == (byte)0xBF) {
+            utf8 = Arrays.copyOfRange(utf8, 3, utf8.length);
+        } else if (utf8.length >= 2 && (utf8[0] == 0 || utf8[1] == 0 || utf8[0] == (byte)0xFE
+                || utf8[0] == (byte)0xFF)) {
+            // UTF-16 or UTF-32, which the tree parser detects
+            return loadFromJson(new ByteArrayInputStream(json));
+        }
+        JsonObject types = DocumentScanner.scan(new InputStreamReader(new ByteArrayInputStream(utf8),
+            StandardCharsets.UTF_8), PFAPortObjectSpec.TYPE_KEYS, true);
+        return new PFAPortObject(DocumentBuffer.of(utf8), PFAPortObjectSpec.fromJson(types), null);
+    }
+
     /**
      * Reads a YAML file from an input stream.
      * @param in the InputStream to load the YAML from
@@ -170,6 +429,33 @@ public static PFAPortObject loadFromJson(final InputStream in) throws IOExceptio
      * @throws IOException when the document cannot be loaded
      */
     public static PFAPortObject loadFromYaml(final InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 16];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            bos.write(buffer, 0, n);
+        }
+        return loadFromYaml(bos.toByteArray());
+    }
+
+    /**
+     * Loads the PFAPortObject from the content of a YAML file. The YAML is converted to JSON in a single
+     * streaming pass if it only uses features with a JSON counterpart.
+     * 
+     * @param yaml the content of the file
+     * @return a PFAPortObject for the document
+     * @throws IOException when the document cannot be loaded
+     */
+    public static PFAPortObject loadFromYaml(final byte[] yaml) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(yaml.length);
+        try {
+            YamlToJson.convert(new UnicodeReader(new ByteArrayInputStream(yaml)), json);
+        } catch (YamlToJson.UnsupportedYamlException e) {
+            return loadFromYamlGraph(new ByteArrayInputStream(yaml));
+        }
+        return loadFromJson(json.toByteArray());
+    }
+
+    private static PFAPortObject loadFromYamlGraph(final InputStream in) throws IOException {
         // Since we store the PFA as JSON internally, we use SnakeYAML here to convert the YAML to JSON
         Yaml yaml = new Yaml();
         Object json = yaml.load(in);
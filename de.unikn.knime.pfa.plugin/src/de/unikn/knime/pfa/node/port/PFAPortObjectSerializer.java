@@ -48,8 +48,12 @@
 package de.unikn.knime.pfa.node.port;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.zip.ZipEntry;
 
+import javax.json.Json;
+
+import org.knime.core.data.util.NonClosableInputStream;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.port.PortObject.PortObjectSerializer;
@@ -57,6 +61,8 @@
 import org.knime.core.node.port.PortObjectZipInputStream;
 import org.knime.core.node.port.PortObjectZipOutputStream;
 
+import de.unikn.knime.pfa.engine.CompiledEngineArchive;
+
 /**
  * Class for writing and loading objects of {@link PFAPortObject} class.
  * 
@@ -65,21 +71,55 @@
  */
 public class PFAPortObjectSerializer extends PortObjectSerializer<PFAPortObject> {
 
+    // Port objects written before the compressed format existed store the plain JSON
     private static final String PFA_KEY = "pfa";
+    private static final String COMPRESSED_PFA_KEY = "pfa.deflate";
+    private static final String OPTIMIZATION_KEY = "optimization";
+    private static final String ENGINE_KEY = "engine";
 
     @Override
     public void savePortObject(final PFAPortObject portObject, final PortObjectZipOutputStream out,
             final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
-        ZipEntry pfa = new ZipEntry(PFA_KEY);
-        out.putNextEntry(pfa);
-        portObject.saveTo(out);
+        out.putNextEntry(new ZipEntry(COMPRESSED_PFA_KEY));
+        portObject.saveCompressedTo(out);
+        if (portObject.getOptimizationReport() != null) {
+            out.putNextEntry(new ZipEntry(OPTIMIZATION_KEY));
+            out.write(portObject.getOptimizationReport().toJson().toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (CompiledEngineArchive.isEnabled()) {
+            byte[] engine = CompiledEngineArchive.create(portObject.getDigest());
+            if (engine != null) {
+                out.putNextEntry(new ZipEntry(ENGINE_KEY));
+                out.write(engine);
+            }
+        }
     }
 
     @Override
     public PFAPortObject loadPortObject(final PortObjectZipInputStream in, final PortObjectSpec spec,
             final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
         ZipEntry pfa = in.getNextEntry();
-        assert pfa.getName().equals(PFA_KEY);
-        return PFAPortObject.loadFromJson(in);
+        PFAPortObject po;
+        if (pfa.getName().equals(COMPRESSED_PFA_KEY)) {
+            po = PFAPortObject.loadCompressed(new NonClosableInputStream(in), (PFAPortObjectSpec) spec);
+        } else {
+            assert pfa.getName().equals(PFA_KEY);
+            po = PFAPortObject.loadFromJson(new NonClosableInputStream(in));
+        }
+        // Port objects written before the optimizer existed have no further entries
+        for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+            if (entry.getName().equals(OPTIMIZATION_KEY)) {
+                OptimizationReport report = OptimizationReport.fromJson(
+                        Json.createReader(new NonClosableInputStream(in)).readObject());
+                po = po.withOptimizationReport(report);
+            } else if (entry.getName().equals(ENGINE_KEY) && CompiledEngineArchive.isEnabled()) {
+                CompiledEngineArchive.restore(new NonClosableInputStream(in), po.getDigest(),
+                        po.getBuffer().size());
+            }
+        }
+        // Only determines the structure of the document if its classes were restored above, otherwise the
+        // compilation overlaps with loading
+        po.precompile();
+        return po;
     }
 }
@@ -47,15 +47,23 @@
  */
 package de.unikn.knime.pfa.node.port;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 
+import javax.json.JsonException;
 import javax.json.JsonObject;
 import javax.json.JsonValue;
 import javax.swing.JComponent;
 
 import org.apache.avro.Schema;
-import org.apache.avro.Schema.Parser;
+import org.apache.avro.SchemaNormalization;
 import org.knime.core.data.util.NonClosableInputStream;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortObjectSpecZipInputStream;
@@ -73,6 +81,10 @@ public class PFAPortObjectSpec implements PortObjectSpec {
     private static final String INPUT_KEY = "input";
     private static final String OUTPUT_KEY = "output";
 
+    /** The top-level fields of a PFA document needed to create its spec. */
+    static final Set<String> TYPE_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(INPUT_KEY,
+        OUTPUT_KEY)));
+
     /**
      * Key for the output schema.
      */
@@ -89,12 +101,30 @@ public class PFAPortObjectSpec implements PortObjectSpec {
      * @param outputSchema The output schema describing the output of the PFA document.
      */
     public PFAPortObjectSpec(final Schema inputSchema, final Schema outputSchema) {
+        this(inputSchema, outputSchema, SchemaNormalization.parsingFingerprint64(inputSchema),
+            SchemaNormalization.parsingFingerprint64(outputSchema), null);
+    }
+
+    private PFAPortObjectSpec(final SchemaCache.Entry schemas) {
+        this(schemas.getInput(), schemas.getOutput(), schemas.getInputFingerprint(),
+            schemas.getOutputFingerprint(), schemas);
+    }
+
+    private PFAPortObjectSpec(final Schema inputSchema, final Schema outputSchema, final long inputFingerprint,
+            final long outputFingerprint, final SchemaCache.Entry schemas) {
         m_inputSchema = inputSchema;
         m_outputSchema = outputSchema;
+        m_inputFingerprint = inputFingerprint;
+        m_outputFingerprint = outputFingerprint;
+        m_schemas = schemas;
     }
 
+    // Keeps the cache entry of the schemas alive as long as this spec is used, null if they were not cached
+    private final SchemaCache.Entry m_schemas;
     private Schema m_inputSchema;
     private Schema m_outputSchema;
+    private long m_inputFingerprint;
+    private long m_outputFingerprint;
 
     /**
      * Get the input schema.
@@ -114,6 +144,39 @@ public Schema getOutputSchema() {
         return m_outputSchema;
     }
 
+    /**
+     * Get the fingerprint of the input schema, which is equal for schemas that only differ in documentation,
+     * aliases or defaults.
+     * 
+     * @return The 64 bit Avro parsing fingerprint of the input schema.
+     */
+    public long getInputFingerprint() {
+        return m_inputFingerprint;
+    }
+
+    /**
+     * Get the fingerprint of the output schema.
+     * 
+     * @return The 64 bit Avro parsing fingerprint of the output schema.
+     */
+    public long getOutputFingerprint() {
+        return m_outputFingerprint;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof PFAPortObjectSpec)) {
+            return false;
+        }
+        PFAPortObjectSpec other = (PFAPortObjectSpec) obj;
+        return m_inputFingerprint == other.m_inputFingerprint && m_outputFingerprint == other.m_outputFingerprint;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(m_inputFingerprint * 31 + m_outputFingerprint);
+    }
+
     @Override
     public JComponent[] getViews() {
         return null;
@@ -128,10 +191,10 @@ public JComponent[] getViews() {
     public void saveTo(final PortObjectSpecZipOutputStream out) throws IOException {
         ZipEntry input = new ZipEntry(INPUT_SCHEMA_KEY);
         out.putNextEntry(input);
-        out.write(m_inputSchema.toString().getBytes());
+        out.write(m_inputSchema.toString().getBytes(StandardCharsets.UTF_8));
         ZipEntry output = new ZipEntry(OUTPUT_SCHEMA_KEY);
         out.putNextEntry(output);
-        out.write(m_outputSchema.toString().getBytes());
+        out.write(m_outputSchema.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -145,12 +208,32 @@ public static PFAPortObjectSpec loadFrom(final PortObjectSpecZipInputStream in)
         NonClosableInputStream noCloseIn = new NonClosableInputStream(in);
         ZipEntry entry = in.getNextEntry();
         assert entry.getName().equals(INPUT_SCHEMA_KEY);
-        Parser p = new Schema.Parser();
-        Schema input = p.parse(noCloseIn);
+        String input = readText(noCloseIn);
         entry = in.getNextEntry();
         assert entry.getName().equals(OUTPUT_SCHEMA_KEY);
-        Schema output = p.parse(noCloseIn);
-        return new PFAPortObjectSpec(input, output);
+        String output = readText(noCloseIn);
+        return new PFAPortObjectSpec(SchemaCache.get(input, output));
+    }
+
+    private static String readText(final InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            bos.write(buffer, 0, n);
+        }
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates the {@link PFAPortObjectSpec} of a JSON document with a streaming parser, which only keeps the
+     * input and output types of the document in memory.
+     * 
+     * @param in stream over the JSON of a PFA document, it is not closed
+     * @return A {@link PFAPortObjectSpec} describing input and output of the PFA document
+     * @throws JsonException if the document is not valid JSON or has no types
+     */
+    public static PFAPortObjectSpec scan(final InputStream in) {
+        return fromJson(DocumentScanner.scan(in, TYPE_KEYS, false));
     }
 
     /**
@@ -162,9 +245,9 @@ public static PFAPortObjectSpec loadFrom(final PortObjectSpecZipInputStream in)
     public static PFAPortObjectSpec fromJson(final JsonObject pfaDocument) {
         JsonValue input = pfaDocument.get(INPUT_KEY);
         JsonValue output = pfaDocument.get(OUTPUT_KEY);
-        Parser p = new Schema.Parser();
-        Schema inputSchema = p.parse(input.toString());
-        Schema outputSchema = p.parse(output.toString());
-        return new PFAPortObjectSpec(inputSchema, outputSchema);
+        if (input == null || output == null) {
+            throw new JsonException("The PFA document has no input or output type");
+        }
+        return new PFAPortObjectSpec(SchemaCache.get(input.toString(), output.toString()));
     }
 }
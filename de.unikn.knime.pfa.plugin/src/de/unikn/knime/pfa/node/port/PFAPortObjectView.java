@@ -48,16 +48,27 @@
 package de.unikn.knime.pfa.node.port;
 
 import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import javax.swing.JComponent;
+import javax.swing.JLabel;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
+import javax.swing.JTree;
+import javax.swing.SwingWorker;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
 
 /**
- * View for displaying the JSON representation of a {@link PFAPortObject}.
+ * View for displaying the JSON representation of a {@link PFAPortObject}. The document is shown as a tree
+ * whose nodes are collapsed at first. The children of a node are read with a streaming parser on a background
+ * thread when it is expanded, so the view opens immediately and only holds the expanded parts of the document.
+ * Objects and arrays with many children are split into pages.
  * 
  * @author Mete Can Akar
  *
@@ -67,6 +78,16 @@ public class PFAPortObjectView extends JComponent {
     private static final long serialVersionUID = 1L;
     private static final String COMPONENT_NAME = "PFA Document";
 
+    // Larger objects and arrays are split into pages of this many children
+    private static final int PAGE_SIZE = 500;
+
+    // The number of members of the root is only known after reading it
+    private static final int UNKNOWN_SIZE = Integer.MAX_VALUE;
+
+    private final transient PFAPortObject m_obj;
+    private final DefaultTreeModel m_model;
+    private final JTree m_tree;
+
     /**
      * Constructor of the PFAPortObjectView.
      * 
@@ -74,26 +95,138 @@ public class PFAPortObjectView extends JComponent {
      */
     public PFAPortObjectView(final PFAPortObject obj) {
         setLayout(new BorderLayout());
-
-        JTextArea json = new JTextArea();
-        json.setEditable(false);
         setName(COMPONENT_NAME);
+        m_obj = obj;
+
+        if (obj.getOptimizationReport() != null) {
+            add(new JLabel(obj.getOptimizationReport().toString()), BorderLayout.NORTH);
+        }
+
+        JsonNode root = new JsonNode("PFA document", Collections.emptyList(), UNKNOWN_SIZE, true);
+        m_model = new DefaultTreeModel(root);
+        m_tree = new JTree(m_model);
+        m_tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(final TreeExpansionEvent event) {
+                load((JsonNode) event.getPath().getLastPathComponent());
+            }
+
+            @Override
+            public void treeWillCollapse(final TreeExpansionEvent event) {
+                // Loaded children are kept
+            }
+        });
+        add(new JScrollPane(m_tree), BorderLayout.CENTER);
+        // Expanding the root starts reading its members
+        m_tree.expandRow(0);
+    }
+
+    /**
+     * Reads the children of a node in the background if they are not loaded yet.
+     */
+    private void load(final JsonNode node) {
+        if (node.m_loading) {
+            return;
+        }
+        node.m_loading = true;
+        if (node.m_size > PAGE_SIZE && node.m_size != UNKNOWN_SIZE && node.m_from < 0) {
+            // Pages are created without reading the document, their children are read on expansion
+            node.removeAllChildren();
+            for (int from = 0; from < node.m_size; from += PAGE_SIZE) {
+                int to = Math.min(from + PAGE_SIZE, node.m_size);
+                node.add(new JsonNode(node, from, to));
+            }
+            m_model.nodeStructureChanged(node);
+            return;
+        }
+        int from = Math.max(node.m_from, 0);
+        int to = node.m_from < 0 ? node.m_size : node.m_to;
+        new SwingWorker<List<DocumentOutline.Item>, Void>() {
+            @Override
+            protected List<DocumentOutline.Item> doInBackground() {
+                return DocumentOutline.list(m_obj.getBuffer().openStream(), node.m_path, from, to);
+            }
 
-        ScriptEngineManager manager = new ScriptEngineManager();
-        ScriptEngine scriptEngine = manager.getEngineByName("JavaScript");
-        if (scriptEngine == null) {
-            json.setText(obj.getJson());
-        } else {
-            scriptEngine.put("jsonString", obj.getJson());
-            try {
-                scriptEngine.eval("result = JSON.stringify(JSON.parse(jsonString), null, 2)");
-                json.setText((String) scriptEngine.get("result"));
-            } catch (ScriptException e) {
-                json.setText("The JSON could not be parsed");
+            @Override
+            protected void done() {
+                node.removeAllChildren();
+                try {
+                    for (DocumentOutline.Item item : get()) {
+                        node.add(new JsonNode(node, item));
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    node.add(new DefaultMutableTreeNode("The document could not be read: " + cause.getMessage(),
+                        false));
+                }
+                m_model.nodeStructureChanged(node);
+                m_tree.expandPath(new TreePath(node.getPath()));
             }
-    
-            JScrollPane scroller = new JScrollPane(json);
-            add(scroller, BorderLayout.CENTER);
+        }.execute();
+    }
+
+    /**
+     * A node of the document tree. Nodes of objects and arrays start with a placeholder child that is replaced
+     * once they are expanded.
+     */
+    private static final class JsonNode extends DefaultMutableTreeNode {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Object> m_path;
+        private final int m_size;
+        // The range of children of a page, -1 for nodes that are no page
+        private final int m_from;
+        private final int m_to;
+        private boolean m_loading;
+
+        /**
+         * Creates a node for an object or array.
+         */
+        JsonNode(final String label, final List<Object> path, final int size, final boolean container) {
+            super(label, container);
+            m_path = path;
+            m_size = size;
+            m_from = -1;
+            m_to = -1;
+            if (container) {
+                add(new DefaultMutableTreeNode("Loading...", false));
+            }
+        }
+
+        /**
+         * Creates a node for a child.
+         */
+        JsonNode(final JsonNode parent, final DocumentOutline.Item item) {
+            this(label(item), child(parent.m_path, item.getKey()), item.getSize(), item.getSize() >= 0);
+        }
+
+        /**
+         * Creates a page of the children of an object or array.
+         */
+        JsonNode(final JsonNode parent, final int from, final int to) {
+            super("[" + from + " ... " + (to - 1) + "]", true);
+            m_path = parent.m_path;
+            m_size = to - from;
+            m_from = from;
+            m_to = to;
+            add(new DefaultMutableTreeNode("Loading...", false));
+        }
+
+        private static String label(final DocumentOutline.Item item) {
+            String key = item.getKey() instanceof String ? "\"" + item.getKey() + "\"" : "[" + item.getKey() + "]";
+            if (item.getSize() < 0) {
+                return key + ": " + item.getValue();
+            }
+            return item.isObject() ? key + ": { " + item.getSize() + (item.getSize() == 1 ? " member }" : " members }")
+                : key + ": [ " + item.getSize() + (item.getSize() == 1 ? " element ]" : " elements ]");
+        }
+
+        private static List<Object> child(final List<Object> path, final Object key) {
+            List<Object> child = new ArrayList<>(path.size() + 1);
+            child.addAll(path);
+            child.add(key);
+            return child;
         }
     }
 }
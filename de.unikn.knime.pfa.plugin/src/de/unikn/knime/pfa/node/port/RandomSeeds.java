@@ -0,0 +1,130 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+/**
+ * Helpers for reproducible random numbers in PFA documents that call <code>rand.*</code> functions. The input
+ * is cut into partitions of {@link #PARTITION_SIZE} rows that do not depend on the number of threads, and the
+ * random generator of the engine scoring a partition is reset to a seed derived from a master seed and the
+ * partition's index. This way the partitions can be scored in parallel and in any order while the results stay
+ * the same. Engines are seeded with the master seed itself before <code>begin</code>.
+ *
+ * @author agent
+ */
+public final class RandomSeeds {
+
+    /**
+     * The number of rows in a partition. Changing it changes the random numbers of seeded runs.
+     */
+    public static final int PARTITION_SIZE = 4096;
+
+    private static final String TO_KEY = "to";
+
+    private RandomSeeds() {
+    }
+
+    /**
+     * Derives the seed of a partition with the SplitMix64 finalizer, so that the seeds of neighboring
+     * partitions are statistically independent.
+     *
+     * @param masterSeed the master seed
+     * @param partition the index of the partition
+     * @return the seed for the partition
+     */
+    public static long partitionSeed(final long masterSeed, final long partition) {
+        long z = masterSeed + (partition + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Checks whether a document writes to cells or pools. The outputs of such documents depend on all previous
+     * inputs, so their partitions must be scored one after another by a single engine.
+     *
+     * @param doc the PFA document
+     * @return true if the document contains a cell or pool assignment
+     */
+    public static boolean writesState(final JsonObject doc) {
+        for (String key : new String[] {"action", "begin", "end", "merge", "fcns"}) {
+            if (doc.containsKey(key) && containsAssignment(doc.get(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAssignment(final JsonValue v) {
+        switch (v.getValueType()) {
+            case ARRAY:
+                for (JsonValue e : (JsonArray) v) {
+                    if (containsAssignment(e)) {
+                        return true;
+                    }
+                }
+                return false;
+            case OBJECT:
+                JsonObject obj = (JsonObject) v;
+                if (obj.containsKey(TO_KEY) && (obj.containsKey("cell") || obj.containsKey("pool"))) {
+                    return true;
+                }
+                for (JsonValue e : obj.values()) {
+                    if (containsAssignment(e)) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * Interns the parsed input and output schemas of PFA documents, so that specs of the same document share their
+ * {@link Schema} instances and the schemas are parsed once instead of on every spec load or port object creation.
+ * The cache only weakly references its entries. Each spec created from an entry holds it, so an entry stays in the
+ * cache as long as a spec of its types is in use and disappears after that.
+ *
+ * @author agent
+ */
+final class SchemaCache {
+
+    private static final Map<String, WeakReference<Entry>> CACHE = new ConcurrentHashMap<>();
+
+    private SchemaCache() {
+    }
+
+    /**
+     * Returns the parsed schemas for the JSON of an input and output type. The output type may refer to named
+     * types defined in the input type.
+     *
+     * @param input the JSON of the input type
+     * @param output the JSON of the output type
+     * @return the parsed schemas and their fingerprints
+     */
+    static Entry get(final String input, final String output) {
+        // JSON text cannot contain a raw NUL, so the key is unambiguous
+        String key = input + '\u0000' + output;
+        WeakReference<Entry> ref = CACHE.get(key);
+        Entry entry = ref == null ? null : ref.get();
+        if (entry == null) {
+            Schema.Parser p = new Schema.Parser();
+            Schema inputSchema = p.parse(input);
+            entry = new Entry(inputSchema, p.parse(output));
+            CACHE.put(key, new WeakReference<>(entry));
+            CACHE.values().removeIf(r -> r.get() == null);
+        }
+        return entry;
+    }
+
+    /**
+     * Parsed input and output schemas with their Avro parsing fingerprints.
+     */
+    static final class Entry {
+        private final Schema m_input;
+        private final Schema m_output;
+        private final long m_inputFingerprint;
+        private final long m_outputFingerprint;
+
+        private Entry(final Schema input, final Schema output) {
+            m_input = input;
+            m_output = output;
+            m_inputFingerprint = SchemaNormalization.parsingFingerprint64(input);
+            m_outputFingerprint = SchemaNormalization.parsingFingerprint64(output);
+        }
+
+        Schema getInput() {
+            return m_input;
+        }
+
+        Schema getOutput() {
+            return m_output;
+        }
+
+        long getInputFingerprint() {
+            return m_inputFingerprint;
+        }
+
+        long getOutputFingerprint() {
+            return m_outputFingerprint;
+        }
+    }
+}
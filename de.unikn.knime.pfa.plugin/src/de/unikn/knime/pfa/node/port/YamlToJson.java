@@ -0,0 +1,245 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.port;
+
+import java.io.OutputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * Converts a YAML document to JSON in a single pass over SnakeYAML's parser events, so that no object graph of the
+ * document is built. Scalars are typed like SnakeYAML does when loading a document. Documents using YAML features
+ * that have no direct JSON counterpart, such as aliases, complex keys or non-decimal numbers, are rejected with
+ * {@link UnsupportedYamlException} and have to be loaded the conventional way.
+ *
+ * @author agent
+ */
+final class YamlToJson {
+
+    private static final Pattern DECIMAL_INT = Pattern.compile("[-+]?(0|[1-9][0-9]*)");
+    private static final Pattern DECIMAL_FLOAT =
+        Pattern.compile("[-+]?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)([eE][-+]?[0-9]+)?");
+
+    private final Resolver m_resolver = new Resolver();
+    private final JsonGenerator m_generator;
+    // One entry per open mapping or sequence, holding the pending key of a mapping
+    private final Deque<Frame> m_frames = new ArrayDeque<>();
+
+    private YamlToJson(final OutputStream out) {
+        m_generator = Json.createGenerator(out);
+    }
+
+    /**
+     * Converts the first document of a YAML stream to JSON.
+     *
+     * @param in the YAML to convert
+     * @param out the stream the UTF-8 encoded JSON is written to
+     * @throws UnsupportedYamlException if the document uses a feature the conversion does not support
+     */
+    static void convert(final Reader in, final OutputStream out) throws UnsupportedYamlException {
+        YamlToJson converter = new YamlToJson(out);
+        for (Event e : new Yaml().parse(in)) {
+            if (e.is(Event.ID.DocumentEnd)) {
+                break;
+            }
+            converter.handle(e);
+        }
+        converter.m_generator.close();
+    }
+
+    private void handle(final Event e) throws UnsupportedYamlException {
+        if (e.is(Event.ID.MappingStart)) {
+            startCollection(true);
+        } else if (e.is(Event.ID.SequenceStart)) {
+            startCollection(false);
+        } else if (e.is(Event.ID.MappingEnd) || e.is(Event.ID.SequenceEnd)) {
+            m_frames.pop();
+            m_generator.writeEnd();
+        } else if (e.is(Event.ID.Scalar)) {
+            scalar((ScalarEvent) e);
+        } else if (e.is(Event.ID.Alias)) {
+            throw new UnsupportedYamlException("YAML aliases are not supported");
+        }
+        // Stream and document start carry no content
+    }
+
+    private void startCollection(final boolean mapping) throws UnsupportedYamlException {
+        String name = takeName();
+        if (mapping) {
+            if (name == null) {
+                m_generator.writeStartObject();
+            } else {
+                m_generator.writeStartObject(name);
+            }
+        } else {
+            if (name == null) {
+                m_generator.writeStartArray();
+            } else {
+                m_generator.writeStartArray(name);
+            }
+        }
+        m_frames.push(new Frame(mapping));
+    }
+
+    /**
+     * @return the key for the next value in the current mapping or null if the value is in a sequence
+     */
+    private String takeName() throws UnsupportedYamlException {
+        Frame frame = m_frames.peek();
+        if (frame == null || !frame.m_mapping) {
+            return null;
+        }
+        if (frame.m_key == null) {
+            throw new UnsupportedYamlException("Only scalar keys are supported in YAML mappings");
+        }
+        String key = frame.m_key;
+        frame.m_key = null;
+        return key;
+    }
+
+    private void scalar(final ScalarEvent e) throws UnsupportedYamlException {
+        Tag tag = e.getTag() == null || e.getTag().equals("!")
+            ? m_resolver.resolve(NodeId.scalar, e.getValue(), e.getImplicit().canOmitTagInPlainScalar())
+            : new Tag(e.getTag());
+        String value = e.getValue();
+        Frame frame = m_frames.peek();
+        if (frame != null && frame.m_mapping && frame.m_key == null) {
+            // Keys become strings, like Jackson writes the keys SnakeYAML loads
+            frame.m_key = Tag.BOOL.equals(tag) ? String.valueOf(bool(value))
+                : Tag.NULL.equals(tag) ? "null" : value;
+            return;
+        }
+        String name = takeName();
+        if (Tag.STR.equals(tag)) {
+            write(name, value);
+        } else if (Tag.NULL.equals(tag)) {
+            if (name == null) {
+                m_generator.writeNull();
+            } else {
+                m_generator.writeNull(name);
+            }
+        } else if (Tag.BOOL.equals(tag)) {
+            if (name == null) {
+                m_generator.write(bool(value));
+            } else {
+                m_generator.write(name, bool(value));
+            }
+        } else if (Tag.INT.equals(tag)) {
+            String digits = value.replace("_", "");
+            if (!DECIMAL_INT.matcher(digits).matches()) {
+                throw new UnsupportedYamlException("Unsupported YAML integer " + value);
+            }
+            BigInteger number = new BigInteger(digits.startsWith("+") ? digits.substring(1) : digits);
+            if (name == null) {
+                m_generator.write(number);
+            } else {
+                m_generator.write(name, number);
+            }
+        } else if (Tag.FLOAT.equals(tag)) {
+            String digits = value.replace("_", "");
+            if (!DECIMAL_FLOAT.matcher(digits).matches()) {
+                throw new UnsupportedYamlException("Unsupported YAML float " + value);
+            }
+            BigDecimal number = new BigDecimal(digits.startsWith("+") ? digits.substring(1) : digits);
+            if (name == null) {
+                m_generator.write(number);
+            } else {
+                m_generator.write(name, number);
+            }
+        } else {
+            throw new UnsupportedYamlException("Unsupported YAML type " + tag);
+        }
+    }
+
+    private void write(final String name, final String value) {
+        if (name == null) {
+            m_generator.write(value);
+        } else {
+            m_generator.write(name, value);
+        }
+    }
+
+    private static boolean bool(final String value) {
+        String v = value.toLowerCase();
+        return v.equals("true") || v.equals("yes") || v.equals("on");
+    }
+
+    private static final class Frame {
+        private final boolean m_mapping;
+        private String m_key;
+
+        Frame(final boolean mapping) {
+            m_mapping = mapping;
+        }
+    }
+
+    /**
+     * Thrown if a YAML document cannot be converted by streaming.
+     */
+    static final class UnsupportedYamlException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedYamlException(final String message) {
+            super(message);
+        }
+    }
+}
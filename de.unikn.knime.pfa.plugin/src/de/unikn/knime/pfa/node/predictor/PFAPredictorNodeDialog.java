@@ -58,12 +58,19 @@
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.NotConfigurableException;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentColumnNameSelection;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
 import org.knime.core.node.defaultnodesettings.DialogComponentString;
+import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.node.port.PortObjectSpec;
 
 import de.unikn.knime.pfa.data.KnimeAvroConverterRegistry;
+import de.unikn.knime.pfa.fastpath.FastPathMode;
 import de.unikn.knime.pfa.node.port.PFAPortObjectSpec;
 
 /**
@@ -77,9 +84,17 @@ public class PFAPredictorNodeDialog extends NodeDialogPane {
      */
     private SettingsModelString m_colNameStringModel;
     private SettingsModelString m_inputColModel;
+    private SettingsModelString m_fastPathModel;
     private JPanel m_main;
     private DialogComponentColumnNameSelection m_inputDialogComp;
     private DialogComponentString m_outputComp;
+    private DialogComponentStringSelection m_fastPathComp;
+    private SettingsModelBoolean m_seededModel;
+    private SettingsModelInteger m_masterSeedModel;
+    private SettingsModelIntegerBounded m_threadsModel;
+    private DialogComponentBoolean m_seededComp;
+    private DialogComponentNumber m_masterSeedComp;
+    private DialogComponentNumber m_threadsComp;
     /**
      * Creates a new instance of {@link PFAPredictorNodeDialog}.
      */
@@ -87,10 +102,31 @@ protected PFAPredictorNodeDialog() {
         super();
         m_colNameStringModel = PFAPredictorNodeModel.createColumnNameModel();
         m_inputColModel = PFAPredictorNodeModel.createInputColumnModel();
+        m_fastPathModel = PFAPredictorNodeModel.createFastPathModel();
+        m_fastPathComp = new DialogComponentStringSelection(m_fastPathModel, "Native fast path", FastPathMode.labels());
         
         m_main = new JPanel();
         m_main.setLayout(new BoxLayout(m_main, BoxLayout.Y_AXIS));
         addTab("General", m_main);
+        
+        m_seededModel = PFAPredictorNodeModel.createSeededModel();
+        m_masterSeedModel = PFAPredictorNodeModel.createMasterSeedModel();
+        m_threadsModel = PFAPredictorNodeModel.createThreadsModel();
+        m_seededComp = new DialogComponentBoolean(m_seededModel, "Reproducible random numbers");
+        m_masterSeedComp = new DialogComponentNumber(m_masterSeedModel, "Master seed", 1);
+        m_threadsComp = new DialogComponentNumber(m_threadsModel, "Threads", 1);
+        m_seededModel.addChangeListener(e -> updateSeedEnabled());
+        JPanel random = new JPanel();
+        random.setLayout(new BoxLayout(random, BoxLayout.Y_AXIS));
+        random.add(m_seededComp.getComponentPanel());
+        random.add(m_masterSeedComp.getComponentPanel());
+        random.add(m_threadsComp.getComponentPanel());
+        addTab("Random numbers", random);
+    }
+    
+    private void updateSeedEnabled() {
+        m_masterSeedModel.setEnabled(m_seededModel.getBooleanValue());
+        m_threadsModel.setEnabled(m_seededModel.getBooleanValue());
     }
     
     @Override
@@ -128,11 +164,22 @@ protected void loadSettingsFrom(final NodeSettingsRO settings, final PortObjectS
         if (!hasSettings) {
             m_main.add(new JLabel("Input and output settings are read from the PFA scoring engine"));
         }
+        m_fastPathComp.loadSettingsFrom(settings, specs);
+        m_main.add(m_fastPathComp.getComponentPanel());
+        
+        m_seededComp.loadSettingsFrom(settings, specs);
+        m_masterSeedComp.loadSettingsFrom(settings, specs);
+        m_threadsComp.loadSettingsFrom(settings, specs);
+        updateSeedEnabled();
     }
     
     @Override
     protected void saveSettingsTo(final NodeSettingsWO settings) throws InvalidSettingsException {
         m_colNameStringModel.saveSettingsTo(settings);
         m_inputColModel.saveSettingsTo(settings);
+        m_fastPathModel.saveSettingsTo(settings);
+        m_seededModel.saveSettingsTo(settings);
+        m_masterSeedModel.saveSettingsTo(settings);
+        m_threadsModel.saveSettingsTo(settings);
     }
 }
@@ -49,13 +49,23 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -64,7 +74,6 @@
 import org.apache.avro.Schema.Field;
 import org.apache.avro.Schema.Type;
 import org.knime.core.data.DataCell;
-import org.knime.core.data.DataColumnSpec;
 import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
@@ -72,6 +81,7 @@
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataValue;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
@@ -79,15 +89,20 @@
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.util.MutableInteger;
+import org.knime.core.util.ThreadPool;
 
 import com.opendatagroup.hadrian.ast.Method;
 import com.opendatagroup.hadrian.data.PFAMap;
@@ -95,9 +110,15 @@
 import com.opendatagroup.hadrian.jvmcompiler.PFAEmitEngine;
 import com.opendatagroup.hadrian.jvmcompiler.PFAEngine;
 
+import de.unikn.knime.pfa.data.BatchInputConverter;
+import de.unikn.knime.pfa.data.ColumnBatch;
 import de.unikn.knime.pfa.data.KnimeAvroConverterRegistry;
+import de.unikn.knime.pfa.fastpath.FastPathMode;
+import de.unikn.knime.pfa.fastpath.FastPathModel;
+import de.unikn.knime.pfa.fastpath.FastPaths;
 import de.unikn.knime.pfa.node.port.PFAPortObject;
 import de.unikn.knime.pfa.node.port.PFAPortObjectSpec;
+import de.unikn.knime.pfa.node.port.RandomSeeds;
 import scala.runtime.BoxedUnit;
 
 /**
@@ -111,6 +132,12 @@ public class PFAPredictorNodeModel extends NodeModel {
     
     private static final String CFG_OUTPUT_COLUMN = "colNameStringModel";
     private static final String CFG_INPUT_COLUMN = "inputColumn";
+    private static final String CFG_FAST_PATH = "fastPath";
+    private static final String CFG_SEEDED = "reproducibleRandom";
+    private static final String CFG_MASTER_SEED = "masterSeed";
+    private static final String CFG_THREADS = "threads";
+    
+    private static final long POLL_INTERVAL_MS = 200;
 
     /**
      * Creates a new settings object holding the output column name.
@@ -128,8 +155,52 @@ public static SettingsModelString createInputColumnModel() {
         return new SettingsModelString(CFG_INPUT_COLUMN, null);
     }
     
+    /**
+     * Creates a new settings object holding the mode for native fast paths.
+     * @return SettingsModelString for the fast path mode
+     */
+    public static SettingsModelString createFastPathModel() {
+        return new SettingsModelString(CFG_FAST_PATH, FastPathMode.AUTO.getLabel());
+    }
+    
     private final SettingsModelString m_colName = createColumnNameModel();
     private final SettingsModelString m_inputCol = createInputColumnModel();
+    /**
+     * Creates a new settings object telling whether random numbers are seeded per partition.
+     * @return SettingsModelBoolean for reproducible random numbers
+     */
+    public static SettingsModelBoolean createSeededModel() {
+        return new SettingsModelBoolean(CFG_SEEDED, false);
+    }
+    
+    /**
+     * Creates a new settings object holding the master seed.
+     * @return SettingsModelInteger for the master seed
+     */
+    public static SettingsModelInteger createMasterSeedModel() {
+        return new SettingsModelInteger(CFG_MASTER_SEED, 42);
+    }
+    
+    /**
+     * Creates a new settings object holding the number of threads used with reproducible random numbers.
+     * @return SettingsModelIntegerBounded for the number of threads
+     */
+    public static SettingsModelIntegerBounded createThreadsModel() {
+        return new SettingsModelIntegerBounded(CFG_THREADS, Runtime.getRuntime().availableProcessors(), 1,
+                Integer.MAX_VALUE);
+    }
+    
+    private final SettingsModelString m_fastPath = createFastPathModel();
+    private final SettingsModelBoolean m_seeded = createSeededModel();
+    private final SettingsModelInteger m_masterSeed = createMasterSeedModel();
+    private final SettingsModelIntegerBounded m_threads = createThreadsModel();
+
+    // What was found in the last document, so that executing again with the same document does not parse it
+    private String m_recognizedDigest;
+    private DataTableSpec m_recognizedSpec;
+    private FastPathModel m_recognized;
+    private String m_stateDigest;
+    private boolean m_writesState;
     
     /**
      * Constructor for the node model.
@@ -146,15 +217,21 @@ protected PortObject[] execute(final PortObject[] inData, final ExecutionContext
         PFAPortObject pfa = (PFAPortObject) inData[0];
         BufferedDataTable table = (BufferedDataTable) inData[1];
 
-        PFAEngine<Object, Object> engine = pfa.createEngine();
+        // Creating the engine waits for a compilation that was started when the document was loaded
+        exec.setMessage(pfa.isPrecompiling() ? () -> "Waiting for the PFA document to be compiled."
+            : () -> "Compiling PFA document.");
+        PFAEngine<Object, Object> engine = seed(pfa.createEngine());
 
         BufferedDataTable result;
         if (engine.outputType().schema().getType() == Type.MAP) {
             // When the result is a map, results need to be cached and the table created after all key are known
             result = runEngineMap(table, engine, exec);
+        } else if (m_seeded.getBooleanValue() && engine.method() == Method.MAP()) {
+            // Partitions with their own seeds can be scored in parallel without changing the results
+            result = runEnginePartitioned(table, pfa, engine, exec);
         } else {
             // Otherwise we can create the table on-the-fly
-            result = runEngine(table, engine, exec);
+            result = runEngine(table, pfa, engine, exec);
         }
         
         return new PortObject[] {result};
@@ -165,9 +242,9 @@ private BufferedDataTable runEngineMap(final BufferedDataTable table, final PFAE
         
         // This set holds all encountered keys of the output maps
         final Set<String> keys = new LinkedHashSet<String>();
-        // Mapper for converting the input cells to Avro types
-        final Function<DataRow, Object> inputMapper = createInputMapper(table.getDataTableSpec(), engine.inputClass(),
-                engine.inputType().schema());
+        // Converter for turning blocks of input rows into Avro types
+        final BatchInputConverter inputConverter = createInputConverter(table.getDataTableSpec(),
+                engine.inputClass(), engine.inputType().schema());
         
         Schema valueSchema = engine.outputType().schema().getValueType();
         if (valueSchema.getType() == Type.MAP || valueSchema.getType() == Type.RECORD) {
@@ -199,17 +276,24 @@ public BoxedUnit apply(final Object res) {
         exec.setMessage(() -> "Running initializing PFA code.");
         engine.begin();
         exec.setMessage(() -> "Running prediction PFA code.");
-        int count = 0;
-
-        for (DataRow row : table) {
-            exec.checkCanceled();
-            exec.setProgress((double) count++ / table.size());
-            Object pfaInput = inputMapper.apply(row);
-            PFAMap<?> result = (PFAMap<?>)engine.action(pfaInput);
-            addKeysToSet(result, keys);
-            
-            if (engine.method() != Method.EMIT()) {
-                resultCache.put(row.getKey().getString(), result);
+        long count = 0;
+
+        ColumnBatch batch = inputConverter.createBatch(BatchInputConverter.DEFAULT_BATCH_SIZE);
+        Object[] pfaInputs = new Object[batch.capacity()];
+        try (CloseableRowIterator it = table.iterator()) {
+            while (inputConverter.read(it, batch) > 0) {
+                exec.checkCanceled();
+                inputConverter.assemble(batch, pfaInputs);
+                for (int i = 0; i < batch.size(); i++) {
+                    PFAMap<?> result = (PFAMap<?>)engine.action(pfaInputs[i]);
+                    addKeysToSet(result, keys);
+
+                    if (engine.method() != Method.EMIT()) {
+                        resultCache.put(batch.getRowKey(i).getString(), result);
+                    }
+                }
+                count += batch.size();
+                exec.setProgress((double) count / table.size());
             }
         }
 
@@ -245,13 +329,21 @@ private DataTableSpec createMapOutputSpec(final Set<String> keys, final DataType
         return creator.createSpec();
     }
     
-    private BufferedDataTable runEngine(final BufferedDataTable table, final PFAEngine<Object, Object> engine,
-            final ExecutionContext exec) throws InvalidSettingsException, CanceledExecutionException {
+    private BufferedDataTable runEngine(final BufferedDataTable table, final PFAPortObject pfa,
+            final PFAEngine<Object, Object> first, final ExecutionContext exec)
+            throws InvalidSettingsException, CanceledExecutionException {
+        PFAEngine<Object, Object> engine = first;
         
-        // Mapper for converting the input cells to Avro types
-        Function<DataRow, Object> inputMapper = createInputMapper(table.getDataTableSpec(), engine.inputClass(),
+        // Converter for turning blocks of input rows into Avro types
+        BatchInputConverter inputConverter = createInputConverter(table.getDataTableSpec(), engine.inputClass(),
                 engine.inputType().schema());
         
+        // Well-known model families can be scored natively, rows the fast path cannot handle go to the engine
+        FastPathMode mode = FastPathMode.fromLabel(m_fastPath.getStringValue());
+        FastPathModel fastPath = recognizeFastPath(mode, engine, pfa, table.getDataTableSpec(), inputConverter);
+        final boolean verify = mode == FastPathMode.VERIFY;
+        long mismatches = 0;
+        
         // Create the output spec from the engine's info on the output type
         DataTableSpec outputSpec = KnimeAvroConverterRegistry.getInstance()
                 .dataTableSpecFromSchema(engine.outputType().schema(), m_colName.getStringValue());
@@ -259,7 +351,8 @@ private BufferedDataTable runEngine(final BufferedDataTable table, final PFAEngi
         BufferedDataContainer output = exec.createDataContainer(outputSpec);
         
         // Mapper for converting the output to a KNIME table row
-        BiFunction<RowKey, Object, DataRow> outputMapper = createOutputMapper(engine);
+        final BiFunction<RowKey, Object, DataRow> outputMapper = createOutputMapper(engine);
+        BiFunction<RowKey, Object, DataRow> rowMapper = outputMapper;
 
         if (engine.method() == Method.EMIT()) {
             MutableInteger outCount = new MutableInteger(-1);
@@ -276,25 +369,244 @@ public BoxedUnit apply(final Object res) {
         exec.setMessage(() -> "Running initializing PFA code.");
         engine.begin();
         exec.setMessage(() -> "Running prediction PFA code.");
-        int count = 0;
-
-        for (DataRow row : table) {
-            exec.checkCanceled();
-            exec.setProgress((double) count++ / table.size());
-            Object pfaInput = inputMapper.apply(row);
-            Object result = engine.action(pfaInput);
-            if (engine.method() != Method.EMIT()) {
-                output.addRowToTable(outputMapper.apply(row.getKey(), result));
+        long count = 0;
+
+        // Map engines have no state that carries over from one row to the next, so a newer version of the
+        // document that the reader publishes can take over between two batches
+        PFAPortObject version = pfa;
+        boolean swappable = engine.method() == Method.MAP();
+
+        ColumnBatch batch = inputConverter.createBatch(BatchInputConverter.DEFAULT_BATCH_SIZE);
+        Object[] pfaInputs = new Object[batch.capacity()];
+        Object[] fastOutputs = new Object[batch.capacity()];
+        try (CloseableRowIterator it = table.iterator()) {
+            while (true) {
+                PFAPortObject latest = swappable ? version.getLatestVersion() : version;
+                if (latest != version) {
+                    PFAEngine<Object, Object> next = seed(latest.createEngine());
+                    if (next.method() == Method.MAP()) {
+                        m_logger.info("Switching to a new version of the PFA document after " + count + " rows");
+                        engine.end();
+                        next.begin();
+                        engine = next;
+                        // Record input classes are generated for each engine
+                        inputConverter = createInputConverter(table.getDataTableSpec(), engine.inputClass(),
+                                engine.inputType().schema());
+                        batch = inputConverter.createBatch(BatchInputConverter.DEFAULT_BATCH_SIZE);
+                        rowMapper = createOutputMapper(engine);
+                        fastPath = recognizeFastPath(mode, engine, latest, table.getDataTableSpec(),
+                                inputConverter);
+                    }
+                    version = latest;
+                }
+                if (inputConverter.read(it, batch) == 0) {
+                    break;
+                }
+                exec.checkCanceled();
+                if (fastPath != null) {
+                    fastPath.score(batch, fastOutputs);
+                }
+                // The engine input is only assembled when at least one row of the batch needs the engine
+                boolean assembled = false;
+                for (int i = 0; i < batch.size(); i++) {
+                    Object result = fastPath == null ? null : fastOutputs[i];
+                    if (result == null || verify) {
+                        if (!assembled) {
+                            inputConverter.assemble(batch, pfaInputs);
+                            assembled = true;
+                        }
+                        Object engineResult = engine.action(pfaInputs[i]);
+                        if (result != null && !Objects.equals(result, engineResult)) {
+                            if (mismatches++ == 0) {
+                                m_logger.warn("Fast path result " + result + " differs from engine result "
+                                        + engineResult + " in row " + batch.getRowKey(i));
+                            }
+                        }
+                        result = engineResult;
+                    }
+                    if (engine.method() != Method.EMIT()) {
+                        output.addRowToTable(rowMapper.apply(batch.getRowKey(i), result));
+                    }
+                }
+                count += batch.size();
+                exec.setProgress((double) count / table.size());
             }
         }
 
         exec.setMessage(() -> "Running post-predictions PFA code.");
         engine.end();
+        
+        if (mismatches > 0) {
+            setWarningMessage("The native fast path differed from the PFA engine in " + mismatches
+                    + " rows. The results of the engine were used.");
+        }
 
         output.close();
         return output.getTable();
     }
 
+    /**
+     * Finds the fast path for a document. The fast path only depends on the document and the columns the
+     * converter reads, so the one found for the last document and table spec is reused.
+     */
+    private FastPathModel recognizeFastPath(final FastPathMode mode, final PFAEngine<?, ?> engine,
+            final PFAPortObject pfa, final DataTableSpec spec, final BatchInputConverter inputConverter) {
+        if (mode == FastPathMode.OFF || engine.method() != Method.MAP()) {
+            return null;
+        }
+        if (!pfa.getDigest().equals(m_recognizedDigest) || !spec.equals(m_recognizedSpec)) {
+            m_recognized = FastPaths.recognize(pfa.getJsonObject(), inputConverter);
+            m_recognizedDigest = pfa.getDigest();
+            m_recognizedSpec = spec;
+        }
+        FastPathModel fastPath = m_recognized;
+        if (fastPath != null) {
+            m_logger.info("Scoring " + fastPath.getDescription() + " natively");
+        }
+        return fastPath;
+    }
+
+    private boolean writesState(final PFAPortObject pfa) {
+        if (!pfa.getDigest().equals(m_stateDigest)) {
+            m_writesState = RandomSeeds.writesState(pfa.getJsonObject());
+            m_stateDigest = pfa.getDigest();
+        }
+        return m_writesState;
+    }
+
+    /**
+     * Scores the table in partitions of {@link RandomSeeds#PARTITION_SIZE} rows. The random generator
+     * of the engine scoring a partition is reset to a seed derived from the master seed and the partition index,
+     * so the output does not depend on the number of threads. Documents that write cells or pools are scored
+     * by a single engine, since their results depend on the order of the rows.
+     */
+    private BufferedDataTable runEnginePartitioned(final BufferedDataTable table, final PFAPortObject pfa,
+            final PFAEngine<Object, Object> engine, final ExecutionContext exec) throws Exception {
+        BatchInputConverter inputConverter = createInputConverter(table.getDataTableSpec(), engine.inputClass(),
+                engine.inputType().schema());
+        DataTableSpec outputSpec = KnimeAvroConverterRegistry.getInstance()
+                .dataTableSpecFromSchema(engine.outputType().schema(), m_colName.getStringValue());
+        BufferedDataContainer output = exec.createDataContainer(outputSpec);
+        BiFunction<RowKey, Object, DataRow> outputMapper = createOutputMapper(engine);
+        
+        int threads = m_threads.getIntValue();
+        if (threads > 1 && writesState(pfa)) {
+            setWarningMessage("The PFA document writes to cells or pools and is scored by a single thread.");
+            threads = 1;
+        }
+        exec.setMessage(() -> "Compiling PFA document.");
+        List<PFAEngine<Object, Object>> engines = threads == 1 ? Collections.singletonList(engine)
+                : pfa.createEngines(threads);
+        for (PFAEngine<Object, Object> e : engines) {
+            seed(e);
+        }
+        BlockingQueue<PFAEngine<Object, Object>> idle = new ArrayBlockingQueue<>(engines.size());
+        exec.setMessage(() -> "Running initializing PFA code.");
+        for (PFAEngine<Object, Object> e : engines) {
+            e.begin();
+            idle.add(e);
+        }
+
+        exec.setMessage(() -> "Running prediction PFA code.");
+        final long masterSeed = m_masterSeed.getIntValue();
+        ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(engines.size());
+        // Results are written in partition order, a bounded number of partitions is in flight at any time
+        Deque<Future<Object[]>> pending = new ArrayDeque<>();
+        Deque<RowKey[]> pendingKeys = new ArrayDeque<>();
+        ColumnBatch batch = inputConverter.createBatch(RandomSeeds.PARTITION_SIZE);
+        long partition = 0;
+        long count = 0;
+        try (CloseableRowIterator it = table.iterator()) {
+            while (inputConverter.read(it, batch) > 0) {
+                exec.checkCanceled();
+                final Object[] inputs = new Object[batch.size()];
+                inputConverter.assemble(batch, inputs);
+                RowKey[] keys = new RowKey[batch.size()];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = batch.getRowKey(i);
+                }
+                final long seed = RandomSeeds.partitionSeed(masterSeed, partition++);
+                pending.add(pool.enqueue(() -> {
+                    PFAEngine<Object, Object> e = idle.take();
+                    try {
+                        e.randomGenerator().setSeed(seed);
+                        Object[] results = new Object[inputs.length];
+                        for (int i = 0; i < inputs.length; i++) {
+                            results[i] = e.action(inputs[i]);
+                        }
+                        return results;
+                    } finally {
+                        idle.add(e);
+                    }
+                }));
+                pendingKeys.add(keys);
+                while (pending.size() >= 2 * engines.size()) {
+                    count += writePartition(pending.poll(), pendingKeys.poll(), output, outputMapper, exec);
+                    exec.setProgress((double) count / table.size());
+                }
+            }
+            while (!pending.isEmpty()) {
+                count += writePartition(pending.poll(), pendingKeys.poll(), output, outputMapper, exec);
+                exec.setProgress((double) count / table.size());
+            }
+        } finally {
+            for (Future<Object[]> f : pending) {
+                f.cancel(true);
+            }
+        }
+
+        exec.setMessage(() -> "Running post-predictions PFA code.");
+        for (PFAEngine<Object, Object> e : engines) {
+            e.end();
+        }
+        output.close();
+        return output.getTable();
+    }
+    
+    /**
+     * Seeds the random generator of an engine with the master seed if seeding is enabled, so that random numbers
+     * drawn in <code>begin</code> are reproducible as well. Seeding the generator keeps the port object, unlike
+     * setting the document's <code>randseed</code>, which would need a new document and compilation.
+     *
+     * @return the engine
+     */
+    private PFAEngine<Object, Object> seed(final PFAEngine<Object, Object> engine) {
+        if (m_seeded.getBooleanValue()) {
+            engine.randomGenerator().setSeed(m_masterSeed.getIntValue());
+        }
+        return engine;
+    }
+
+    private static int writePartition(final Future<Object[]> future, final RowKey[] keys,
+            final BufferedDataContainer output, final BiFunction<RowKey, Object, DataRow> outputMapper,
+            final ExecutionContext exec) throws Exception {
+        Object[] results;
+        // The waiting thread is not counted by the pool, so the partitions are scored even if the pool is saturated
+        try {
+            results = KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(() -> {
+                while (true) {
+                    exec.checkCanceled();
+                    try {
+                        return future.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // check for cancellation and wait again
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        throw cause instanceof Exception ? (Exception) cause : e;
+                    }
+                }
+            });
+        } catch (ExecutionException e) {
+            // runInvisible wraps every exception thrown while waiting
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+        for (int i = 0; i < results.length; i++) {
+            output.addRowToTable(outputMapper.apply(keys[i], results[i]));
+        }
+        return results.length;
+    }
+
     /**
      * Creates the output mapper.
      * 
@@ -327,55 +639,22 @@ private BiFunction<RowKey, Object, DataRow> createOutputMapper(final PFAEngine<?
     }
 
     /**
-     * Create the input mapper.
+     * Create the input converter.
      * 
      * @param spec the DataTableSpec describing the input
      * @param inputClass the input class of the PFA document
      * @param schema the Avro Schema describing the PFA document's input
-     * @return A function mapping data rows to objects for consumption of the PFA scoring engine
-     * @throws InvalidSettingsException when the input mappers cannot be created with the registered converters
+     * @return A converter turning blocks of data rows into objects for consumption of the PFA scoring engine
+     * @throws InvalidSettingsException when the input converters cannot be created with the registered converters
      */
-    private Function<DataRow, Object> createInputMapper(final DataTableSpec spec, final Class<?> inputClass,
+    private BatchInputConverter createInputConverter(final DataTableSpec spec, final Class<?> inputClass,
             final Schema schema) throws InvalidSettingsException {
         if (schema.getType().equals(Schema.Type.RECORD)) {
-            // Find registered column mappers for each column
-            final HashMap<String, Function<DataCell, Object>> columnMappers = new HashMap<>();
-            for (int i = 0; i < spec.getNumColumns(); i++) {
-                DataColumnSpec cs = spec.getColumnSpec(i);
-                Schema colSchema = schema.getField(cs.getName()).schema();
-                Function<DataCell, Object> mapper = KnimeAvroConverterRegistry.getInstance()
-                        .createCellToPFAMapper(cs.getType(), colSchema);
-                columnMappers.put(cs.getName(), mapper);
-            }
-            // Function that creates a PFA record from a row
-            return row -> {
-                PFARecord rec;
-                try {
-                    rec = (PFARecord) inputClass.newInstance();
-                } catch (Exception e) {
-                    m_logger.error(e);
-                    return null;
-                }
-                for (String fn : rec.fieldNames()) {
-                    rec.put(fn, columnMappers.get(fn).apply(row.getCell(spec.findColumnIndex(fn))));
-                }
-                return rec;
-            };
+            // Each field of the record is read from the column with the same name
+            return BatchInputConverter.forRecord(spec, schema, inputClass);
         } else if (schema.getType().equals(Schema.Type.MAP)) {
             // We turn each row into a map where the column names are the keys and the cell contents the values
-            Map<String, Function<DataCell, Object>> colMappers = new HashMap<>();
-            for (String col : spec.getColumnNames()) {
-                colMappers.put(col, KnimeAvroConverterRegistry.getInstance()
-                        .createCellToPFAMapper(spec.getColumnSpec(col).getType(), schema.getValueType()));
-            }
-            // Function that creates a PFA map from a row
-            return row -> {
-                PFAMap<Object> map = PFAMap.empty();
-                for (String col : spec.getColumnNames()) {
-                    map.put(col, colMappers.get(col).apply(row.getCell(spec.findColumnIndex(col))));
-                }
-                return map;
-            };
+            return BatchInputConverter.forMap(spec, schema);
         } else {
             // For primitive types we need to find the column to process
             String columnName = m_inputCol.getStringValue();
@@ -401,9 +680,10 @@ private Function<DataRow, Object> createInputMapper(final DataTableSpec spec, fi
             }
             
             final int index = spec.findColumnIndex(columnName);
-            final Function<DataCell, Object> mapper = KnimeAvroConverterRegistry.getInstance()
-                    .createCellToPFAMapper(spec.getColumnSpec(index).getType(), schema);
-            return row -> mapper.apply(row.getCell(index));
+            if (index < 0) {
+                throw new InvalidSettingsException("The input column \"" + columnName + "\" does not exist");
+            }
+            return BatchInputConverter.forColumn(spec, index, schema);
         }
     }
 
@@ -440,6 +720,10 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
     protected void saveSettingsTo(final NodeSettingsWO settings) {
         m_colName.saveSettingsTo(settings);
         m_inputCol.saveSettingsTo(settings);
+        m_fastPath.saveSettingsTo(settings);
+        m_seeded.saveSettingsTo(settings);
+        m_masterSeed.saveSettingsTo(settings);
+        m_threads.saveSettingsTo(settings);
     }
 
     /**
@@ -449,6 +733,15 @@ protected void saveSettingsTo(final NodeSettingsWO settings) {
     protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
         m_colName.loadSettingsFrom(settings);
         m_inputCol.loadSettingsFrom(settings);
+        // The fast path setting was added later, older workflows use the default
+        if (settings.containsKey(CFG_FAST_PATH)) {
+            m_fastPath.loadSettingsFrom(settings);
+        }
+        if (settings.containsKey(CFG_SEEDED)) {
+            m_seeded.loadSettingsFrom(settings);
+            m_masterSeed.loadSettingsFrom(settings);
+            m_threads.loadSettingsFrom(settings);
+        }
     }
 
     /**
@@ -458,6 +751,14 @@ protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws I
     protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
         m_colName.validateSettings(settings);
         m_inputCol.validateSettings(settings);
+        if (settings.containsKey(CFG_FAST_PATH)) {
+            m_fastPath.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_SEEDED)) {
+            m_seeded.validateSettings(settings);
+            m_masterSeed.validateSettings(settings);
+            m_threads.validateSettings(settings);
+        }
     }
 
     /**
@@ -0,0 +1,219 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.knime.core.node.NodeLogger;
+
+import de.unikn.knime.pfa.engine.PFAEngineCache;
+import de.unikn.knime.pfa.node.port.PFAPortObject;
+
+/**
+ * Process-wide cache of the port objects loaded by PFA Reader nodes, so that readers of the same unchanged file
+ * share one loaded document. An entry is valid as long as the file's size and modification time are unchanged.
+ * If they changed, the file is read again, but the document is only parsed if the content's digest differs,
+ * e.g. not for a file that was merely touched or copied over with identical content.
+ * <p>
+ * The cache is bounded by the total size of the cached documents, separately for documents on the heap and for
+ * large documents that are memory-mapped from temporary files (see {@link PFAPortObject#isDocumentMapped()}).
+ * Mapped documents only occupy address space and disk, so their bound is much higher. The bounds can be set in
+ * megabytes with the system properties {@value #MAX_MEMORY_PROPERTY} and {@value #MAX_MAPPED_PROPERTY}. The
+ * least recently used documents are evicted first. A document exceeding a bound on its own is not cached.
+ *
+ * @author agent
+ */
+final class ModelCache {
+
+    /** System property for the maximum total size of cached documents in megabytes, 0 disables the cache. */
+    static final String MAX_MEMORY_PROPERTY = "knime.pfa.readerCache.maxMemoryMB";
+
+    /** System property for the maximum total size of cached memory-mapped documents in megabytes. */
+    static final String MAX_MAPPED_PROPERTY = "knime.pfa.readerCache.maxMappedMB";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ModelCache.class);
+
+    private static final ModelCache INSTANCE = new ModelCache(Long.getLong(MAX_MEMORY_PROPERTY, 256L) << 20,
+        Long.getLong(MAX_MAPPED_PROPERTY, 4096L) << 20);
+
+    private final long m_maxHeapBytes;
+    private final long m_maxMappedBytes;
+    // Ordered by last access, so iteration starts with the least recently used document
+    private final LinkedHashMap<String, Entry> m_entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long m_heapBytes;
+    private long m_mappedBytes;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxHeapBytes the maximum total size of the cached documents on the heap
+     * @param maxMappedBytes the maximum total size of the cached memory-mapped documents
+     */
+    ModelCache(final long maxHeapBytes, final long maxMappedBytes) {
+        m_maxHeapBytes = maxHeapBytes;
+        m_maxMappedBytes = maxMappedBytes;
+    }
+
+    /**
+     * @return the process-wide cache
+     */
+    static ModelCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads a document, or returns the port object of an earlier load if the file did not change.
+     *
+     * @param file the model file
+     * @param archiveEntry the document in a zip archive, see {@link ModelFile#read(Path, String)}
+     * @param optimize whether the document is optimized, which is part of the key since it changes the result
+     * @param loader creates the port object from the content of the file
+     * @return the port object for the document
+     * @throws Exception if the file cannot be read or the loader fails
+     */
+    PFAPortObject get(final Path file, final String archiveEntry, final boolean optimize, final Loader loader)
+            throws Exception {
+        Path path = file.toAbsolutePath().normalize();
+        String key = path + "!" + archiveEntry + (optimize ? "!optimized" : "");
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+        Entry cached;
+        synchronized (this) {
+            cached = m_entries.get(key);
+        }
+        if (cached != null && cached.m_size == size && cached.m_modified == modified) {
+            return cached.m_portObject;
+        }
+        byte[] content = ModelFile.read(path, archiveEntry);
+        String digest = PFAEngineCache.digest(content);
+        PFAPortObject portObject = cached != null && cached.m_digest.equals(digest) ? cached.m_portObject
+            : loader.load(content);
+        put(key, new Entry(size, modified, digest, portObject, content.length, portObject.isDocumentMapped()));
+        return portObject;
+    }
+
+    private synchronized void put(final String key, final Entry entry) {
+        Entry old = m_entries.remove(key);
+        if (old != null) {
+            count(old, -1);
+        }
+        long max = entry.m_mapped ? m_maxMappedBytes : m_maxHeapBytes;
+        if (entry.m_bytes > max) {
+            if (max > 0) {
+                String kind = entry.m_mapped ? "memory-mapped" : "heap";
+                LOGGER.debug("PFA document " + key + " is not cached, its size of " + entry.m_bytes
+                    + " bytes exceeds the limit of " + max + " bytes for " + kind + " documents");
+            }
+            return;
+        }
+        m_entries.put(key, entry);
+        count(entry, 1);
+        // Only entries of a kind that exceeds its bound are evicted; once a kind is within its bound, it stays so
+        Iterator<Entry> it = m_entries.values().iterator();
+        while (m_heapBytes > m_maxHeapBytes || m_mappedBytes > m_maxMappedBytes) {
+            Entry e = it.next();
+            if (e.m_mapped ? m_mappedBytes > m_maxMappedBytes : m_heapBytes > m_maxHeapBytes) {
+                it.remove();
+                count(e, -1);
+            }
+        }
+    }
+
+    private void count(final Entry entry, final int sign) {
+        if (entry.m_mapped) {
+            m_mappedBytes += sign * entry.m_bytes;
+        } else {
+            m_heapBytes += sign * entry.m_bytes;
+        }
+    }
+
+    /**
+     * @return the number of cached documents
+     */
+    synchronized int size() {
+        return m_entries.size();
+    }
+
+    /**
+     * Creates a port object from the content of a model file.
+     */
+    @FunctionalInterface
+    interface Loader {
+        /**
+         * @param content the decompressed content of the file
+         * @return the port object for the document
+         * @throws Exception if the document cannot be loaded
+         */
+        PFAPortObject load(byte[] content) throws Exception;
+    }
+
+    private static final class Entry {
+        private final long m_size;
+        private final long m_modified;
+        private final String m_digest;
+        private final PFAPortObject m_portObject;
+        private final long m_bytes;
+        private final boolean m_mapped;
+
+        Entry(final long size, final long modified, final String digest, final PFAPortObject portObject,
+                final long bytes, final boolean mapped) {
+            m_size = size;
+            m_modified = modified;
+            m_digest = digest;
+            m_portObject = portObject;
+            m_bytes = bytes;
+            m_mapped = mapped;
+        }
+    }
+}
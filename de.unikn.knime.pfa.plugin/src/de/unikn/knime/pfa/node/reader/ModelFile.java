@@ -0,0 +1,250 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Reads the content of a model file, which may be a plain PFA document, a gzip compressed document or a zip
+ * archive containing documents. The format is detected from the file's first bytes, not from its extension.
+ * Compressed content is decompressed while it is read, nothing is extracted to disk.
+ *
+ * @author agent
+ */
+final class ModelFile {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAX_SIZE_HINT = 1 << 28;
+
+    private static final byte[] GZIP_MAGIC = {0x1F, (byte)0x8B};
+    private static final byte[] ZIP_MAGIC = {0x50, 0x4B, 0x03, 0x04};
+    private static final byte[] ZSTD_MAGIC = {0x28, (byte)0xB5, 0x2F, (byte)0xFD};
+
+    private ModelFile() {
+    }
+
+    /**
+     * Reads the complete, decompressed content of a model file.
+     *
+     * @param file the file
+     * @param entry the name of the document in a zip archive, may be empty if the archive contains one document
+     * @return the content of the document
+     * @throws IOException if the file cannot be read or its format is not supported
+     */
+    static byte[] read(final Path file, final String entry) throws IOException {
+        byte[] magic = magic(file);
+        if (startsWith(magic, ZIP_MAGIC) || startsWith(magic, GZIP_MAGIC) || startsWith(magic, ZSTD_MAGIC)) {
+            try (InputStream in = open(file, entry)) {
+                // Models compress well, but the buffer should not be huge for a misjudged ratio
+                return readFully(in, (int)Math.min(Files.size(file) * 4, MAX_SIZE_HINT));
+            }
+        }
+        // Reading through a mapping avoids the intermediate buffers of a stream for documents of hundreds of MB
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("PFA documents larger than 2 GB are not supported.");
+            }
+            byte[] content = new byte[(int)size];
+            channel.map(FileChannel.MapMode.READ_ONLY, 0, size).get(content);
+            return content;
+        }
+    }
+
+    /**
+     * Opens a stream over the decompressed content of a model file.
+     *
+     * @param file the file
+     * @param entry the name of the document in a zip archive, may be empty if the archive contains one document
+     * @return a buffered stream over the content of the document
+     * @throws IOException if the file cannot be read or its format is not supported
+     */
+    static InputStream open(final Path file, final String entry) throws IOException {
+        if (!startsWith(magic(file), ZIP_MAGIC)) {
+            return decompress(Files.newInputStream(file));
+        }
+        ZipFile zip = new ZipFile(file.toFile());
+        try {
+            InputStream in = decompress(zip.getInputStream(findEntry(zip, entry)));
+            return new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        zip.close();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a document is JSON rather than YAML, by its first character.
+     *
+     * @param content the content of the document
+     * @return true if the document starts with an object
+     */
+    static boolean isJson(final byte[] content) {
+        for (int i = 0; i < content.length; i++) {
+            byte b = content[i];
+            // Skip whitespace and the byte order mark
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == (byte)0xEF || b == (byte)0xBB
+                    || b == (byte)0xBF) {
+                continue;
+            }
+            return b == '{';
+        }
+        return false;
+    }
+
+    private static ZipEntry findEntry(final ZipFile zip, final String name) throws IOException {
+        if (!StringUtils.isEmpty(name)) {
+            ZipEntry entry = zip.getEntry(name);
+            if (entry == null) {
+                throw new IOException("The archive does not contain the entry \"" + name + "\".");
+            }
+            return entry;
+        }
+        List<ZipEntry> files = new ArrayList<>();
+        List<ZipEntry> documents = new ArrayList<>();
+        for (ZipEntry entry : Collections.list(zip.entries())) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            files.add(entry);
+            String lower = entry.getName().toLowerCase();
+            if (lower.endsWith(".json") || lower.endsWith(".yaml") || lower.endsWith(".pfa")
+                    || lower.endsWith(".gz")) {
+                documents.add(entry);
+            }
+        }
+        if (files.size() == 1) {
+            return files.get(0);
+        }
+        if (documents.size() == 1) {
+            return documents.get(0);
+        }
+        throw new IOException("The archive contains " + files.size()
+            + " files, please specify the entry to read.");
+    }
+
+    private static InputStream decompress(final InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        byte[] magic = peek(buffered);
+        if (startsWith(magic, GZIP_MAGIC)) {
+            return decompress(new GZIPInputStream(buffered, BUFFER_SIZE));
+        }
+        if (startsWith(magic, ZSTD_MAGIC)) {
+            buffered.close();
+            throw new IOException("Zstandard compressed PFA documents are not supported, please use gzip.");
+        }
+        return buffered;
+    }
+
+    private static byte[] magic(final Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return peek(new BufferedInputStream(in, ZIP_MAGIC.length));
+        }
+    }
+
+    private static byte[] peek(final BufferedInputStream in) throws IOException {
+        byte[] magic = new byte[ZIP_MAGIC.length];
+        in.mark(magic.length);
+        int n = 0;
+        while (n < magic.length) {
+            int r = in.read(magic, n, magic.length - n);
+            if (r < 0) {
+                break;
+            }
+            n += r;
+        }
+        in.reset();
+        return n == magic.length ? magic : new byte[0];
+    }
+
+    private static boolean startsWith(final byte[] bytes, final byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] readFully(final InputStream in, final int sizeHint) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, sizeHint));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.node.NodeLogger;
+
+import de.unikn.knime.pfa.node.port.ModelUpdates;
+import de.unikn.knime.pfa.node.port.PFAPortObject;
+
+/**
+ * Watches a model file and publishes every new version of the document on a {@link ModelUpdates} channel, after
+ * compiling it in the background. Changes are noticed through a {@link WatchService} on the file's directory
+ * and, for file systems that do not report changes, by comparing the file's size and modification time every
+ * {@value #POLL_SECONDS} seconds.
+ * <p>
+ * A watcher belongs to one execution of a reader node, which closes it when it is reset, configured again or
+ * disposed. Once closed, nothing is published anymore, even if a reload is still running.
+ *
+ * @author agent
+ */
+final class ModelWatcher implements Closeable {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ModelWatcher.class);
+
+    private static final long POLL_SECONDS = 5;
+
+    // Writers often replace a file in several steps, so reloading waits until the file is stable for this long
+    private static final long SETTLE_MILLIS = 500;
+
+    private final Path m_file;
+    private final String m_updates;
+    private final ModelLoader m_loader;
+    private final WatchService m_watchService;
+    private final Thread m_thread;
+    private volatile boolean m_closed;
+    private long m_size;
+    private long m_modified;
+    private PFAPortObject m_current;
+
+    /**
+     * Starts watching a file.
+     *
+     * @param file the model file
+     * @param current the currently loaded version of the document
+     * @param updates the id of the channel new versions are published on
+     * @param loader loads the document from the file
+     * @throws IOException if the file's attributes cannot be read
+     */
+    ModelWatcher(final Path file, final PFAPortObject current, final String updates, final ModelLoader loader)
+            throws IOException {
+        m_file = file.toAbsolutePath().normalize();
+        m_current = current;
+        m_updates = updates;
+        m_loader = loader;
+        BasicFileAttributes attrs = Files.readAttributes(m_file, BasicFileAttributes.class);
+        m_size = attrs.size();
+        m_modified = attrs.lastModifiedTime().toMillis();
+        m_watchService = createWatchService(m_file.getParent());
+        m_thread = new Thread(this::run, "PFA model watcher " + m_file.getFileName());
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    private static WatchService createWatchService(final Path dir) {
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return service;
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.debug("Changes of " + dir + " are detected by polling: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (m_watchService == null) {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(POLL_SECONDS));
+                } else {
+                    WatchKey key = m_watchService.poll(POLL_SECONDS, TimeUnit.SECONDS);
+                    if (key != null) {
+                        // Events of other files in the directory are ignored by the attribute check below
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+                if (changed()) {
+                    Thread.sleep(SETTLE_MILLIS);
+                    while (changed()) {
+                        Thread.sleep(SETTLE_MILLIS);
+                    }
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private boolean changed() {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(m_file, BasicFileAttributes.class);
+            long size = attrs.size();
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (size == m_size && modified == m_modified) {
+                return false;
+            }
+            m_size = size;
+            m_modified = modified;
+            return true;
+        } catch (IOException e) {
+            // The file is being replaced
+            return false;
+        }
+    }
+
+    private void reload() throws InterruptedException {
+        try {
+            PFAPortObject version = m_loader.load();
+            if (version == m_current) {
+                return;
+            }
+            Future<?> compiled = version.precompile();
+            if (compiled != null) {
+                compiled.get();
+            }
+            if (m_closed) {
+                return;
+            }
+            m_current = version;
+            ModelUpdates.publish(m_updates, version);
+            LOGGER.info("Published new version of " + m_file);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.warn("Changed PFA model " + m_file + " cannot be loaded, the previous version stays in use: "
+                + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        m_closed = true;
+        m_thread.interrupt();
+        if (m_watchService != null) {
+            try {
+                m_watchService.close();
+            } catch (IOException e) {
+                // Nothing to clean up
+            }
+        }
+        ModelUpdates.unregister(m_updates);
+    }
+
+    /**
+     * Loads the current version of the watched document.
+     */
+    @FunctionalInterface
+    interface ModelLoader {
+        /**
+         * @return the port object for the document
+         * @throws Exception if the document cannot be loaded
+         */
+        PFAPortObject load() throws Exception;
+    }
+}
@@ -48,7 +48,9 @@
 package de.unikn.knime.pfa.node.reader;
 
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
+import org.knime.core.node.defaultnodesettings.DialogComponentString;
 
 /**
  * PFA Reader Node Dialog.
@@ -65,6 +67,12 @@ public class PFAReaderNodeDialog extends DefaultNodeSettingsPane {
     protected PFAReaderNodeDialog() {
         super();
         addDialogComponent(new DialogComponentFileChooser(PFAReaderNodeModel.createPfaPathModel(),
-                PFA_FILE_HISTORY_ID, ".pfa|.yaml|.json"));
+                PFA_FILE_HISTORY_ID, ".pfa|.yaml|.json|.gz|.zip"));
+        addDialogComponent(new DialogComponentString(PFAReaderNodeModel.createArchiveEntryModel(),
+                "Entry in zip archive"));
+        addDialogComponent(new DialogComponentBoolean(PFAReaderNodeModel.createWatchModel(),
+                "Watch file for new versions"));
+        addDialogComponent(new DialogComponentBoolean(PFAReaderNodeModel.createOptimizeModel(),
+                "Optimize document before compilation"));
     }
 }
@@ -48,9 +48,12 @@
 package de.unikn.knime.pfa.node.reader;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 
 import javax.json.JsonException;
 
@@ -60,9 +63,11 @@
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
@@ -70,7 +75,10 @@
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.util.FileUtil;
 
+import de.unikn.knime.pfa.node.port.ModelUpdates;
+import de.unikn.knime.pfa.node.port.PFADocumentOptimizer;
 import de.unikn.knime.pfa.node.port.PFAPortObject;
+import de.unikn.knime.pfa.node.port.PFAPortObjectSpec;
 
 /**
  * Reads the PFA model function and outputs it as a {@link PFAPortObject}.
@@ -85,6 +93,14 @@ public class PFAReaderNodeModel extends NodeModel {
      * the dialog).
      */
     static final String CONFIGNAME_PFA = "PfaFilePath";
+    
+    private static final String CONFIGNAME_OPTIMIZE = "optimize";
+
+    private static final String CONFIGNAME_ARCHIVE_ENTRY = "archiveEntry";
+
+    private static final String CONFIGNAME_WATCH = "watch";
+    
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PFAReaderNodeModel.class);
 
     /**
      * Creates a SettingsModelString object for the PFA file.
@@ -95,8 +111,40 @@ public static SettingsModelString createPfaPathModel() {
         return new SettingsModelString(CONFIGNAME_PFA, null);
     }
 
+    /**
+     * Creates a SettingsModelBoolean object for the optimization of the document.
+     * 
+     * @return A SettingsModelBoolean for storing whether the document is optimized
+     */
+    public static SettingsModelBoolean createOptimizeModel() {
+        return new SettingsModelBoolean(CONFIGNAME_OPTIMIZE, true);
+    }
+
+    /**
+     * Creates a SettingsModelString object for the entry to read from a zip archive.
+     * 
+     * @return A SettingsStringModel for storing the entry, empty to read the only document in the archive
+     */
+    public static SettingsModelString createArchiveEntryModel() {
+        return new SettingsModelString(CONFIGNAME_ARCHIVE_ENTRY, "");
+    }
+
+    /**
+     * Creates a SettingsModelBoolean object for watching the file for new versions of the document.
+     * 
+     * @return A SettingsModelBoolean for storing whether the file is watched
+     */
+    public static SettingsModelBoolean createWatchModel() {
+        return new SettingsModelBoolean(CONFIGNAME_WATCH, false);
+    }
+
     // Holds the setting for the PFA file
     private final SettingsModelString m_pfa = createPfaPathModel();
+    private final SettingsModelBoolean m_optimize = createOptimizeModel();
+    private final SettingsModelString m_archiveEntry = createArchiveEntryModel();
+    private final SettingsModelBoolean m_watch = createWatchModel();
+    // Publishes new versions of the document while the node is executed and watches its file
+    private ModelWatcher m_watcher;
 
     /**
      * Constructor for the node model.
@@ -111,31 +159,65 @@ protected PFAReaderNodeModel() {
     @Override
     protected PortObject[] execute(final PortObject[] inData, final ExecutionContext exec) throws Exception {
         String file = m_pfa.getStringValue();
-        PFAPortObject o = null;
 
         CheckUtils.checkSourceFile(file);
         URL url = FileUtil.toURL(file);
-        String res = FileUtil.resolveToPath(url).toString();
-        String extension = FilenameUtils.getExtension(res);
-        FileInputStream fis = new FileInputStream(res);
-        
-        if (extension.equals("json")) {
-            o = PFAPortObject.loadFromJson(fis);
-        } else if (extension.equals("yaml")) {
-            o = PFAPortObject.loadFromYaml(fis);
+        Path res = FileUtil.resolveToPath(url);
+        boolean optimize = m_optimize.getBooleanValue();
+        String entry = m_archiveEntry.getStringValue();
+        // Other readers of the same file may have loaded it already
+        PFAPortObject o =
+            ModelCache.getInstance().get(res, entry, optimize, content -> load(content, res, optimize));
+        if (m_watch.getBooleanValue()) {
+            stopWatching();
+            String updates = ModelUpdates.register(o);
+            m_watcher = new ModelWatcher(res, o, updates,
+                () -> ModelCache.getInstance().get(res, entry, optimize, content -> load(content, res, optimize)));
+            o = o.withUpdates(updates);
+        }
+        // Downstream nodes are likely still waiting for their data, so the compilation can run meanwhile
+        o.precompile();
+
+        return new PortObject[] {o};
+    }
+    
+    /**
+     * Creates the port object for the content of a model file.
+     *
+     * @param content the decompressed content of the file
+     * @param file the file, side files of the document are resolved against its directory
+     * @param optimize whether the document is optimized
+     * @return the port object
+     * @throws IOException if the document cannot be read
+     * @throws InvalidSettingsException if the content is no JSON or YAML document or a side file is missing
+     */
+    static PFAPortObject load(final byte[] content, final Path file, final boolean optimize)
+            throws IOException, InvalidSettingsException {
+        PFAPortObject o;
+        if (ModelFile.isJson(content)) {
+            o = PFAPortObject.loadFromJson(content);
         } else {
             try {
-                o = PFAPortObject.loadFromJson(fis);
-            } catch (JsonException e1) {
-                try {
-                    o = PFAPortObject.loadFromYaml(fis);
-                } catch (IOException e2) {
-                    throw new InvalidSettingsException("The given file cannot be loaded neither as JSON nor YAML.");
-                }
+                o = PFAPortObject.loadFromYaml(content);
+            } catch (IOException | RuntimeException e) {
+                throw new InvalidSettingsException("The given file cannot be loaded neither as JSON nor YAML.", e);
             }
         }
+        // Large cell and pool values may live in separate files next to the document
+        o = SideData.link(o, content, file.getParent());
+        return optimize ? optimize(o) : o;
+    }
 
-        return new PortObject[] {o};
+    private static PFAPortObject optimize(final PFAPortObject o) {
+        try {
+            PFAPortObject optimized = PFADocumentOptimizer.optimize(o);
+            LOGGER.debug(optimized.getOptimizationReport().toString());
+            return optimized;
+        } catch (RuntimeException e) {
+            // Malformed documents are reported by the engine, so we hand them on unchanged
+            LOGGER.warn("The PFA document could not be optimized: " + e.getMessage(), e);
+            return o;
+        }
     }
 
     /**
@@ -143,7 +225,22 @@ protected PortObject[] execute(final PortObject[] inData, final ExecutionContext
      */
     @Override
     protected void reset() {
-        // No-op
+        stopWatching();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onDispose() {
+        stopWatching();
+    }
+
+    private void stopWatching() {
+        if (m_watcher != null) {
+            m_watcher.close();
+            m_watcher = null;
+        }
     }
 
     /**
@@ -151,6 +248,8 @@ protected void reset() {
      */
     @Override
     protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+        // A watcher belongs to the execution it was started by, the next one starts its own
+        stopWatching();
         String file = m_pfa.getStringValue();
         if (StringUtils.isEmpty(file)) {
             throw new InvalidSettingsException("No PFA file selected");
@@ -160,7 +259,37 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
         if (warning != null) {
             setWarningMessage(warning);
         }
-        return new PortObjectSpec[] {null};
+        return new PortObjectSpec[] {scanSpec(file, m_archiveEntry.getStringValue())};
+    }
+
+    /**
+     * Determines the spec from the beginning of a local JSON file.
+     *
+     * @return the spec or null if it is only known after reading the whole document
+     */
+    private static PFAPortObjectSpec scanSpec(final String file, final String entry)
+            throws InvalidSettingsException {
+        Path path;
+        try {
+            path = FileUtil.resolveToPath(FileUtil.toURL(file));
+        } catch (IOException | URISyntaxException | InvalidPathException e) {
+            return null;
+        }
+        String extension = path == null ? null : FilenameUtils.getExtension(path.toString());
+        if (path == null || extension.equals("yaml") || !Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return SpecCache.get(path, entry);
+        } catch (IOException e) {
+            return null;
+        } catch (JsonException e) {
+            if (extension.equals("json")) {
+                throw new InvalidSettingsException("The PFA document is invalid: " + e.getMessage(), e);
+            }
+            // Files without the json extension may be YAML
+            return null;
+        }
     }
 
     /**
@@ -169,6 +298,9 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
     @Override
     protected void saveSettingsTo(final NodeSettingsWO settings) {
         m_pfa.saveSettingsTo(settings);
+        m_optimize.saveSettingsTo(settings);
+        m_archiveEntry.saveSettingsTo(settings);
+        m_watch.saveSettingsTo(settings);
     }
 
     /**
@@ -177,6 +309,18 @@ protected void saveSettingsTo(final NodeSettingsWO settings) {
     @Override
     protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
         m_pfa.loadSettingsFrom(settings);
+        // Workflows created before the optimizer existed keep reading the document unchanged
+        if (settings.containsKey(CONFIGNAME_OPTIMIZE)) {
+            m_optimize.loadSettingsFrom(settings);
+        } else {
+            m_optimize.setBooleanValue(false);
+        }
+        if (settings.containsKey(CONFIGNAME_ARCHIVE_ENTRY)) {
+            m_archiveEntry.loadSettingsFrom(settings);
+        }
+        if (settings.containsKey(CONFIGNAME_WATCH)) {
+            m_watch.loadSettingsFrom(settings);
+        }
     }
 
     /**
@@ -185,6 +329,15 @@ protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws I
     @Override
     protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
         m_pfa.validateSettings(settings);
+        if (settings.containsKey(CONFIGNAME_OPTIMIZE)) {
+            m_optimize.validateSettings(settings);
+        }
+        if (settings.containsKey(CONFIGNAME_ARCHIVE_ENTRY)) {
+            m_archiveEntry.validateSettings(settings);
+        }
+        if (settings.containsKey(CONFIGNAME_WATCH)) {
+            m_watch.validateSettings(settings);
+        }
     }
 
     /**
@@ -0,0 +1,315 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadPool;
+
+import de.unikn.knime.pfa.node.port.PFADataCell;
+
+/**
+ * Reads all PFA documents in a directory into a table with one {@link PFADataCell} per document. The files are
+ * read and validated in parallel, the rows are written in the order of the file paths.
+ *
+ * @author agent
+ */
+public class PFATableReaderNodeModel extends NodeModel {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PFATableReaderNodeModel.class);
+
+    private static final String CONFIGNAME_DIRECTORY = "directory";
+
+    private static final String CONFIGNAME_RECURSIVE = "recursive";
+
+    // The extensions the PFA Reader's file chooser offers
+    private static final Set<String> EXTENSIONS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("pfa", "json", "yaml", "yml", "gz", "zip")));
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    /**
+     * Creates a SettingsModelString object for the directory containing the PFA files.
+     *
+     * @return A SettingsModelString for storing the directory
+     */
+    public static SettingsModelString createDirectoryModel() {
+        return new SettingsModelString(CONFIGNAME_DIRECTORY, null);
+    }
+
+    /**
+     * Creates a SettingsModelBoolean object for reading the subdirectories, too.
+     *
+     * @return A SettingsModelBoolean for storing whether subdirectories are read
+     */
+    public static SettingsModelBoolean createRecursiveModel() {
+        return new SettingsModelBoolean(CONFIGNAME_RECURSIVE, false);
+    }
+
+    private final SettingsModelString m_directory = createDirectoryModel();
+    private final SettingsModelBoolean m_recursive = createRecursiveModel();
+
+    /**
+     * Constructor for the node model.
+     */
+    protected PFATableReaderNodeModel() {
+        super(0, 1);
+    }
+
+    private static DataTableSpec createSpec() {
+        DataTableSpecCreator creator = new DataTableSpecCreator();
+        creator.addColumns(new DataColumnSpecCreator("Path", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("PFA document", PFADataCell.TYPE).createSpec());
+        return creator.createSpec();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
+            throws Exception {
+        Path dir = resolveDirectory();
+        exec.setMessage(() -> "Listing PFA files.");
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(dir, m_recursive.getBooleanValue() ? Integer.MAX_VALUE : 1)) {
+            files = paths.filter(Files::isRegularFile)
+                .filter(p -> EXTENSIONS.contains(FilenameUtils.getExtension(p.toString()).toLowerCase()))
+                .sorted().collect(Collectors.toList());
+        }
+
+        BufferedDataContainer output = exec.createDataContainer(createSpec());
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(threads);
+        // Rows are written in file order, a bounded number of files is in flight at any time
+        Deque<Future<PFADataCell>> pending = new ArrayDeque<>();
+        exec.setMessage(() -> "Reading PFA files.");
+        int next = 0;
+        int done = 0;
+        int failed = 0;
+        try {
+            while (done < files.size()) {
+                while (next < files.size() && pending.size() < 4 * threads) {
+                    Path file = files.get(next++);
+                    pending.add(pool.enqueue(
+                        () -> PFADataCell.create(PFAReaderNodeModel.load(ModelFile.read(file, ""), file, false))));
+                }
+                Path file = files.get(done);
+                PFADataCell cell = await(pending.poll(), file, exec);
+                if (cell == null) {
+                    failed++;
+                } else {
+                    output.addRowToTable(new DefaultRow(RowKey.createRowKey((long) done),
+                        new StringCell(dir.relativize(file).toString()), cell));
+                }
+                done++;
+                exec.setProgress((double) done / files.size());
+            }
+        } finally {
+            for (Future<PFADataCell> f : pending) {
+                f.cancel(true);
+            }
+        }
+        output.close();
+        if (failed > 0) {
+            setWarningMessage(failed + " of " + files.size() + " files could not be read, see the log for details.");
+        }
+        return new BufferedDataTable[] {output.getTable()};
+    }
+
+    /**
+     * Waits for a file to be read.
+     *
+     * @return the cell or null if the file is no valid PFA document
+     */
+    private static PFADataCell await(final Future<PFADataCell> future, final Path file,
+            final ExecutionContext exec) throws Exception {
+        // The waiting thread is not counted by the pool, so the files are read even if the pool is saturated
+        try {
+            return KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(() -> {
+                while (true) {
+                    exec.checkCanceled();
+                    try {
+                        return future.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // check for cancellation and wait again
+                    } catch (ExecutionException e) {
+                        LOGGER.warn("The file " + file + " is skipped: " + e.getCause().getMessage(), e.getCause());
+                        return null;
+                    }
+                }
+            });
+        } catch (ExecutionException e) {
+            // runInvisible wraps every exception thrown while waiting
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private Path resolveDirectory() throws InvalidSettingsException {
+        String dir = m_directory.getStringValue();
+        if (StringUtils.isEmpty(dir)) {
+            throw new InvalidSettingsException("No directory selected");
+        }
+        Path path;
+        try {
+            path = FileUtil.resolveToPath(FileUtil.toURL(dir));
+        } catch (IOException | URISyntaxException | InvalidPathException e) {
+            throw new InvalidSettingsException("The directory " + dir + " cannot be resolved: " + e.getMessage(), e);
+        }
+        if (path == null || !Files.isDirectory(path)) {
+            throw new InvalidSettingsException("The directory " + dir + " does not exist or is not local.");
+        }
+        return path;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reset() {
+        // No-op
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
+        if (StringUtils.isEmpty(m_directory.getStringValue())) {
+            throw new InvalidSettingsException("No directory selected");
+        }
+        return new DataTableSpec[] {createSpec()};
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveSettingsTo(final NodeSettingsWO settings) {
+        m_directory.saveSettingsTo(settings);
+        m_recursive.saveSettingsTo(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_directory.loadSettingsFrom(settings);
+        m_recursive.loadSettingsFrom(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+        m_directory.validateSettings(settings);
+        m_recursive.validateSettings(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadInternals(final File internDir, final ExecutionMonitor exec)
+            throws IOException, CanceledExecutionException {
+        // No-op
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveInternals(final File internDir, final ExecutionMonitor exec)
+            throws IOException, CanceledExecutionException {
+        // No-op
+    }
+
+}
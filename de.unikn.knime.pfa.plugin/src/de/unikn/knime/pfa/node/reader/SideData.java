@@ -0,0 +1,368 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+
+import de.unikn.knime.pfa.node.port.PFAPortObject;
+
+/**
+ * Checks the initial values of cells and pools that are stored in files next to the document. PFA marks such
+ * cells and pools with <code>"source": "json"</code> or <code>"source": "avro"</code>, their <code>init</code> is
+ * then the URL of the file instead of the value, which the engine reads when it is created. The values stay in
+ * their files, so the document stays small. The files are memory-mapped and read in parallel when the document
+ * is loaded, which reports broken files early and leaves them in the operating system's cache for the engine.
+ * <p>
+ * A JSON file holds the value in PFA's JSON encoding, an Avro data file holds it as its first datum. Relative
+ * locations are resolved against the directory of the model file and replaced with file URLs, since the engine
+ * does not know that directory. Locations that are not local files are left to the engine.
+ *
+ * @author agent
+ */
+final class SideData {
+
+    private static final String SOURCE = "source";
+    private static final String INIT = "init";
+    private static final String JSON = "json";
+    private static final String AVRO = "avro";
+
+    private static final byte[] SOURCE_KEY = ('"' + SOURCE + '"').getBytes(StandardCharsets.US_ASCII);
+
+    private SideData() {
+    }
+
+    /**
+     * Checks and prefetches the side files of a document and makes their locations absolute.
+     *
+     * @param o the loaded document
+     * @param content the content of the model file, used to skip documents without side data cheaply
+     * @param dir the directory of the model file
+     * @return a port object with the locations of all local side files as file URLs, or the given one if they
+     *         already are
+     * @throws InvalidSettingsException if a side file cannot be read
+     */
+    static PFAPortObject link(final PFAPortObject o, final byte[] content, final Path dir)
+            throws InvalidSettingsException {
+        // YAML documents may write the key without quotes, they are rare enough to always be checked
+        if (ModelFile.isJson(content) && indexOf(content, SOURCE_KEY) < 0) {
+            return o;
+        }
+        JsonObject doc = o.getJsonObject();
+        Map<String, Future<String>> cells = load(doc.getJsonObject("cells"), dir);
+        Map<String, Future<String>> pools = load(doc.getJsonObject("pools"), dir);
+        // All files are checked before the document is rebuilt, also if no location changes
+        boolean changed = changed(doc.getJsonObject("cells"), cells) | changed(doc.getJsonObject("pools"), pools);
+        if (!changed) {
+            return o;
+        }
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        for (Map.Entry<String, JsonValue> e : doc.entrySet()) {
+            if (e.getKey().equals("cells") && !cells.isEmpty()) {
+                builder.add(e.getKey(), replace(doc.getJsonObject("cells"), cells));
+            } else if (e.getKey().equals("pools") && !pools.isEmpty()) {
+                builder.add(e.getKey(), replace(doc.getJsonObject("pools"), pools));
+            } else {
+                builder.add(e.getKey(), e.getValue());
+            }
+        }
+        return new PFAPortObject(builder.build());
+    }
+
+    /**
+     * Starts reading the side files of the given cells or pools.
+     *
+     * @return the URLs of the checked files by name of the cell or pool
+     */
+    private static Map<String, Future<String>> load(final JsonObject defs, final Path dir) {
+        Map<String, Future<String>> values = new LinkedHashMap<>();
+        if (defs == null) {
+            return values;
+        }
+        for (Map.Entry<String, JsonValue> e : defs.entrySet()) {
+            if (e.getValue().getValueType() != JsonValue.ValueType.OBJECT) {
+                continue;
+            }
+            JsonObject def = (JsonObject) e.getValue();
+            String source = def.getString(SOURCE, null);
+            JsonValue init = def.get(INIT);
+            if (!(JSON.equals(source) || AVRO.equals(source)) || !(init instanceof JsonString)) {
+                continue;
+            }
+            Path file = resolve(((JsonString) init).getString(), dir);
+            if (file == null) {
+                continue;
+            }
+            boolean avro = AVRO.equals(source);
+            values.put(e.getKey(), KNIMEConstants.GLOBAL_THREAD_POOL.enqueue((Callable<String>) () -> {
+                if (avro) {
+                    checkAvro(file);
+                } else {
+                    checkJson(file);
+                }
+                return file.toUri().toString();
+            }));
+        }
+        return values;
+    }
+
+    /**
+     * Waits for the side files of the given cells or pools to be checked.
+     *
+     * @return whether the location of any of them is not its file URL
+     */
+    private static boolean changed(final JsonObject defs, final Map<String, Future<String>> locations)
+            throws InvalidSettingsException {
+        boolean changed = false;
+        for (Map.Entry<String, Future<String>> e : locations.entrySet()) {
+            String location = get(e.getKey(), e.getValue());
+            changed |= !location.equals(defs.getJsonObject(e.getKey()).getString(INIT));
+        }
+        return changed;
+    }
+
+    private static JsonObject replace(final JsonObject defs, final Map<String, Future<String>> locations)
+            throws InvalidSettingsException {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        for (Map.Entry<String, JsonValue> e : defs.entrySet()) {
+            Future<String> location = locations.get(e.getKey());
+            if (location == null) {
+                builder.add(e.getKey(), e.getValue());
+                continue;
+            }
+            JsonObjectBuilder def = Json.createObjectBuilder();
+            for (Map.Entry<String, JsonValue> attr : ((JsonObject) e.getValue()).entrySet()) {
+                if (attr.getKey().equals(INIT)) {
+                    def.add(INIT, get(e.getKey(), location));
+                } else {
+                    def.add(attr.getKey(), attr.getValue());
+                }
+            }
+            builder.add(e.getKey(), def);
+        }
+        return builder.build();
+    }
+
+    private static String get(final String name, final Future<String> location) throws InvalidSettingsException {
+        try {
+            return location.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidSettingsException("Loading the initial value of " + name + " was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new InvalidSettingsException("The initial value of " + name + " cannot be loaded: "
+                    + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * @return the local file of a location or null if it does not denote one
+     */
+    private static Path resolve(final String location, final Path dir) {
+        try {
+            URI uri = new URI(location);
+            if (uri.getScheme() == null) {
+                return dir.resolve(location);
+            }
+            return "file".equalsIgnoreCase(uri.getScheme()) ? Paths.get(uri) : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // Windows paths and other plain file names
+            return dir.resolve(location);
+        }
+    }
+
+    private static MappedByteBuffer map(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Side files larger than 2 GB are not supported: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static void checkJson(final Path file) throws IOException {
+        // A bare value is wrapped in an array, since javax.json only reads objects and arrays
+        InputStream value = new BufferInputStream(map(file));
+        InputStream wrapped = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+            new ByteArrayInputStream(new byte[] {'['}), value, new ByteArrayInputStream(new byte[] {']'}))));
+        try (JsonReader reader = Json.createReader(wrapped)) {
+            if (reader.readArray().size() != 1) {
+                throw new IOException("The JSON file " + file + " does not contain a single value.");
+            }
+        }
+    }
+
+    private static void checkAvro(final Path file) throws IOException {
+        try (DataFileReader<Object> reader =
+                new DataFileReader<>(new BufferInput(map(file)), new GenericDatumReader<>())) {
+            if (!reader.hasNext()) {
+                throw new IOException("The Avro file " + file + " does not contain a value.");
+            }
+            reader.next();
+        }
+    }
+
+    private static int indexOf(final byte[] content, final byte[] key) {
+        outer:
+        for (int i = 0; i <= content.length - key.length; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (content[i + j] != key[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Streams the content of a mapped file.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer m_buffer;
+
+        BufferInputStream(final ByteBuffer buffer) {
+            m_buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return m_buffer.hasRemaining() ? m_buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (!m_buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, m_buffer.remaining());
+            m_buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return m_buffer.remaining();
+        }
+    }
+
+    /**
+     * Gives Avro random access to a mapped file.
+     */
+    private static final class BufferInput implements SeekableInput {
+
+        private final ByteBuffer m_buffer;
+
+        BufferInput(final ByteBuffer buffer) {
+            m_buffer = buffer;
+        }
+
+        @Override
+        public void seek(final long p) {
+            m_buffer.position((int) p);
+        }
+
+        @Override
+        public long tell() {
+            return m_buffer.position();
+        }
+
+        @Override
+        public long length() {
+            return m_buffer.limit();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (!m_buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, m_buffer.remaining());
+            m_buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // The mapping is released by the garbage collector
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by University of Konstanz, Germany
+ *  Website: https://www.bison.uni-konstanz.de
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ * 
+ * History
+ *   Oct 19, 2026 (agent): created
+ */
+package de.unikn.knime.pfa.node.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.json.JsonException;
+
+import de.unikn.knime.pfa.node.port.PFAPortObjectSpec;
+
+/**
+ * Specs of PFA files determined at configure time, keyed by the file's path and invalidated when its size or
+ * modification time changes. Configure runs often, e.g. for every change in the workflow, so a file is only
+ * scanned again if it was modified.
+ *
+ * @author agent
+ */
+final class SpecCache {
+
+    private static final int MAX_ENTRIES = 128;
+
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private SpecCache() {
+    }
+
+    /**
+     * Returns the spec of a JSON file, scanning the file with a streaming parser if it is not cached.
+     *
+     * @param file the JSON file, possibly compressed or archived
+     * @param entry the document in a zip archive, see {@link ModelFile#open(Path, String)}
+     * @return the spec of the document
+     * @throws IOException if the file cannot be read
+     * @throws JsonException if the document is not valid JSON or has no types
+     */
+    static PFAPortObjectSpec get(final Path file, final String entry) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        String key = path + "!" + entry;
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+        Entry cached = CACHE.get(key);
+        if (cached != null && cached.m_size == size && cached.m_modified == modified) {
+            return cached.m_spec;
+        }
+        PFAPortObjectSpec spec;
+        try (InputStream in = ModelFile.open(path, entry)) {
+            spec = PFAPortObjectSpec.scan(in);
+        }
+        if (CACHE.size() >= MAX_ENTRIES) {
+            CACHE.clear();
+        }
+        CACHE.put(key, new Entry(size, modified, spec));
+        return spec;
+    }
+
+    private static final class Entry {
+        private final long m_size;
+        private final long m_modified;
+        private final PFAPortObjectSpec m_spec;
+
+        Entry(final long size, final long modified, final PFAPortObjectSpec spec) {
+            m_size = size;
+            m_modified = modified;
+            m_spec = spec;
+        }
+    }
+}